@@ -0,0 +1,122 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+/** Benchmark for {@link JPLEphemeridesLoader} and {@link MappedJPLEphemeridesLoader} celestial bodies.
+ * <p>
+ * The reference ephemerides are the truncated DE405 files from the
+ * test resources, so results are reproducible offline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JPLEphemeridesBenchmark {
+
+    /** Number of dates per benchmark invocation. */
+    private static final int SAMPLES = 1000;
+
+    /** Body to evaluate. */
+    @Param({"SUN", "MOON", "MARS"})
+    private JPLEphemeridesLoader.EphemerisType type;
+
+    /** Indicator for using memory-mapped ephemerides instead of parsed ones. */
+    @Param({"false", "true"})
+    private boolean mapped;
+
+    /** Celestial body. */
+    private CelestialBody body;
+
+    /** Output frame. */
+    private Frame gcrf;
+
+    /** Dates within one day (mainly cache hits). */
+    private AbsoluteDate[] close;
+
+    /** Dates spread over the whole file (mainly cache misses). */
+    private AbsoluteDate[] spread;
+
+    @Setup(Level.Trial)
+    public void setUp() throws OrekitException, URISyntaxException {
+
+        Utils.setDataRoot("regular-data");
+        if (mapped) {
+            final File file = new File(JPLEphemeridesBenchmark.class.getClassLoader().
+                                       getResource("regular-data/de405-ephemerides/unxp0003.405").toURI());
+            body = new MappedJPLEphemeridesLoader(file, type).loadCelestialBody(type.name());
+        } else {
+            body = new JPLEphemeridesLoader("^unxp(\\d\\d\\d\\d)\\.405$", type).loadCelestialBody(type.name());
+        }
+        gcrf = FramesFactory.getGCRF();
+
+        // the unxp0003.405 file covers from 2002-12-16 to 2004-02-05
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 1, 1, 0, 0, 0.0, TimeScalesFactory.getTDB());
+        close  = new AbsoluteDate[SAMPLES];
+        spread = new AbsoluteDate[SAMPLES];
+        for (int i = 0; i < SAMPLES; ++i) {
+            close[i]  = t0.shiftedBy(i * 86.4);
+            // pseudo-random ordering over 360 days
+            spread[i] = t0.shiftedBy(((i * 7919) % SAMPLES) * 31104.0);
+        }
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void closeDates(final Blackhole blackhole) throws OrekitException {
+        for (final AbsoluteDate date : close) {
+            blackhole.consume(body.getPVCoordinates(date, gcrf));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void spreadDates(final Blackhole blackhole) throws OrekitException {
+        for (final AbsoluteDate date : spread) {
+            blackhole.consume(body.getPVCoordinates(date, gcrf));
+        }
+    }
+
+}
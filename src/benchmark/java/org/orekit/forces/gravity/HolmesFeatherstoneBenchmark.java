@@ -0,0 +1,229 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.TideSystem;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+/** Benchmark for {@link HolmesFeatherstoneAttractionModel} gradient kernels.
+ * <p>
+ * The gravity field is synthetic, with coefficients following Kaula rule,
+ * so results are reproducible offline for any degree. The consistency of
+ * the kernels with the field implementation is checked by the unit tests.
+ * </p>
+ * <p>
+ * Each kernel is paired with a baseline benchmark timing the previous per-call
+ * implementation, kept in {@link ReferenceHolmesFeatherstone}, on the same
+ * positions and degrees.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HolmesFeatherstoneBenchmark {
+
+    /** Number of positions per benchmark invocation. */
+    private static final int SAMPLES = 100;
+
+    /** Degree and order of the gravity field. */
+    @Param({"20", "60", "120"})
+    private int degree;
+
+    /** Gravity field provider. */
+    private NormalizedSphericalHarmonicsProvider provider;
+
+    /** Attraction model. */
+    private HolmesFeatherstoneAttractionModel model;
+
+    /** Reference per-call implementation. */
+    private ReferenceHolmesFeatherstone reference;
+
+    /** Evaluation positions in body frame. */
+    private Vector3D[] positions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws OrekitException {
+
+        provider  = new KaulaProvider(degree);
+        model     = new HolmesFeatherstoneAttractionModel(FramesFactory.getGCRF(), provider);
+        reference = new ReferenceHolmesFeatherstone(provider);
+
+        final Random random = new Random(0x8a4b5e1c1d2f3e4aL);
+        positions = new Vector3D[SAMPLES];
+        for (int i = 0; i < positions.length; ++i) {
+            final double r      = Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 400000.0 + 1000000.0 * random.nextDouble();
+            final double lambda = 2 * FastMath.PI * random.nextDouble();
+            final double phi    = FastMath.asin(2 * random.nextDouble() - 1);
+            positions[i] = new Vector3D(r, new Vector3D(lambda, phi));
+        }
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void gradient(final Blackhole blackhole) throws OrekitException {
+        for (final Vector3D position : positions) {
+            blackhole.consume(model.gradient(AbsoluteDate.J2000_EPOCH, position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void gradientBaseline(final Blackhole blackhole) throws OrekitException {
+        for (final Vector3D position : positions) {
+            blackhole.consume(reference.gradient(AbsoluteDate.J2000_EPOCH, position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void gradientHessian(final Blackhole blackhole) throws OrekitException {
+        for (final Vector3D position : positions) {
+            blackhole.consume(model.gradientHessian(AbsoluteDate.J2000_EPOCH, position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void gradientHessianBaseline(final Blackhole blackhole) throws OrekitException {
+        for (final Vector3D position : positions) {
+            blackhole.consume(reference.gradientHessian(AbsoluteDate.J2000_EPOCH, position));
+        }
+    }
+
+    /** Synthetic gravity field following Kaula rule. */
+    private static class KaulaProvider implements NormalizedSphericalHarmonicsProvider {
+
+        /** Degree and order. */
+        private final int degree;
+
+        /** Normalized C<sub>n,m</sub> coefficients. */
+        private final double[][] c;
+
+        /** Normalized S<sub>n,m</sub> coefficients. */
+        private final double[][] s;
+
+        /** Simple constructor.
+         * @param degree degree and order
+         */
+        KaulaProvider(final int degree) {
+            this.degree = degree;
+            this.c      = new double[degree + 1][];
+            this.s      = new double[degree + 1][];
+            final Random random = new Random(0x1d3f5e7a9b2c4e6fL);
+            for (int n = 0; n <= degree; ++n) {
+                c[n] = new double[n + 1];
+                s[n] = new double[n + 1];
+                final double sigma = 1.0e-5 / (n * n + 1);
+                for (int m = 0; m <= n; ++m) {
+                    c[n][m] = n < 2 ? 0.0 : sigma * random.nextGaussian();
+                    s[n][m] = n < 2 || m == 0 ? 0.0 : sigma * random.nextGaussian();
+                }
+            }
+        }
+
+        /** {@inheritDoc} */
+        public int getMaxDegree() {
+            return degree;
+        }
+
+        /** {@inheritDoc} */
+        public int getMaxOrder() {
+            return degree;
+        }
+
+        /** {@inheritDoc} */
+        public double getMu() {
+            return Constants.EIGEN5C_EARTH_MU;
+        }
+
+        /** {@inheritDoc} */
+        public double getAe() {
+            return Constants.EIGEN5C_EARTH_EQUATORIAL_RADIUS;
+        }
+
+        /** {@inheritDoc} */
+        public AbsoluteDate getReferenceDate() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        public double getOffset(final AbsoluteDate date) {
+            return 0;
+        }
+
+        /** {@inheritDoc} */
+        public TideSystem getTideSystem() {
+            return TideSystem.UNKNOWN;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isConstant() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        public NormalizedSphericalHarmonics onDate(final AbsoluteDate date) {
+            return new NormalizedSphericalHarmonics() {
+
+                /** {@inheritDoc} */
+                public AbsoluteDate getDate() {
+                    return date;
+                }
+
+                /** {@inheritDoc} */
+                public double getNormalizedCnm(final int n, final int m) {
+                    return c[n][m];
+                }
+
+                /** {@inheritDoc} */
+                public double getNormalizedSnm(final int n, final int m) {
+                    return s[n][m];
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+
+/** Benchmark for {@link Frame#getTransformTo(Frame, AbsoluteDate)}.
+ * <p>
+ * The reference EOP data are the ones from the test resources,
+ * so results are reproducible offline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FrameTransformBenchmark {
+
+    /** Number of dates per benchmark invocation. */
+    private static final int SAMPLES = 1440;
+
+    /** Frames pair. */
+    @Param({"GCRF_ITRF", "GCRF_TEME", "TEME_ITRF"})
+    private String pair;
+
+    /** Time step between dates (s). */
+    @Param({"60"})
+    private double step;
+
+    /** Source frame. */
+    private Frame from;
+
+    /** Destination frame. */
+    private Frame to;
+
+    /** Evaluation dates. */
+    private AbsoluteDate[] dates;
+
+    @Setup(Level.Trial)
+    public void setUp() throws OrekitException {
+
+        Utils.setDataRoot("regular-data");
+
+        from = getFrame(pair.substring(0, pair.indexOf('_')));
+        to   = getFrame(pair.substring(pair.indexOf('_') + 1));
+
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 6, 1, 0, 0, 0.0, TimeScalesFactory.getUTC());
+        dates = new AbsoluteDate[SAMPLES];
+        for (int i = 0; i < dates.length; ++i) {
+            dates[i] = t0.shiftedBy(i * step);
+        }
+
+    }
+
+    /** Get a frame from its name.
+     * @param name frame name
+     * @return frame
+     * @exception OrekitException if frame cannot be built
+     */
+    private Frame getFrame(final String name) throws OrekitException {
+        switch (name) {
+            case "GCRF" :
+                return FramesFactory.getGCRF();
+            case "TEME" :
+                return FramesFactory.getTEME();
+            case "ITRF" :
+                return FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+            default :
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void getTransformTo(final Blackhole blackhole) throws OrekitException {
+        for (final AbsoluteDate date : dates) {
+            blackhole.consume(from.getTransformTo(to, date));
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+
+/** Benchmark for {@link TLEPropagator}, both near Earth (SGP4) and deep space (SDP4).
+ * <p>
+ * The reference TLE set is the verification set from the test resources
+ * (tle/extrapolationTest-data/SatCode-entry), so results are reproducible offline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TLEPropagatorBenchmark {
+
+    /** Number of evaluations per propagator and per benchmark invocation. */
+    private static final int SAMPLES = 144;
+
+    /** Time step between evaluations (s). */
+    private static final double STEP = 600.0;
+
+    /** Reference TLE. */
+    private List<TLE> tles;
+
+    /** Near Earth propagators. */
+    private List<TLEPropagator> sgp4;
+
+    /** Deep space propagators. */
+    private List<TLEPropagator> sdp4;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, OrekitException {
+
+        Utils.setDataRoot("regular-data");
+
+        tles = new ArrayList<TLE>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(TLEPropagatorBenchmark.class.
+                                                         getResourceAsStream("/tle/extrapolationTest-data/SatCode-entry"),
+                                                         StandardCharsets.UTF_8))) {
+            for (String line1 = reader.readLine(); line1 != null; line1 = reader.readLine()) {
+                if (line1.startsWith("1 ")) {
+                    tles.add(new TLE(line1, reader.readLine()));
+                }
+            }
+        }
+
+        sgp4 = new ArrayList<TLEPropagator>();
+        sdp4 = new ArrayList<TLEPropagator>();
+        for (final TLE tle : tles) {
+            final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
+            if (propagator instanceof SGP4) {
+                sgp4.add(propagator);
+            } else {
+                sdp4.add(propagator);
+            }
+        }
+
+    }
+
+    @Benchmark
+    public void selectExtrapolator(final Blackhole blackhole) throws OrekitException {
+        for (final TLE tle : tles) {
+            blackhole.consume(TLEPropagator.selectExtrapolator(tle));
+        }
+    }
+
+    @Benchmark
+    public void sgp4(final Blackhole blackhole) throws OrekitException {
+        evaluate(sgp4, blackhole);
+    }
+
+    @Benchmark
+    public void sdp4(final Blackhole blackhole) throws OrekitException {
+        evaluate(sdp4, blackhole);
+    }
+
+    /** Evaluate a list of propagators over one day.
+     * @param propagators propagators to evaluate
+     * @param blackhole sink for the results
+     * @exception OrekitException if a propagation fails
+     */
+    private void evaluate(final List<TLEPropagator> propagators, final Blackhole blackhole)
+        throws OrekitException {
+        for (final TLEPropagator propagator : propagators) {
+            for (int i = 0; i < SAMPLES; ++i) {
+                blackhole.consume(propagator.getPVCoordinates(propagator.getTLE().getDate().shiftedBy(i * STEP)));
+            }
+        }
+    }
+
+}
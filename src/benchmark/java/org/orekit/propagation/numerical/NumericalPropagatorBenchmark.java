@@ -0,0 +1,115 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.numerical;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.GRGSFormatReader;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+/** Benchmark for {@link NumericalPropagator} with a {@link HolmesFeatherstoneAttractionModel}.
+ * <p>
+ * The reference data (EOP and GRIM4-S4 gravity field) are the ones
+ * from the test resources, so results are reproducible offline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NumericalPropagatorBenchmark {
+
+    /** Degree and order of the gravity field. */
+    @Param({"4", "20", "69"})
+    private int degree;
+
+    /** Propagation duration. */
+    @Param({"21600"})
+    private double duration;
+
+    /** Propagator under test. */
+    private NumericalPropagator propagator;
+
+    /** Initial state. */
+    private SpacecraftState initialState;
+
+    /** Target date. */
+    private AbsoluteDate target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws OrekitException {
+
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        final NormalizedSphericalHarmonicsProvider provider =
+                GravityFieldFactory.getNormalizedProvider(degree, degree);
+
+        final AbsoluteDate date = new AbsoluteDate(2003, 6, 1, 0, 0, 0.0, TimeScalesFactory.getUTC());
+        final Orbit orbit = new KeplerianOrbit(7201009.7124401, 1.0e-3,
+                                               FastMath.toRadians(98.7), FastMath.toRadians(93.0),
+                                               FastMath.toRadians(15.0 * 22.5), 0.0,
+                                               PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                               date, provider.getMu());
+        initialState = new SpacecraftState(orbit);
+        target       = date.shiftedBy(duration);
+
+        final double[][] tolerances = NumericalPropagator.tolerances(0.01, orbit, OrbitType.CARTESIAN);
+        propagator = new NumericalPropagator(new DormandPrince853Integrator(1.0e-3, Constants.JULIAN_DAY,
+                                                                            tolerances[0], tolerances[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.addForceModel(new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                                       provider));
+
+    }
+
+    @Benchmark
+    public SpacecraftState propagate() throws OrekitException {
+        propagator.setInitialState(initialState);
+        return propagator.propagate(target);
+    }
+
+}
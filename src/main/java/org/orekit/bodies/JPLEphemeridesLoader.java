@@ -82,55 +82,55 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
     private static final double FIFTY_DAYS = 50 * Constants.JULIAN_DAY;
 
     /** DE number used by INPOP files. */
-    private static final int INPOP_DE_NUMBER = 100;
+    static final int INPOP_DE_NUMBER = 100;
 
     /** Maximal number of constants in headers. */
-    private static final int CONSTANTS_MAX_NUMBER           = 400;
+    static final int CONSTANTS_MAX_NUMBER           = 400;
 
     /** Offset of the ephemeris type in first header record. */
-    private static final int HEADER_EPHEMERIS_TYPE_OFFSET   = 2840;
+    static final int HEADER_EPHEMERIS_TYPE_OFFSET   = 2840;
 
     /** Offset of the record size (for INPOP files) in first header record. */
-    private static final int HEADER_RECORD_SIZE_OFFSET      = 2856;
+    static final int HEADER_RECORD_SIZE_OFFSET      = 2856;
 
     /** Offset of the start epoch in first header record. */
-    private static final int HEADER_START_EPOCH_OFFSET      = 2652;
+    static final int HEADER_START_EPOCH_OFFSET      = 2652;
 
     /** Offset of the end epoch in first header record. */
-    private static final int HEADER_END_EPOCH_OFFSET        = 2660;
+    static final int HEADER_END_EPOCH_OFFSET        = 2660;
 
     /** Offset of the astronomical unit in first header record. */
-    private static final int HEADER_ASTRONOMICAL_UNIT_OFFSET = 2680;
+    static final int HEADER_ASTRONOMICAL_UNIT_OFFSET = 2680;
 
     /** Offset of the Earth-Moon mass ratio in first header record. */
-    private static final int HEADER_EM_RATIO_OFFSET         = 2688;
+    static final int HEADER_EM_RATIO_OFFSET         = 2688;
 
     /** Offset of Chebishev coefficients indices in first header record. */
-    private static final int HEADER_CHEBISHEV_INDICES_OFFSET = 2696;
+    static final int HEADER_CHEBISHEV_INDICES_OFFSET = 2696;
 
     /** Offset of libration coefficients indices in first header record. */
-    private static final int HEADER_LIBRATION_INDICES_OFFSET = 2844;
+    static final int HEADER_LIBRATION_INDICES_OFFSET = 2844;
 
     /** Offset of chunks duration in first header record. */
-    private static final int HEADER_CHUNK_DURATION_OFFSET    = 2668;
+    static final int HEADER_CHUNK_DURATION_OFFSET    = 2668;
 
     /** Offset of the constants names in first header record. */
-    private static final int HEADER_CONSTANTS_NAMES_OFFSET  = 252;
+    static final int HEADER_CONSTANTS_NAMES_OFFSET  = 252;
 
     /** Offset of the constants values in second header record. */
-    private static final int HEADER_CONSTANTS_VALUES_OFFSET = 0;
+    static final int HEADER_CONSTANTS_VALUES_OFFSET = 0;
 
     /** Offset of the range start in the data records. */
-    private static final int DATA_START_RANGE_OFFSET        = 0;
+    static final int DATA_START_RANGE_OFFSET        = 0;
 
     /** Offset of the range end in the data records. */
     private static final int DATE_END_RANGE_OFFSET          = 8;
 
     /** The constant name for the astronomical unit. */
-    private static final String CONSTANT_AU = "AU";
+    static final String CONSTANT_AU = "AU";
 
     /** The constant name for the earth-moon mass ratio. */
-    private static final String CONSTANT_EMRAT = "EMRAT";
+    static final String CONSTANT_EMRAT = "EMRAT";
 
     /** List of supported ephemerides types. */
     public enum EphemerisType {
@@ -196,6 +196,20 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
 
     }
 
+    /** Interface for retrieval of constants defined in the ephemerides headers.
+     * @since 9.0
+     */
+    interface ConstantsProvider {
+
+        /** Get a constant defined in the ephemerides headers.
+         * @param names alternate names of the constant
+         * @return value of the constant of NaN if the constant is not defined
+         * @exception OrekitException if constants cannot be loaded
+         */
+        double getConstant(String ... names) throws OrekitException;
+
+    }
+
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
@@ -350,62 +364,73 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
      */
     public double getLoadedGravitationalCoefficient(final EphemerisType body)
         throws OrekitException {
+        return getGravitationalCoefficient(body, this::getLoadedConstant);
+    }
+
+    /** Get the gravitational coefficient of a body.
+     * @param body body for which the gravitational coefficient is requested
+     * @param provider provider for the constants defined in the ephemerides headers
+     * @return gravitational coefficient in m³/s²
+     * @exception OrekitException if constants cannot be loaded
+     */
+    static double getGravitationalCoefficient(final EphemerisType body, final ConstantsProvider provider)
+        throws OrekitException {
 
         // coefficient in au³/day²
         final double rawGM;
         switch (body) {
             case SOLAR_SYSTEM_BARYCENTER :
-                return getLoadedGravitationalCoefficient(EphemerisType.SUN)        +
-                        getLoadedGravitationalCoefficient(EphemerisType.MERCURY)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.VENUS)      +
-                        getLoadedGravitationalCoefficient(EphemerisType.EARTH_MOON) +
-                        getLoadedGravitationalCoefficient(EphemerisType.MARS)       +
-                        getLoadedGravitationalCoefficient(EphemerisType.JUPITER)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.SATURN)     +
-                        getLoadedGravitationalCoefficient(EphemerisType.URANUS)     +
-                        getLoadedGravitationalCoefficient(EphemerisType.NEPTUNE)    +
-                        getLoadedGravitationalCoefficient(EphemerisType.PLUTO);
+                return getGravitationalCoefficient(EphemerisType.SUN,        provider) +
+                       getGravitationalCoefficient(EphemerisType.MERCURY,    provider) +
+                       getGravitationalCoefficient(EphemerisType.VENUS,      provider) +
+                       getGravitationalCoefficient(EphemerisType.EARTH_MOON, provider) +
+                       getGravitationalCoefficient(EphemerisType.MARS,       provider) +
+                       getGravitationalCoefficient(EphemerisType.JUPITER,    provider) +
+                       getGravitationalCoefficient(EphemerisType.SATURN,     provider) +
+                       getGravitationalCoefficient(EphemerisType.URANUS,     provider) +
+                       getGravitationalCoefficient(EphemerisType.NEPTUNE,    provider) +
+                       getGravitationalCoefficient(EphemerisType.PLUTO,      provider);
             case SUN :
-                rawGM = getLoadedConstant("GMS", "GM_Sun");
+                rawGM = provider.getConstant("GMS", "GM_Sun");
                 break;
             case MERCURY :
-                rawGM = getLoadedConstant("GM1", "GM_Mer");
+                rawGM = provider.getConstant("GM1", "GM_Mer");
                 break;
             case VENUS :
-                rawGM = getLoadedConstant("GM2", "GM_Ven");
+                rawGM = provider.getConstant("GM2", "GM_Ven");
                 break;
             case EARTH_MOON :
-                rawGM = getLoadedConstant("GMB", "GM_EMB");
+                rawGM = provider.getConstant("GMB", "GM_EMB");
                 break;
             case EARTH :
-                return getLoadedEarthMoonMassRatio() *
-                        getLoadedGravitationalCoefficient(EphemerisType.MOON);
+                return provider.getConstant(CONSTANT_EMRAT) *
+                       getGravitationalCoefficient(EphemerisType.MOON, provider);
             case MOON :
-                return getLoadedGravitationalCoefficient(EphemerisType.EARTH_MOON) /
-                        (1.0 + getLoadedEarthMoonMassRatio());
+                return getGravitationalCoefficient(EphemerisType.EARTH_MOON, provider) /
+                       (1.0 + provider.getConstant(CONSTANT_EMRAT));
             case MARS :
-                rawGM = getLoadedConstant("GM4", "GM_Mar");
+                rawGM = provider.getConstant("GM4", "GM_Mar");
                 break;
             case JUPITER :
-                rawGM = getLoadedConstant("GM5", "GM_Jup");
+                rawGM = provider.getConstant("GM5", "GM_Jup");
                 break;
             case SATURN :
-                rawGM = getLoadedConstant("GM6", "GM_Sat");
+                rawGM = provider.getConstant("GM6", "GM_Sat");
                 break;
             case URANUS :
-                rawGM = getLoadedConstant("GM7", "GM_Ura");
+                rawGM = provider.getConstant("GM7", "GM_Ura");
                 break;
             case NEPTUNE :
-                rawGM = getLoadedConstant("GM8", "GM_Nep");
+                rawGM = provider.getConstant("GM8", "GM_Nep");
                 break;
             case PLUTO :
-                rawGM = getLoadedConstant("GM9", "GM_Plu");
+                rawGM = provider.getConstant("GM9", "GM_Plu");
                 break;
             default :
                 throw new OrekitInternalError(null);
         }
 
-        final double au    = getLoadedAstronomicalUnit();
+        final double au    = 1000.0 * provider.getConstant(CONSTANT_AU);
         return rawGM * au * au * au / (Constants.JULIAN_DAY * Constants.JULIAN_DAY);
 
     }
@@ -1067,7 +1092,7 @@ public class JPLEphemeridesLoader implements CelestialBodyLoader {
     }
 
     /** Raw position-velocity provider providing always zero. */
-    private static class ZeroRawPVProvider implements RawPVProvider {
+    static class ZeroRawPVProvider implements RawPVProvider {
 
         /** {@inheritDoc} */
         public PVCoordinates getRawPV(final AbsoluteDate date) {
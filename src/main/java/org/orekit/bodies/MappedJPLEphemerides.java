@@ -0,0 +1,740 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.JPLEphemeridesLoader.EphemerisType;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.FieldPVCoordinates;
+import org.orekit.utils.PVCoordinates;
+
+/** Memory-mapped JPL ephemerides binary file (DE 4xx) and similar formats (INPOP 06/08/10).
+ * <p>
+ * Contrary to {@link JPLEphemeridesLoader}, which parses the files through the
+ * {@link org.orekit.data.DataProvidersManager data providers manager} and stores
+ * the parsed Chebyshev polynomials in a cache, this class maps the whole file in
+ * memory and evaluates the Chebyshev polynomials directly from the mapped buffer.
+ * Only the two header records are parsed when the file is opened, so opening is
+ * almost instantaneous regardless of the file size, and the data record covering
+ * a date is located by a simple index computation, without any search.
+ * </p>
+ * <p>
+ * As the file is mapped, it must be a regular uncompressed file on the file system,
+ * gzip-compressed files or files embedded in zip archives are not supported.
+ * </p>
+ * <p>
+ * Instances are shared: all calls to {@link #getInstance(File)} for the same file
+ * return the same instance, and hence the same mapping, which can be used by all
+ * {@link CelestialBody celestial bodies} and all threads. The shared instances are
+ * only weakly referenced, so once no celestial body uses a file anymore, its mapping
+ * is released by the garbage collector and a new one will be created if the file
+ * is requested again. Instances are immutable
+ * and only use absolute reads from the mapped buffers, so they are thread-safe.
+ * </p>
+ * @see MappedJPLEphemeridesLoader
+ * @since 9.0
+ */
+public class MappedJPLEphemerides {
+
+    /** Number of bodies for which Chebyshev coefficients indices are provided in header. */
+    private static final int NB_BODIES = 12;
+
+    /** Tolerance for dates slightly out of the file time range (s). */
+    private static final double RANGE_TOLERANCE = 0.001;
+
+    /** Shared instances, weakly referenced so unused mappings can be released. */
+    private static final Map<String, WeakReference<MappedJPLEphemerides>> INSTANCES =
+            new HashMap<String, WeakReference<MappedJPLEphemerides>>();
+
+    /** Name of the mapped file. */
+    private final String name;
+
+    /** Mapped segments, each one containing an integer number of records. */
+    private final ByteBuffer[] segments;
+
+    /** Number of records per segment. */
+    private final int recordsPerSegment;
+
+    /** Records size (in bytes). */
+    private final int recordSize;
+
+    /** Number of data records (i.e. excluding the two header records). */
+    private final int nbRecords;
+
+    /** Constants defined in the file. */
+    private final Map<String, Double> constants;
+
+    /** Time scale of the date coordinates. */
+    private final TimeScale timeScale;
+
+    /** File start epoch. */
+    private final AbsoluteDate startEpoch;
+
+    /** File final epoch. */
+    private final AbsoluteDate finalEpoch;
+
+    /** Start of the first data record. */
+    private final AbsoluteDate firstRecordStart;
+
+    /** Duration of each data record (s). */
+    private final double recordDuration;
+
+    /** Number of components contained in the file. */
+    private final int components;
+
+    /** Unit of the position coordinates (as a multiple of meters). */
+    private final double positionUnit;
+
+    /** Index of the first data for each body. */
+    private final int[] firstIndices;
+
+    /** Number of coefficients for each body. */
+    private final int[] nbCoeffs;
+
+    /** Number of chunks for each body. */
+    private final int[] nbChunks;
+
+    /** Simple constructor.
+     * @param file file to map
+     * @exception OrekitException if the file cannot be mapped or is not
+     * a JPL ephemerides binary file
+     */
+    private MappedJPLEphemerides(final File file) throws OrekitException {
+
+        this.name = file.getName();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            final long size = channel.size();
+            if (size < JPLEphemeridesLoader.HEADER_RECORD_SIZE_OFFSET + 4) {
+                throw new OrekitException(OrekitMessages.UNABLE_TO_READ_JPL_HEADER, name);
+            }
+
+            // detect the endian format and record size from the beginning of the first record
+            final ByteBuffer start = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                                 JPLEphemeridesLoader.HEADER_RECORD_SIZE_OFFSET + 4);
+            start.order(detectByteOrder(start));
+            final int deNum = start.getInt(JPLEphemeridesLoader.HEADER_EPHEMERIS_TYPE_OFFSET);
+            if (deNum == JPLEphemeridesLoader.INPOP_DE_NUMBER) {
+                // INPOP files have an extended DE format, which includes also the record size
+                recordSize = start.getInt(JPLEphemeridesLoader.HEADER_RECORD_SIZE_OFFSET) << 3;
+            } else {
+                // compute the record size for original JPL files
+                recordSize = computeRecordSize(start, name);
+            }
+            if (recordSize <= 0 || size < 2L * recordSize) {
+                throw new OrekitException(OrekitMessages.UNABLE_TO_READ_JPL_HEADER, name);
+            }
+
+            // map the whole file, using as many segments as needed to cope with
+            // the 2GB limit of mapped buffers, each segment holding complete records
+            nbRecords         = (int) (size / recordSize) - 2;
+            recordsPerSegment = Integer.MAX_VALUE / recordSize;
+            final long totalRecords = nbRecords + 2;
+            segments = new ByteBuffer[(int) ((totalRecords + recordsPerSegment - 1) / recordsPerSegment)];
+            for (int i = 0; i < segments.length; ++i) {
+                final long offset  = ((long) i) * recordsPerSegment * recordSize;
+                final long records = FastMath.min(recordsPerSegment, totalRecords - ((long) i) * recordsPerSegment);
+                final MappedByteBuffer segment =
+                        channel.map(FileChannel.MapMode.READ_ONLY, offset, records * recordSize);
+                segment.order(start.order());
+                segments[i] = segment;
+            }
+
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+
+        // parse constants from the two header records
+        final ByteBuffer header = segments[0];
+        constants = new HashMap<String, Double>();
+        for (int i = 0; i < JPLEphemeridesLoader.CONSTANTS_MAX_NUMBER; ++i) {
+            // Note: for extracting the strings from the binary file, it makes no difference
+            //       if the file is stored in big-endian or little-endian notation
+            final byte[] rawName = new byte[6];
+            for (int j = 0; j < rawName.length; ++j) {
+                rawName[j] = header.get(JPLEphemeridesLoader.HEADER_CONSTANTS_NAMES_OFFSET + i * 6 + j);
+            }
+            final String constantName = new String(rawName, StandardCharsets.US_ASCII).trim();
+            if (constantName.length() == 0) {
+                // no more constants to read
+                break;
+            }
+            constants.put(constantName,
+                          header.getDouble(recordSize + JPLEphemeridesLoader.HEADER_CONSTANTS_VALUES_OFFSET + 8 * i));
+        }
+
+        // INPOP files do not have constants for AU and EMRAT, thus extract them from
+        // the header record and create a constant for them to be consistent with JPL files
+        if (!constants.containsKey(JPLEphemeridesLoader.CONSTANT_AU)) {
+            constants.put(JPLEphemeridesLoader.CONSTANT_AU,
+                          header.getDouble(JPLEphemeridesLoader.HEADER_ASTRONOMICAL_UNIT_OFFSET));
+        }
+        if (!constants.containsKey(JPLEphemeridesLoader.CONSTANT_EMRAT)) {
+            constants.put(JPLEphemeridesLoader.CONSTANT_EMRAT,
+                          header.getDouble(JPLEphemeridesLoader.HEADER_EM_RATIO_OFFSET));
+        }
+
+        // check astronomical unit and Earth-Moon mass ratio
+        final double au    = getLoadedAstronomicalUnit();
+        final double emRat = getLoadedEarthMoonMassRatio();
+        boolean ok = (au >= 1.4e11) && (au <= 1.6e11) && (emRat >= 80) && (emRat <= 82);
+
+        // as default, 3 polynomial coefficients for the cartesian coordinates
+        // (x, y, z) are contained in the file, positions are in kilometers
+        // and times are in TDB
+        int          nbComponents = 3;
+        double       unit         = 1000.0;
+        TimeScale    scale        = TimeScalesFactory.getTDB();
+        if (header.getInt(JPLEphemeridesLoader.HEADER_EPHEMERIS_TYPE_OFFSET) == JPLEphemeridesLoader.INPOP_DE_NUMBER) {
+            // an INPOP file may contain 6 components (including coefficients for the velocity vector)
+            final double format = getLoadedConstant("FORMAT");
+            if (!Double.isNaN(format) && (int) FastMath.IEEEremainder(format, 10) != 1) {
+                nbComponents = 6;
+            }
+
+            // INPOP files may have their polynomials expressed in AU
+            final double unite = getLoadedConstant("UNITE");
+            if (!Double.isNaN(unite) && (int) unite == 0) {
+                unit = au;
+            }
+
+            // INPOP files may have their times expressed in TCB
+            final double timesc = getLoadedConstant("TIMESC");
+            if (!Double.isNaN(timesc) && (int) timesc == 1) {
+                scale = TimeScalesFactory.getTCB();
+            }
+        }
+        components   = nbComponents;
+        positionUnit = unit;
+        timeScale    = scale;
+
+        // extract covered date range
+        startEpoch = extractDate(header, JPLEphemeridesLoader.HEADER_START_EPOCH_OFFSET);
+        finalEpoch = extractDate(header, JPLEphemeridesLoader.HEADER_END_EPOCH_OFFSET);
+        ok = ok && finalEpoch.compareTo(startEpoch) > 0 && nbRecords > 0;
+
+        // indices of the Chebyshev coefficients for each ephemeris
+        firstIndices = new int[NB_BODIES];
+        nbCoeffs     = new int[NB_BODIES];
+        nbChunks     = new int[NB_BODIES];
+        for (int i = 0; i < NB_BODIES; ++i) {
+            firstIndices[i] = header.getInt(JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET     + 12 * i);
+            nbCoeffs[i]     = header.getInt(JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + 4 + 12 * i);
+            nbChunks[i]     = header.getInt(JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + 8 + 12 * i);
+            // bodies with coefficients must have at least one chunk per record
+            ok = ok && (firstIndices[i] >= 0) && (nbCoeffs[i] >= 0) &&
+                 (nbChunks[i] > 0 || (nbChunks[i] == 0 && nbCoeffs[i] == 0));
+        }
+
+        // records duration
+        final double timeSpan = header.getDouble(JPLEphemeridesLoader.HEADER_CHUNK_DURATION_OFFSET);
+        ok = ok && (timeSpan > 0) && (timeSpan < 100);
+        recordDuration = Constants.JULIAN_DAY * timeSpan;
+
+        // sanity checks
+        if (!ok) {
+            throw new OrekitException(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, name);
+        }
+
+        // other records start dates are read only when needed, to avoid touching the whole mapping
+        firstRecordStart = getRecordStart(0);
+
+    }
+
+    /** Get the shared instance mapping a file.
+     * @param file JPL or INPOP ephemerides binary file
+     * @return shared instance mapping the file
+     * @exception OrekitException if the file cannot be mapped or is not
+     * a JPL ephemerides binary file
+     */
+    public static MappedJPLEphemerides getInstance(final File file) throws OrekitException {
+        final String key;
+        try {
+            key = file.getCanonicalPath();
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+        synchronized (INSTANCES) {
+
+            // forget the instances that have already been garbage collected
+            INSTANCES.values().removeIf(reference -> reference.get() == null);
+
+            final WeakReference<MappedJPLEphemerides> reference = INSTANCES.get(key);
+            MappedJPLEphemerides instance = (reference == null) ? null : reference.get();
+            if (instance == null) {
+                instance = new MappedJPLEphemerides(file);
+                INSTANCES.put(key, new WeakReference<MappedJPLEphemerides>(instance));
+            }
+            return instance;
+
+        }
+    }
+
+    /** Get the name of the mapped file.
+     * @return name of the mapped file
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Get the start epoch of the file.
+     * @return start epoch of the file
+     */
+    public AbsoluteDate getStartEpoch() {
+        return startEpoch;
+    }
+
+    /** Get the final epoch of the file.
+     * @return final epoch of the file
+     */
+    public AbsoluteDate getFinalEpoch() {
+        return finalEpoch;
+    }
+
+    /** Get astronomical unit.
+     * @return astronomical unit in meters
+     */
+    public double getLoadedAstronomicalUnit() {
+        return 1000.0 * getLoadedConstant(JPLEphemeridesLoader.CONSTANT_AU);
+    }
+
+    /** Get Earth/Moon mass ratio.
+     * @return Earth/Moon mass ratio
+     */
+    public double getLoadedEarthMoonMassRatio() {
+        return getLoadedConstant(JPLEphemeridesLoader.CONSTANT_EMRAT);
+    }
+
+    /** Get the gravitational coefficient of a body.
+     * @param body body for which the gravitational coefficient is requested
+     * @return gravitational coefficient in m³/s²
+     * @exception OrekitException if constants cannot be loaded
+     */
+    public double getLoadedGravitationalCoefficient(final EphemerisType body)
+        throws OrekitException {
+        return JPLEphemeridesLoader.getGravitationalCoefficient(body, this::getLoadedConstant);
+    }
+
+    /** Get a constant defined in the ephemerides headers.
+     * <p>
+     * There are alternate names for constants since for example JPL names are
+     * different from INPOP names (Sun gravity: GMS or GM_Sun, Mars gravity:
+     * GM4 or GM_Mar...).
+     * </p>
+     * @param names alternate names of the constant
+     * @return value of the constant of NaN if the constant is not defined
+     */
+    public double getLoadedConstant(final String ... names) {
+        for (final String constantName : names) {
+            final Double value = constants.get(constantName);
+            if (value != null) {
+                return value.doubleValue();
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Get a raw position-velocity provider for one body.
+     * @param loadType type of the ephemeris to load (must be one of the bodies
+     * with Chebyshev coefficients in the file)
+     * @return raw position-velocity provider
+     */
+    JPLEphemeridesLoader.RawPVProvider getRawPVProvider(final EphemerisType loadType) {
+        return new MappedRawPVProvider(getBodyIndex(loadType));
+    }
+
+    /** Get the index of a body in the header Chebyshev coefficients indices.
+     * @param loadType type of the ephemeris to load
+     * @return index of the body
+     */
+    private static int getBodyIndex(final EphemerisType loadType) {
+        switch (loadType) {
+            case MERCURY :
+                return 0;
+            case VENUS :
+                return 1;
+            case EARTH_MOON :
+                return 2;
+            case MARS :
+                return 3;
+            case JUPITER :
+                return 4;
+            case SATURN :
+                return 5;
+            case URANUS :
+                return 6;
+            case NEPTUNE :
+                return 7;
+            case PLUTO :
+                return 8;
+            case MOON :
+                return 9;
+            case SUN :
+                return 10;
+            default :
+                // this should never happen
+                throw new OrekitInternalError(null);
+        }
+    }
+
+    /** Get the segment containing a data record.
+     * @param record index of the data record
+     * @return segment containing the data record
+     */
+    private ByteBuffer getSegment(final int record) {
+        return segments[(record + 2) / recordsPerSegment];
+    }
+
+    /** Get the offset of a data record within its segment.
+     * @param record index of the data record
+     * @return offset of the data record within its segment (in bytes)
+     */
+    private int getOffset(final int record) {
+        return ((record + 2) % recordsPerSegment) * recordSize;
+    }
+
+    /** Get the start date of a data record.
+     * <p>
+     * The date is read from the record itself, as {@link JPLEphemeridesLoader} does.
+     * </p>
+     * @param record index of the data record
+     * @return start date of the data record
+     */
+    private AbsoluteDate getRecordStart(final int record) {
+        return extractDate(getSegment(record), getOffset(record) + JPLEphemeridesLoader.DATA_START_RANGE_OFFSET);
+    }
+
+    /** Detect whether the JPL ephemerides file is stored in big-endian or
+     * little-endian notation.
+     * @param buffer buffer containing the beginning of the binary JPL header
+     * @return detected byte order
+     */
+    private static ByteOrder detectByteOrder(final ByteBuffer buffer) {
+
+        // first try to read the DE number in big-endian format
+        // the number is stored as unsigned int, so we have to convert it properly
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        final long deNum = buffer.getInt(JPLEphemeridesLoader.HEADER_EPHEMERIS_TYPE_OFFSET) & 0xffffffffL;
+
+        // simple heuristic: if the read value is larger than half the range of an integer
+        //                   assume the file is in little-endian format
+        return (deNum > (1 << 15)) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+    }
+
+    /** Calculate the record size of a JPL ephemerides file.
+     * @param buffer buffer containing the beginning of the binary JPL header
+     * @param fileName the name of the data file
+     * @return the record size for this file
+     * @throws OrekitException if the file contains unexpected data
+     */
+    private static int computeRecordSize(final ByteBuffer buffer, final String fileName)
+        throws OrekitException {
+
+        int recordSize = 0;
+        boolean ok = true;
+        // JPL files always have 3 position components
+        final int nComp = 3;
+
+        // iterate over the coefficient ptr array and sum up the record size
+        // the coeffPtr array has the dimensions [12][nComp]
+        for (int j = 0; j < NB_BODIES; j++) {
+            final int nCompCur = (j == NB_BODIES - 1) ? 2 : nComp;
+
+            // Note: the array element coeffPtr[j][0] is not needed for the calculation
+            final int idx = JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + j * nComp * 4;
+            final int coeffPtr1 = buffer.getInt(idx + 4);
+            final int coeffPtr2 = buffer.getInt(idx + 8);
+
+            // sanity checks
+            ok = ok && (coeffPtr1 >= 0 || coeffPtr2 >= 0);
+
+            recordSize += coeffPtr1 * coeffPtr2 * nCompCur;
+        }
+
+        // the libration ptr array has the dimension [3]
+        // Note: the array element libratPtr[0] is not needed for the calculation
+        final int libratPtr1 = buffer.getInt(JPLEphemeridesLoader.HEADER_LIBRATION_INDICES_OFFSET + 4);
+        final int libratPtr2 = buffer.getInt(JPLEphemeridesLoader.HEADER_LIBRATION_INDICES_OFFSET + 8);
+
+        // sanity checks
+        ok = ok && (libratPtr1 >= 0 || libratPtr2 >= 0);
+
+        recordSize += libratPtr1 * libratPtr2 * nComp + 2;
+        recordSize <<= 3;
+
+        if (!ok || recordSize <= 0) {
+            throw new OrekitException(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, fileName);
+        }
+
+        return recordSize;
+
+    }
+
+    /** Extract a date from a buffer.
+     * @param buffer buffer to parse
+     * @param offset offset of the double within the buffer
+     * @return extracted date
+     */
+    private AbsoluteDate extractDate(final ByteBuffer buffer, final int offset) {
+
+        final double t = buffer.getDouble(offset);
+        int    jDay    = (int) FastMath.floor(t);
+        double seconds = (t + 0.5 - jDay) * Constants.JULIAN_DAY;
+        if (seconds >= Constants.JULIAN_DAY) {
+            ++jDay;
+            seconds -= Constants.JULIAN_DAY;
+        }
+        return new AbsoluteDate(new DateComponents(DateComponents.JULIAN_EPOCH, jDay),
+                                new TimeComponents(seconds), timeScale);
+    }
+
+    /** Raw position-velocity provider evaluating Chebyshev polynomials from the mapped file. */
+    private class MappedRawPVProvider implements JPLEphemeridesLoader.RawPVProvider {
+
+        /** Index of the first data for selected body. */
+        private final int first;
+
+        /** Number of coefficients for selected body. */
+        private final int coeffs;
+
+        /** Number of chunks for the selected body. */
+        private final int chunks;
+
+        /** Chunks duration (in seconds). */
+        private final double chunksDuration;
+
+        /** Simple constructor.
+         * @param bodyIndex index of the body in the header Chebyshev coefficients indices
+         */
+        MappedRawPVProvider(final int bodyIndex) {
+            this.first          = firstIndices[bodyIndex];
+            this.coeffs         = nbCoeffs[bodyIndex];
+            this.chunks         = nbChunks[bodyIndex];
+            this.chunksDuration = recordDuration / chunks;
+        }
+
+        /** {@inheritDoc} */
+        public PVCoordinates getRawPV(final AbsoluteDate date) throws OrekitException {
+
+            // locate the chunk containing the date
+            final int index     = locate(date);
+            final int record    = index / chunks;
+            final int chunk     = index % chunks;
+            final ByteBuffer segment = getSegment(record);
+            final int xOffset   = getOffset(record) + 8 * (first + components * chunk * coeffs - 1);
+            final int yOffset   = xOffset + 8 * coeffs;
+            final int zOffset   = yOffset + 8 * coeffs;
+
+            // normalize date
+            final AbsoluteDate chunkStart = getChunkStart(record, chunk);
+            final double t    = (2 * date.offsetFrom(chunkStart, timeScale) - chunksDuration) / chunksDuration;
+            final double twoT = 2 * t;
+
+            // initialize Chebyshev polynomials recursion
+            double pKm1 = 1;
+            double pK   = t;
+            double xP   = positionUnit * segment.getDouble(xOffset);
+            double yP   = positionUnit * segment.getDouble(yOffset);
+            double zP   = positionUnit * segment.getDouble(zOffset);
+
+            // initialize Chebyshev polynomials derivatives recursion
+            double qKm1 = 0;
+            double qK   = 1;
+            double xV   = 0;
+            double yV   = 0;
+            double zV   = 0;
+
+            // initialize Chebyshev polynomials second derivatives recursion
+            double rKm1 = 0;
+            double rK   = 0;
+            double xA   = 0;
+            double yA   = 0;
+            double zA   = 0;
+
+            // combine polynomials by applying coefficients read directly from the mapped file
+            for (int k = 1; k < coeffs; ++k) {
+
+                final double xC = positionUnit * segment.getDouble(xOffset + 8 * k);
+                final double yC = positionUnit * segment.getDouble(yOffset + 8 * k);
+                final double zC = positionUnit * segment.getDouble(zOffset + 8 * k);
+
+                // consider last computed polynomials on position
+                xP += xC * pK;
+                yP += yC * pK;
+                zP += zC * pK;
+
+                // consider last computed polynomials on velocity
+                xV += xC * qK;
+                yV += yC * qK;
+                zV += zC * qK;
+
+                // consider last computed polynomials on acceleration
+                xA += xC * rK;
+                yA += yC * rK;
+                zA += zC * rK;
+
+                // compute next Chebyshev polynomial value
+                final double pKm2 = pKm1;
+                pKm1 = pK;
+                pK   = twoT * pKm1 - pKm2;
+
+                // compute next Chebyshev polynomial derivative
+                final double qKm2 = qKm1;
+                qKm1 = qK;
+                qK   = twoT * qKm1 + 2 * pKm1 - qKm2;
+
+                // compute next Chebyshev polynomial second derivative
+                final double rKm2 = rKm1;
+                rKm1 = rK;
+                rK   = twoT * rKm1 + 4 * qKm1 - rKm2;
+
+            }
+
+            final double vScale = 2 / chunksDuration;
+            final double aScale = vScale * vScale;
+            return new PVCoordinates(new Vector3D(xP, yP, zP),
+                                     new Vector3D(xV * vScale, yV * vScale, zV * vScale),
+                                     new Vector3D(xA * aScale, yA * aScale, zA * aScale));
+
+        }
+
+        /** {@inheritDoc} */
+        public <T extends RealFieldElement<T>> FieldPVCoordinates<T> getRawPV(final FieldAbsoluteDate<T> date)
+            throws OrekitException {
+
+            // locate the chunk containing the date
+            final int index          = locate(date.toAbsoluteDate());
+            final int record         = index / chunks;
+            final int chunk          = index % chunks;
+            final ByteBuffer segment = getSegment(record);
+            final int xOffset        = getOffset(record) + 8 * (first + components * chunk * coeffs - 1);
+
+            // extract Chebyshev coefficients for the selected body
+            final double[] xCoeffs = new double[coeffs];
+            final double[] yCoeffs = new double[coeffs];
+            final double[] zCoeffs = new double[coeffs];
+            for (int k = 0; k < coeffs; ++k) {
+                xCoeffs[k] = positionUnit * segment.getDouble(xOffset + 8 * k);
+                yCoeffs[k] = positionUnit * segment.getDouble(xOffset + 8 * (k + coeffs));
+                zCoeffs[k] = positionUnit * segment.getDouble(xOffset + 8 * (k + 2 * coeffs));
+            }
+
+            // evaluate the Chebyshev polynomials
+            return new PosVelChebyshev(getChunkStart(record, chunk), timeScale, chunksDuration, xCoeffs, yCoeffs, zCoeffs).
+                   getPositionVelocityAcceleration(date);
+
+        }
+
+        /** Get the start date of a chunk.
+         * <p>
+         * The chunks start dates are computed the same way {@link JPLEphemeridesLoader}
+         * does, so both loaders evaluate the same polynomials at the same normalized dates.
+         * </p>
+         * @param record index of the data record
+         * @param chunk index of the chunk within the record
+         * @return start date of the chunk
+         */
+        private AbsoluteDate getChunkStart(final int record, final int chunk) {
+            final AbsoluteDate recordStart = getRecordStart(record);
+            return (chunk == 0) ? recordStart : recordStart.shiftedBy(chunk * chunksDuration);
+        }
+
+        /** Locate the chunk containing a date.
+         * <p>
+         * The data record is first estimated directly from the offset with respect to
+         * the first record start, and then checked against the start dates stored in
+         * the records themselves, so dates at chunks boundaries are associated with
+         * the same chunk {@link JPLEphemeridesLoader} would select.
+         * </p>
+         * @param date date to locate
+         * @return global index of the chunk (i.e. record index times number of chunks
+         * per record plus chunk index within the record)
+         * @exception OrekitException if date is out of the file time range
+         */
+        private int locate(final AbsoluteDate date) throws OrekitException {
+
+            // estimate the record
+            int record = getRecord(date, date.offsetFrom(firstRecordStart, timeScale));
+
+            // check it against the record start dates
+            double dtR = date.durationFrom(getRecordStart(record));
+            if (dtR < 0 && record > 0) {
+                --record;
+                dtR = date.durationFrom(getRecordStart(record));
+            } else if (record < nbRecords - 1) {
+                final double dtNext = date.durationFrom(getRecordStart(record + 1));
+                if (dtNext >= 0) {
+                    ++record;
+                    dtR = dtNext;
+                }
+            }
+
+            // select the chunk within the record
+            final int chunk = FastMath.max(0, FastMath.min(chunks - 1, (int) FastMath.floor(dtR / chunksDuration)));
+            return record * chunks + chunk;
+
+        }
+
+        /** Get the index of the data record containing a date.
+         * @param date date to locate
+         * @param dt offset of the date with respect to the start of the first data record
+         * @return index of the data record containing the date
+         * @exception OrekitException if date is out of the file time range
+         */
+        private int getRecord(final AbsoluteDate date, final double dt) throws OrekitException {
+            final int record = (int) FastMath.floor(dt / recordDuration);
+            if (record >= 0 && record < nbRecords) {
+                return record;
+            } else if (record < 0 && dt >= -RANGE_TOLERANCE) {
+                return 0;
+            } else if (record >= nbRecords && dt <= nbRecords * recordDuration + RANGE_TOLERANCE) {
+                return nbRecords - 1;
+            } else {
+                throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE,
+                                          date, startEpoch, finalEpoch);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+import java.io.File;
+import java.util.regex.Pattern;
+
+import org.orekit.bodies.JPLEphemeridesLoader.EphemerisType;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+
+/** Loader for celestial bodies using a {@link MappedJPLEphemerides memory-mapped}
+ * JPL ephemerides binary file (DE 4xx) or similar format (INPOP 06/08/10).
+ * <p>
+ * This loader is an alternative to {@link JPLEphemeridesLoader} for applications
+ * that need fast start-up and low heap usage. It can be registered in the
+ * {@link CelestialBodyFactory} using {@link
+ * CelestialBodyFactory#addCelestialBodyLoader(String, CelestialBodyLoader)}.
+ * All loaders built for the same file share the same mapping.
+ * </p>
+ * <p>
+ * Serialized bodies created by this loader are deserialized as regular
+ * JPL bodies, using a file name pattern matching the mapped file name.
+ * </p>
+ * @see MappedJPLEphemerides
+ * @since 9.0
+ */
+public class MappedJPLEphemeridesLoader implements CelestialBodyLoader {
+
+    /** Mapped ephemerides file. */
+    private final MappedJPLEphemerides ephemerides;
+
+    /** Ephemeris type to generate. */
+    private final EphemerisType generateType;
+
+    /** Ephemeris type to load. */
+    private final EphemerisType loadType;
+
+    /** Create a loader for a memory-mapped JPL ephemerides binary file.
+     * @param file JPL or INPOP ephemerides binary file
+     * @param generateType ephemeris type to generate
+     * @exception OrekitException if the file cannot be mapped or is not
+     * a JPL ephemerides binary file
+     */
+    public MappedJPLEphemeridesLoader(final File file, final EphemerisType generateType)
+        throws OrekitException {
+        this(MappedJPLEphemerides.getInstance(file), generateType);
+    }
+
+    /** Create a loader for a memory-mapped JPL ephemerides binary file.
+     * @param ephemerides mapped ephemerides file
+     * @param generateType ephemeris type to generate
+     */
+    public MappedJPLEphemeridesLoader(final MappedJPLEphemerides ephemerides,
+                                      final EphemerisType generateType) {
+        this.ephemerides  = ephemerides;
+        this.generateType = generateType;
+        if (generateType == EphemerisType.SOLAR_SYSTEM_BARYCENTER) {
+            loadType = EphemerisType.EARTH_MOON;
+        } else if (generateType == EphemerisType.EARTH_MOON) {
+            loadType = EphemerisType.MOON;
+        } else {
+            loadType = generateType;
+        }
+    }
+
+    /** Get the mapped ephemerides file.
+     * @return mapped ephemerides file
+     */
+    public MappedJPLEphemerides getEphemerides() {
+        return ephemerides;
+    }
+
+    /** {@inheritDoc} */
+    public CelestialBody loadCelestialBody(final String name) throws OrekitException {
+
+        final double gm       = ephemerides.getLoadedGravitationalCoefficient(generateType);
+        final IAUPole iauPole = PredefinedIAUPoles.getIAUPole(generateType);
+        final double scale;
+        final Frame definingFrameAlignedWithICRF;
+        final JPLEphemeridesLoader.RawPVProvider rawPVProvider;
+        switch (generateType) {
+            case SOLAR_SYSTEM_BARYCENTER : {
+                scale = -1.0;
+                final CelestialBody parentBody =
+                        new MappedJPLEphemeridesLoader(ephemerides, EphemerisType.EARTH_MOON).
+                        loadCelestialBody(CelestialBodyFactory.EARTH_MOON);
+                definingFrameAlignedWithICRF = parentBody.getInertiallyOrientedFrame();
+                rawPVProvider = ephemerides.getRawPVProvider(loadType);
+                break;
+            }
+            case EARTH_MOON :
+                scale         = 1.0 / (1.0 + ephemerides.getLoadedEarthMoonMassRatio());
+                definingFrameAlignedWithICRF =  FramesFactory.getGCRF();
+                rawPVProvider = ephemerides.getRawPVProvider(loadType);
+                break;
+            case EARTH :
+                scale         = 1.0;
+                definingFrameAlignedWithICRF = FramesFactory.getGCRF();
+                rawPVProvider = new JPLEphemeridesLoader.ZeroRawPVProvider();
+                break;
+            case MOON :
+                scale         =  1.0;
+                definingFrameAlignedWithICRF =  FramesFactory.getGCRF();
+                rawPVProvider = ephemerides.getRawPVProvider(loadType);
+                break;
+            default : {
+                scale = 1.0;
+                final CelestialBody parentBody =
+                        new MappedJPLEphemeridesLoader(ephemerides, EphemerisType.SOLAR_SYSTEM_BARYCENTER).
+                        loadCelestialBody(CelestialBodyFactory.SOLAR_SYSTEM_BARYCENTER);
+                definingFrameAlignedWithICRF = parentBody.getInertiallyOrientedFrame();
+                rawPVProvider = ephemerides.getRawPVProvider(loadType);
+            }
+        }
+
+        // build the celestial body
+        return new JPLCelestialBody(name, "^" + Pattern.quote(ephemerides.getName()) + "$",
+                                    generateType, rawPVProvider,
+                                    gm, scale, iauPole, definingFrameAlignedWithICRF);
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.util.List;
+import java.util.Set;
+
+import org.orekit.errors.OrekitException;
+
+/** Container for a set of data providers and the data loaded from them.
+ * <p>
+ * The {@link #getDefault() default context} wraps the {@link
+ * DataProvidersManager#getInstance() shared providers manager} used by the
+ * library factories. Other contexts own an independent {@link
+ * DataProvidersManager}, with its own providers and its own set of loaded
+ * data names. A context isolates only the data sources: loaders fed from a
+ * context see only the providers of this context, but the data they load
+ * go wherever the loaders store them.
+ * </p>
+ * <p>
+ * Contexts are thread-safe. Loaders can be fed concurrently from several
+ * threads, without any lock shared between contexts, and without any lock
+ * between independent loaders within a context.
+ * </p>
+ * <p>
+ * The Earth Orientation Parameters and UTC-TAI history loaders can be bound
+ * to any context, for example using {@link
+ * org.orekit.frames.FramesFactory#addDefaultEOP2000HistoryLoaders(String, String,
+ * String, String, String, DataContext)} or {@link
+ * org.orekit.time.TimeScalesFactory#addDefaultUTCTAIOffsetsLoaders(DataContext)},
+ * and so can the {@link DataSnapshotCache snapshot cache}. The frames and time
+ * scales built by the library factories are however still JVM-wide singletons,
+ * there is one set of them, loaded from the contexts their loaders are bound to
+ * (the {@link #getDefault() default context} if no loaders are configured).
+ * Several configurations (for example different Earth Orientation Parameters
+ * histories) therefore cannot coexist in the same JVM. Gravity fields, JPL
+ * ephemerides and atmosphere data are still loaded from the {@link #getDefault()
+ * default context}.
+ * </p>
+ * @see DataProvidersManager
+ * @since 9.0
+ */
+public class DataContext {
+
+    /** Underlying providers manager. */
+    private final DataProvidersManager manager;
+
+    /** Build a new context with an empty providers list.
+     * <p>
+     * As with {@link DataProvidersManager}, if no providers are added before the
+     * first call to {@link #feed(String, DataLoader) feed}, the default providers
+     * configuration from the {@link DataProvidersManager#OREKIT_DATA_PATH} property
+     * is set up.
+     * </p>
+     */
+    public DataContext() {
+        this(new DataProvidersManager());
+    }
+
+    /** Build a context around an existing manager.
+     * @param manager providers manager to use
+     */
+    private DataContext(final DataProvidersManager manager) {
+        this.manager = manager;
+    }
+
+    /** Get the default context.
+     * <p>
+     * The default context wraps the {@link DataProvidersManager#getInstance()
+     * shared providers manager}, so it sees the same providers and loaded data
+     * names as the library factories.
+     * </p>
+     * @return default context
+     */
+    public static DataContext getDefault() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /** Get the providers manager owned by this context.
+     * @return providers manager owned by this context
+     */
+    public DataProvidersManager getDataProvidersManager() {
+        return manager;
+    }
+
+    /** Add a data provider to the context.
+     * @param provider data provider to add
+     * @see DataProvidersManager#addProvider(DataProvider)
+     */
+    public void addProvider(final DataProvider provider) {
+        manager.addProvider(provider);
+    }
+
+    /** Get an unmodifiable view of the list of providers of the context.
+     * @return unmodifiable view of the list of providers
+     * @see DataProvidersManager#getProviders()
+     */
+    public List<DataProvider> getProviders() {
+        return manager.getProviders();
+    }
+
+    /** Get the names of the data loaded in this context.
+     * @return unmodifiable snapshot of the set of data names loaded in this context
+     * @see DataProvidersManager#getLoadedDataNames()
+     */
+    public Set<String> getLoadedDataNames() {
+        return manager.getLoadedDataNames();
+    }
+
+    /** Feed a data file loader by browsing the providers of this context.
+     * @param supportedNames regular expression for file names supported by the visitor
+     * @param loader data loader to use
+     * @return true if some data has been loaded
+     * @exception OrekitException if the data loader cannot be fed (read error ...)
+     * or if the default configuration cannot be set up
+     * @see DataProvidersManager#feed(String, DataLoader)
+     */
+    public boolean feed(final String supportedNames, final DataLoader loader)
+        throws OrekitException {
+        return manager.feed(supportedNames, loader);
+    }
+
+    /** Holder for the default context.
+     * <p>
+     * We use the Initialization on demand holder idiom to store
+     * the singletons, as it is both thread-safe, efficient (no
+     * synchronization) and works with all versions of java.
+     * </p>
+     */
+    private static class LazyHolder {
+
+        /** Default context. */
+        private static final DataContext INSTANCE = new DataContext(DataProvidersManager.getInstance());
+
+        /** Private constructor.
+         * <p>This class is a utility class, it should neither have a public
+         * nor a default constructor. This private constructor prevents
+         * the compiler from generating one automatically.</p>
+         */
+        private LazyHolder() {
+        }
+
+    }
+
+}
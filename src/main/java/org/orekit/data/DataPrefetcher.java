@@ -0,0 +1,240 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.orekit.errors.OrekitException;
+
+/** Helper feeding a data loader with entries read ahead on a thread pool.
+ * <p>
+ * The entries to load are first listed by the crawler. Then up to {@code prefetch}
+ * entries are read (and decompressed if needed) in memory by the tasks of an
+ * executor service, while the data loader consumes the already read entries on
+ * the calling thread, in the listing order.
+ * </p>
+ * @see DirectoryCrawler#DirectoryCrawler(java.io.File, ExecutorService, int)
+ * @see ZipJarCrawler#ZipJarCrawler(java.io.File, ExecutorService, int)
+ * @since 9.0
+ */
+class DataPrefetcher {
+
+    /** Size of the read buffer. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Executor for read tasks. */
+    private final ExecutorService executor;
+
+    /** Maximum number of entries read ahead. */
+    private final int prefetch;
+
+    /** Listed entries. */
+    private final List<Entry> entries;
+
+    /** Simple constructor.
+     * @param executor executor for read tasks
+     * @param prefetch maximum number of entries read ahead
+     */
+    DataPrefetcher(final ExecutorService executor, final int prefetch) {
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.entries  = new ArrayList<Entry>();
+    }
+
+    /** Add an entry that must be read by a pool task.
+     * @param name name of the entry, as provided to {@link DataLoader#loadData(InputStream, String)}
+     * @param opener opener for the (already decompressed) entry stream
+     */
+    public void addReadable(final String name, final Callable<InputStream> opener) {
+        entries.add(new Entry(name, opener, null));
+    }
+
+    /** Add an entry that must be fed directly on the calling thread.
+     * @param direct direct feeder for the entry
+     */
+    public void addDirect(final DirectFeeder direct) {
+        entries.add(new Entry(null, null, direct));
+    }
+
+    /** Feed a data loader with all listed entries.
+     * @param visitor data loader to feed
+     * @return true if something has been loaded
+     * @exception OrekitException if the last entry failed and nothing has been loaded
+     * @exception IOException if data cannot be read
+     * @exception ParseException if data cannot be parsed
+     */
+    public boolean feed(final DataLoader visitor)
+        throws OrekitException, IOException, ParseException {
+
+        final List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>(entries.size());
+        try {
+
+            OrekitException delayedException = null;
+            boolean loaded = false;
+            for (int i = 0; i < entries.size(); ++i) {
+
+                if (!visitor.stillAcceptsData()) {
+                    // the loader does not need anything else,
+                    // stop reading ahead and cancel pending reads
+                    break;
+                }
+
+                // keep the read-ahead window full
+                while (futures.size() < entries.size() && futures.size() <= i + prefetch) {
+                    final Entry entry = entries.get(futures.size());
+                    futures.add(entry.opener == null ? null : executor.submit(new Reader(entry.opener)));
+                }
+
+                try {
+                    final Entry entry = entries.get(i);
+                    if (entry.direct != null) {
+                        loaded = entry.direct.feed() || loaded;
+                    } else {
+                        final byte[] data = get(futures.get(i));
+                        futures.set(i, null);
+                        final InputStream input = new ByteArrayInputStream(data);
+                        visitor.loadData(input, entry.name);
+                        input.close();
+                        loaded = true;
+                    }
+                } catch (OrekitException oe) {
+                    delayedException = oe;
+                }
+
+            }
+
+            if (!loaded && delayedException != null) {
+                throw delayedException;
+            }
+
+            return loaded;
+
+        } finally {
+            // don't waste resources on entries that will never be used
+            for (final Future<byte[]> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+    }
+
+    /** Wait for a read task completion.
+     * @param future read task
+     * @return read data
+     * @exception OrekitException if waiting thread has been interrupted
+     * @exception IOException if data cannot be read
+     */
+    private byte[] get(final Future<byte[]> future)
+        throws OrekitException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            }
+            throw new OrekitException(ee.getCause(), LocalizedCoreFormats.SIMPLE_MESSAGE,
+                                      ee.getCause().getMessage());
+        }
+    }
+
+    /** Interface for entries fed directly on the calling thread. */
+    public interface DirectFeeder {
+
+        /** Feed the data loader.
+         * @return true if something has been loaded
+         * @exception OrekitException if some data is missing, duplicated
+         * or can't be read
+         * @exception IOException if data cannot be read
+         * @exception ParseException if data cannot be read
+         */
+        boolean feed() throws OrekitException, IOException, ParseException;
+
+    }
+
+    /** Listed entry. */
+    private static class Entry {
+
+        /** Name of the entry (null for direct entries). */
+        private final String name;
+
+        /** Opener for the entry stream (null for direct entries). */
+        private final Callable<InputStream> opener;
+
+        /** Direct feeder (null for entries read by the pool). */
+        private final DirectFeeder direct;
+
+        /** Simple constructor.
+         * @param name name of the entry (null for direct entries)
+         * @param opener opener for the entry stream (null for direct entries)
+         * @param direct direct feeder (null for entries read by the pool)
+         */
+        Entry(final String name, final Callable<InputStream> opener, final DirectFeeder direct) {
+            this.name   = name;
+            this.opener = opener;
+            this.direct = direct;
+        }
+
+    }
+
+    /** Task reading a complete entry in memory. */
+    private static class Reader implements Callable<byte[]> {
+
+        /** Opener for the entry stream. */
+        private final Callable<InputStream> opener;
+
+        /** Simple constructor.
+         * @param opener opener for the entry stream
+         */
+        Reader(final Callable<InputStream> opener) {
+            this.opener = opener;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public byte[] call() throws Exception {
+            final InputStream input = opener.call();
+            try {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+                    output.write(buffer, 0, n);
+                }
+                return output.toByteArray();
+            } finally {
+                input.close();
+            }
+        }
+
+    }
+
+}
@@ -22,21 +22,30 @@ import java.io.InputStream;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 
-/** Singleton class managing all supported {@link DataProvider data providers}.
+/** Class managing all supported {@link DataProvider data providers}.
 
  * <p>
- * This class is the single point of access for all data loading features. It
- * is used for example to load Earth Orientation Parameters used by IERS frames,
- * to load UTC leap seconds used by time scales, to load planetary ephemerides ...
+ * The {@link #getInstance() shared instance} of this class is the single point of
+ * access for all data loading features of the library factories. It is used for
+ * example to load Earth Orientation Parameters used by IERS frames, to load UTC leap
+ * seconds used by time scales, to load planetary ephemerides ... Independent instances
+ * with their own providers can also be built, typically through {@link DataContext}.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe. Several threads can {@link #feed(String, DataLoader) feed}
+ * loaders concurrently, without any global lock, so independent data sets can be loaded
+ * in parallel.
+ * </p>
  *
  * <p>
  * It is user-customizable: users can add their own data providers at will. This
@@ -73,14 +82,17 @@ public class DataProvidersManager {
     /** Loaded data. */
     private final Set<String> loaded;
 
-    /** Build an instance with default configuration.
+    /** Build an instance with an empty providers list.
      * <p>
-     * This is a singleton, so the constructor is private.
+     * Most users should rely on the {@link #getInstance() shared instance},
+     * which is the one used by the library factories. Independent instances
+     * are intended to be used through {@link DataContext}.
      * </p>
+     * @since 9.0
      */
-    private DataProvidersManager() {
-        providers = new ArrayList<DataProvider>();
-        loaded    = new LinkedHashSet<String>();
+    public DataProvidersManager() {
+        providers = new CopyOnWriteArrayList<DataProvider>();
+        loaded    = Collections.synchronizedSet(new LinkedHashSet<String>());
     }
 
     /** Get the unique instance.
@@ -111,10 +123,16 @@ public class DataProvidersManager {
      * System.getProperty("path.separator")}. This standard path separator is ":" on
      * Linux and Unix type systems and ";" on Windows types systems.
      * </p>
+     * <p>
+     * All the default providers are added at once, so concurrent calls to {@link
+     * #feed(String, DataLoader) feed} either see none of them or all of them.
+     * </p>
      * @exception OrekitException if an element of the list does not exist or exists but
      * is neither a directory nor a zip/jar archive
      */
-    public void addDefaultProviders() throws OrekitException {
+    public synchronized void addDefaultProviders() throws OrekitException {
+
+        final List<DataProvider> defaultProviders = new ArrayList<DataProvider>();
 
         // get the path containing all components
         final String path = System.getProperty(OREKIT_DATA_PATH);
@@ -136,9 +154,9 @@ public class DataProvidersManager {
                     }
 
                     if (file.isDirectory()) {
-                        addProvider(new DirectoryCrawler(file));
+                        defaultProviders.add(new DirectoryCrawler(file));
                     } else if (DataProvider.ZIP_ARCHIVE_PATTERN.matcher(name).matches()) {
-                        addProvider(new ZipJarCrawler(file));
+                        defaultProviders.add(new ZipJarCrawler(file));
                     } else {
                         throw new OrekitException(OrekitMessages.NEITHER_DIRECTORY_NOR_ZIP_OR_JAR, name);
                     }
@@ -147,6 +165,9 @@ public class DataProvidersManager {
             }
         }
 
+        // publish the complete configuration atomically
+        providers.addAll(defaultProviders);
+
     }
 
     /** Add a data provider to the supported list.
@@ -169,11 +190,10 @@ public class DataProvidersManager {
      * @see #getProviders()
      * @since 5.1
      */
-    public DataProvider removeProvider(final DataProvider provider) {
-        for (final Iterator<DataProvider> iterator = providers.iterator(); iterator.hasNext();) {
-            final DataProvider current = iterator.next();
-            if (current == provider) {
-                iterator.remove();
+    public synchronized DataProvider removeProvider(final DataProvider provider) {
+        for (int i = 0; i < providers.size(); ++i) {
+            if (providers.get(i) == provider) {
+                providers.remove(i);
                 return provider;
             }
         }
@@ -219,17 +239,19 @@ public class DataProvidersManager {
         return Collections.unmodifiableList(providers);
     }
 
-    /** Get an unmodifiable view of the set of data file names that have been loaded.
+    /** Get an unmodifiable snapshot of the set of data file names that have been loaded.
      * <p>
      * The names returned are exactly the ones that were given to the {@link
      * DataLoader#loadData(InputStream, String) DataLoader.loadData} method.
      * </p>
-     * @return unmodifiable view of the set of data file names that have been loaded
+     * @return unmodifiable snapshot of the set of data file names that have been loaded
      * @see #feed(String, DataLoader)
      * @see #clearLoadedDataNames()
      */
     public Set<String> getLoadedDataNames() {
-        return Collections.unmodifiableSet(loaded);
+        synchronized (loaded) {
+            return Collections.unmodifiableSet(new LinkedHashSet<String>(loaded));
+        }
     }
 
     /** Clear the set of data file names that have been loaded.
@@ -268,7 +290,11 @@ public class DataProvidersManager {
 
         // set up a default configuration if no providers have been set
         if (providers.isEmpty()) {
-            addDefaultProviders();
+            synchronized (this) {
+                if (providers.isEmpty()) {
+                    addDefaultProviders();
+                }
+            }
         }
 
         // monitor the data that the loader will load
@@ -0,0 +1,266 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import org.hipparchus.exception.DummyLocalizable;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+
+/** On-disk cache for binary snapshots of parsed data.
+ * <p>
+ * Parsing text data formats is costly compared to reading the same data from
+ * a binary representation. This class stores such binary snapshots in a cache
+ * directory and retrieves them at later runs using memory-mapped files. Snapshots
+ * are used for Earth Orientation Parameters, UTC-TAI history, gravity fields and
+ * IERS Poisson series.
+ * </p>
+ * <p>
+ * Each snapshot is identified by a key chosen by the caller and by a checksum
+ * of the source data, computed either by {@link #checksum(String)} from the files
+ * provided by a {@link DataContext} or by {@link #checksum(byte[], String)} from
+ * content already read by the caller. If the source files
+ * change, the checksum changes and the stale snapshot is simply ignored. Each
+ * snapshot file also starts with a header containing a magic number, a format
+ * version and the checksum, so corrupted or incompatible files are ignored too.
+ * </p>
+ * <p>
+ * Snapshots are written to a temporary file first and then renamed, so
+ * concurrent processes sharing the same cache directory never see
+ * partially written snapshots.
+ * </p>
+ * @see org.orekit.frames.CachedEOPHistoryLoader
+ * @see org.orekit.time.CachedUTCTAIOffsetsLoader
+ * @see org.orekit.forces.gravity.potential.CachedPotentialCoefficientsReader
+ * @see PoissonSeriesParser#setSnapshotCache(DataSnapshotCache)
+ * @since 9.0
+ */
+public class DataSnapshotCache {
+
+    /** Magic number at the start of snapshot files. */
+    private static final int MAGIC = 0x4f524b53;
+
+    /** Snapshot format version. */
+    private static final int VERSION = 1;
+
+    /** Size of the read buffer for checksum computation. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Cache directory. */
+    private final File directory;
+
+    /** Data context providing the source data. */
+    private final DataContext context;
+
+    /** Simple constructor.
+     * <p>
+     * Source data checksums are computed from the files provided by the
+     * {@link DataContext#getDefault() default data context}.
+     * </p>
+     * @param directory cache directory (must exist)
+     * @exception OrekitException if directory is not a directory
+     */
+    public DataSnapshotCache(final File directory) throws OrekitException {
+        this(directory, DataContext.getDefault());
+    }
+
+    /** Simple constructor.
+     * @param directory cache directory (must exist)
+     * @param context data context providing the source data
+     * @exception OrekitException if directory is not a directory
+     */
+    public DataSnapshotCache(final File directory, final DataContext context) throws OrekitException {
+        if (!directory.isDirectory()) {
+            throw new OrekitException(OrekitMessages.NOT_A_DIRECTORY, directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.context   = context;
+    }
+
+    /** Compute the checksum of the source data.
+     * <p>
+     * The checksum covers the names of all files matching the supported names,
+     * as provided by {@link DataContext#feed(String, DataLoader)}, and their
+     * raw content. It does not involve any parsing, so it is much faster than
+     * loading the data, but the content of all files is read, so a file modified
+     * without changing its size or modification time still invalidates the snapshot.
+     * </p>
+     * @param supportedNames regular expression for supported files names
+     * @return checksum of the source data
+     * @exception OrekitException if data cannot be read
+     */
+    public long checksum(final String supportedNames) throws OrekitException {
+        final ChecksumLoader loader = new ChecksumLoader();
+        context.feed(supportedNames, loader);
+        return loader.crc.getValue();
+    }
+
+    /** Compute the checksum of source data already read.
+     * @param content raw content of the source data
+     * @param configuration description of the configuration used to parse
+     * the content (snapshots built with different configurations get
+     * different checksums)
+     * @return checksum of the source data
+     */
+    public static long checksum(final byte[] content, final String configuration) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        crc.update(configuration.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /** Read the complete content of a stream.
+     * <p>
+     * This method is intended for loaders that need both the checksum of
+     * their source data and, if no snapshot is available, to parse it.
+     * </p>
+     * @param input input stream (not closed by this method)
+     * @return raw content of the stream
+     * @exception IOException if stream cannot be read
+     */
+    public static byte[] readContent(final InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+
+    /** Read a snapshot.
+     * @param key snapshot key
+     * @param checksum checksum of the source data
+     * @return memory-mapped snapshot content, positioned just after the
+     * header, or null if there are no valid snapshots for this key and checksum
+     */
+    public ByteBuffer read(final String key, final long checksum) {
+        final File file = getFile(key, checksum);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buffer.remaining() < 16 ||
+                buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != checksum) {
+                // this is not a snapshot we can use
+                return null;
+            }
+            return buffer;
+        } catch (IOException ioe) {
+            // the snapshot will be regenerated
+            return null;
+        }
+    }
+
+    /** Write a snapshot.
+     * @param key snapshot key
+     * @param checksum checksum of the source data
+     * @param writer writer for snapshot content
+     * @exception OrekitException if snapshot cannot be written
+     */
+    public void write(final String key, final long checksum, final SnapshotWriter writer)
+        throws OrekitException {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(key + "-", ".tmp", directory);
+            try (DataOutputStream out =
+                            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(checksum);
+                writer.write(out);
+            }
+            final File file = getFile(key, checksum);
+            if (!tmp.renameTo(file)) {
+                // another process may have written the same snapshot concurrently
+                if (!file.isFile()) {
+                    throw new IOException(file.getAbsolutePath());
+                }
+            }
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        } finally {
+            if (tmp != null && tmp.exists() && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    /** Get the file corresponding to a snapshot.
+     * @param key snapshot key
+     * @param checksum checksum of the source data
+     * @return snapshot file
+     */
+    private File getFile(final String key, final long checksum) {
+        return new File(directory, String.format("%s-%08x.bin", key, checksum));
+    }
+
+    /** Interface for writing snapshot content. */
+    public interface SnapshotWriter {
+
+        /** Write the snapshot content.
+         * @param out output stream, already containing the header
+         * @exception IOException if content cannot be written
+         */
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+    /** Loader computing checksum of raw data. */
+    private static class ChecksumLoader implements DataLoader {
+
+        /** Checksum accumulator. */
+        private final CRC32 crc;
+
+        /** Simple constructor.
+         */
+        ChecksumLoader() {
+            crc = new CRC32();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean stillAcceptsData() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void loadData(final InputStream input, final String name)
+            throws IOException {
+            crc.update(name.getBytes(StandardCharsets.UTF_8));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+                crc.update(buffer, 0, n);
+            }
+        }
+
+    }
+
+}
@@ -23,12 +23,16 @@ import java.io.InputStream;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
 import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.exception.LocalizedCoreFormats;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitMessages;
 
 
@@ -47,6 +51,12 @@ import org.orekit.errors.OrekitMessages;
  * Zip archives entries are supported recursively.
  * </p>
  * <p>
+ * If an executor service is provided at construction, the crawler first lists
+ * all the supported files and then reads and decompresses them ahead on the
+ * executor threads, while the data loader consumes them on the calling thread,
+ * in the same order as in sequential mode.
+ * </p>
+ * <p>
  * This is a simple application of the <code>visitor</code> design pattern for
  * directory hierarchy crawling.
  * </p>
@@ -58,6 +68,12 @@ public class DirectoryCrawler implements DataProvider {
     /** Root directory. */
     private final File root;
 
+    /** Executor for prefetching files (null for sequential reading). */
+    private final ExecutorService executor;
+
+    /** Maximum number of files read ahead. */
+    private final int prefetch;
+
     /** Build a data files crawler.
      * @param root root of the directories tree (must be a directory)
      * @exception OrekitException if root is not a directory
@@ -66,14 +82,50 @@ public class DirectoryCrawler implements DataProvider {
         if (!root.isDirectory()) {
             throw new OrekitException(OrekitMessages.NOT_A_DIRECTORY, root.getAbsolutePath());
         }
-        this.root = root;
+        this.root     = root;
+        this.executor = null;
+        this.prefetch = 0;
+    }
+
+    /** Build a data files crawler reading files ahead on a thread pool.
+     * <p>
+     * The executor is not shut down by the crawler.
+     * </p>
+     * @param root root of the directories tree (must be a directory)
+     * @param executor executor for reading and decompressing files
+     * @param prefetch maximum number of files read ahead of the data loader
+     * (bounds the memory used by prefetched data, must be non-negative)
+     * @exception OrekitException if root is not a directory
+     * @exception OrekitIllegalArgumentException if executor is null or prefetch is negative
+     * @since 9.0
+     */
+    public DirectoryCrawler(final File root, final ExecutorService executor, final int prefetch)
+        throws OrekitException {
+        if (executor == null) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NULL_NOT_ALLOWED);
+        }
+        if (prefetch < 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, prefetch, 0);
+        }
+        if (!root.isDirectory()) {
+            throw new OrekitException(OrekitMessages.NOT_A_DIRECTORY, root.getAbsolutePath());
+        }
+        this.root     = root;
+        this.executor = executor;
+        this.prefetch = prefetch;
     }
 
     /** {@inheritDoc} */
     public boolean feed(final Pattern supported, final DataLoader visitor)
         throws OrekitException {
         try {
-            return feed(supported, visitor, root);
+            if (executor == null) {
+                return feed(supported, visitor, root);
+            } else {
+                final DataPrefetcher prefetcher = new DataPrefetcher(executor, prefetch);
+                list(supported, visitor, root, prefetcher);
+                return prefetcher.feed(visitor);
+            }
         } catch (IOException ioe) {
             throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
         } catch (ParseException pe) {
@@ -81,6 +133,70 @@ public class DirectoryCrawler implements DataProvider {
         }
     }
 
+    /** List the supported files in a directory hierarchy.
+     * @param supported pattern for file names supported by the visitor
+     * @param visitor data file visitor to feed
+     * @param directory current directory
+     * @param prefetcher prefetcher where to add files
+     */
+    private void list(final Pattern supported, final DataLoader visitor,
+                      final File directory, final DataPrefetcher prefetcher) {
+
+        for (final File file : sortedFiles(directory)) {
+            if (file.isDirectory()) {
+
+                // recurse in the sub-directory
+                list(supported, visitor, file, prefetcher);
+
+            } else if (ZIP_ARCHIVE_PATTERN.matcher(file.getName()).matches()) {
+
+                // browse inside the zip/jar file, when reaching it
+                prefetcher.addDirect(new DataPrefetcher.DirectFeeder() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public boolean feed() throws OrekitException {
+                        return new ZipJarCrawler(file, executor, prefetch).feed(supported, visitor);
+                    }
+                });
+
+            } else {
+
+                // remove suffix from gzip files
+                final Matcher gzipMatcher = GZIP_FILE_PATTERN.matcher(file.getName());
+                final boolean gzipped     = gzipMatcher.matches();
+                final String  baseName    = gzipped ? gzipMatcher.group(1) : file.getName();
+
+                if (supported.matcher(baseName).matches()) {
+                    prefetcher.addReadable(file.getPath(), new Callable<InputStream>() {
+                        /** {@inheritDoc} */
+                        @Override
+                        public InputStream call() throws IOException {
+                            final InputStream input = new FileInputStream(file);
+                            return gzipped ? new GZIPInputStream(input) : input;
+                        }
+                    });
+                }
+
+            }
+        }
+
+    }
+
+    /** Get the sorted list of files in a directory.
+     * @param directory directory to list
+     * @return sorted files
+     */
+    private File[] sortedFiles(final File directory) {
+        final File[] list = directory.listFiles();
+        Arrays.sort(list, new Comparator<File>() {
+            @Override
+            public int compare(final File o1, final File o2) {
+                return o1.compareTo(o2);
+            }
+        });
+        return list;
+    }
+
     /** Feed a data file loader by browsing a directory hierarchy.
      * @param supported pattern for file names supported by the visitor
      * @param visitor data file visitor to feed
@@ -95,13 +211,7 @@ public class DirectoryCrawler implements DataProvider {
         throws OrekitException, IOException, ParseException {
 
         // search in current directory
-        final File[] list = directory.listFiles();
-        Arrays.sort(list, new Comparator<File>() {
-            @Override
-            public int compare(final File o1, final File o2) {
-                return o1.compareTo(o2);
-            }
-        });
+        final File[] list = sortedFiles(directory);
 
         OrekitException delayedException = null;
         boolean loaded = false;
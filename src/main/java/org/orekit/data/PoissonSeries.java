@@ -68,6 +68,15 @@ public class PoissonSeries {
         return series.size();
     }
 
+    /** Get the non-polynomial part of the series.
+     * @return non-polynomial terms, indexed by their {@link NutationCodec} keys
+     * (a reference to the internal map is returned)
+     * @since 9.0
+     */
+    Map<Long, SeriesTerm> getSeries() {
+        return series;
+    }
+
     /** Evaluate the value of the series.
      * @param elements bodies elements for nutation
      * @return value of the series
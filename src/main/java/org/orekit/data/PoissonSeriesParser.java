@@ -17,9 +17,13 @@
 package org.orekit.data;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -205,6 +209,13 @@ import org.orekit.errors.OrekitMessages;
  * is not expected to be encountered in practice. The real files use either several columns
  * <em>or</em> several sections, but not both at the same time.
  * </p>
+ * <p>
+ * Parsing the largest tables is a significant part of the startup time of applications
+ * using precise frames. If a {@link #setSnapshotCache(DataSnapshotCache) snapshot cache}
+ * has been configured, the parsed series are stored as binary snapshots and later
+ * parsings of the same table content with the same parser configuration read the
+ * memory-mapped snapshot instead of parsing the text.
+ * </p>
  *
  * @author Luc Maisonobe
  * @see SeriesTerm
@@ -228,6 +239,9 @@ public class PoissonSeriesParser {
     /** Pattern for fields with Doodson number. */
     private static final String  DOODSON_TYPE_PATTERN = "\\p{Digit}{2,3}[.,]\\p{Digit}{3}";
 
+    /** Cache for binary snapshots of parsed series (null if snapshots are disabled). */
+    private static volatile DataSnapshotCache snapshotCache;
+
     /** Parser for the polynomial part. */
     private final PolynomialParser polynomialParser;
 
@@ -497,6 +511,26 @@ public class PoissonSeriesParser {
 
     }
 
+    /** Set the cache for binary snapshots of parsed series.
+     * <p>
+     * The cache is shared by all parsers. Snapshots are disabled by default.
+     * </p>
+     * @param cache cache for binary snapshots of parsed series
+     * (null to disable snapshots)
+     * @since 9.0
+     */
+    public static void setSnapshotCache(final DataSnapshotCache cache) {
+        snapshotCache = cache;
+    }
+
+    /** Get the cache for binary snapshots of parsed series.
+     * @return cache for binary snapshots of parsed series (null if snapshots are disabled)
+     * @since 9.0
+     */
+    public static DataSnapshotCache getSnapshotCache() {
+        return snapshotCache;
+    }
+
     /** Parse a stream.
      * @param stream stream containing the IERS table
      * @param name name of the resource file (for error messages only)
@@ -509,6 +543,159 @@ public class PoissonSeriesParser {
             throw new OrekitException(OrekitMessages.UNABLE_TO_FIND_FILE, name);
         }
 
+        final DataSnapshotCache cache = snapshotCache;
+        if (cache == null) {
+            return parseTable(stream, name);
+        }
+
+        try {
+
+            final byte[] content  = DataSnapshotCache.readContent(stream);
+            final long   checksum = DataSnapshotCache.checksum(content, getConfiguration());
+            final String key      = "poisson-" +
+                                    name.substring(name.lastIndexOf('/') + 1).replaceAll("[^\\w.]", "_");
+
+            final PoissonSeries fromSnapshot = readSnapshot(cache.read(key, checksum));
+            if (fromSnapshot != null) {
+                // fast path, use the series from the snapshot
+                return fromSnapshot;
+            }
+
+            // slow path, parse the table
+            final PoissonSeries parsed = parseTable(new ByteArrayInputStream(content), name);
+            cache.write(key, checksum, new DataSnapshotCache.SnapshotWriter() {
+                /** {@inheritDoc} */
+                @Override
+                public void write(final DataOutputStream out) throws IOException {
+                    writeSnapshot(parsed, out);
+                }
+            });
+            return parsed;
+
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+
+    }
+
+    /** Get a description of the parser configuration.
+     * @return description of the parser configuration
+     */
+    private String getConfiguration() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(polynomialParser == null ? "" : polynomialParser.getConfiguration());
+        builder.append(' ').append(Arrays.toString(fieldsPatterns));
+        builder.append(' ').append(optional);
+        builder.append(' ').append(gamma);
+        builder.append(' ').append(firstDoodson);
+        builder.append(' ').append(doodson);
+        builder.append(' ').append(firstDelaunay);
+        builder.append(' ').append(firstPlanetary);
+        builder.append(' ').append(Arrays.toString(sinCosColumns));
+        builder.append(' ').append(Arrays.toString(sinCosFactors));
+        return builder.toString();
+    }
+
+    /** Write a snapshot of a parsed series.
+     * @param series parsed series
+     * @param out output stream
+     * @exception IOException if snapshot cannot be written
+     */
+    private static void writeSnapshot(final PoissonSeries series, final DataOutputStream out)
+        throws IOException {
+
+        // polynomial part
+        final double[] coefficients = series.getPolynomial().getCoefficients();
+        out.writeInt(coefficients.length);
+        for (final double coefficient : coefficients) {
+            out.writeDouble(coefficient);
+        }
+
+        // non-polynomial part
+        out.writeInt(series.getSeries().size());
+        for (final Map.Entry<Long, SeriesTerm> entry : series.getSeries().entrySet()) {
+            final SeriesTerm term = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeInt(term.getDimension());
+            for (int index = 0; index < term.getDimension(); ++index) {
+                out.writeInt(term.getDegree(index));
+                for (int degree = 0; degree <= term.getDegree(index); ++degree) {
+                    out.writeDouble(term.getSinCoeff(index, degree));
+                    out.writeDouble(term.getCosCoeff(index, degree));
+                }
+            }
+        }
+
+    }
+
+    /** Read a series from a snapshot.
+     * @param snapshot memory-mapped snapshot content (may be null)
+     * @return series read, or null if there are no snapshots or if the
+     * snapshot is truncated or corrupted
+     */
+    private static PoissonSeries readSnapshot(final ByteBuffer snapshot) {
+
+        if (snapshot == null) {
+            return null;
+        }
+
+        try {
+
+            // polynomial part
+            final int nCoefficients = snapshot.getInt();
+            if (nCoefficients < 0 || (long) nCoefficients * Double.BYTES > snapshot.remaining()) {
+                // this is not a snapshot we can use
+                return null;
+            }
+            final double[] coefficients = new double[nCoefficients];
+            for (int i = 0; i < nCoefficients; ++i) {
+                coefficients[i] = snapshot.getDouble();
+            }
+
+            // non-polynomial part
+            final int nTerms = snapshot.getInt();
+            if (nTerms < 0 || (long) nTerms * (Long.BYTES + Integer.BYTES) > snapshot.remaining()) {
+                // this is not a snapshot we can use
+                return null;
+            }
+            final Map<Long, SeriesTerm> series = new HashMap<Long, SeriesTerm>();
+            for (int i = 0; i < nTerms; ++i) {
+                final long  key       = snapshot.getLong();
+                final int   dimension = snapshot.getInt();
+                final int[] m         = NutationCodec.decode(key);
+                final SeriesTerm term = SeriesTerm.buildTerm(m[0], m[1], m[2], m[3], m[4],
+                                                             m[5], m[6], m[7], m[8], m[9],
+                                                             m[10], m[11], m[12], m[13], m[14]);
+                for (int index = 0; index < dimension; ++index) {
+                    final int maxDegree = snapshot.getInt();
+                    if (maxDegree < 0) {
+                        // the component has no coefficients, just extend the dimension
+                        term.add(index, -1, 0.0, 0.0);
+                    }
+                    for (int degree = 0; degree <= maxDegree; ++degree) {
+                        term.add(index, degree, snapshot.getDouble(), snapshot.getDouble());
+                    }
+                }
+                series.put(key, term);
+            }
+
+            return new PoissonSeries(new PolynomialNutation(coefficients), series);
+
+        } catch (BufferUnderflowException bue) {
+            // the snapshot is truncated, the table will be parsed again
+            return null;
+        }
+
+    }
+
+    /** Parse a table.
+     * @param stream stream containing the IERS table
+     * @param name name of the resource file (for error messages only)
+     * @return parsed Poisson series
+     * @exception OrekitException if the table cannot be parsed
+     */
+    private PoissonSeries parseTable(final InputStream stream, final String name) throws OrekitException {
+
         // the degrees section header should read something like:
         // j = 0  Nb of terms = 1306
         // or something like:
@@ -42,6 +42,15 @@ public class PolynomialNutation implements Serializable {
         this.coefficients = coefficients.clone();
     }
 
+    /** Get the coefficients of the polynomial.
+     * @return polynomial coefficients in increasing degree
+     * (a reference to the internal array is returned)
+     * @since 9.0
+     */
+    double[] getCoefficients() {
+        return coefficients;
+    }
+
     /** Evaluate the value of the polynomial.
      * @param tc date offset in Julian centuries
      * @return value of the polynomial
@@ -215,6 +215,14 @@ public class PolynomialParser {
 
     }
 
+    /** Get a description of the parser configuration.
+     * @return description of the parser configuration
+     * @since 9.0
+     */
+    String getConfiguration() {
+        return pattern.pattern() + ' ' + defaultUnit.name();
+    }
+
     /** Merge two lists of markers.
      * @param markers1 first list
      * @param markers2 second list
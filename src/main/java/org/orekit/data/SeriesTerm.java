@@ -43,6 +43,14 @@ abstract class SeriesTerm {
         this.cosCoeff = new double[0][0];
     }
 
+    /** Get the dimension of the function.
+     * @return number of function components
+     * @since 9.0
+     */
+    int getDimension() {
+        return sinCoeff.length;
+    }
+
     /** Get the degree of the function component.
      * @param index index of the function component (must be less than dimension)
      * @return degree of the function component
@@ -24,17 +24,22 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import org.hipparchus.exception.DummyLocalizable;
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
 
 
 /** Helper class for loading data files from a zip/jar archive.
@@ -54,6 +59,12 @@ import org.orekit.errors.OrekitException;
  * Zip archives entries are supported recursively.
  * </p>
  * <p>
+ * If an executor service is provided at construction, archives on filesystem are
+ * crawled by first listing all the supported entries and then reading and
+ * decompressing them ahead on the executor threads, while the data loader consumes
+ * them on the calling thread, in the same order as in sequential mode.
+ * </p>
+ * <p>
  * This is a simple application of the <code>visitor</code> design pattern for
  * zip entries browsing.
  * </p>
@@ -77,6 +88,12 @@ public class ZipJarCrawler implements DataProvider {
     /** Prefix name of the zip. */
     private final String name;
 
+    /** Executor for prefetching entries (null for sequential reading). */
+    private final ExecutorService executor;
+
+    /** Maximum number of entries read ahead. */
+    private final int prefetch;
+
     /** Build a zip crawler for an archive file on filesystem.
      * @param file zip file to browse
      */
@@ -86,6 +103,35 @@ public class ZipJarCrawler implements DataProvider {
         this.classLoader = null;
         this.url         = null;
         this.name        = file.getAbsolutePath();
+        this.executor    = null;
+        this.prefetch    = 0;
+    }
+
+    /** Build a zip crawler for an archive file on filesystem, reading entries ahead on a thread pool.
+     * <p>
+     * The executor is not shut down by the crawler.
+     * </p>
+     * @param file zip file to browse
+     * @param executor executor for reading and decompressing entries
+     * @param prefetch maximum number of entries read ahead of the data loader
+     * (bounds the memory used by prefetched data, must be non-negative)
+     * @exception OrekitIllegalArgumentException if executor is null or prefetch is negative
+     * @since 9.0
+     */
+    public ZipJarCrawler(final File file, final ExecutorService executor, final int prefetch) {
+        if (executor == null) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NULL_NOT_ALLOWED);
+        }
+        if (prefetch < 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, prefetch, 0);
+        }
+        this.file        = file;
+        this.resource    = null;
+        this.classLoader = null;
+        this.url         = null;
+        this.name        = file.getAbsolutePath();
+        this.executor    = executor;
+        this.prefetch    = prefetch;
     }
 
     /** Build a zip crawler for an archive file in classpath.
@@ -115,6 +161,8 @@ public class ZipJarCrawler implements DataProvider {
             this.classLoader = classLoader;
             this.url         = null;
             this.name        = classLoader.getResource(resource).toURI().toString();
+            this.executor    = null;
+            this.prefetch    = 0;
         } catch (URISyntaxException use) {
             throw new OrekitException(use, LocalizedCoreFormats.SIMPLE_MESSAGE, use.getMessage());
         }
@@ -131,6 +179,8 @@ public class ZipJarCrawler implements DataProvider {
             this.classLoader = null;
             this.url         = url;
             this.name        = url.toURI().toString();
+            this.executor    = null;
+            this.prefetch    = 0;
         } catch (URISyntaxException use) {
             throw new OrekitException(use, LocalizedCoreFormats.SIMPLE_MESSAGE, use.getMessage());
         }
@@ -142,6 +192,10 @@ public class ZipJarCrawler implements DataProvider {
 
         try {
 
+            if (executor != null && file != null) {
+                return feedPrefetched(supported, visitor);
+            }
+
             // open the raw data stream
             Archive archive = null;
             try {
@@ -169,6 +223,83 @@ public class ZipJarCrawler implements DataProvider {
 
     }
 
+    /** Feed a data file loader by reading ahead the entries of a zip/jar on filesystem.
+     * @param supported pattern for file names supported by the visitor
+     * @param visitor data file visitor to use
+     * @exception OrekitException if some data is missing, duplicated
+     * or can't be read
+     * @return true if something has been loaded
+     * @exception IOException if data cannot be read
+     * @exception ParseException if data cannot be read
+     */
+    private boolean feedPrefetched(final Pattern supported, final DataLoader visitor)
+        throws OrekitException, IOException, ParseException {
+
+        final ZipFile zipFile = new ZipFile(file);
+        try {
+
+            // list the entries
+            final DataPrefetcher prefetcher = new DataPrefetcher(executor, prefetch);
+            for (final Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements();) {
+                final ZipEntry entry = e.nextElement();
+                if (!entry.isDirectory()) {
+
+                    final String fullName = name + "!" + entry.getName();
+
+                    if (ZIP_ARCHIVE_PATTERN.matcher(entry.getName()).matches()) {
+
+                        // recurse inside the archive entry, when reaching it
+                        prefetcher.addDirect(new DataPrefetcher.DirectFeeder() {
+                            /** {@inheritDoc} */
+                            @Override
+                            public boolean feed() throws OrekitException, IOException, ParseException {
+                                final Archive archive = new Archive(zipFile.getInputStream(entry));
+                                try {
+                                    return ZipJarCrawler.this.feed(fullName, supported, visitor, archive);
+                                } finally {
+                                    archive.close();
+                                }
+                            }
+                        });
+
+                    } else {
+
+                        // remove leading directories
+                        String entryName = entry.getName();
+                        final int lastSlash = entryName.lastIndexOf('/');
+                        if (lastSlash >= 0) {
+                            entryName = entryName.substring(lastSlash + 1);
+                        }
+
+                        // remove suffix from gzip entries
+                        final Matcher gzipMatcher = GZIP_FILE_PATTERN.matcher(entryName);
+                        final boolean gzipped     = gzipMatcher.matches();
+                        final String  baseName    = gzipped ? gzipMatcher.group(1) : entryName;
+
+                        if (supported.matcher(baseName).matches()) {
+                            prefetcher.addReadable(fullName, new Callable<InputStream>() {
+                                /** {@inheritDoc} */
+                                @Override
+                                public InputStream call() throws IOException {
+                                    final InputStream input = zipFile.getInputStream(entry);
+                                    return gzipped ? new GZIPInputStream(input) : input;
+                                }
+                            });
+                        }
+
+                    }
+                }
+            }
+
+            // read the entries
+            return prefetcher.feed(visitor);
+
+        } finally {
+            zipFile.close();
+        }
+
+    }
+
     /** Feed a data file loader by browsing the entries in a zip/jar.
      * @param prefix prefix to use for name
      * @param supported pattern for file names supported by the visitor
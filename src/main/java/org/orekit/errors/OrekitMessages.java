@@ -187,7 +187,13 @@ public enum OrekitMessages implements Localizable {
     NULL_ARGUMENT("argument {0} cannot be null"),
     VALUE_NOT_FOUND("value {0} not found in {1}"),
     EPHEMERIS_FILE_NO_MULTI_SUPPORT("Ephemeris file format does not support multiple space objects"),
-    LOF_FRAME_NO_PROVIDER_FOR_FIELD("no FieldPVCoordinatesProvider for field {0} in LOF frame {1}");
+    LOF_FRAME_NO_PROVIDER_FOR_FIELD("no FieldPVCoordinatesProvider for field {0} in LOF frame {1}"),
+    NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE("file {0} is not a supported transform table file"),
+    OUT_OF_RANGE_TRANSFORM_TABLE_DATE("out of range date for transform table: {0}, [{1}, {2}]"),
+    FORMATION_MEMBER_DATE_MISMATCH("initial date {0} of formation member {1} does not match formation initial date {2}"),
+    TOO_LARGE_INTERPOLATION_ERROR("interpolation error {0} at {1} exceeds threshold {2}"),
+    FORMATION_SHARED_FORCE_MODEL("force model with event detectors already used by formation member {0}, each member needs its own instance"),
+    TRANSFORM_TABLE_END_BEFORE_START("end date {0} is before start date {1} for transform table");
 
 
     // CHECKSTYLE: resume JavadocVariable check
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.exception.MathRuntimeException;
@@ -35,6 +36,7 @@ import org.hipparchus.optim.nonlinear.vector.leastsquares.ParameterValidator;
 import org.hipparchus.util.Incrementor;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.estimation.measurements.EstimatedMeasurement;
 import org.orekit.estimation.measurements.EstimationsProvider;
 import org.orekit.estimation.measurements.ObservedMeasurement;
@@ -48,11 +50,24 @@ import org.orekit.utils.ParameterDriversList.DelegatingDriver;
 
 
 /** Least squares estimator for orbit determination.
+ * <p>
+ * By default, measurements are evaluated on the fly during each propagation.
+ * If a {@link #setPool(ForkJoinPool) pool} is set, the spacecraft states at
+ * measurements dates are collected during propagation and the measurements
+ * are evaluated in parallel afterwards. The results are identical to the
+ * sequential evaluation, but the measurements and their modifiers must
+ * then support being evaluated concurrently.
+ * </p>
  * @author Luc Maisonobe
  * @since 8.0
  */
 public class BatchLSEstimator {
 
+    /** Default minimum number of measurements per parallel task.
+     * @since 9.0
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
     /** Builder for propagator. */
     private final NumericalPropagatorBuilder propagatorBuilder;
 
@@ -86,6 +101,12 @@ public class BatchLSEstimator {
     /** Counter for the iterations. */
     private Incrementor iterationsCounter;
 
+    /** Pool for parallel measurements evaluation (null for sequential evaluation). */
+    private ForkJoinPool pool;
+
+    /** Minimum number of measurements per parallel task. */
+    private int chunkSize;
+
     /** Simple constructor.
      * @param propagatorBuilder builder to user for propagation
      * @param optimizer solver for least squares problem
@@ -102,6 +123,8 @@ public class BatchLSEstimator {
         this.lsBuilder                      = new LeastSquaresBuilder();
         this.estimations                    = null;
         this.observer                       = null;
+        this.pool                           = null;
+        this.chunkSize                      = DEFAULT_CHUNK_SIZE;
 
         // our model computes value and Jacobian in one call,
         // so we don't use the lazy evaluation feature
@@ -121,6 +144,28 @@ public class BatchLSEstimator {
         this.observer = observer;
     }
 
+    /** Set the pool for parallel measurements evaluation.
+     * @param pool pool to use for parallel evaluation (null for sequential evaluation)
+     * @see #setPool(ForkJoinPool, int)
+     * @since 9.0
+     */
+    public void setPool(final ForkJoinPool pool) {
+        setPool(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /** Set the pool for parallel measurements evaluation.
+     * @param forkJoinPool pool to use for parallel evaluation (null for sequential evaluation)
+     * @param minChunkSize minimum number of measurements per parallel task
+     * @since 9.0
+     */
+    public void setPool(final ForkJoinPool forkJoinPool, final int minChunkSize) {
+        if (minChunkSize < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, minChunkSize, 1);
+        }
+        this.pool      = forkJoinPool;
+        this.chunkSize = minChunkSize;
+    }
+
     /** Add a measurement.
      * @param measurement measurement to add
      * @exception OrekitException if the measurement has a parameter
@@ -337,6 +382,7 @@ public class BatchLSEstimator {
         };
         final Model model = new Model(propagatorBuilder, measurements, estimatedMeasurementsParameters,
                                       modelObserver);
+        model.setPool(pool, chunkSize);
         lsBuilder.model(model);
 
         // add a validator for orbital parameters
@@ -393,19 +439,21 @@ public class BatchLSEstimator {
     }
 
     /** Get the number of iterations used for last estimation.
-     * @return number of iterations used for last estimation
+     * @return number of iterations used for last estimation (0 if
+     * no estimation has been started yet)
      * @see #setMaxIterations(int)
      */
     public int getIterationsCount() {
-        return iterationsCounter.getCount();
+        return (iterationsCounter == null) ? 0 : iterationsCounter.getCount();
     }
 
     /** Get the number of evaluations used for last estimation.
-     * @return number of evaluations used for last estimation
+     * @return number of evaluations used for last estimation (0 if
+     * no estimation has been started yet)
      * @see #setMaxEvaluations(int)
      */
     public int getEvaluationsCount() {
-        return evaluationsCounter.getCount();
+        return (evaluationsCounter == null) ? 0 : evaluationsCounter.getCount();
     }
 
     /** Wrapper used to tap the various counters. */
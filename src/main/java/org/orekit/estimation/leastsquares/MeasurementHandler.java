@@ -20,7 +20,6 @@ import java.util.List;
 
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
-import org.orekit.estimation.measurements.EstimatedMeasurement;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.sampling.OrekitStepHandler;
@@ -85,14 +84,9 @@ class MeasurementHandler implements OrekitStepHandler {
             // get the observed measurement
             final ObservedMeasurement<?> observed = next.getMeasurement();
 
-            // estimate the theoretical measurement
-            final SpacecraftState         state     = interpolator.getInterpolatedState(next.getDate());
-            final EstimatedMeasurement<?> estimated = observed.estimate(model.getIterationsCount(),
-                                                                        model.getEvaluationsCount(),
-                                                                        state);
-
-            // fetch the evaluated measurement to the estimator
-            model.fetchEvaluatedMeasurement(index, estimated);
+            // let the model estimate the theoretical measurement
+            final SpacecraftState state = interpolator.getInterpolatedState(next.getDate());
+            model.handleMeasurement(index, observed, state);
 
             // prepare handling of next measurement
             ++number;
@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.hipparchus.linear.Array2DRowRealMatrix;
 import org.hipparchus.linear.ArrayRealVector;
@@ -99,6 +101,15 @@ class Model implements MultivariateJacobianFunction {
     /** Model function Jacobian. */
     private RealMatrix jacobian;
 
+    /** Pool for parallel measurements evaluation (null for sequential evaluation). */
+    private ForkJoinPool pool;
+
+    /** Minimum number of measurements per parallel task. */
+    private int chunkSize;
+
+    /** Measurements whose evaluation is deferred after propagation. */
+    private final List<DeferredMeasurement> deferred;
+
     /** Simple constructor.
      * @param propagatorBuilder builder to user for propagation
      * @param measurements measurements
@@ -117,6 +128,9 @@ class Model implements MultivariateJacobianFunction {
         this.parameterColumns                = new HashMap<String, Integer>(estimatedMeasurementsParameters.getDrivers().size());
         this.evaluations                     = new IdentityHashMap<ObservedMeasurement<?>, EstimatedMeasurement<?>>(measurements.size());
         this.observer                        = observer;
+        this.pool                            = null;
+        this.chunkSize                       = 1;
+        this.deferred                        = new ArrayList<DeferredMeasurement>();
 
         // allocate vector and matrix
         int rows = 0;
@@ -164,6 +178,15 @@ class Model implements MultivariateJacobianFunction {
         this.iterationsCounter = iterationsCounter;
     }
 
+    /** Set the pool for parallel measurements evaluation.
+     * @param forkJoinPool pool to use for parallel evaluation (null for sequential evaluation)
+     * @param minChunkSize minimum number of measurements per parallel task
+     */
+    void setPool(final ForkJoinPool forkJoinPool, final int minChunkSize) {
+        this.pool      = forkJoinPool;
+        this.chunkSize = minChunkSize;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Pair<RealVector, RealMatrix> value(final RealVector point)
@@ -178,6 +201,7 @@ class Model implements MultivariateJacobianFunction {
 
             // reset value and Jacobian
             evaluations.clear();
+            deferred.clear();
             value.set(0.0);
             for (int i = 0; i < jacobian.getRowDimension(); ++i) {
                 for (int j = 0; j < jacobian.getColumnDimension(); ++j) {
@@ -188,6 +212,11 @@ class Model implements MultivariateJacobianFunction {
             // run the propagation, gathering residuals on the fly
             propagator.propagate(firstDate.shiftedBy(-1.0), lastDate.shiftedBy(+1.0));
 
+            if (!deferred.isEmpty()) {
+                // evaluate the measurements whose states were collected during propagation
+                evaluateDeferred();
+            }
+
             observer.modelCalled(orbit, evaluations);
 
             return new Pair<RealVector, RealMatrix>(value, jacobian);
@@ -280,16 +309,65 @@ class Model implements MultivariateJacobianFunction {
 
     }
 
+    /** Handle a measurement whose state has been interpolated during propagation.
+     * <p>
+     * If no pool has been set, the measurement is evaluated immediately,
+     * otherwise its evaluation is deferred until the end of propagation.
+     * </p>
+     * @param index index of the measurement first component
+     * @param observed observed measurement
+     * @param state interpolated spacecraft state at measurement date
+     * @exception OrekitException if measurement cannot be evaluated
+     */
+    void handleMeasurement(final int index, final ObservedMeasurement<?> observed, final SpacecraftState state)
+        throws OrekitException {
+        if (pool == null) {
+            fetchEvaluatedMeasurement(index,
+                                      observed.estimate(getIterationsCount(), getEvaluationsCount(), state));
+        } else {
+            deferred.add(new DeferredMeasurement(index, observed, state));
+        }
+    }
+
+    /** Evaluate in parallel the deferred measurements.
+     * <p>
+     * Each measurement fills its own rows in the value vector and Jacobian
+     * matrix, and estimations are stored afterwards in the same evaluations
+     * map as sequential evaluation uses, so the results are identical.
+     * </p>
+     * @exception OrekitException if some measurement cannot be evaluated
+     */
+    private void evaluateDeferred() throws OrekitException {
+        try {
+            pool.invoke(new EvaluationTask(0, deferred.size()));
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+        for (final DeferredMeasurement measurement : deferred) {
+            evaluations.put(measurement.observed, measurement.estimated);
+        }
+    }
+
     /** Fetch a measurement that was evaluated during propagation.
      * @param index index of the measurement first component
      * @param evaluation measurement evaluation
      * @exception OrekitException if Jacobians cannot be computed
      */
-    void fetchEvaluatedMeasurement(final int index, final EstimatedMeasurement<?> evaluation)
+    private void fetchEvaluatedMeasurement(final int index, final EstimatedMeasurement<?> evaluation)
+        throws OrekitException {
+        evaluations.put(evaluation.getObservedMeasurement(), evaluation);
+        fillRows(index, evaluation);
+    }
+
+    /** Fill the value and Jacobian rows corresponding to one measurement.
+     * @param index index of the measurement first component
+     * @param evaluation measurement evaluation
+     * @exception OrekitException if Jacobians cannot be computed
+     */
+    private void fillRows(final int index, final EstimatedMeasurement<?> evaluation)
         throws OrekitException {
 
         // compute weighted residuals
-        evaluations.put(evaluation.getObservedMeasurement(), evaluation);
         final double[] evaluated = evaluation.getEstimatedValue();
         final double[] observed  = evaluation.getObservedMeasurement().getObservedValue();
         final double[] sigma     = evaluation.getObservedMeasurement().getTheoreticalStandardDeviation();
@@ -354,4 +432,76 @@ class Model implements MultivariateJacobianFunction {
 
     }
 
+    /** Container for measurements whose evaluation is deferred. */
+    private static class DeferredMeasurement {
+
+        /** Index of the measurement first component. */
+        private final int index;
+
+        /** Observed measurement. */
+        private final ObservedMeasurement<?> observed;
+
+        /** Interpolated spacecraft state at measurement date. */
+        private final SpacecraftState state;
+
+        /** Estimated measurement (null until evaluation). */
+        private EstimatedMeasurement<?> estimated;
+
+        /** Simple constructor.
+         * @param index index of the measurement first component
+         * @param observed observed measurement
+         * @param state interpolated spacecraft state at measurement date
+         */
+        DeferredMeasurement(final int index, final ObservedMeasurement<?> observed, final SpacecraftState state) {
+            this.index    = index;
+            this.observed = observed;
+            this.state    = state;
+        }
+
+    }
+
+    /** Task for parallel measurements evaluation. */
+    private class EvaluationTask extends RecursiveAction {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170116L;
+
+        /** Index of the first deferred measurement to evaluate. */
+        private final int from;
+
+        /** Index after the last deferred measurement to evaluate. */
+        private final int to;
+
+        /** Simple constructor.
+         * @param from index of the first deferred measurement to evaluate
+         * @param to index after the last deferred measurement to evaluate
+         */
+        EvaluationTask(final int from, final int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                try {
+                    for (int i = from; i < to; ++i) {
+                        final DeferredMeasurement measurement = deferred.get(i);
+                        measurement.estimated = measurement.observed.estimate(getIterationsCount(),
+                                                                              getEvaluationsCount(),
+                                                                              measurement.state);
+                        fillRows(measurement.index, measurement.estimated);
+                    }
+                } catch (OrekitException oe) {
+                    throw new OrekitExceptionWrapper(oe);
+                }
+            } else {
+                final int middle = (from + to) / 2;
+                invokeAll(new EvaluationTask(from, middle), new EvaluationTask(middle, to));
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,328 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresOptimizer;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+
+/** Driver for running independent orbit determinations for several satellites concurrently.
+ * <p>
+ * Each satellite is handled by its own {@link BatchLSEstimator}, and all estimations
+ * are submitted to a user-provided {@link ExecutorService}. The shared data (time scales,
+ * frames, Earth Orientation Parameters, celestial bodies) are loaded lazily under locks
+ * by their factories and are read-only afterwards, so they are safely shared between
+ * all estimations. On the other hand, propagator builders, measurements and ground
+ * stations hold {@link org.orekit.utils.ParameterDriver parameters drivers} that are
+ * modified during estimation, so they must <em>not</em> be shared between satellites.
+ * </p>
+ * <p>
+ * The failure of one estimation does not prevent the other ones to complete,
+ * it is reported in the {@link SatelliteResult result} of the corresponding
+ * satellite.
+ * </p>
+ * @since 9.0
+ */
+public class MultiSatelliteBatchLSDriver {
+
+    /** Executor for running the estimations. */
+    private final ExecutorService executor;
+
+    /** Solver for least squares problems. */
+    private final LeastSquaresOptimizer optimizer;
+
+    /** Convergence threshold on normalized parameters. */
+    private double parametersConvergenceThreshold;
+
+    /** Maximum number of iterations. */
+    private int maxIterations;
+
+    /** Maximum number of evaluations. */
+    private int maxEvaluations;
+
+    /** Names of the satellites. */
+    private final List<String> names;
+
+    /** Estimators for the satellites. */
+    private final List<BatchLSEstimator> estimators;
+
+    /** Simple constructor.
+     * <p>
+     * The executor is not shut down by the driver, it is the responsibility
+     * of the caller to shut it down when it is not needed anymore.
+     * </p>
+     * <p>
+     * The optimizer is used only for satellites added using
+     * {@link #addSatellite(String, NumericalPropagatorBuilder, List)}, so it
+     * is shared between several threads and must therefore be thread-safe.
+     * The optimizers from Hipparchus are immutable and hence thread-safe.
+     * </p>
+     * @param executor executor for running the estimations
+     * @param optimizer solver for least squares problems
+     */
+    public MultiSatelliteBatchLSDriver(final ExecutorService executor,
+                                       final LeastSquaresOptimizer optimizer) {
+        this.executor                       = executor;
+        this.optimizer                      = optimizer;
+        this.parametersConvergenceThreshold = Double.NaN;
+        this.maxIterations                  = Integer.MAX_VALUE;
+        this.maxEvaluations                 = Integer.MAX_VALUE;
+        this.names                          = new ArrayList<String>();
+        this.estimators                     = new ArrayList<BatchLSEstimator>();
+    }
+
+    /** Set the convergence threshold for satellites added afterwards.
+     * @param parametersConvergenceThreshold convergence threshold on
+     * normalized parameters (dimensionless, related to parameters scales)
+     * @see BatchLSEstimator#setParametersConvergenceThreshold(double)
+     */
+    public void setParametersConvergenceThreshold(final double parametersConvergenceThreshold) {
+        this.parametersConvergenceThreshold = parametersConvergenceThreshold;
+    }
+
+    /** Set the maximum number of iterations for satellites added afterwards.
+     * @param maxIterations maxIterations maximum number of iterations
+     * @see BatchLSEstimator#setMaxIterations(int)
+     */
+    public void setMaxIterations(final int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /** Set the maximum number of evaluations for satellites added afterwards.
+     * @param maxEvaluations maximum number of evaluations
+     * @see BatchLSEstimator#setMaxEvaluations(int)
+     */
+    public void setMaxEvaluations(final int maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /** Add a satellite.
+     * <p>
+     * The estimator for this satellite is built using the optimizer set
+     * at construction and the current convergence threshold, maximum
+     * number of iterations and maximum number of evaluations.
+     * </p>
+     * @param name name of the satellite
+     * @param propagatorBuilder builder to use for propagation (must not
+     * be shared with other satellites)
+     * @param measurements measurements for this satellite (must not be
+     * shared with other satellites)
+     * @return estimator built for this satellite, it can be customized
+     * further before calling {@link #estimate()}
+     * @exception OrekitException if some propagator parameter cannot be retrieved
+     * or some measurements have conflicting parameters
+     */
+    public BatchLSEstimator addSatellite(final String name,
+                                         final NumericalPropagatorBuilder propagatorBuilder,
+                                         final List<ObservedMeasurement<?>> measurements)
+        throws OrekitException {
+        final BatchLSEstimator estimator = new BatchLSEstimator(propagatorBuilder, optimizer);
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            estimator.addMeasurement(measurement);
+        }
+        estimator.setParametersConvergenceThreshold(parametersConvergenceThreshold);
+        estimator.setMaxIterations(maxIterations);
+        estimator.setMaxEvaluations(maxEvaluations);
+        addSatellite(name, estimator);
+        return estimator;
+    }
+
+    /** Add a satellite with a fully configured estimator.
+     * @param name name of the satellite
+     * @param estimator estimator for this satellite
+     */
+    public void addSatellite(final String name, final BatchLSEstimator estimator) {
+        names.add(name);
+        estimators.add(estimator);
+    }
+
+    /** Get the number of satellites.
+     * @return number of satellites
+     */
+    public int getNbSatellites() {
+        return estimators.size();
+    }
+
+    /** Run all estimations concurrently.
+     * <p>
+     * This method blocks until all estimations are completed.
+     * </p>
+     * @return results for all satellites, in the same order the satellites were added
+     * @exception InterruptedException if the calling thread is interrupted
+     * while waiting for the estimations to complete
+     */
+    public List<SatelliteResult> estimate() throws InterruptedException {
+
+        // submit all estimations
+        final List<Future<SatelliteResult>> futures = new ArrayList<Future<SatelliteResult>>(estimators.size());
+        for (int i = 0; i < estimators.size(); ++i) {
+            final String           name      = names.get(i);
+            final BatchLSEstimator estimator = estimators.get(i);
+            futures.add(executor.submit(() -> estimate(name, estimator)));
+        }
+
+        // gather the results
+        final List<SatelliteResult> results = new ArrayList<SatelliteResult>(futures.size());
+        for (final Future<SatelliteResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ee) {
+                // estimation errors are caught in the task, so this is an unexpected runtime error
+                final Throwable cause = ee.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+
+        return results;
+
+    }
+
+    /** Run one estimation.
+     * @param name name of the satellite
+     * @param estimator estimator for this satellite
+     * @return result for this satellite
+     */
+    private SatelliteResult estimate(final String name, final BatchLSEstimator estimator) {
+        final long start = System.nanoTime();
+        try {
+            final NumericalPropagator propagator = estimator.estimate();
+            return new SatelliteResult(name, estimator, propagator, null,
+                                       1.0e-9 * (System.nanoTime() - start));
+        } catch (OrekitException oe) {
+            return new SatelliteResult(name, estimator, null, oe,
+                                       1.0e-9 * (System.nanoTime() - start));
+        }
+    }
+
+    /** Container for the result of one satellite estimation. */
+    public static class SatelliteResult {
+
+        /** Name of the satellite. */
+        private final String name;
+
+        /** Estimator used. */
+        private final BatchLSEstimator estimator;
+
+        /** Propagator configured with estimated parameters (null if estimation failed). */
+        private final NumericalPropagator propagator;
+
+        /** Error that occurred during estimation (null if estimation succeeded). */
+        private final OrekitException error;
+
+        /** Elapsed time (s). */
+        private final double elapsed;
+
+        /** Simple constructor.
+         * @param name name of the satellite
+         * @param estimator estimator used
+         * @param propagator propagator configured with estimated parameters
+         * (null if estimation failed)
+         * @param error error that occurred during estimation (null if estimation succeeded)
+         * @param elapsed elapsed time (s)
+         */
+        SatelliteResult(final String name, final BatchLSEstimator estimator,
+                        final NumericalPropagator propagator, final OrekitException error,
+                        final double elapsed) {
+            this.name       = name;
+            this.estimator  = estimator;
+            this.propagator = propagator;
+            this.error      = error;
+            this.elapsed    = elapsed;
+        }
+
+        /** Get the name of the satellite.
+         * @return name of the satellite
+         */
+        public String getName() {
+            return name;
+        }
+
+        /** Get the estimator used.
+         * <p>
+         * The estimator gives access to the estimated parameters, last
+         * estimations and optimum found.
+         * </p>
+         * @return estimator used
+         */
+        public BatchLSEstimator getEstimator() {
+            return estimator;
+        }
+
+        /** Check if estimation succeeded.
+         * @return true if estimation succeeded
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /** Get the propagator configured with estimated parameters.
+         * @return propagator configured with estimated parameters (null if estimation failed)
+         */
+        public NumericalPropagator getPropagator() {
+            return propagator;
+        }
+
+        /** Get the error that occurred during estimation.
+         * @return error that occurred during estimation (null if estimation succeeded)
+         */
+        public OrekitException getError() {
+            return error;
+        }
+
+        /** Get the wall-clock time used by the estimation.
+         * @return elapsed time (s)
+         */
+        public double getElapsedTime() {
+            return elapsed;
+        }
+
+        /** Get the number of iterations used.
+         * @return number of iterations used
+         */
+        public int getIterationsCount() {
+            return estimator.getIterationsCount();
+        }
+
+        /** Get the number of evaluations used.
+         * @return number of evaluations used
+         */
+        public int getEvaluationsCount() {
+            return estimator.getEvaluationsCount();
+        }
+
+        /** Get the root mean square of the weighted residuals at optimum.
+         * @return root mean square of the weighted residuals at optimum
+         * (NaN if estimation failed)
+         */
+        public double getRMS() {
+            return isSuccessful() ? estimator.getOptimum().getRMS() : Double.NaN;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.propagation.SpacecraftState;
+
+/** Provider for constant process noise matrices.
+ * @since 9.0
+ */
+public class ConstantProcessNoise implements CovarianceMatrixProvider {
+
+    /** Initial covariance matrix. */
+    private final RealMatrix initialCovarianceMatrix;
+
+    /** Constant process noise. */
+    private final RealMatrix processNoiseMatrix;
+
+    /** Simple constructor.
+     * @param initialCovarianceMatrix initial covariance matrix
+     * @param processNoiseMatrix constant process noise, added at each measurement
+     */
+    public ConstantProcessNoise(final RealMatrix initialCovarianceMatrix,
+                                final RealMatrix processNoiseMatrix) {
+        this.initialCovarianceMatrix = initialCovarianceMatrix;
+        this.processNoiseMatrix      = processNoiseMatrix;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix getInitialCovarianceMatrix(final SpacecraftState initial) {
+        return initialCovarianceMatrix;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix getProcessNoiseMatrix(final SpacecraftState previous,
+                                            final SpacecraftState current) {
+        return processNoiseMatrix;
+    }
+
+}
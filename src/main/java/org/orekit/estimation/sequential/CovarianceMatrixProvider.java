@@ -0,0 +1,52 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+
+/** Provider for initial covariance and process noise matrices.
+ * <p>
+ * All matrices are expressed in terms of {@link
+ * org.orekit.utils.ParameterDriver#getNormalizedValue() normalized} parameters,
+ * with the estimated orbital parameters first, then the estimated propagation
+ * parameters and last the estimated measurements parameters, in the same order
+ * as in the {@link KalmanEstimator estimator}.
+ * </p>
+ * @since 9.0
+ */
+public interface CovarianceMatrixProvider {
+
+    /** Get the initial covariance matrix.
+     * @param initial initial spacecraft state
+     * @return initial covariance matrix
+     * @exception OrekitException if matrix cannot be computed
+     */
+    RealMatrix getInitialCovarianceMatrix(SpacecraftState initial)
+        throws OrekitException;
+
+    /** Get the process noise matrix between two states.
+     * @param previous previous estimated state
+     * @param current current predicted state
+     * @return process noise matrix to add to the predicted covariance
+     * @exception OrekitException if matrix cannot be computed
+     */
+    RealMatrix getProcessNoiseMatrix(SpacecraftState previous, SpacecraftState current)
+        throws OrekitException;
+
+}
@@ -0,0 +1,506 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.orekit.attitudes.Attitude;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.numerical.JacobiansMapper;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.numerical.PartialDerivativesEquations;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+
+/** Extended Kalman filter for orbit determination.
+ * <p>
+ * Measurements are processed one at a time, typically as they are received.
+ * For each measurement, the current estimated state and its state transition
+ * matrix are propagated from the date of the previous measurement to the date
+ * of the new one, the measurement is {@link ObservedMeasurement#estimate(int, int,
+ * SpacecraftState) estimated} from the predicted state with all its modifiers,
+ * and the state, the parameters and the covariance are corrected. Neither the
+ * memory used nor the processing time per measurement depend on the number of
+ * measurements already processed.
+ * </p>
+ * <p>
+ * The estimated parameters are the selected {@link
+ * NumericalPropagatorBuilder#getOrbitalParametersDrivers() orbital parameters}
+ * (using the builder orbit type and position angle, at the date of the last
+ * processed measurement), the selected {@link
+ * NumericalPropagatorBuilder#getPropagationParametersDrivers() propagation
+ * parameters} and the measurements parameters provided at construction. The
+ * covariance matrix is expressed in terms of {@link ParameterDriver#getNormalizedValue()
+ * normalized} parameters, in this order. Propagation and measurements parameters
+ * are updated directly in their drivers.
+ * </p>
+ * <p>
+ * If the {@link NewtonianAttraction#CENTRAL_ATTRACTION_COEFFICIENT central attraction
+ * coefficient} is a selected propagation parameter, the estimated orbit always uses
+ * its current estimated value.
+ * </p>
+ * <p>
+ * The measurement noise matrix is diagonal, built from the observed measurements
+ * {@link ObservedMeasurement#getTheoreticalStandardDeviation() theoretical standard
+ * deviations} divided by the {@link EstimatedMeasurement#getCurrentWeight() current
+ * weights}, consistently with the batch least squares estimator. Each processed
+ * measurement counts as one iteration for the estimation modifiers, so an {@link
+ * org.orekit.estimation.measurements.OutlierFilter outlier filter} is applied once
+ * its warmup number of measurements have been processed. Components with a zero
+ * weight (for example rejected outliers) do not correct the state, and if all
+ * components are rejected, the state and covariance are only predicted.
+ * Disabled measurements are silently ignored.
+ * </p>
+ * @since 9.0
+ */
+public class KalmanEstimator {
+
+    /** Builder for propagator. */
+    private final NumericalPropagatorBuilder propagatorBuilder;
+
+    /** Scales of all orbital parameters. */
+    private final double[] orbitalScales;
+
+    /** Columns of orbital parameters (-1 for parameters that are not estimated). */
+    private final int[] orbitalColumns;
+
+    /** Number of estimated orbital parameters. */
+    private final int estimatedOrbitalParameters;
+
+    /** Estimated propagation parameters. */
+    private final List<ParameterDriver> estimatedPropagationParameters;
+
+    /** Driver for the central attraction coefficient (null if not estimated). */
+    private final ParameterDriver muDriver;
+
+    /** Estimated measurements parameters. */
+    private final ParameterDriversList estimatedMeasurementsParameters;
+
+    /** Map for measurements parameters columns. */
+    private final Map<String, Integer> parameterColumns;
+
+    /** Provider for covariance matrices. */
+    private final CovarianceMatrixProvider covarianceMatrixProvider;
+
+    /** Observer to be notified after each measurement (may be null). */
+    private KalmanObserver observer;
+
+    /** Current estimated state. */
+    private SpacecraftState estimatedState;
+
+    /** Current covariance of normalized parameters. */
+    private RealMatrix covariance;
+
+    /** Number of processed measurements. */
+    private int processedMeasurements;
+
+    /** Simple constructor.
+     * <p>
+     * The initial state is built from the current values of the builder
+     * orbital parameters, at the builder initial orbit date.
+     * </p>
+     * @param propagatorBuilder builder to user for propagation
+     * @param estimatedMeasurementsParameters measurements parameters to estimate
+     * (they must already be selected)
+     * @param covarianceMatrixProvider provider for initial covariance and process noise
+     * @exception OrekitException if initial state or covariance cannot be computed
+     * @exception OrekitIllegalArgumentException if initial covariance dimension does
+     * not match the number of estimated parameters
+     */
+    public KalmanEstimator(final NumericalPropagatorBuilder propagatorBuilder,
+                           final ParameterDriversList estimatedMeasurementsParameters,
+                           final CovarianceMatrixProvider covarianceMatrixProvider)
+        throws OrekitException, OrekitIllegalArgumentException {
+
+        this.propagatorBuilder               = propagatorBuilder;
+        this.estimatedMeasurementsParameters = estimatedMeasurementsParameters;
+        this.covarianceMatrixProvider        = covarianceMatrixProvider;
+        this.observer                        = null;
+        this.processedMeasurements           = 0;
+
+        int columns = 0;
+        final List<? extends ParameterDriver> orbitalDrivers = propagatorBuilder.getOrbitalParametersDrivers().getDrivers();
+        this.orbitalScales  = new double[orbitalDrivers.size()];
+        this.orbitalColumns = new int[orbitalDrivers.size()];
+        for (int i = 0; i < orbitalDrivers.size(); ++i) {
+            orbitalScales[i]  = orbitalDrivers.get(i).getScale();
+            orbitalColumns[i] = orbitalDrivers.get(i).isSelected() ? columns++ : -1;
+        }
+        this.estimatedOrbitalParameters = columns;
+
+        this.estimatedPropagationParameters = new ArrayList<ParameterDriver>();
+        ParameterDriver estimatedMu = null;
+        for (final ParameterDriver driver : propagatorBuilder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.isSelected()) {
+                estimatedPropagationParameters.add(driver);
+                if (driver.getName().equals(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT)) {
+                    estimatedMu = driver;
+                }
+                ++columns;
+            }
+        }
+        this.muDriver = estimatedMu;
+
+        this.parameterColumns = new HashMap<String, Integer>(estimatedMeasurementsParameters.getNbParams());
+        for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+            parameterColumns.put(driver.getName(), columns++);
+        }
+
+        this.estimatedState =
+                propagatorBuilder.buildPropagator(propagatorBuilder.getSelectedNormalizedParameters()).getInitialState();
+        this.covariance     = covarianceMatrixProvider.getInitialCovarianceMatrix(estimatedState).copy();
+        checkDimension(covariance, columns);
+
+    }
+
+    /** Set an observer for measurements processing.
+     * @param observer observer to be notified after each measurement
+     */
+    public void setObserver(final KalmanObserver observer) {
+        this.observer = observer;
+    }
+
+    /** Get the current estimated state.
+     * @return current estimated state, at the date of the last processed measurement
+     */
+    public SpacecraftState getEstimatedState() {
+        return estimatedState;
+    }
+
+    /** Get the current covariance of the estimated normalized parameters.
+     * @return current covariance (a copy)
+     */
+    public RealMatrix getEstimatedCovariance() {
+        return covariance.copy();
+    }
+
+    /** Get the number of measurements processed so far.
+     * @return number of processed measurements
+     */
+    public int getProcessedMeasurements() {
+        return processedMeasurements;
+    }
+
+    /** Build a propagator starting from the current estimated state.
+     * @return propagator configured with the current estimated state and parameters
+     * @exception OrekitException if propagator cannot be built
+     */
+    public NumericalPropagator buildPropagator() throws OrekitException {
+        final NumericalPropagator propagator =
+                propagatorBuilder.buildPropagator(propagatorBuilder.getSelectedNormalizedParameters());
+        if (muDriver != null) {
+            // the central attraction is created by the propagator from the builder value,
+            // it must be selected for its partial derivatives to be computed
+            propagator.getNewtonianAttractionForceModel().getParametersDrivers()[0].setSelected(true);
+        }
+        propagator.resetInitialState(estimatedState);
+        return propagator;
+    }
+
+    /** Process several measurements, in iteration order.
+     * @param measurements measurements to process
+     * @return estimated state after the last measurement
+     * @exception OrekitException if some measurement cannot be processed
+     */
+    public SpacecraftState processMeasurements(final Iterable<ObservedMeasurement<?>> measurements)
+        throws OrekitException {
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            processMeasurement(measurement);
+        }
+        return estimatedState;
+    }
+
+    /** Process one measurement.
+     * @param observed measurement to process
+     * @return estimated state corrected using the measurement
+     * @exception OrekitException if the measurement cannot be processed
+     */
+    public SpacecraftState processMeasurement(final ObservedMeasurement<?> observed)
+        throws OrekitException {
+
+        if (!observed.isEnabled()) {
+            return estimatedState;
+        }
+
+        // prediction: propagate state and state transition matrix up to measurement date
+        final NumericalPropagator propagator = buildPropagator();
+        final String equationName = KalmanEstimator.class.getName() + "-derivatives";
+        final PartialDerivativesEquations partials = new PartialDerivativesEquations(equationName, propagator);
+        propagator.resetInitialState(partials.setInitialJacobians(estimatedState, 6));
+        final JacobiansMapper mapper = partials.getMapper();
+        final SpacecraftState predicted = propagator.propagate(observed.getDate());
+
+        final RealMatrix transition = createTransitionMatrix(predicted, mapper, partials.getSelectedParameters());
+        final RealMatrix predictedCovariance =
+                transition.multiply(covariance).multiplyTransposed(transition).
+                add(covarianceMatrixProvider.getProcessNoiseMatrix(estimatedState, predicted));
+        checkDimension(predictedCovariance, covariance.getRowDimension());
+
+        // estimate the measurement from the predicted state,
+        // each measurement being considered as a new iteration
+        final EstimatedMeasurement<?> estimated =
+                observed.estimate(processedMeasurements + 1, processedMeasurements + 1, predicted);
+
+        // select the components that have not been rejected
+        final double[] weight = estimated.getCurrentWeight();
+        int active = 0;
+        for (final double w : weight) {
+            if (w > 0) {
+                ++active;
+            }
+        }
+
+        if (active == 0) {
+            // the measurement has been rejected, the state and covariance are only predicted
+            estimatedState = applyCorrection(predicted, new ArrayRealVector(covariance.getRowDimension()));
+            covariance     = predictedCovariance;
+        } else {
+
+            // measurement matrix, noise and innovation, restricted to active components
+            final RealMatrix hAll           = createMeasurementMatrix(estimated);
+            final double[]   sigma          = observed.getTheoreticalStandardDeviation();
+            final double[]   observedValue  = observed.getObservedValue();
+            final double[]   estimatedValue = estimated.getEstimatedValue();
+            final RealMatrix h              = MatrixUtils.createRealMatrix(active, hAll.getColumnDimension());
+            final RealMatrix r              = MatrixUtils.createRealMatrix(active, active);
+            final RealVector innovation     = new ArrayRealVector(active);
+            int k = 0;
+            for (int i = 0; i < weight.length; ++i) {
+                if (weight[i] > 0) {
+                    final double noise = sigma[i] / weight[i];
+                    h.setRow(k, hAll.getRow(i));
+                    r.setEntry(k, k, noise * noise);
+                    innovation.setEntry(k, observedValue[i] - estimatedValue[i]);
+                    ++k;
+                }
+            }
+
+            // Kalman gain
+            final RealMatrix phT  = predictedCovariance.multiplyTransposed(h);
+            final RealMatrix s    = h.multiply(phT).add(r);
+            final RealMatrix gain = phT.multiply(MatrixUtils.inverse(s));
+
+            // correction
+            final RealVector correction = gain.operate(innovation);
+            estimatedState = applyCorrection(predicted, correction);
+
+            // Joseph form of the covariance update, which preserves symmetry and positiveness
+            final RealMatrix iMinusKH = MatrixUtils.createRealIdentityMatrix(covariance.getRowDimension()).
+                                        subtract(gain.multiply(h));
+            covariance = iMinusKH.multiply(predictedCovariance).multiplyTransposed(iMinusKH).
+                         add(gain.multiply(r).multiplyTransposed(gain));
+
+        }
+
+        ++processedMeasurements;
+        if (observer != null) {
+            observer.evaluationPerformed(processedMeasurements, estimated, estimatedState, covariance.copy());
+        }
+
+        return estimatedState;
+
+    }
+
+    /** Create the state transition matrix for normalized parameters.
+     * @param predicted predicted state, with Jacobians
+     * @param mapper mapper for Jacobians
+     * @param selected propagation parameters, in Jacobians columns order
+     * @return state transition matrix from previous date to predicted state date
+     * @exception OrekitException if Jacobians cannot be retrieved
+     */
+    private RealMatrix createTransitionMatrix(final SpacecraftState predicted, final JacobiansMapper mapper,
+                                              final ParameterDriversList selected)
+        throws OrekitException {
+
+        final RealMatrix transition = MatrixUtils.createRealIdentityMatrix(covariance.getRowDimension());
+
+        // Jacobian of current orbital state with respect to previous orbital state
+        final double[][] dYdY0 = new double[6][6];
+        mapper.getStateJacobian(predicted, dYdY0);
+        for (int i = 0; i < orbitalColumns.length; ++i) {
+            if (orbitalColumns[i] >= 0) {
+                for (int j = 0; j < orbitalColumns.length; ++j) {
+                    if (orbitalColumns[j] >= 0) {
+                        transition.setEntry(orbitalColumns[i], orbitalColumns[j],
+                                            dYdY0[i][j] * orbitalScales[j] / orbitalScales[i]);
+                    }
+                }
+            }
+        }
+
+        // Jacobian of current orbital state with respect to propagation parameters
+        if (!estimatedPropagationParameters.isEmpty()) {
+            final double[][] dYdPp = new double[6][mapper.getParameters()];
+            mapper.getParametersJacobian(predicted, dYdPp);
+            int column = estimatedOrbitalParameters;
+            for (final ParameterDriver driver : estimatedPropagationParameters) {
+                final int k = findColumn(selected, driver.getName());
+                for (int i = 0; i < orbitalColumns.length; ++i) {
+                    if (orbitalColumns[i] >= 0) {
+                        transition.setEntry(orbitalColumns[i], column,
+                                            dYdPp[i][k] * driver.getScale() / orbitalScales[i]);
+                    }
+                }
+                ++column;
+            }
+        }
+
+        return transition;
+
+    }
+
+    /** Create the measurement matrix for normalized parameters.
+     * @param estimated estimated measurement
+     * @return measurement matrix
+     * @exception OrekitException if some selected measurement parameter is not estimated
+     */
+    private RealMatrix createMeasurementMatrix(final EstimatedMeasurement<?> estimated)
+        throws OrekitException {
+
+        final ObservedMeasurement<?> observed = estimated.getObservedMeasurement();
+        final RealMatrix h = MatrixUtils.createRealMatrix(observed.getDimension(), covariance.getColumnDimension());
+
+        // partial derivatives of the current Cartesian coordinates with respect to current orbital state
+        final double[][] aCY = new double[6][6];
+        final Orbit currentOrbit = estimated.getState().getOrbit();
+        currentOrbit.getJacobianWrtParameters(propagatorBuilder.getPositionAngle(), aCY);
+        final RealMatrix dCdY = new Array2DRowRealMatrix(aCY, false);
+
+        // Jacobian of the measurement with respect to current orbital state
+        final RealMatrix dMdC = new Array2DRowRealMatrix(estimated.getStateDerivatives(), false);
+        final RealMatrix dMdY = dMdC.multiply(dCdY);
+        for (int i = 0; i < dMdY.getRowDimension(); ++i) {
+            for (int j = 0; j < orbitalColumns.length; ++j) {
+                if (orbitalColumns[j] >= 0) {
+                    h.setEntry(i, orbitalColumns[j], dMdY.getEntry(i, j) * orbitalScales[j]);
+                }
+            }
+        }
+
+        // Jacobian of the measurement with respect to measurements parameters
+        for (final ParameterDriver driver : observed.getParametersDrivers()) {
+            if (driver.isSelected()) {
+                final Integer column = parameterColumns.get(driver.getName());
+                if (column == null) {
+                    throw new OrekitException(OrekitMessages.UNSUPPORTED_PARAMETER_NAME,
+                                              driver.getName(), parameterColumns.keySet().toString());
+                }
+                final double[] aMPm = estimated.getParameterDerivatives(driver);
+                for (int i = 0; i < aMPm.length; ++i) {
+                    h.setEntry(i, column, aMPm[i] * driver.getScale());
+                }
+            }
+        }
+
+        return h;
+
+    }
+
+    /** Apply a correction to the predicted state and to the estimated parameters.
+     * @param predicted predicted state
+     * @param correction correction of the normalized parameters
+     * @return corrected state
+     * @exception OrekitException if some parameter cannot be updated
+     */
+    private SpacecraftState applyCorrection(final SpacecraftState predicted, final RealVector correction)
+        throws OrekitException {
+
+        // propagation parameters
+        int column = estimatedOrbitalParameters;
+        for (final ParameterDriver driver : estimatedPropagationParameters) {
+            driver.setValue(driver.getValue() + correction.getEntry(column++) * driver.getScale());
+        }
+
+        // measurements parameters
+        for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+            driver.setValue(driver.getValue() + correction.getEntry(column++) * driver.getScale());
+        }
+
+        // orbital parameters, with the updated central attraction coefficient if it is estimated
+        final double[] orbitArray = new double[orbitalColumns.length];
+        propagatorBuilder.getOrbitType().mapOrbitToArray(predicted.getOrbit(),
+                                                         propagatorBuilder.getPositionAngle(),
+                                                         orbitArray);
+        for (int i = 0; i < orbitArray.length; ++i) {
+            if (orbitalColumns[i] >= 0) {
+                orbitArray[i] += correction.getEntry(orbitalColumns[i]) * orbitalScales[i];
+            }
+        }
+        final Orbit orbit = propagatorBuilder.getOrbitType().mapArrayToOrbit(orbitArray,
+                                                                            propagatorBuilder.getPositionAngle(),
+                                                                            predicted.getDate(),
+                                                                            muDriver == null ?
+                                                                            predicted.getMu() :
+                                                                            muDriver.getValue(),
+                                                                            predicted.getFrame());
+
+        // keep the predicted attitude and mass, without the Jacobians
+        final Attitude attitude = predicted.getAttitude();
+        return new SpacecraftState(orbit, attitude, predicted.getMass());
+
+    }
+
+    /** Find the Jacobian column of a propagation parameter.
+     * @param selected propagation parameters, in Jacobians columns order
+     * @param name name of the parameter
+     * @return column index
+     * @exception OrekitException if parameter is not in the Jacobians
+     */
+    private int findColumn(final ParameterDriversList selected, final String name)
+        throws OrekitException {
+        final List<String> names = new ArrayList<String>();
+        for (int k = 0; k < selected.getNbParams(); ++k) {
+            final String current = selected.getDrivers().get(k).getName();
+            if (current.equals(name)) {
+                return k;
+            }
+            names.add(current);
+        }
+        throw new OrekitException(OrekitMessages.UNSUPPORTED_PARAMETER_NAME, name, names.toString());
+    }
+
+    /** Check a square matrix dimension.
+     * @param matrix matrix to check
+     * @param dimension expected dimension
+     * @exception OrekitIllegalArgumentException if matrix does not have the expected dimension
+     */
+    private static void checkDimension(final RealMatrix matrix, final int dimension)
+        throws OrekitIllegalArgumentException {
+        if (matrix.getRowDimension() != dimension || matrix.getColumnDimension() != dimension) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     matrix.getRowDimension(), dimension);
+        }
+    }
+
+}
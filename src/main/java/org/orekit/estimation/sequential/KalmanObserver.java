@@ -0,0 +1,48 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/** Observer for {@link KalmanEstimator Kalman estimator} updates.
+ * <p>
+ * This interface is intended to be implemented by users to monitor
+ * the progress of the estimator as measurements are processed.
+ * </p>
+ * @since 9.0
+ */
+public interface KalmanObserver {
+
+    /** Notification callback after each measurement has been processed.
+     * @param processedMeasurements number of measurements processed so far
+     * @param estimatedMeasurement measurement estimated from the predicted state,
+     * before correction
+     * @param correctedState state corrected using the measurement (only
+     * predicted if all measurement components have been rejected)
+     * @param correctedCovariance covariance of the corrected normalized parameters
+     * @exception OrekitException if some problem occurs
+     */
+    void evaluationPerformed(int processedMeasurements,
+                             EstimatedMeasurement<?> estimatedMeasurement,
+                             SpacecraftState correctedState,
+                             RealMatrix correctedCovariance)
+        throws OrekitException;
+
+}
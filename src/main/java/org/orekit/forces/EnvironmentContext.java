@@ -0,0 +1,277 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinatesProvider;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Environment quantities shared between force models during one derivatives evaluation.
+ * <p>
+ * Several force models need the same environment quantities at the same date: the
+ * central body frame transform is used by gravity field, drag and tides models, the
+ * Sun position is used by third body attraction, solar radiation pressure, atmosphere
+ * models and tides... Without sharing, these quantities are recomputed by each model
+ * for each derivatives evaluation.
+ * </p>
+ * <p>
+ * Each propagator owns one context, which it {@link #open(AbsoluteDate) opens} before
+ * evaluating all force models at one date and {@link #close() closes} afterwards. While
+ * the context is open, the {@link #getTransform(Frame, Frame, AbsoluteDate)} and {@link
+ * #getPVCoordinates(PVCoordinatesProvider, AbsoluteDate, Frame)} methods memoize their
+ * results, so only the first request computes them. Memoized quantities are dropped
+ * when the context is opened again at a different date, the context itself and its
+ * internal maps being reused for the whole life of the propagator. Outside of any
+ * context, or for requests at a date different from the context date, these methods
+ * simply delegate to {@link Frame#getTransformTo(Frame, AbsoluteDate)} and {@link
+ * PVCoordinatesProvider#getPVCoordinates(AbsoluteDate, Frame)}, so force models can
+ * use them unconditionally. As the computations are deterministic, results are
+ * exactly the same with or without a context.
+ * </p>
+ * <p>
+ * Contexts are bound to the thread that opened them, so independent propagations
+ * running in different threads do not interfere. If a {@link SharedEnvironmentCache}
+ * is {@link SharedEnvironmentCache#bind() bound} to the thread when a context is
+ * opened, it is consulted before computing anything, which extends sharing across
+ * similar propagations evaluated at the same dates. The {@link #getRequestsCount()
+ * requests} and {@link #getComputationsCount() computations} counters of each context
+ * allow to monitor how many computations were saved during the evaluations it covered;
+ * requests performed while no context is open are not counted.
+ * </p>
+ * @since 9.0
+ */
+public class EnvironmentContext {
+
+    /** Context currently open in each thread. */
+    private static final ThreadLocal<EnvironmentContext> CURRENT = new ThreadLocal<EnvironmentContext>();
+
+    /** Memoized transforms, indexed by origin frame then by destination frame. */
+    private final Map<Frame, Map<Frame, Transform>> transforms;
+
+    /** Memoized coordinates, indexed by provider then by frame. */
+    private final Map<PVCoordinatesProvider, Map<Frame, TimeStampedPVCoordinates>> coordinates;
+
+    /** Date of the memoized quantities (null before first opening). */
+    private AbsoluteDate date;
+
+    /** Indicator for open context. */
+    private boolean open;
+
+    /** Context that was open before this one in the same thread (may be null). */
+    private EnvironmentContext previous;
+
+    /** Cache shared between propagations (may be null). */
+    private SharedEnvironmentCache shared;
+
+    /** Requests counter. */
+    private long requests;
+
+    /** Computations counter. */
+    private long computations;
+
+    /** Simple constructor.
+     * <p>
+     * The context is created closed, it must be {@link #open(AbsoluteDate) opened}
+     * before it memoizes anything.
+     * </p>
+     */
+    public EnvironmentContext() {
+        this.transforms   = new IdentityHashMap<Frame, Map<Frame, Transform>>();
+        this.coordinates  = new IdentityHashMap<PVCoordinatesProvider, Map<Frame, TimeStampedPVCoordinates>>();
+        this.date         = null;
+        this.open         = false;
+        this.previous     = null;
+        this.shared       = null;
+        this.requests     = 0;
+        this.computations = 0;
+    }
+
+    /** Open the context for the current thread.
+     * <p>
+     * Contexts can be nested (for example if a force model itself runs a propagation
+     * with its own context), the previous context is restored when this one is
+     * {@link #close() closed}. A context cannot be opened again before it is closed.
+     * </p>
+     * @param openDate date at which force models will be evaluated
+     */
+    public void open(final AbsoluteDate openDate) {
+
+        if (open) {
+            // the owner of the context failed to close it
+            throw new OrekitInternalError(null);
+        }
+
+        if (!openDate.equals(date)) {
+            // drop the quantities memoized at the previous date,
+            // keeping the per-frame and per-provider maps for reuse
+            for (final Map<Frame, Transform> fromMap : transforms.values()) {
+                fromMap.clear();
+            }
+            for (final Map<Frame, TimeStampedPVCoordinates> providerMap : coordinates.values()) {
+                providerMap.clear();
+            }
+            date = openDate;
+        }
+
+        open     = true;
+        previous = CURRENT.get();
+        shared   = SharedEnvironmentCache.getBound();
+        CURRENT.set(this);
+
+    }
+
+    /** Close the context, restoring the previous one if any.
+     */
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        open     = false;
+        previous = null;
+        shared   = null;
+    }
+
+    /** Get the context date.
+     * @return date at which the context was last opened (null if never opened)
+     */
+    public AbsoluteDate getDate() {
+        return date;
+    }
+
+    /** Get the transform between two frames.
+     * @param from origin frame
+     * @param to destination frame
+     * @param date date of the transform
+     * @return transform from origin frame to destination frame
+     * @exception OrekitException if transform cannot be computed at given date
+     * @see Frame#getTransformTo(Frame, AbsoluteDate)
+     */
+    public static Transform getTransform(final Frame from, final Frame to, final AbsoluteDate date)
+        throws OrekitException {
+
+        final EnvironmentContext context = CURRENT.get();
+        if (context == null) {
+            return from.getTransformTo(to, date);
+        }
+
+        ++context.requests;
+        if (!context.date.equals(date)) {
+            ++context.computations;
+            return from.getTransformTo(to, date);
+        }
+
+        Map<Frame, Transform> fromMap = context.transforms.get(from);
+        if (fromMap == null) {
+            fromMap = new IdentityHashMap<Frame, Transform>();
+            context.transforms.put(from, fromMap);
+        }
+        Transform transform = fromMap.get(to);
+        if (transform == null) {
+            transform = context.shared == null ? null : context.shared.getTransform(from, to, date);
+            if (transform == null) {
+                ++context.computations;
+                transform = from.getTransformTo(to, date);
+                if (context.shared != null) {
+                    context.shared.putTransform(from, to, date, transform);
+                }
+            }
+            fromMap.put(to, transform);
+        }
+        return transform;
+
+    }
+
+    /** Get the position-velocity coordinates of a provider.
+     * @param provider coordinates provider (typically a celestial body)
+     * @param date date of the coordinates
+     * @param frame frame in which coordinates are requested
+     * @return coordinates of the provider in the specified frame
+     * @exception OrekitException if coordinates cannot be computed at given date
+     * @see PVCoordinatesProvider#getPVCoordinates(AbsoluteDate, Frame)
+     */
+    public static TimeStampedPVCoordinates getPVCoordinates(final PVCoordinatesProvider provider,
+                                                            final AbsoluteDate date,
+                                                            final Frame frame)
+        throws OrekitException {
+
+        final EnvironmentContext context = CURRENT.get();
+        if (context == null) {
+            return provider.getPVCoordinates(date, frame);
+        }
+
+        ++context.requests;
+        if (!context.date.equals(date)) {
+            ++context.computations;
+            return provider.getPVCoordinates(date, frame);
+        }
+
+        Map<Frame, TimeStampedPVCoordinates> providerMap = context.coordinates.get(provider);
+        if (providerMap == null) {
+            providerMap = new IdentityHashMap<Frame, TimeStampedPVCoordinates>();
+            context.coordinates.put(provider, providerMap);
+        }
+        TimeStampedPVCoordinates pv = providerMap.get(frame);
+        if (pv == null) {
+            pv = context.shared == null ? null : context.shared.getPVCoordinates(provider, date, frame);
+            if (pv == null) {
+                ++context.computations;
+                pv = provider.getPVCoordinates(date, frame);
+                if (context.shared != null) {
+                    context.shared.putPVCoordinates(provider, date, frame, pv);
+                }
+            }
+            providerMap.put(frame, pv);
+        }
+        return pv;
+
+    }
+
+    /** Get the number of requests for environment quantities while this context was open.
+     * @return number of requests since last {@link #resetCounters() reset}
+     */
+    public long getRequestsCount() {
+        return requests;
+    }
+
+    /** Get the number of environment quantities really computed while this context was open.
+     * <p>
+     * The difference between {@link #getRequestsCount()} and this number is
+     * the number of redundant computations that were avoided.
+     * </p>
+     * @return number of computations since last {@link #resetCounters() reset}
+     */
+    public long getComputationsCount() {
+        return computations;
+    }
+
+    /** Reset the requests and computations counters.
+     */
+    public void resetCounters() {
+        requests     = 0;
+        computations = 0;
+    }
+
+}
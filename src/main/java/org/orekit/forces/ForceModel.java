@@ -24,8 +24,11 @@ import org.hipparchus.RealFieldElement;
 import org.hipparchus.analysis.differentiation.DerivativeStructure;
 import org.hipparchus.geometry.euclidean.threed.FieldRotation;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitException;
 import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
 import org.orekit.propagation.FieldSpacecraftState;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.EventDetector;
@@ -33,6 +36,7 @@ import org.orekit.propagation.events.FieldEventDetector;
 import org.orekit.propagation.numerical.FieldTimeDerivativesEquations;
 import org.orekit.propagation.numerical.TimeDerivativesEquations;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.ParameterDriver;
 
 /** This interface represents a force modifying spacecraft motion.
@@ -93,6 +97,52 @@ public interface ForceModel {
     void addContribution(SpacecraftState s, TimeDerivativesEquations adder)
         throws OrekitException;
 
+    /** Check if the force model depends only on date, position, velocity and mass.
+     * <p>
+     * Numerical propagators evaluate the force models that return true here through
+     * {@link #addContribution(AbsoluteDate, Frame, double, double[], double, TimeDerivativesEquations)},
+     * so they can avoid building the complete spacecraft state (orbit and attitude)
+     * at each step when no other force model needs it.
+     * </p>
+     * <p>
+     * The default implementation returns false.
+     * </p>
+     * @return true if the force model depends only on date, position, velocity and mass
+     * @since 9.0
+     */
+    default boolean dependsOnPositionVelocityOnly() {
+        return false;
+    }
+
+    /** Compute the contribution of the force model to the perturbing
+     * acceleration, from raw coordinates.
+     * <p>
+     * The default implementation builds a spacecraft state from the raw coordinates,
+     * using the default attitude, and calls {@link #addContribution(SpacecraftState,
+     * TimeDerivativesEquations)}. Force models that {@link #dependsOnPositionVelocityOnly()
+     * depend only on position, velocity and mass} should override it to use the
+     * raw coordinates directly.
+     * </p>
+     * @param date current date
+     * @param frame inertial reference frame of the coordinates
+     * @param mu central attraction coefficient of the orbit (m³/s²)
+     * @param pv array whose first six elements are position and velocity
+     * (x, y, z, vx, vy, vz) in reference frame (must not be modified)
+     * @param mass spacecraft mass
+     * @param adder object where the contribution should be added
+     * @exception OrekitException if some specific error occurs
+     * @since 9.0
+     */
+    default void addContribution(final AbsoluteDate date, final Frame frame, final double mu,
+                                 final double[] pv, final double mass,
+                                 final TimeDerivativesEquations adder)
+        throws OrekitException {
+        final Orbit orbit = new CartesianOrbit(new PVCoordinates(new Vector3D(pv[0], pv[1], pv[2]),
+                                                                 new Vector3D(pv[3], pv[4], pv[5])),
+                                               frame, date, mu);
+        addContribution(new SpacecraftState(orbit, mass), adder);
+    }
+
     /** Compute the contribution of the force model to the perturbing
      * acceleration.
      * @param s current state information: date, kinematics, attitude
@@ -0,0 +1,213 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinatesProvider;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Cache for environment quantities shared between several propagations.
+ * <p>
+ * An {@link EnvironmentContext} shares quantities between force models within
+ * one derivatives evaluation. When several similar propagations evaluate their
+ * derivatives at the same dates (typically propagations of dispersed states with
+ * the same fixed step integrator), this cache extends the sharing across
+ * propagations, and across threads: once {@link #bind() bound} to a thread, it is
+ * consulted by all the contexts opened by this thread before computing anything.
+ * </p>
+ * <p>
+ * The number of entries is bounded. When the bound is reached, new quantities
+ * are still computed but not stored anymore, the cache being intended to be
+ * used for the duration of one batch of propagations and then discarded.
+ * </p>
+ * @see EnvironmentContext
+ * @since 9.0
+ */
+public class SharedEnvironmentCache {
+
+    /** Cache bound to each thread. */
+    private static final ThreadLocal<SharedEnvironmentCache> BOUND = new ThreadLocal<SharedEnvironmentCache>();
+
+    /** Maximum number of entries. */
+    private final int maxEntries;
+
+    /** Cached entries. */
+    private final Map<Key, Object> entries;
+
+    /** Simple constructor.
+     * @param maxEntries maximum number of entries
+     */
+    public SharedEnvironmentCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries    = new ConcurrentHashMap<Key, Object>();
+    }
+
+    /** Bind the cache to the current thread.
+     * <p>
+     * The previously bound cache is returned so callers can {@link
+     * #restore(SharedEnvironmentCache) restore} it when they are done,
+     * which allows nested bindings.
+     * </p>
+     * @return cache previously bound to the current thread (null if none was bound)
+     * @see #restore(SharedEnvironmentCache)
+     * @see #unbind()
+     */
+    public SharedEnvironmentCache bind() {
+        final SharedEnvironmentCache previous = BOUND.get();
+        BOUND.set(this);
+        return previous;
+    }
+
+    /** Restore a previous binding of the current thread.
+     * @param previous cache previously bound to the current thread,
+     * as returned by {@link #bind()} (null to unbind any cache)
+     * @see #bind()
+     */
+    public static void restore(final SharedEnvironmentCache previous) {
+        if (previous == null) {
+            BOUND.remove();
+        } else {
+            BOUND.set(previous);
+        }
+    }
+
+    /** Unbind any cache from the current thread.
+     * @see #bind()
+     */
+    public static void unbind() {
+        BOUND.remove();
+    }
+
+    /** Get the cache bound to the current thread.
+     * @return cache bound to the current thread (null if none is bound)
+     */
+    static SharedEnvironmentCache getBound() {
+        return BOUND.get();
+    }
+
+    /** Get the number of cached entries.
+     * @return number of cached entries
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /** Look up a transform.
+     * @param from origin frame
+     * @param to destination frame
+     * @param date date of the transform
+     * @return cached transform, or null if not cached
+     */
+    Transform getTransform(final Frame from, final Frame to, final AbsoluteDate date) {
+        return (Transform) entries.get(new Key(true, from, to, date));
+    }
+
+    /** Store a transform.
+     * @param from origin frame
+     * @param to destination frame
+     * @param date date of the transform
+     * @param transform transform to store
+     */
+    void putTransform(final Frame from, final Frame to, final AbsoluteDate date, final Transform transform) {
+        if (entries.size() < maxEntries) {
+            entries.putIfAbsent(new Key(true, from, to, date), transform);
+        }
+    }
+
+    /** Look up coordinates.
+     * @param provider coordinates provider
+     * @param date date of the coordinates
+     * @param frame frame of the coordinates
+     * @return cached coordinates, or null if not cached
+     */
+    TimeStampedPVCoordinates getPVCoordinates(final PVCoordinatesProvider provider,
+                                              final AbsoluteDate date, final Frame frame) {
+        return (TimeStampedPVCoordinates) entries.get(new Key(false, provider, frame, date));
+    }
+
+    /** Store coordinates.
+     * @param provider coordinates provider
+     * @param date date of the coordinates
+     * @param frame frame of the coordinates
+     * @param pv coordinates to store
+     */
+    void putPVCoordinates(final PVCoordinatesProvider provider, final AbsoluteDate date,
+                          final Frame frame, final TimeStampedPVCoordinates pv) {
+        if (entries.size() < maxEntries) {
+            entries.putIfAbsent(new Key(false, provider, frame, date), pv);
+        }
+    }
+
+    /** Key for cached entries. */
+    private static class Key {
+
+        /** Indicator for transforms entries. */
+        private final boolean transform;
+
+        /** First object (origin frame or coordinates provider), compared by identity. */
+        private final Object first;
+
+        /** Second object (destination frame or coordinates frame), compared by identity. */
+        private final Object second;
+
+        /** Entry date. */
+        private final AbsoluteDate date;
+
+        /** Simple constructor.
+         * @param transform indicator for transforms entries
+         * @param first first object (origin frame or coordinates provider)
+         * @param second second object (destination frame or coordinates frame)
+         * @param date entry date
+         */
+        Key(final boolean transform, final Object first, final Object second, final AbsoluteDate date) {
+            this.transform = transform;
+            this.first     = first;
+            this.second    = second;
+            this.date      = date;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object object) {
+            if (object == this) {
+                return true;
+            }
+            if (object instanceof Key) {
+                final Key other = (Key) object;
+                return transform == other.transform &&
+                       first     == other.first     &&
+                       second    == other.second    &&
+                       date.equals(other.date);
+            }
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(first) + System.identityHashCode(second)) +
+                   date.hashCode() + (transform ? 1 : 0);
+        }
+
+    }
+
+}
@@ -28,6 +28,7 @@ import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.forces.drag.atmosphere.Atmosphere;
 import org.orekit.frames.Frame;
 import org.orekit.frames.Transform;
@@ -145,7 +146,7 @@ public class DragForce extends AbstractForceModel {
 
         // get atmosphere properties in atmosphere own frame
         final Frame      atmFrame  = atmosphere.getFrame();
-        final Transform  toBody    = frame.getTransformTo(atmFrame, date);
+        final Transform  toBody    = EnvironmentContext.getTransform(frame, atmFrame, date);
         final FieldVector3D<DerivativeStructure> posBodyDS = toBody.transformPosition(position);
         final Vector3D   posBody   = posBodyDS.toVector3D();
         final Vector3D   vAtmBody  = atmosphere.getVelocity(date, posBody, atmFrame);
@@ -22,6 +22,7 @@ import org.hipparchus.RealFieldElement;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.errors.OrekitException;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.frames.Transform;
 import org.orekit.time.AbsoluteDate;
@@ -76,7 +77,7 @@ public interface Atmosphere extends Serializable {
      */
     default Vector3D getVelocity(AbsoluteDate date, Vector3D position, Frame frame)
         throws OrekitException {
-        final Transform bodyToFrame = getFrame().getTransformTo(frame, date);
+        final Transform bodyToFrame = EnvironmentContext.getTransform(getFrame(), frame, date);
         final Vector3D posInBody = bodyToFrame.getInverse().transformPosition(position);
         final PVCoordinates pvBody = new PVCoordinates(posInBody, new Vector3D(0, 0, 0));
         final PVCoordinates pvFrame = bodyToFrame.transformPVCoordinates(pvBody);
@@ -33,6 +33,7 @@ import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
@@ -871,7 +872,7 @@ public class DTM2000 implements Atmosphere {
         final int day = cal.get(Calendar.DAY_OF_YEAR);
         //position in ECEF so we only have to do the transform once
         final Frame ecef = earth.getBodyFrame();
-        final Vector3D pEcef = frame.getTransformTo(ecef, date)
+        final Vector3D pEcef = EnvironmentContext.getTransform(frame, ecef, date)
                 .transformPosition(position);
         // compute geodetic position
         final GeodeticPoint inBody = earth.transform(pEcef, ecef, date);
@@ -880,7 +881,7 @@ public class DTM2000 implements Atmosphere {
         final double lat = inBody.getLatitude();
 
         // compute local solar time
-        final Vector3D sunPos = sun.getPVCoordinates(date, ecef).getPosition();
+        final Vector3D sunPos = EnvironmentContext.getPVCoordinates(sun, date, ecef).getPosition();
         final double hl = FastMath.PI + FastMath.atan2(
                 sunPos.getX() * pEcef.getY() - sunPos.getY() * pEcef.getX(),
                 sunPos.getX() * pEcef.getX() + sunPos.getY() * pEcef.getY());
@@ -24,6 +24,7 @@ import org.hipparchus.util.Precision;
 import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
@@ -389,10 +390,10 @@ public class HarrisPriester implements Atmosphere {
         throws OrekitException {
 
         // Sun position in earth frame
-        final Vector3D sunInEarth = sun.getPVCoordinates(date, earth.getBodyFrame()).getPosition();
+        final Vector3D sunInEarth = EnvironmentContext.getPVCoordinates(sun, date, earth.getBodyFrame()).getPosition();
 
         // Target position in earth frame
-        final Vector3D posInEarth = frame.getTransformTo(earth.getBodyFrame(), date).transformPosition(position);
+        final Vector3D posInEarth = EnvironmentContext.getTransform(frame, earth.getBodyFrame(), date).transformPosition(position);
 
         return getDensity(sunInEarth, posInEarth);
     }
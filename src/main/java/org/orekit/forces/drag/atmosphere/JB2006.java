@@ -24,6 +24,7 @@ import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
@@ -745,12 +746,13 @@ public class JB2006 implements Atmosphere {
         final double dateMJD = date.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH) / Constants.JULIAN_DAY;
 
         // compute geodetic position
-        final GeodeticPoint inBody = earth.transform(position, frame, date);
+        final Frame ecef = earth.getBodyFrame();
+        final Vector3D pEcef = EnvironmentContext.getTransform(frame, ecef, date).transformPosition(position);
+        final GeodeticPoint inBody = earth.transform(pEcef, ecef, date);
 
         // compute sun position
-        final Frame ecef = earth.getBodyFrame();
         final GeodeticPoint sunInBody =
-            earth.transform(sun.getPVCoordinates(date, ecef).getPosition(), ecef, date);
+            earth.transform(EnvironmentContext.getPVCoordinates(sun, date, ecef).getPosition(), ecef, date);
         return getDensity(dateMJD,
                           sunInBody.getLongitude(), sunInBody.getLatitude(),
                           inBody.getLongitude(), inBody.getLatitude(),
@@ -25,6 +25,7 @@ import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
@@ -691,11 +692,12 @@ public class JB2008 implements Atmosphere {
         final double dateMJD = date.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH) / Constants.JULIAN_DAY;
 
         // compute geodetic position
-        final GeodeticPoint inBody = earth.transform(position, frame, date);
+        final Frame ecef = earth.getBodyFrame();
+        final Vector3D pEcef = EnvironmentContext.getTransform(frame, ecef, date).transformPosition(position);
+        final GeodeticPoint inBody = earth.transform(pEcef, ecef, date);
 
         // compute sun position
-        final Frame ecef = earth.getBodyFrame();
-        final Vector3D sunPos = sun.getPVCoordinates(date, ecef).getPosition();
+        final Vector3D sunPos = EnvironmentContext.getPVCoordinates(sun, date, ecef).getPosition();
         final GeodeticPoint sunInBody = earth.transform(sunPos, ecef, date);
         return getDensity(dateMJD,
                           sunInBody.getLongitude(), sunInBody.getLatitude(),
@@ -26,6 +26,7 @@ import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DateTimeComponents;
@@ -1066,7 +1067,9 @@ public class NRLMSISE00 implements Atmosphere {
         final double sec = dtc.getTime().getSecondsInLocalDay();
 
         // compute geodetic position (km and °)
-        final GeodeticPoint inBody = earth.transform(position, frame, date);
+        final Frame ecef = earth.getBodyFrame();
+        final Vector3D pEcef = EnvironmentContext.getTransform(frame, ecef, date).transformPosition(position);
+        final GeodeticPoint inBody = earth.transform(pEcef, ecef, date);
         final double alt = inBody.getAltitude() / 1000.;
         final double lon = FastMath.toDegrees(inBody.getLongitude());
         final double lat = FastMath.toDegrees(inBody.getLatitude());
@@ -1101,7 +1104,7 @@ public class NRLMSISE00 implements Atmosphere {
     private double localSolarTime(final AbsoluteDate date,
                                   final Vector3D position,
                                   final Frame frame) throws OrekitException {
-        final Vector3D sunPos = sun.getPVCoordinates(date, frame).getPosition();
+        final Vector3D sunPos = EnvironmentContext.getPVCoordinates(sun, date, frame).getPosition();
         final double lst = FastMath.PI + FastMath.atan2(
                 sunPos.getX() * position.getY() - sunPos.getY() * position.getX(),
                 sunPos.getX() * position.getX() + sunPos.getY() * position.getY());
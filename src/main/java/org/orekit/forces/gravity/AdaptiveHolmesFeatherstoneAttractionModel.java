@@ -0,0 +1,396 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+import org.hipparchus.Field;
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.hipparchus.geometry.euclidean.threed.FieldRotation;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.forces.gravity.potential.TideSystem;
+import org.orekit.forces.gravity.potential.TideSystemProvider;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.propagation.numerical.FieldTimeDerivativesEquations;
+import org.orekit.propagation.numerical.TimeDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterObserver;
+
+/** Gravity field attraction model with degree and order truncated according to distance.
+ * <p>
+ * The contribution of degree n terms to the acceleration decreases as
+ * (a<sub>e</sub>/r)<sup>n</sup>, so far from the central body only the lowest
+ * degrees are significant. This model estimates at each evaluation the largest
+ * degree N such that the contribution of all degrees above N is below a user-specified
+ * acceleration tolerance, and delegates the computation to a {@link
+ * HolmesFeatherstoneAttractionModel} truncated at this degree (and at the same order
+ * if the field order is larger). This is intended for highly eccentric orbits or transfer
+ * trajectories, which can use the full field near perigee without paying for it near apogee.
+ * </p>
+ * <p>
+ * The contribution of degree n is estimated from the root mean square of the
+ * acceleration norm over the sphere of radius r, including both the radial
+ * part (factor n+1) and the horizontal part (factor √(n(n+1))):
+ * </p>
+ * <pre>
+ *   δa<sub>n</sub> = μ/r² (a<sub>e</sub>/r)<sup>n</sup> √((n+1)(2n+1)) √(Σ<sub>m</sub> (C̅<sub>n,m</sub>² + S̅<sub>n,m</sub>²))
+ * </pre>
+ * <p>
+ * and the sum of these contributions for the discarded degrees is kept below the tolerance.
+ * The coefficients are evaluated only once, at construction, so for time-dependent fields the
+ * estimate corresponds to the field at its reference date. Degree 2 is always kept.
+ * </p>
+ * <p>
+ * Truncated models are built lazily the first time a degree is needed and then reused.
+ * The number of evaluations performed at each degree is recorded and available through
+ * {@link #getEvaluationsCount(int)}, so users can check which degrees were really used
+ * during a propagation.
+ * </p>
+ * <p>
+ * As the acceleration changes slightly (by less than the tolerance) each time the truncation
+ * degree changes, the tolerance should be small with respect to the accuracy expected
+ * from the integrator. The distance used is the distance to the origin of the frame in which
+ * the state is defined, which is assumed to be centered on the central body.
+ * </p>
+ * @see HolmesFeatherstoneAttractionModel
+ * @since 9.0
+ */
+public class AdaptiveHolmesFeatherstoneAttractionModel extends AbstractForceModel implements TideSystemProvider {
+
+    /** Central attraction scaling factor.
+     * <p>
+     * We use a power of 2 to avoid numeric noise introduction
+     * in the multiplications/divisions sequences.
+     * </p>
+     */
+    private static final double MU_SCALE = FastMath.scalb(1.0, 32);
+
+    /** Minimum truncation degree. */
+    private static final int MIN_DEGREE = 2;
+
+    /** Drivers for force model parameters. */
+    private final ParameterDriver[] parametersDrivers;
+
+    /** Rotating body frame. */
+    private final Frame bodyFrame;
+
+    /** Provider for the full spherical harmonics. */
+    private final NormalizedSphericalHarmonicsProvider provider;
+
+    /** Acceleration tolerance (m/s²). */
+    private final double tolerance;
+
+    /** Root mean square of the acceleration norm for each degree, for unit μ/r² and a<sub>e</sub>/r. */
+    private final double[] degreeRMS;
+
+    /** Truncated models, indexed by degree. */
+    private final AtomicReferenceArray<HolmesFeatherstoneAttractionModel> models;
+
+    /** Number of evaluations, indexed by degree. */
+    private final AtomicLongArray evaluations;
+
+    /** Central attraction coefficient. */
+    private double mu;
+
+    /** Creates a new instance.
+     * @param centralBodyFrame rotating body frame
+     * @param provider provider for the full spherical harmonics
+     * @param tolerance acceleration tolerance (m/s²) for the discarded degrees
+     * @exception OrekitException if the coefficients cannot be retrieved
+     */
+    public AdaptiveHolmesFeatherstoneAttractionModel(final Frame centralBodyFrame,
+                                                     final NormalizedSphericalHarmonicsProvider provider,
+                                                     final double tolerance)
+        throws OrekitException {
+
+        this.parametersDrivers = new ParameterDriver[1];
+        parametersDrivers[0] = new ParameterDriver(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT,
+                                                   provider.getMu(), MU_SCALE, 0.0, Double.POSITIVE_INFINITY);
+        parametersDrivers[0].addObserver(new ParameterObserver() {
+            /** {@inheritDoc} */
+            @Override
+            public void valueChanged(final double previousValue, final ParameterDriver driver) {
+                AdaptiveHolmesFeatherstoneAttractionModel.this.mu = driver.getValue();
+                for (int n = 0; n < models.length(); ++n) {
+                    final HolmesFeatherstoneAttractionModel model = models.get(n);
+                    if (model != null) {
+                        synchronizeMu(model);
+                    }
+                }
+            }
+        });
+
+        this.bodyFrame = centralBodyFrame;
+        this.provider  = provider;
+        this.tolerance = tolerance;
+        this.mu        = provider.getMu();
+
+        // root mean square of the acceleration norm for each degree
+        final int degree = provider.getMaxDegree();
+        final int order  = provider.getMaxOrder();
+        final NormalizedSphericalHarmonics harmonics =
+                provider.onDate(provider.getReferenceDate() == null ?
+                                AbsoluteDate.J2000_EPOCH : provider.getReferenceDate());
+        degreeRMS = new double[degree + 1];
+        for (int n = MIN_DEGREE; n <= degree; ++n) {
+            double sum = 0;
+            for (int m = 0; m <= FastMath.min(n, order); ++m) {
+                final double cnm = harmonics.getNormalizedCnm(n, m);
+                final double snm = harmonics.getNormalizedSnm(n, m);
+                sum += cnm * cnm + snm * snm;
+            }
+            degreeRMS[n] = FastMath.sqrt((n + 1) * (2 * n + 1) * sum);
+        }
+
+        models      = new AtomicReferenceArray<HolmesFeatherstoneAttractionModel>(degree + 1);
+        evaluations = new AtomicLongArray(degree + 1);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TideSystem getTideSystem() {
+        return provider.getTideSystem();
+    }
+
+    /** Get the acceleration tolerance.
+     * @return acceleration tolerance (m/s²) for the discarded degrees
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /** Get the truncation degree for a distance.
+     * @param r distance to central body center (m)
+     * @return truncation degree (the truncation order is the same,
+     * unless the field order is smaller)
+     */
+    public int getTruncationDegree(final double r) {
+
+        final int    maxDegree = degreeRMS.length - 1;
+        final double aOr       = provider.getAe() / r;
+        final double muOr2     = mu / (r * r);
+
+        // accumulate the contributions of the discarded degrees, starting from the highest ones
+        double aOrN = FastMath.pow(aOr, maxDegree);
+        double tail = 0;
+        for (int n = maxDegree; n > MIN_DEGREE; --n) {
+            tail += muOr2 * aOrN * degreeRMS[n];
+            if (tail > tolerance) {
+                // degree n cannot be discarded
+                return n;
+            }
+            aOrN /= aOr;
+        }
+
+        return FastMath.min(MIN_DEGREE, maxDegree);
+
+    }
+
+    /** Get the number of evaluations performed at a truncation degree.
+     * @param degree truncation degree
+     * @return number of evaluations performed at this degree since construction
+     */
+    public long getEvaluationsCount(final int degree) {
+        return (degree < 0 || degree >= evaluations.length()) ? 0 : evaluations.get(degree);
+    }
+
+    /** Get the attraction model for the current state.
+     * @param r distance to central body center (m)
+     * @return truncated attraction model
+     */
+    private HolmesFeatherstoneAttractionModel getModel(final double r) {
+
+        final int degree = getTruncationDegree(r);
+        evaluations.incrementAndGet(degree);
+
+        HolmesFeatherstoneAttractionModel model = models.get(degree);
+        if (model == null) {
+            final NormalizedSphericalHarmonicsProvider truncated =
+                    degree == degreeRMS.length - 1 ? provider : new TruncatedProvider(provider, degree);
+            model = new HolmesFeatherstoneAttractionModel(bodyFrame, truncated);
+            synchronizeMu(model);
+            if (!models.compareAndSet(degree, null, model)) {
+                // another thread has built the same model concurrently
+                model = models.get(degree);
+            }
+        }
+
+        return model;
+
+    }
+
+    /** Synchronize the central attraction coefficient of a truncated model.
+     * @param model truncated model
+     */
+    private void synchronizeMu(final HolmesFeatherstoneAttractionModel model) {
+        try {
+            model.getParametersDrivers()[0].setValue(mu);
+        } catch (OrekitException oe) {
+            // this should never occur as both drivers have the same bounds
+            throw new OrekitInternalError(oe);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addContribution(final SpacecraftState s, final TimeDerivativesEquations adder)
+        throws OrekitException {
+        getModel(s.getPVCoordinates().getPosition().getNorm()).addContribution(s, adder);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends RealFieldElement<T>> void addContribution(final FieldSpacecraftState<T> s,
+                                                                final FieldTimeDerivativesEquations<T> adder)
+        throws OrekitException {
+        getModel(s.getPVCoordinates().getPosition().getNorm().getReal()).addContribution(s, adder);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final AbsoluteDate date, final Frame frame,
+                                                                      final FieldVector3D<DerivativeStructure> position,
+                                                                      final FieldVector3D<DerivativeStructure> velocity,
+                                                                      final FieldRotation<DerivativeStructure> rotation,
+                                                                      final DerivativeStructure mass)
+        throws OrekitException {
+        return getModel(position.getNorm().getValue()).accelerationDerivatives(date, frame, position, velocity,
+                                                                               rotation, mass);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final SpacecraftState s, final String paramName)
+        throws OrekitException {
+        complainIfNotSupported(paramName);
+        return getModel(s.getPVCoordinates().getPosition().getNorm()).accelerationDerivatives(s, paramName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends RealFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ParameterDriver[] getParametersDrivers() {
+        return parametersDrivers.clone();
+    }
+
+    /** Provider truncating another provider. */
+    private static class TruncatedProvider implements NormalizedSphericalHarmonicsProvider {
+
+        /** Underlying full provider. */
+        private final NormalizedSphericalHarmonicsProvider raw;
+
+        /** Truncation degree. */
+        private final int degree;
+
+        /** Truncation order. */
+        private final int order;
+
+        /** Simple constructor.
+         * @param raw underlying full provider
+         * @param degree truncation degree (the truncation order is the same,
+         * unless the field order is smaller)
+         */
+        TruncatedProvider(final NormalizedSphericalHarmonicsProvider raw, final int degree) {
+            this.raw    = raw;
+            this.degree = degree;
+            this.order  = FastMath.min(degree, raw.getMaxOrder());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getMaxDegree() {
+            return degree;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getMaxOrder() {
+            return order;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getMu() {
+            return raw.getMu();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getAe() {
+            return raw.getAe();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public AbsoluteDate getReferenceDate() {
+            return raw.getReferenceDate();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isConstant() {
+            return raw.isConstant();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getOffset(final AbsoluteDate date) {
+            return raw.getOffset(date);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public TideSystem getTideSystem() {
+            return raw.getTideSystem();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NormalizedSphericalHarmonics onDate(final AbsoluteDate date) throws OrekitException {
+            // the truncated model never asks for coefficients beyond truncation
+            return raw.onDate(date);
+        }
+
+    }
+
+}
@@ -0,0 +1,890 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+import org.hipparchus.Field;
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.FieldRotation;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.propagation.numerical.FieldTimeDerivativesEquations;
+import org.orekit.propagation.numerical.TimeDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterObserver;
+
+/** Gravity field attraction model interpolated on a spherical grid.
+ * <p>
+ * This model trades a small error for speed when many propagations are run
+ * in the same region of space, typically in Monte Carlo analyses. The non-central
+ * part of the acceleration is computed by a reference {@link
+ * HolmesFeatherstoneAttractionModel} at the nodes of a regular grid in radius,
+ * latitude and longitude in the body frame, covering a spherical shell, and is
+ * interpolated trilinearly between the nodes.
+ * </p>
+ * <p>
+ * The grid is filled lazily: nodes are computed only when a cell is first used,
+ * and they are shared between all threads using the same instance. When a cell is
+ * first used, the interpolated acceleration is checked against the reference model
+ * at the cell center, at the centers of its faces and at the middle of its edges.
+ * If the error exceeds the user tolerance at any of these points, the cell is marked
+ * as unsuitable and the reference model is used directly for all points in this cell.
+ * As the second order part of the trilinear interpolation error reaches its extrema
+ * at these points, this check is reliable for smooth fields, but it remains a
+ * heuristic: it does not guarantee the tolerance is met everywhere in the cell.
+ * The reference model is also used directly outside of the shell and in the two
+ * polar latitude bands, where the longitude grid is singular.
+ * </p>
+ * <p>
+ * The grid is static: all nodes are computed at the same reference date, so this model
+ * should only be used with gravity fields that are not time-dependent or whose time
+ * dependency is negligible for the application. Field-based computations and
+ * partial derivatives use the same interpolation, the derivatives being those
+ * of the interpolating function.
+ * </p>
+ * <p>
+ * The tables are allocated for the whole grid when the model is first used, with
+ * three doubles per node, so the grid size should be chosen with memory in mind.
+ * The nodes and cells computed so far can be saved using {@link #saveTables(File)}
+ * and reloaded in another run (or another process) using {@link #loadTables(File)},
+ * which maps the file in memory and reads the nodes directly from the mapping. The
+ * file records the grid parameters and a fingerprint of the reference model (central
+ * attraction coefficient, equatorial radius, degree, order, reference date, body
+ * frame name, tide system and checksum of the normalized coefficients), so tables
+ * computed with another model are rejected when loaded.
+ * </p>
+ * <p>
+ * Nodes depend on the central attraction coefficient of the reference model. If the
+ * value of its {@link ParameterDriver parameter driver} changes (for example during
+ * orbit determination), all the nodes and cells computed or loaded so far are dropped
+ * and will be recomputed with the new value when needed.
+ * </p>
+ * @see HolmesFeatherstoneAttractionModel
+ * @since 9.0
+ */
+public class GriddedAttractionModel extends AbstractForceModel {
+
+    /** Magic number at the start of tables files. */
+    private static final int MAGIC = 0x4f524b47;
+
+    /** Tables format version. */
+    private static final int VERSION = 4;
+
+    /** Size of tables files header (bytes). */
+    private static final int HEADER_SIZE = 96;
+
+    /** Number of bytes per node in tables files (three doubles and one flag). */
+    private static final int NODE_BYTES = 3 * Double.BYTES + 1;
+
+    /** State of nodes and cells not computed yet. */
+    private static final int UNKNOWN = 0;
+
+    /** State of nodes computed in memory. */
+    private static final int COMPUTED = 1;
+
+    /** State of nodes read from a tables file. */
+    private static final int LOADED = 2;
+
+    /** State of cells that can be interpolated. */
+    private static final int INTERPOLABLE = 1;
+
+    /** State of cells that cannot be interpolated. */
+    private static final int REJECTED = 2;
+
+    /** Rotating body frame. */
+    private final Frame bodyFrame;
+
+    /** Reference attraction model. */
+    private final HolmesFeatherstoneAttractionModel reference;
+
+    /** Reference date for nodes computation. */
+    private final AbsoluteDate referenceDate;
+
+    /** Inner radius of the shell. */
+    private final double rMin;
+
+    /** Outer radius of the shell. */
+    private final double rMax;
+
+    /** Number of cells along radius. */
+    private final int nR;
+
+    /** Number of cells along latitude. */
+    private final int nLat;
+
+    /** Number of cells along longitude. */
+    private final int nLon;
+
+    /** Acceleration tolerance (m/s²). */
+    private final double tolerance;
+
+    /** Radius step. */
+    private final double dR;
+
+    /** Latitude step. */
+    private final double dLat;
+
+    /** Longitude step. */
+    private final double dLon;
+
+    /** Total number of nodes in the grid. */
+    private final int nodesSize;
+
+    /** Total number of cells in the grid. */
+    private final int cellsSize;
+
+    /** Nodes and cells tables (allocated at first use). */
+    private volatile Tables tables;
+
+    /** Simple constructor.
+     * @param centralBodyFrame rotating body frame (must be the same as the
+     * one used by the reference model)
+     * @param reference reference attraction model
+     * @param referenceDate reference date for nodes computation
+     * @param rMin inner radius of the shell
+     * @param rMax outer radius of the shell
+     * @param nR number of cells along radius
+     * @param nLat number of cells along latitude
+     * @param nLon number of cells along longitude
+     * @param tolerance acceleration tolerance (m/s²) checked at cells centers,
+     * faces centers and edges middles
+     */
+    public GriddedAttractionModel(final Frame centralBodyFrame,
+                                  final HolmesFeatherstoneAttractionModel reference,
+                                  final AbsoluteDate referenceDate,
+                                  final double rMin, final double rMax,
+                                  final int nR, final int nLat, final int nLon,
+                                  final double tolerance) {
+
+        // the tables file must fit in a single memory mapping
+        final long nodes    = (nR + 1L) * (nLat + 1L) * nLon;
+        final long cells    = ((long) nR) * nLat * nLon;
+        final long maxNodes = (Integer.MAX_VALUE - HEADER_SIZE - cells) / NODE_BYTES;
+        if (nodes > maxNodes) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_LARGE, nodes, maxNodes);
+        }
+
+        this.bodyFrame     = centralBodyFrame;
+        this.reference     = reference;
+        this.referenceDate = referenceDate;
+        this.rMin          = rMin;
+        this.rMax          = rMax;
+        this.nR            = nR;
+        this.nLat          = nLat;
+        this.nLon          = nLon;
+        this.tolerance     = tolerance;
+        this.dR            = (rMax - rMin) / nR;
+        this.dLat          = FastMath.PI / nLat;
+        this.dLon          = 2 * FastMath.PI / nLon;
+        this.nodesSize     = (int) nodes;
+        this.cellsSize     = (int) cells;
+        this.tables        = null;
+
+        try {
+            reference.getParametersDrivers()[0].addObserver(new ParameterObserver() {
+                /** {@inheritDoc} */
+                @Override
+                public void valueChanged(final double previousValue, final ParameterDriver driver) {
+                    // nodes computed with the previous central attraction coefficient are obsolete
+                    dropTables();
+                }
+            });
+        } catch (OrekitException oe) {
+            // this should never occur as valueChanged above never throws an exception
+            throw new OrekitInternalError(oe);
+        }
+
+    }
+
+    /** Get the acceleration tolerance.
+     * @return acceleration tolerance (m/s²) checked at cells centers,
+     * faces centers and edges middles
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /** Get the number of nodes computed so far.
+     * @return number of nodes computed so far
+     */
+    public int getNodesNumber() {
+        final Tables current = tables;
+        return (current == null) ? 0 : current.nodesNumber.get();
+    }
+
+    /** Get the number of cells checked so far.
+     * @return number of cells checked so far
+     */
+    public int getCellsNumber() {
+        final Tables current = tables;
+        return (current == null) ? 0 : current.cellsNumber.get();
+    }
+
+    /** Compute the gradient of the non-central part of the gravity field.
+     * @param position position at which gravity field is desired in body frame
+     * @return gradient of the non-central part of the gravity field
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    public double[] gradient(final Vector3D position) throws OrekitException {
+
+        final double[] scaled = scaledCoordinates(position);
+        if (scaled == null) {
+            // outside of the interpolation grid
+            return reference.gradient(referenceDate, position);
+        }
+
+        final int    iR      = cellIndex(scaled[0], nR);
+        final int    iLat    = cellIndex(scaled[1], nLat);
+        final int    iLon    = cellIndex(scaled[2], nLon);
+        final Tables current = getTables();
+        if (!isInterpolable(current, iR, iLat, iLon)) {
+            return reference.gradient(referenceDate, position);
+        }
+
+        return interpolate(current, iR, iLat, iLon, scaled[0] - iR, scaled[1] - iLat, scaled[2] - iLon);
+
+    }
+
+    /** Compute the gradient of the non-central part of the gravity field.
+     * @param position position at which gravity field is desired in body frame
+     * @param <T> type of the field elements
+     * @return gradient of the non-central part of the gravity field
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    public <T extends RealFieldElement<T>> T[] gradient(final FieldVector3D<T> position)
+        throws OrekitException {
+
+        final double[] scaled = scaledCoordinates(position.toVector3D());
+        if (scaled != null) {
+            final int    iR      = cellIndex(scaled[0], nR);
+            final int    iLat    = cellIndex(scaled[1], nLat);
+            final int    iLon    = cellIndex(scaled[2], nLon);
+            final Tables current = getTables();
+            if (isInterpolable(current, iR, iLat, iLon)) {
+                final T r    = position.getNorm();
+                final T fR   = r.subtract(rMin).divide(dR).subtract(iR);
+                final T fLat = position.getZ().divide(r).asin().add(0.5 * FastMath.PI).divide(dLat).subtract(iLat);
+                final T fLon = position.getY().atan2(position.getX()).add(FastMath.PI).divide(dLon).subtract(iLon);
+                return interpolate(current, iR, iLat, iLon, fR, fLat, fLon);
+            }
+        }
+
+        // outside of the interpolation grid
+        return reference.gradient(new FieldAbsoluteDate<>(position.getX().getField(), referenceDate), position);
+
+    }
+
+    /** Compute the scaled grid coordinates of a position.
+     * @param position position in body frame
+     * @return radius, latitude and longitude coordinates in units of grid steps,
+     * or null if position is outside of the shell or in the polar bands
+     */
+    private double[] scaledCoordinates(final Vector3D position) {
+
+        final double r = position.getNorm();
+        if (r < rMin || r >= rMax) {
+            // outside of the shell
+            return null;
+        }
+
+        final double sLat = (FastMath.asin(position.getZ() / r) + 0.5 * FastMath.PI) / dLat;
+        final int    iLat = cellIndex(sLat, nLat);
+        if (iLat <= 0 || iLat >= nLat - 1) {
+            // polar bands
+            return null;
+        }
+
+        return new double[] {
+            (r - rMin) / dR,
+            sLat,
+            (FastMath.atan2(position.getY(), position.getX()) + FastMath.PI) / dLon
+        };
+
+    }
+
+    /** Get the index of the cell containing a scaled coordinate.
+     * @param s scaled coordinate
+     * @param n number of cells along the coordinate
+     * @return index of the cell
+     */
+    private int cellIndex(final double s, final int n) {
+        return FastMath.min((int) FastMath.floor(s), n - 1);
+    }
+
+    /** Get the tables, allocating them if needed.
+     * @return tables
+     */
+    private Tables getTables() {
+        Tables current = tables;
+        if (current == null) {
+            synchronized (this) {
+                current = tables;
+                if (current == null) {
+                    current = new Tables(null, nodesSize, cellsSize);
+                    tables  = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Drop all nodes and cells computed or loaded so far.
+     */
+    private synchronized void dropTables() {
+        tables = null;
+    }
+
+    /** Check if a cell can be interpolated.
+     * @param current tables to use
+     * @param iR radius index of the cell
+     * @param iLat latitude index of the cell
+     * @param iLon longitude index of the cell
+     * @return true if the interpolation error at check points is below tolerance
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    private boolean isInterpolable(final Tables current, final int iR, final int iLat, final int iLon)
+        throws OrekitException {
+
+        final int index = (iR * nLat + iLat) * nLon + iLon;
+        int state = current.cellsStates.get(index);
+        if (state == UNKNOWN) {
+
+            // check the points where at least one fractional coordinate is 1/2,
+            // i.e. cell center, faces centers and edges middles
+            // (interpolation is exact at the corners, which are nodes)
+            double maxError = 0;
+            for (int a = 0; a < 3 && maxError <= tolerance; ++a) {
+                for (int b = 0; b < 3 && maxError <= tolerance; ++b) {
+                    for (int c = 0; c < 3 && maxError <= tolerance; ++c) {
+                        if (a == 1 || b == 1 || c == 1) {
+                            final double   fR           = 0.5 * a;
+                            final double   fLat         = 0.5 * b;
+                            final double   fLon         = 0.5 * c;
+                            final double[] interpolated = interpolate(current, iR, iLat, iLon, fR, fLat, fLon);
+                            final double[] direct       = reference.gradient(referenceDate,
+                                                                             nodePosition(iR + fR, iLat + fLat, iLon + fLon));
+                            maxError = FastMath.max(maxError,
+                                                    new Vector3D(interpolated).distance(new Vector3D(direct)));
+                        }
+                    }
+                }
+            }
+
+            state = (maxError <= tolerance) ? INTERPOLABLE : REJECTED;
+            if (current.cellsStates.compareAndSet(index, UNKNOWN, state)) {
+                current.cellsNumber.incrementAndGet();
+            } else {
+                state = current.cellsStates.get(index);
+            }
+
+        }
+
+        return state == INTERPOLABLE;
+
+    }
+
+    /** Interpolate the gradient within a cell.
+     * @param current tables to use
+     * @param iR radius index of the cell
+     * @param iLat latitude index of the cell
+     * @param iLon longitude index of the cell
+     * @param fR radius fraction within the cell
+     * @param fLat latitude fraction within the cell
+     * @param fLon longitude fraction within the cell
+     * @return interpolated gradient
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    private double[] interpolate(final Tables current, final int iR, final int iLat, final int iLon,
+                                 final double fR, final double fLat, final double fLon)
+        throws OrekitException {
+        final double[] gradient = new double[3];
+        for (int a = 0; a < 2; ++a) {
+            final double wR = (a == 0) ? 1 - fR : fR;
+            for (int b = 0; b < 2; ++b) {
+                final double wRLat = wR * ((b == 0) ? 1 - fLat : fLat);
+                for (int c = 0; c < 2; ++c) {
+                    final double       w      = wRLat * ((c == 0) ? 1 - fLon : fLon);
+                    final int          node   = nodeIndex(iR + a, iLat + b, (iLon + c) % nLon);
+                    final DoubleBuffer values = getNode(current, node);
+                    gradient[0] += w * values.get(3 * node);
+                    gradient[1] += w * values.get(3 * node + 1);
+                    gradient[2] += w * values.get(3 * node + 2);
+                }
+            }
+        }
+        return gradient;
+    }
+
+    /** Interpolate the gradient within a cell.
+     * @param current tables to use
+     * @param iR radius index of the cell
+     * @param iLat latitude index of the cell
+     * @param iLon longitude index of the cell
+     * @param fR radius fraction within the cell
+     * @param fLat latitude fraction within the cell
+     * @param fLon longitude fraction within the cell
+     * @param <T> type of the field elements
+     * @return interpolated gradient
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    private <T extends RealFieldElement<T>> T[] interpolate(final Tables current,
+                                                            final int iR, final int iLat, final int iLon,
+                                                            final T fR, final T fLat, final T fLon)
+        throws OrekitException {
+        final T   one      = fR.getField().getOne();
+        final T[] gradient = MathArrays.buildArray(fR.getField(), 3);
+        for (int a = 0; a < 2; ++a) {
+            final T wR = (a == 0) ? one.subtract(fR) : fR;
+            for (int b = 0; b < 2; ++b) {
+                final T wRLat = wR.multiply((b == 0) ? one.subtract(fLat) : fLat);
+                for (int c = 0; c < 2; ++c) {
+                    final T            w      = wRLat.multiply((c == 0) ? one.subtract(fLon) : fLon);
+                    final int          node   = nodeIndex(iR + a, iLat + b, (iLon + c) % nLon);
+                    final DoubleBuffer values = getNode(current, node);
+                    gradient[0] = gradient[0].add(w.multiply(values.get(3 * node)));
+                    gradient[1] = gradient[1].add(w.multiply(values.get(3 * node + 1)));
+                    gradient[2] = gradient[2].add(w.multiply(values.get(3 * node + 2)));
+                }
+            }
+        }
+        return gradient;
+    }
+
+    /** Get the index of a grid node.
+     * @param jR radius index of the node
+     * @param jLat latitude index of the node
+     * @param jLon longitude index of the node
+     * @return index of the node
+     */
+    private int nodeIndex(final int jR, final int jLat, final int jLon) {
+        return (jR * (nLat + 1) + jLat) * nLon + jLon;
+    }
+
+    /** Get the buffer holding a grid node, computing the node if needed.
+     * <p>
+     * The three components of the node gradient are stored in the
+     * returned buffer at indices 3 × node, 3 × node + 1 and 3 × node + 2.
+     * </p>
+     * @param current tables to use
+     * @param node index of the node
+     * @return buffer holding the node gradient
+     * @exception OrekitException if the reference model cannot compute the gradient
+     */
+    private DoubleBuffer getNode(final Tables current, final int node)
+        throws OrekitException {
+
+        final int state = current.nodesStates.get(node);
+        if (state == LOADED) {
+            return current.loaded;
+        }
+
+        final DoubleBuffer computed = current.getComputed();
+        if (state == UNKNOWN) {
+            final int jLon = node % nLon;
+            final int jLat = (node / nLon) % (nLat + 1);
+            final int jR   = node / (nLon * (nLat + 1));
+            final double[] gradient = reference.gradient(referenceDate, nodePosition(jR, jLat, jLon));
+            computed.put(3 * node,     gradient[0]);
+            computed.put(3 * node + 1, gradient[1]);
+            computed.put(3 * node + 2, gradient[2]);
+            // the volatile write of the state publishes the values written above
+            if (current.nodesStates.compareAndSet(node, UNKNOWN, COMPUTED)) {
+                current.nodesNumber.incrementAndGet();
+            }
+        }
+
+        return computed;
+
+    }
+
+    /** Get the position corresponding to grid indices.
+     * @param sR radius index (may be fractional)
+     * @param sLat latitude index (may be fractional)
+     * @param sLon longitude index (may be fractional)
+     * @return position in body frame
+     */
+    private Vector3D nodePosition(final double sR, final double sLat, final double sLon) {
+        return new Vector3D(rMin + sR * dR,
+                            new Vector3D(sLon * dLon - FastMath.PI, sLat * dLat - 0.5 * FastMath.PI));
+    }
+
+    /** Save the nodes and cells computed so far.
+     * <p>
+     * The file contains the whole grid, nodes that have not been computed yet
+     * being flagged as such, so it can be mapped directly in memory when loaded.
+     * </p>
+     * @param file file where to save the tables
+     * @exception OrekitException if the file cannot be written
+     */
+    public void saveTables(final File file) throws OrekitException {
+
+        final Tables current = getTables();
+
+        // take a snapshot of the states first, as other threads may compute
+        // entries concurrently, so all values flagged as available are visible
+        final byte[] nodesFlags = new byte[nodesSize];
+        for (int i = 0; i < nodesSize; ++i) {
+            nodesFlags[i] = (byte) ((current.nodesStates.get(i) == UNKNOWN) ? 0 : 1);
+        }
+        final byte[] cellsFlags = new byte[cellsSize];
+        for (int i = 0; i < cellsSize; ++i) {
+            cellsFlags[i] = (byte) current.cellsStates.get(i);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+
+            // header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(rMin);
+            out.writeDouble(rMax);
+            out.writeInt(nR);
+            out.writeInt(nLat);
+            out.writeInt(nLon);
+            out.writeInt(0); // padding, so nodes values are aligned on 8 bytes
+            out.writeDouble(tolerance);
+
+            // reference model fingerprint
+            out.writeDouble(reference.getMu());
+            out.writeDouble(reference.getProvider().getAe());
+            out.writeDouble(referenceDate.durationFrom(AbsoluteDate.J2000_EPOCH));
+            out.writeInt(reference.getProvider().getMaxDegree());
+            out.writeInt(reference.getProvider().getMaxOrder());
+            out.writeInt(bodyFrame.getName().hashCode());
+            out.writeInt(reference.getProvider().getTideSystem().name().hashCode());
+            out.writeLong(coefficientsChecksum());
+
+            // nodes values
+            for (int i = 0; i < nodesSize; ++i) {
+                if (nodesFlags[i] == 0) {
+                    for (int k = 0; k < 3; ++k) {
+                        out.writeDouble(Double.NaN);
+                    }
+                } else {
+                    final DoubleBuffer values = getNode(current, i);
+                    for (int k = 0; k < 3; ++k) {
+                        out.writeDouble(values.get(3 * i + k));
+                    }
+                }
+            }
+
+            // nodes and cells flags
+            out.write(nodesFlags);
+            out.write(cellsFlags);
+
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+
+    }
+
+    /** Compute a checksum of the reference model normalized coefficients.
+     * @return checksum of the normalized coefficients at reference date
+     * @exception OrekitException if the coefficients cannot be retrieved
+     */
+    private long coefficientsChecksum() throws OrekitException {
+        final NormalizedSphericalHarmonicsProvider provider = reference.getProvider();
+        final NormalizedSphericalHarmonics harmonics = provider.onDate(referenceDate);
+        long checksum = 0;
+        for (int n = 0; n <= provider.getMaxDegree(); ++n) {
+            for (int m = 0; m <= FastMath.min(n, provider.getMaxOrder()); ++m) {
+                checksum = 31 * checksum + Double.doubleToLongBits(harmonics.getNormalizedCnm(n, m));
+                checksum = 31 * checksum + Double.doubleToLongBits(harmonics.getNormalizedSnm(n, m));
+            }
+        }
+        return checksum;
+    }
+
+    /** Load nodes and cells saved by a previous run.
+     * <p>
+     * The nodes values are not copied, they are read directly from a read-only
+     * memory mapping of the file. Nodes and cells already computed by this
+     * instance but absent from the file are preserved. Files saved with a
+     * different grid, tolerance or reference model, as well as corrupted files,
+     * are ignored.
+     * </p>
+     * @param file file containing the saved tables
+     * @return true if the tables have been loaded
+     */
+    public boolean loadTables(final File file) {
+
+        if (!file.isFile()) {
+            return false;
+        }
+
+        final long nodesOffset = HEADER_SIZE;
+        final long flagsOffset = nodesOffset + 3L * Double.BYTES * nodesSize;
+        final long cellsOffset = flagsOffset + nodesSize;
+        final long size        = cellsOffset + cellsSize;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+
+            if (raf.length() != size) {
+                // these tables do not correspond to this grid
+                return false;
+            }
+
+            // the mapping remains valid after the file is closed
+            final ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // header
+            if (buffer.getInt()    != MAGIC || buffer.getInt() != VERSION ||
+                buffer.getDouble() != rMin  || buffer.getDouble() != rMax ||
+                buffer.getInt()    != nR    || buffer.getInt() != nLat    || buffer.getInt() != nLon ||
+                buffer.getInt()    != 0     || buffer.getDouble() != tolerance) {
+                // these tables do not correspond to this grid
+                return false;
+            }
+            if (buffer.getDouble() != reference.getMu() ||
+                buffer.getDouble() != reference.getProvider().getAe() ||
+                buffer.getDouble() != referenceDate.durationFrom(AbsoluteDate.J2000_EPOCH) ||
+                buffer.getInt()    != reference.getProvider().getMaxDegree() ||
+                buffer.getInt()    != reference.getProvider().getMaxOrder() ||
+                buffer.getInt()    != bodyFrame.getName().hashCode() ||
+                buffer.getInt()    != reference.getProvider().getTideSystem().name().hashCode() ||
+                buffer.getLong()   != coefficientsChecksum()) {
+                // these tables were computed with another reference model
+                return false;
+            }
+
+            buffer.position((int) nodesOffset);
+            buffer.limit((int) flagsOffset);
+            final Tables loaded = new Tables(buffer.slice().asDoubleBuffer(), nodesSize, cellsSize);
+
+            synchronized (this) {
+
+                // nodes and cells states
+                final Tables previous = tables;
+                for (int i = 0; i < nodesSize; ++i) {
+                    final byte flag = buffer.get((int) flagsOffset + i);
+                    if (flag == 1) {
+                        loaded.nodesStates.set(i, LOADED);
+                        loaded.nodesNumber.incrementAndGet();
+                    } else if (flag != 0) {
+                        // corrupted file
+                        return false;
+                    } else if (previous != null && previous.nodesStates.get(i) != UNKNOWN) {
+                        // preserve a node computed before loading
+                        final DoubleBuffer source = getNode(previous, i);
+                        final DoubleBuffer target = loaded.getComputed();
+                        for (int k = 0; k < 3; ++k) {
+                            target.put(3 * i + k, source.get(3 * i + k));
+                        }
+                        loaded.nodesStates.set(i, COMPUTED);
+                        loaded.nodesNumber.incrementAndGet();
+                    }
+                }
+                for (int i = 0; i < cellsSize; ++i) {
+                    int state = buffer.get((int) cellsOffset + i);
+                    if (state < UNKNOWN || state > REJECTED) {
+                        // corrupted file
+                        return false;
+                    } else if (state == UNKNOWN && previous != null) {
+                        // preserve a cell checked before loading
+                        state = previous.cellsStates.get(i);
+                    }
+                    if (state != UNKNOWN) {
+                        loaded.cellsStates.set(i, state);
+                        loaded.cellsNumber.incrementAndGet();
+                    }
+                }
+
+                tables = loaded;
+
+            }
+
+            return true;
+
+        } catch (IOException | OrekitException e) {
+            // the tables will be recomputed
+            return false;
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addContribution(final SpacecraftState s, final TimeDerivativesEquations adder)
+        throws OrekitException {
+
+        // get the position in body frame
+        final AbsoluteDate date       = s.getDate();
+        final Transform fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date);
+        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final Vector3D position       = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+
+        // gradient of the non-central part of the gravity field
+        final Vector3D gInertial = fromBodyFrame.transformVector(new Vector3D(gradient(position)));
+        adder.addXYZAcceleration(gInertial.getX(), gInertial.getY(), gInertial.getZ());
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends RealFieldElement<T>> void addContribution(final FieldSpacecraftState<T> s,
+                                                                final FieldTimeDerivativesEquations<T> adder)
+        throws OrekitException {
+
+        // get the position in body frame
+        final FieldAbsoluteDate<T> date     = s.getDate();
+        final Transform fromBodyFrame       = bodyFrame.getTransformTo(s.getFrame(), date.toAbsoluteDate());
+        final Transform toBodyFrame         = fromBodyFrame.getInverse();
+        final FieldVector3D<T> position     = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+
+        // gradient of the non-central part of the gravity field
+        final FieldVector3D<T> gInertial = fromBodyFrame.transformVector(new FieldVector3D<T>(gradient(position)));
+        adder.addXYZAcceleration(gInertial.getX(), gInertial.getY(), gInertial.getZ());
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final AbsoluteDate date, final Frame frame,
+                                                                      final FieldVector3D<DerivativeStructure> position,
+                                                                      final FieldVector3D<DerivativeStructure> velocity,
+                                                                      final FieldRotation<DerivativeStructure> rotation,
+                                                                      final DerivativeStructure mass)
+        throws OrekitException {
+
+        // get the position in body frame
+        final Transform fromBodyFrame = bodyFrame.getTransformTo(frame, date);
+        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final FieldVector3D<DerivativeStructure> positionBody = toBodyFrame.transformPosition(position);
+
+        // gradient of the non-central part of the gravity field,
+        // with derivatives with respect to position only
+        return fromBodyFrame.transformVector(new FieldVector3D<DerivativeStructure>(gradient(positionBody)));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FieldVector3D<DerivativeStructure> accelerationDerivatives(final SpacecraftState s, final String paramName)
+        throws OrekitException {
+        // this should never be called as there are no tunable parameters
+        complainIfNotSupported(paramName);
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends RealFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ParameterDriver[] getParametersDrivers() {
+        return new ParameterDriver[0];
+    }
+
+    /** Container for the nodes and cells tables. */
+    private static class Tables {
+
+        /** Nodes values read from a tables file (may be null). */
+        private final DoubleBuffer loaded;
+
+        /** Total number of nodes in the grid. */
+        private final int nodesSize;
+
+        /** Nodes values computed in memory (allocated at first use). */
+        private volatile DoubleBuffer computed;
+
+        /** Nodes states. */
+        private final AtomicIntegerArray nodesStates;
+
+        /** Cells states. */
+        private final AtomicIntegerArray cellsStates;
+
+        /** Number of available nodes. */
+        private final AtomicInteger nodesNumber;
+
+        /** Number of checked cells. */
+        private final AtomicInteger cellsNumber;
+
+        /** Simple constructor.
+         * @param loaded nodes values read from a tables file (may be null)
+         * @param nodesSize total number of nodes in the grid
+         * @param cellsSize total number of cells in the grid
+         */
+        Tables(final DoubleBuffer loaded, final int nodesSize, final int cellsSize) {
+            this.loaded      = loaded;
+            this.nodesSize   = nodesSize;
+            this.computed    = null;
+            this.nodesStates = new AtomicIntegerArray(nodesSize);
+            this.cellsStates = new AtomicIntegerArray(cellsSize);
+            this.nodesNumber = new AtomicInteger(0);
+            this.cellsNumber = new AtomicInteger(0);
+        }
+
+        /** Get the nodes values computed in memory, allocating them if needed.
+         * @return nodes values computed in memory
+         */
+        DoubleBuffer getComputed() {
+            DoubleBuffer current = computed;
+            if (current == null) {
+                synchronized (this) {
+                    current = computed;
+                    if (current == null) {
+                        current  = DoubleBuffer.allocate(3 * nodesSize);
+                        computed = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+    }
+
+}
@@ -18,6 +18,8 @@ package org.orekit.forces.gravity;
 
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import org.hipparchus.Field;
@@ -35,6 +37,7 @@ import org.hipparchus.util.MathArrays;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
 import org.orekit.forces.gravity.potential.TideSystem;
@@ -75,7 +78,17 @@ import org.orekit.utils.ParameterObserver;
  * paper but not used due to the large memory requirements. Since 2002, even low end
  * computers and mobile devices do have sufficient memory so this caching has become
  * feasible nowadays.
+ * </p>
  * <p>
+ * For the primitive double computations, the spherical harmonics coefficients are
+ * copied into flat arrays stored in the same order as the recursion coefficients,
+ * and all work arrays are held in per-thread buffers reused from one call to the
+ * next. For fields that are not time-dependent, the coefficients are copied only
+ * once per thread. The inner loops are written as simple counted loops over
+ * contiguous arrays so the JIT compiler can vectorize the element-wise parts.
+ * The operations and their order are the same as in a straightforward
+ * implementation, so results are not changed by these optimizations.
+ * </p>
  * @author Luc Maisonobe
  * @since 6.0
  */
@@ -123,6 +136,9 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
     /** Factory for the DerivativeStructure instances. */
     private final DSFactory factory;
 
+    /** Per-thread work buffers for primitive double computations. */
+    private final ThreadLocal<Workspace> workspaces;
+
     /** Creates a new instance.
      * @param centralBodyFrame rotating body frame
      * @param provider provider for spherical harmonics
@@ -185,6 +201,24 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
         factory = new DSFactory(1, 1);
 
+        workspaces = ThreadLocal.withInitial(() -> new Workspace(degree, provider.getMaxOrder()));
+
+    }
+
+    /** Get the provider for the spherical harmonics.
+     * @return provider for the spherical harmonics
+     * @since 9.0
+     */
+    NormalizedSphericalHarmonicsProvider getProvider() {
+        return provider;
+    }
+
+    /** Get the current central attraction coefficient.
+     * @return current central attraction coefficient
+     * @since 9.0
+     */
+    double getMu() {
+        return mu;
     }
 
     /** {@inheritDoc} */
@@ -214,12 +248,14 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
         final int degree = provider.getMaxDegree();
         final int order  = provider.getMaxOrder();
-        final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
+        final Workspace workspace = getWorkspace(date);
+        final double[] cnm = workspace.cnm;
+        final double[] snm = workspace.snm;
 
-        // allocate the columns for recursion
-        double[] pnm0Plus2 = new double[degree + 1];
-        double[] pnm0Plus1 = new double[degree + 1];
-        double[] pnm0      = new double[degree + 1];
+        // retrieve the columns for recursion
+        double[] pnm0Plus2 = workspace.pnm0Plus2;
+        double[] pnm0Plus1 = workspace.pnm0Plus1;
+        double[] pnm0      = workspace.pnm0;
 
         // compute polar coordinates
         final double x   = position.getX();
@@ -236,10 +272,12 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         final double tOu = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = workspace.aOrN;
+        fillDistancePowersArray(provider.getAe() / r, aOrN);
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = workspace.cosSinLambda;
+        fillCosSinArrays(position.getX() / rho, position.getY() / rho, cosSinLambda);
 
         // outer summation over order
         int    index = 0;
@@ -254,11 +292,13 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
                 // compute contribution of current order to field (equation 5 of the paper)
 
                 // inner summation over degree, for fixed order
+                final int nMin  = FastMath.max(2, m);
+                final int shift = workspace.columnStart[m] - nMin;
                 double sumDegreeS        = 0;
                 double sumDegreeC        = 0;
-                for (int n = FastMath.max(2, m); n <= degree; ++n) {
-                    sumDegreeS += pnm0[n] * aOrN[n] * harmonics.getNormalizedSnm(n, m);
-                    sumDegreeC += pnm0[n] * aOrN[n] * harmonics.getNormalizedCnm(n, m);
+                for (int n = nMin; n <= degree; ++n) {
+                    sumDegreeS += pnm0[n] * aOrN[n] * snm[n + shift];
+                    sumDegreeC += pnm0[n] * aOrN[n] * cnm[n + shift];
                 }
 
                 // contribution to outer summation over order
@@ -293,13 +333,15 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
         final int degree = provider.getMaxDegree();
         final int order  = provider.getMaxOrder();
-        final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
+        final Workspace workspace = getWorkspace(date);
+        final double[] qSnm = workspace.qSnm;
+        final double[] qCnm = workspace.qCnm;
 
-        // allocate the columns for recursion
-        double[] pnm0Plus2  = new double[degree + 1];
-        double[] pnm0Plus1  = new double[degree + 1];
-        double[] pnm0       = new double[degree + 1];
-        final double[] pnm1 = new double[degree + 1];
+        // retrieve the columns for recursion
+        double[] pnm0Plus2  = workspace.pnm0Plus2;
+        double[] pnm0Plus1  = workspace.pnm0Plus1;
+        double[] pnm0       = workspace.pnm0;
+        final double[] pnm1 = workspace.pnm1;
 
         // compute polar coordinates
         final double x    = position.getX();
@@ -317,10 +359,16 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         final double tOu  = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = workspace.aOrN;
+        fillDistancePowersArray(provider.getAe() / r, aOrN);
+        final double[] nOr = workspace.nOr;
+        for (int n = 0; n <= degree; ++n) {
+            nOr[n] = n / r;
+        }
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = workspace.cosSinLambda;
+        fillCosSinArrays(position.getX() / rho, position.getY() / rho, cosSinLambda);
 
         // outer summation over order
         int    index = 0;
@@ -335,6 +383,10 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
             if (m <= order) {
                 // compute contribution of current order to field (equation 5 of the paper)
 
+                // scale the coefficients by distance powers
+                final int nMin = FastMath.max(2, m);
+                workspace.fillScaledCoefficients(m, nMin, degree);
+
                 // inner summation over degree, for fixed order
                 double sumDegreeS        = 0;
                 double sumDegreeC        = 0;
@@ -342,18 +394,15 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
                 double dSumDegreeCdR     = 0;
                 double dSumDegreeSdTheta = 0;
                 double dSumDegreeCdTheta = 0;
-                for (int n = FastMath.max(2, m); n <= degree; ++n) {
-                    final double qSnm  = aOrN[n] * harmonics.getNormalizedSnm(n, m);
-                    final double qCnm  = aOrN[n] * harmonics.getNormalizedCnm(n, m);
-                    final double nOr   = n / r;
-                    final double s0    = pnm0[n] * qSnm;
-                    final double c0    = pnm0[n] * qCnm;
-                    final double s1    = pnm1[n] * qSnm;
-                    final double c1    = pnm1[n] * qCnm;
+                for (int n = nMin; n <= degree; ++n) {
+                    final double s0    = pnm0[n] * qSnm[n];
+                    final double c0    = pnm0[n] * qCnm[n];
+                    final double s1    = pnm1[n] * qSnm[n];
+                    final double c1    = pnm1[n] * qCnm[n];
                     sumDegreeS        += s0;
                     sumDegreeC        += c0;
-                    dSumDegreeSdR     -= nOr * s0;
-                    dSumDegreeCdR     -= nOr * c0;
+                    dSumDegreeSdR     -= nOr[n] * s0;
+                    dSumDegreeCdR     -= nOr[n] * c0;
                     dSumDegreeSdTheta += s1;
                     dSumDegreeCdTheta += c1;
                 }
@@ -550,15 +599,17 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
         final int degree = provider.getMaxDegree();
         final int order  = provider.getMaxOrder();
-        final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
-
-        // allocate the columns for recursion
-        double[] pnm0Plus2  = new double[degree + 1];
-        double[] pnm0Plus1  = new double[degree + 1];
-        double[] pnm0       = new double[degree + 1];
-        double[] pnm1Plus1  = new double[degree + 1];
-        double[] pnm1       = new double[degree + 1];
-        final double[] pnm2 = new double[degree + 1];
+        final Workspace workspace = getWorkspace(date);
+        final double[] qSnm = workspace.qSnm;
+        final double[] qCnm = workspace.qCnm;
+
+        // retrieve the columns for recursion
+        double[] pnm0Plus2  = workspace.pnm0Plus2;
+        double[] pnm0Plus1  = workspace.pnm0Plus1;
+        double[] pnm0       = workspace.pnm0;
+        double[] pnm1Plus1  = workspace.pnm1Plus1;
+        double[] pnm1       = workspace.pnm1;
+        final double[] pnm2 = workspace.pnm2;
 
         // compute polar coordinates
         final double x    = position.getX();
@@ -576,10 +627,16 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         final double tOu  = z / rho;
 
         // compute distance powers
-        final double[] aOrN = createDistancePowersArray(provider.getAe() / r);
+        final double[] aOrN = workspace.aOrN;
+        fillDistancePowersArray(provider.getAe() / r, aOrN);
+        final double[] nOr = workspace.nOr;
+        for (int n = 0; n <= degree; ++n) {
+            nOr[n] = n / r;
+        }
 
         // compute longitude cosines/sines
-        final double[][] cosSinLambda = createCosSinArrays(position.getX() / rho, position.getY() / rho);
+        final double[][] cosSinLambda = workspace.cosSinLambda;
+        fillCosSinArrays(position.getX() / rho, position.getY() / rho, cosSinLambda);
 
         // outer summation over order
         int    index = 0;
@@ -595,6 +652,10 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
             if (m <= order) {
                 // compute contribution of current order to field (equation 5 of the paper)
 
+                // scale the coefficients by distance powers
+                final int nMin = FastMath.max(2, m);
+                workspace.fillScaledCoefficients(m, nMin, degree);
+
                 // inner summation over degree, for fixed order
                 double sumDegreeS               = 0;
                 double sumDegreeC               = 0;
@@ -608,28 +669,25 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
                 double d2SumDegreeCdRdR         = 0;
                 double d2SumDegreeCdRdTheta     = 0;
                 double d2SumDegreeCdThetadTheta = 0;
-                for (int n = FastMath.max(2, m); n <= degree; ++n) {
-                    final double qSnm         = aOrN[n] * harmonics.getNormalizedSnm(n, m);
-                    final double qCnm         = aOrN[n] * harmonics.getNormalizedCnm(n, m);
-                    final double nOr          = n / r;
-                    final double nnP1Or2      = nOr * (n + 1) / r;
-                    final double s0           = pnm0[n] * qSnm;
-                    final double c0           = pnm0[n] * qCnm;
-                    final double s1           = pnm1[n] * qSnm;
-                    final double c1           = pnm1[n] * qCnm;
-                    final double s2           = pnm2[n] * qSnm;
-                    final double c2           = pnm2[n] * qCnm;
+                for (int n = nMin; n <= degree; ++n) {
+                    final double nnP1Or2      = nOr[n] * (n + 1) / r;
+                    final double s0           = pnm0[n] * qSnm[n];
+                    final double c0           = pnm0[n] * qCnm[n];
+                    final double s1           = pnm1[n] * qSnm[n];
+                    final double c1           = pnm1[n] * qCnm[n];
+                    final double s2           = pnm2[n] * qSnm[n];
+                    final double c2           = pnm2[n] * qCnm[n];
                     sumDegreeS               += s0;
                     sumDegreeC               += c0;
-                    dSumDegreeSdR            -= nOr * s0;
-                    dSumDegreeCdR            -= nOr * c0;
+                    dSumDegreeSdR            -= nOr[n] * s0;
+                    dSumDegreeCdR            -= nOr[n] * c0;
                     dSumDegreeSdTheta        += s1;
                     dSumDegreeCdTheta        += c1;
                     d2SumDegreeSdRdR         += nnP1Or2 * s0;
-                    d2SumDegreeSdRdTheta     -= nOr * s1;
+                    d2SumDegreeSdRdTheta     -= nOr[n] * s1;
                     d2SumDegreeSdThetadTheta += s2;
                     d2SumDegreeCdRdR         += nnP1Or2 * c0;
-                    d2SumDegreeCdRdTheta     -= nOr * c1;
+                    d2SumDegreeCdRdTheta     -= nOr[n] * c1;
                     d2SumDegreeCdThetadTheta += c2;
                 }
 
@@ -731,14 +789,29 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
     }
 
+    /** Get the work buffers for the current thread.
+     * <p>
+     * The recursion columns are reset to zero and the flattened
+     * coefficients are updated if needed.
+     * </p>
+     * @param date current date
+     * @return work buffers for the current thread
+     * @exception OrekitException if coefficients cannot be computed at date
+     */
+    private Workspace getWorkspace(final AbsoluteDate date) throws OrekitException {
+        final Workspace workspace = workspaces.get();
+        workspace.reset();
+        workspace.updateCoefficients(provider, date);
+        return workspace;
+    }
+
     /** Compute a/r powers array.
      * @param aOr a/r
-     * @return array containing (a/r)<sup>n</sup>
+     * @param aOrN array to fill with (a/r)<sup>n</sup>
      */
-    private double[] createDistancePowersArray(final double aOr) {
+    private void fillDistancePowersArray(final double aOr, final double[] aOrN) {
 
         // initialize array
-        final double[] aOrN = new double[provider.getMaxDegree() + 1];
         aOrN[0] = 1;
         aOrN[1] = aOr;
 
@@ -749,9 +822,8 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
             aOrN[n] = aOrN[p] * aOrN[q];
         }
 
-        return aOrN;
-
     }
+
     /** Compute a/r powers array.
      * @param aOr a/r
      * @param <T> type of field used
@@ -778,13 +850,12 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
     /** Compute longitude cosines and sines.
      * @param cosLambda cos(λ)
      * @param sinLambda sin(λ)
-     * @return array containing cos(m &times; λ) in row 0
+     * @param cosSin array to fill with cos(m &times; λ) in row 0
      * and sin(m &times; λ) in row 1
      */
-    private double[][] createCosSinArrays(final double cosLambda, final double sinLambda) {
+    private void fillCosSinArrays(final double cosLambda, final double sinLambda, final double[][] cosSin) {
 
         // initialize arrays
-        final double[][] cosSin = new double[2][provider.getMaxOrder() + 1];
         cosSin[0][0] = 1;
         cosSin[1][0] = 0;
         if (provider.getMaxOrder() > 0) {
@@ -807,8 +878,6 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
             }
         }
 
-        return cosSin;
-
     }
 
     /** Compute longitude cosines and sines.
@@ -880,71 +949,55 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         final double u2 = u * u;
 
         // initialize recursion from sectorial terms
-        int n = FastMath.max(2, m);
-        if (n == m) {
-            pnm0[n] = sectorial[n];
-            ++n;
+        final int nMin = FastMath.max(2, m);
+        int n0 = nMin;
+        if (n0 == m) {
+            pnm0[n0] = sectorial[n0];
+            ++n0;
         }
 
-        // compute tesseral values
-        int localIndex = index;
-        while (n <= degree) {
+        // the recursion coefficients for degrees n0 to degree are stored
+        // contiguously in the flattened arrays, starting at index
+        final int shift = index - n0;
 
+        // compute tesseral values
+        for (int n = n0; n <= degree; ++n) {
             // value (equation 27 of the paper)
-            pnm0[n] = gnmOj[localIndex] * t * pnm0Plus1[n] - hnmOj[localIndex] * u2 * pnm0Plus2[n];
-
-            ++localIndex;
-            ++n;
-
+            pnm0[n] = gnmOj[n + shift] * t * pnm0Plus1[n] - hnmOj[n + shift] * u2 * pnm0Plus2[n];
         }
 
         if (pnm1 != null) {
 
             // initialize recursion from sectorial terms
-            n = FastMath.max(2, m);
-            if (n == m) {
-                pnm1[n] = m * tOu * pnm0[n];
-                ++n;
+            final double mTOu = m * tOu;
+            if (n0 > nMin) {
+                pnm1[nMin] = mTOu * pnm0[nMin];
             }
 
             // compute tesseral values and derivatives with respect to polar angle
-            localIndex = index;
-            while (n <= degree) {
-
+            for (int n = n0; n <= degree; ++n) {
                 // first derivative (equation 30 of the paper)
-                pnm1[n] = m * tOu * pnm0[n] - enm[localIndex] * u * pnm0Plus1[n];
-
-                ++localIndex;
-                ++n;
-
+                pnm1[n] = mTOu * pnm0[n] - enm[n + shift] * u * pnm0Plus1[n];
             }
 
             if (pnm2 != null) {
 
                 // initialize recursion from sectorial terms
-                n = FastMath.max(2, m);
-                if (n == m) {
-                    pnm2[n] = m * (tOu * pnm1[n] - pnm0[n] / u2);
-                    ++n;
+                if (n0 > nMin) {
+                    pnm2[nMin] = m * (tOu * pnm1[nMin] - pnm0[nMin] / u2);
                 }
 
                 // compute tesseral values and derivatives with respect to polar angle
-                localIndex = index;
-                while (n <= degree) {
-
+                for (int n = n0; n <= degree; ++n) {
                     // second derivative (differential of equation 30 with respect to theta)
-                    pnm2[n] = m * (tOu * pnm1[n] - pnm0[n] / u2) - enm[localIndex] * u * pnm1Plus1[n];
-
-                    ++localIndex;
-                    ++n;
-
+                    pnm2[n] = m * (tOu * pnm1[n] - pnm0[n] / u2) - enm[n + shift] * u * pnm1Plus1[n];
                 }
 
             }
 
         }
 
-        return localIndex;
+        return index + degree + 1 - n0;
 
     }
 
@@ -1045,12 +1098,39 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
     /** {@inheritDoc} */
     public void addContribution(final SpacecraftState s, final TimeDerivativesEquations adder)
         throws OrekitException {
+        addContribution(s.getDate(), s.getFrame(), s.getPVCoordinates().getPosition(), adder);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionVelocityOnly() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addContribution(final AbsoluteDate date, final Frame frame, final double orbitMu,
+                                final double[] pv, final double mass,
+                                final TimeDerivativesEquations adder)
+        throws OrekitException {
+        addContribution(date, frame, new Vector3D(pv[0], pv[1], pv[2]), adder);
+    }
+
+    /** Compute the contribution of the non-central part of the field to the perturbing acceleration.
+     * @param date current date
+     * @param frame inertial reference frame of the position
+     * @param inertialPosition spacecraft position in reference frame
+     * @param adder object where the contribution should be added
+     * @exception OrekitException if body frame transform cannot be computed
+     */
+    private void addContribution(final AbsoluteDate date, final Frame frame, final Vector3D inertialPosition,
+                                 final TimeDerivativesEquations adder)
+        throws OrekitException {
 
         // get the position in body frame
-        final AbsoluteDate date       = s.getDate();
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date);
+        final Transform fromBodyFrame = EnvironmentContext.getTransform(bodyFrame, frame, date);
         final Transform toBodyFrame   = fromBodyFrame.getInverse();
-        final Vector3D position       = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+        final Vector3D position       = toBodyFrame.transformPosition(inertialPosition);
 
         // gradient of the non-central part of the gravity field
         final Vector3D gInertial = fromBodyFrame.transformVector(new Vector3D(gradient(date, position)));
@@ -1090,7 +1170,7 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         throws OrekitException {
 
         // get the position in body frame
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(frame, date);
+        final Transform fromBodyFrame = EnvironmentContext.getTransform(bodyFrame, frame, date);
         final Transform toBodyFrame   = fromBodyFrame.getInverse();
         final Vector3D positionBody   = toBodyFrame.transformPosition(position.toVector3D());
 
@@ -1136,7 +1216,7 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
         // get the position in body frame
         final AbsoluteDate date       = s.getDate();
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date);
+        final Transform fromBodyFrame = EnvironmentContext.getTransform(bodyFrame, s.getFrame(), date);
         final Transform toBodyFrame   = fromBodyFrame.getInverse();
         final Vector3D position       = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
 
@@ -1154,4 +1234,123 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         return parametersDrivers.clone();
     }
 
+    /** Work buffers for primitive double computations.
+     * <p>
+     * Instances are confined to one thread.
+     * </p>
+     */
+    private static class Workspace {
+
+        // CHECKSTYLE: stop JavadocVariable check
+        private final double[] pnm0Plus2;
+        private final double[] pnm0Plus1;
+        private final double[] pnm0;
+        private final double[] pnm1Plus1;
+        private final double[] pnm1;
+        private final double[] pnm2;
+        private final double[] aOrN;
+        private final double[] nOr;
+        private final double[] qSnm;
+        private final double[] qCnm;
+        private final double[][] cosSinLambda;
+        // CHECKSTYLE: resume JavadocVariable check
+
+        /** Start index of each order in the flattened coefficients arrays. */
+        private final int[] columnStart;
+
+        /** Flattened normalized C<sub>n,m</sub> coefficients. */
+        private final double[] cnm;
+
+        /** Flattened normalized S<sub>n,m</sub> coefficients. */
+        private final double[] snm;
+
+        /** Indicator for already flattened coefficients. */
+        private boolean initialized;
+
+        /** Date of the flattened coefficients. */
+        private AbsoluteDate coefficientsDate;
+
+        /** Simple constructor.
+         * @param degree max degree
+         * @param order max order
+         */
+        Workspace(final int degree, final int order) {
+
+            pnm0Plus2    = new double[degree + 1];
+            pnm0Plus1    = new double[degree + 1];
+            pnm0         = new double[degree + 1];
+            pnm1Plus1    = new double[degree + 1];
+            pnm1         = new double[degree + 1];
+            pnm2         = new double[degree + 1];
+            aOrN         = new double[degree + 1];
+            nOr          = new double[degree + 1];
+            qSnm         = new double[degree + 1];
+            qCnm         = new double[degree + 1];
+            cosSinLambda = new double[2][order + 1];
+
+            // coefficients are stored in the same order they will be used,
+            // i.e. from rightmost column to leftmost column
+            columnStart = new int[order + 1];
+            int size = 0;
+            for (int m = order; m >= 0; --m) {
+                columnStart[m] = size;
+                size += FastMath.max(0, degree + 1 - FastMath.max(2, m));
+            }
+            cnm = new double[size];
+            snm = new double[size];
+
+        }
+
+        /** Reset the recursion columns to zero. */
+        public void reset() {
+            Arrays.fill(pnm0Plus2, 0.0);
+            Arrays.fill(pnm0Plus1, 0.0);
+            Arrays.fill(pnm0,      0.0);
+        }
+
+        /** Update the flattened coefficients if needed.
+         * @param provider provider for spherical harmonics
+         * @param date current date
+         * @exception OrekitException if coefficients cannot be computed at date
+         */
+        public void updateCoefficients(final NormalizedSphericalHarmonicsProvider provider,
+                                       final AbsoluteDate date)
+            throws OrekitException {
+
+            if (initialized && (provider.isConstant() || Objects.equals(date, coefficientsDate))) {
+                // the already flattened coefficients are still valid
+                return;
+            }
+
+            final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
+            final int degree = pnm0.length - 1;
+            for (int m = columnStart.length - 1; m >= 0; --m) {
+                int k = columnStart[m];
+                for (int n = FastMath.max(2, m); n <= degree; ++n) {
+                    cnm[k] = harmonics.getNormalizedCnm(n, m);
+                    snm[k] = harmonics.getNormalizedSnm(n, m);
+                    ++k;
+                }
+            }
+
+            initialized      = true;
+            coefficientsDate = date;
+
+        }
+
+        /** Fill the coefficients scaled by distance powers for one order.
+         * @param m current order
+         * @param nMin min degree for this order
+         * @param degree max degree
+         */
+        public void fillScaledCoefficients(final int m, final int nMin, final int degree) {
+            final int shift = columnStart[m] - nMin;
+            for (int n = nMin; n <= degree; ++n) {
+                qSnm[n] = aOrN[n] * snm[n + shift];
+                qCnm[n] = aOrN[n] * cnm[n + shift];
+            }
+        }
+
+    }
+
 }
@@ -127,6 +127,20 @@ public class NewtonianAttraction extends AbstractForceModel {
         adder.addKeplerContribution(mu);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionVelocityOnly() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addContribution(final AbsoluteDate date, final Frame frame, final double orbitMu,
+                                final double[] pv, final double mass,
+                                final TimeDerivativesEquations adder) {
+        adder.addKeplerContribution(mu);
+    }
+
     /** {@inheritDoc} */
     public <T extends RealFieldElement<T>> void addContribution(final FieldSpacecraftState<T> s, final FieldTimeDerivativesEquations<T> adder)
         throws OrekitException {
@@ -20,6 +20,7 @@ import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
 import org.orekit.bodies.CelestialBody;
 import org.orekit.errors.OrekitException;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
 import org.orekit.forces.gravity.potential.TideSystem;
 import org.orekit.frames.Frame;
@@ -197,7 +198,7 @@ class SolidTidesField implements NormalizedSphericalHarmonicsProvider {
         for (final CelestialBody body : bodies) {
 
             // compute tide generating body state
-            final Vector3D position = body.getPVCoordinates(date, centralBodyFrame).getPosition();
+            final Vector3D position = EnvironmentContext.getPVCoordinates(body, date, centralBodyFrame).getPosition();
 
             // compute polar coordinates
             final double x    = position.getX();
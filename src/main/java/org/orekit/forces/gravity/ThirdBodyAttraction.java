@@ -30,6 +30,7 @@ import org.orekit.bodies.CelestialBody;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.propagation.FieldSpacecraftState;
 import org.orekit.propagation.SpacecraftState;
@@ -102,11 +103,45 @@ public class ThirdBodyAttraction extends AbstractForceModel {
     /** {@inheritDoc} */
     public void addContribution(final SpacecraftState s, final TimeDerivativesEquations adder)
         throws OrekitException {
+        final Vector3D position = s.getPVCoordinates().getPosition();
+        addContribution(s.getDate(), s.getFrame(), position.getX(), position.getY(), position.getZ(), adder);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionVelocityOnly() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addContribution(final AbsoluteDate date, final Frame frame, final double orbitMu,
+                                final double[] pv, final double mass,
+                                final TimeDerivativesEquations adder)
+        throws OrekitException {
+        addContribution(date, frame, pv[0], pv[1], pv[2], adder);
+    }
+
+    /** Compute the contribution of the third body to the perturbing acceleration.
+     * @param date current date
+     * @param frame inertial reference frame of the position
+     * @param x abscissa of the spacecraft position in reference frame
+     * @param y ordinate of the spacecraft position in reference frame
+     * @param z height of the spacecraft position in reference frame
+     * @param adder object where the contribution should be added
+     * @exception OrekitException if third body position cannot be computed
+     */
+    private void addContribution(final AbsoluteDate date, final Frame frame,
+                                 final double x, final double y, final double z,
+                                 final TimeDerivativesEquations adder)
+        throws OrekitException {
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody = body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+        final Vector3D centralToBody = EnvironmentContext.getPVCoordinates(body, date, frame).getPosition();
         final double r2Central       = centralToBody.getNormSq();
-        final Vector3D satToBody     = centralToBody.subtract(s.getPVCoordinates().getPosition());
+        final Vector3D satToBody     = new Vector3D(centralToBody.getX() - x,
+                                                    centralToBody.getY() - y,
+                                                    centralToBody.getZ() - z);
         final double r2Sat           = satToBody.getNormSq();
 
         // compute relative acceleration
@@ -128,7 +163,7 @@ public class ThirdBodyAttraction extends AbstractForceModel {
         throws OrekitException {
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody    = body.getPVCoordinates(date, frame).getPosition();
+        final Vector3D centralToBody    = EnvironmentContext.getPVCoordinates(body, date, frame).getPosition();
         final double r2Central          = centralToBody.getNormSq();
         final FieldVector3D<DerivativeStructure> satToBody = position.subtract(centralToBody).negate();
         final DerivativeStructure r2Sat = satToBody.getNormSq();
@@ -149,7 +184,7 @@ public class ThirdBodyAttraction extends AbstractForceModel {
         complainIfNotSupported(paramName);
 
         // compute bodies separation vectors and squared norm
-        final Vector3D centralToBody = body.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+        final Vector3D centralToBody = EnvironmentContext.getPVCoordinates(body, s.getDate(), s.getFrame()).getPosition();
         final double r2Central       = centralToBody.getNormSq();
         final Vector3D satToBody     = centralToBody.subtract(s.getPVCoordinates().getPosition());
         final double r2Sat           = satToBody.getNormSq();
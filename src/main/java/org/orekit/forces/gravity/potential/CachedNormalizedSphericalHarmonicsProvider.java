@@ -109,6 +109,12 @@ public class CachedNormalizedSphericalHarmonicsProvider implements NormalizedSph
         return rawProvider.getReferenceDate();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return rawProvider.isConstant();
+    }
+
     /** {@inheritDoc} */
     @Override
     public double getOffset(final AbsoluteDate date) {
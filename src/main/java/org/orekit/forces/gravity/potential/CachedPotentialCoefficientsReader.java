@@ -0,0 +1,223 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity.potential;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+
+/** Gravity field reader using a {@link DataSnapshotCache binary snapshots cache}.
+ * <p>
+ * This class wraps another reader. When the cache contains a snapshot matching
+ * the content of the gravity field file and the current parse limits, the
+ * coefficients are read from the memory-mapped snapshot and the wrapped reader
+ * does not parse anything. Otherwise, the wrapped reader parses the file and a
+ * snapshot of the parsed coefficients is stored in the cache for later runs.
+ * </p>
+ * <p>
+ * Only time-independent fields are stored in snapshots. Fields with
+ * time-dependent parts (drifts or periodic terms) are always parsed
+ * by the wrapped reader.
+ * </p>
+ * <pre>
+ * GravityFieldFactory.addPotentialCoefficientsReader(new CachedPotentialCoefficientsReader(cache, "eigen-6s",
+ *                                                                                          new ICGEMFormatReader("eigen-6s.gfc", false)));
+ * </pre>
+ * @see GravityFieldFactory#addPotentialCoefficientsReader(PotentialCoefficientsReader)
+ * @since 9.0
+ */
+public class CachedPotentialCoefficientsReader extends PotentialCoefficientsReader {
+
+    /** Snapshots cache. */
+    private final DataSnapshotCache cache;
+
+    /** Snapshot key. */
+    private final String key;
+
+    /** Wrapped reader. */
+    private final PotentialCoefficientsReader reader;
+
+    /** Indicator for coefficients read from a snapshot. */
+    private boolean fromSnapshot;
+
+    /** Simple constructor.
+     * @param cache snapshots cache
+     * @param key snapshot key
+     * @param reader wrapped reader, used when there are no valid snapshots
+     */
+    public CachedPotentialCoefficientsReader(final DataSnapshotCache cache, final String key,
+                                             final PotentialCoefficientsReader reader) {
+        super(reader.getSupportedNames(), reader.missingCoefficientsAllowed());
+        this.cache        = cache;
+        this.key          = key;
+        this.reader       = reader;
+        this.fromSnapshot = false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMaxParseDegree(final int maxParseDegree) {
+        super.setMaxParseDegree(maxParseDegree);
+        reader.setMaxParseDegree(maxParseDegree);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMaxParseOrder(final int maxParseOrder) {
+        super.setMaxParseOrder(maxParseOrder);
+        reader.setMaxParseOrder(maxParseOrder);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean stillAcceptsData() {
+        return fromSnapshot ? super.stillAcceptsData() : reader.stillAcceptsData();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMaxAvailableDegree() {
+        return fromSnapshot ? super.getMaxAvailableDegree() : reader.getMaxAvailableDegree();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMaxAvailableOrder() {
+        return fromSnapshot ? super.getMaxAvailableOrder() : reader.getMaxAvailableOrder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void loadData(final InputStream input, final String name)
+        throws IOException, ParseException, OrekitException {
+
+        final byte[] content  = DataSnapshotCache.readContent(input);
+        final long   checksum = DataSnapshotCache.checksum(content,
+                                                           getMaxParseDegree() + " " + getMaxParseOrder());
+
+        if (readSnapshot(cache.read(key, checksum), name)) {
+            // fast path, the coefficients have been read from the snapshot
+            fromSnapshot = true;
+            return;
+        }
+
+        // slow path, parse the file
+        fromSnapshot = false;
+        reader.loadData(new ByteArrayInputStream(content), name);
+
+        if (!reader.stillAcceptsData() &&
+            reader.getProvider(reader.isRawNormalized(), 0, 0).getReferenceDate() == null) {
+            // the field is complete and time-independent, store it for later runs
+            final double     ae         = reader.getAe();
+            final double     mu         = reader.getMu();
+            final TideSystem tideSystem = reader.getTideSystem();
+            final boolean    normalized = reader.isRawNormalized();
+            final double[][] c          = reader.getRawC();
+            final double[][] s          = reader.getRawS();
+            cache.write(key, checksum, new DataSnapshotCache.SnapshotWriter() {
+                /** {@inheritDoc} */
+                @Override
+                public void write(final DataOutputStream out) throws IOException {
+                    out.writeDouble(ae);
+                    out.writeDouble(mu);
+                    out.writeInt(tideSystem.ordinal());
+                    out.writeBoolean(normalized);
+                    out.writeInt(c.length);
+                    for (int i = 0; i < c.length; ++i) {
+                        out.writeInt(c[i].length);
+                        for (int j = 0; j < c[i].length; ++j) {
+                            out.writeDouble(c[i][j]);
+                            out.writeDouble(s[i][j]);
+                        }
+                    }
+                }
+            });
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RawSphericalHarmonicsProvider getProvider(final boolean wantNormalized,
+                                                     final int degree, final int order)
+        throws OrekitException {
+        return fromSnapshot ?
+               getConstantProvider(wantNormalized, degree, order) :
+               reader.getProvider(wantNormalized, degree, order);
+    }
+
+    /** Read the coefficients from a snapshot.
+     * @param snapshot memory-mapped snapshot content (may be null)
+     * @param name name of the file (or zip entry)
+     * @return true if the coefficients have been read, false if there are
+     * no snapshots or if the snapshot is truncated or corrupted
+     * @exception OrekitException if a coefficient is missing
+     */
+    private boolean readSnapshot(final ByteBuffer snapshot, final String name)
+        throws OrekitException {
+
+        if (snapshot == null) {
+            return false;
+        }
+
+        try {
+            final double ae     = snapshot.getDouble();
+            final double mu     = snapshot.getDouble();
+            final int    tide   = snapshot.getInt();
+            final boolean normalized = snapshot.get() != 0;
+            final int    n      = snapshot.getInt();
+            if (tide < 0 || tide >= TideSystem.values().length ||
+                n < 1 || (long) n * Integer.BYTES > snapshot.remaining()) {
+                // this is not a snapshot we can use
+                return false;
+            }
+            final double[][] c = new double[n][];
+            final double[][] s = new double[n][];
+            for (int i = 0; i < n; ++i) {
+                final int m = snapshot.getInt();
+                if (m < 1 || (long) m * 2 * Double.BYTES > snapshot.remaining()) {
+                    // this is not a snapshot we can use
+                    return false;
+                }
+                c[i] = new double[m];
+                s[i] = new double[m];
+                for (int j = 0; j < m; ++j) {
+                    c[i][j] = snapshot.getDouble();
+                    s[i][j] = snapshot.getDouble();
+                }
+            }
+            setAe(ae);
+            setMu(mu);
+            setTideSystem(TideSystem.values()[tide]);
+            setRawCoefficients(normalized, c, s, name);
+            setReadComplete(true);
+            return true;
+        } catch (BufferUnderflowException bue) {
+            // the snapshot is truncated, the file will be parsed again
+            return false;
+        }
+
+    }
+
+}
@@ -92,6 +92,12 @@ class ConstantSphericalHarmonics implements RawSphericalHarmonicsProvider {
         return 0.0;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     public TideSystem getTideSystem() {
         return tideSystem;
@@ -74,6 +74,12 @@ class Normalizer implements NormalizedSphericalHarmonicsProvider {
         return unnormalized.getReferenceDate();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return unnormalized.isConstant();
+    }
+
     /** {@inheritDoc} */
     @Override
     public double getOffset(final AbsoluteDate date) {
@@ -255,6 +255,30 @@ public abstract class PotentialCoefficientsReader implements DataLoader {
 
     }
 
+    /** Check if the raw coefficients are normalized.
+     * @return true if the raw coefficients are normalized
+     * @since 9.0
+     */
+    boolean isRawNormalized() {
+        return normalized;
+    }
+
+    /** Get the raw tesseral-sectorial cosine coefficients matrix.
+     * @return raw cosine coefficients (a reference to the internal array is returned)
+     * @since 9.0
+     */
+    double[][] getRawC() {
+        return rawC;
+    }
+
+    /** Get the raw tesseral-sectorial sine coefficients matrix.
+     * @return raw sine coefficients (a reference to the internal array is returned)
+     * @since 9.0
+     */
+    double[][] getRawS() {
+        return rawS;
+    }
+
     /**
      * Set a coefficient if it has not been set already.
      * <p>
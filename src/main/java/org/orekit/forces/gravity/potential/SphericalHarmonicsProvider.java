@@ -74,4 +74,18 @@ public interface SphericalHarmonicsProvider extends TideSystemProvider {
      */
     double getOffset(AbsoluteDate date);
 
+    /** Check if the harmonics are known to be time-independent.
+     * <p>
+     * Models may use this to compute coefficients-dependent data only
+     * once instead of at each date. As a null {@link #getReferenceDate()
+     * reference date} does not imply the harmonics are constant, the default
+     * implementation returns false, which is always safe.
+     * </p>
+     * @return true if the harmonics are known to be the same at all dates
+     * @since 9.0
+     */
+    default boolean isConstant() {
+        return false;
+    }
+
 }
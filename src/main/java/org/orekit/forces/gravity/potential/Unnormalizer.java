@@ -74,6 +74,12 @@ class Unnormalizer implements UnnormalizedSphericalHarmonicsProvider {
         return normalized.getReferenceDate();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return normalized.isConstant();
+    }
+
     /** {@inheritDoc} */
     @Override
     public double getOffset(final AbsoluteDate date) {
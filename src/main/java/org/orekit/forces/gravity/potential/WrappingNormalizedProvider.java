@@ -70,6 +70,12 @@ class WrappingNormalizedProvider implements NormalizedSphericalHarmonicsProvider
         return rawProvider.getReferenceDate();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return rawProvider.isConstant();
+    }
+
     /** {@inheritDoc} */
     @Override
     public double getOffset(final AbsoluteDate date) {
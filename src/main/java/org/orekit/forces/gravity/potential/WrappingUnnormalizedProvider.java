@@ -70,6 +70,12 @@ class WrappingUnnormalizedProvider implements UnnormalizedSphericalHarmonicsProv
         return rawProvider.getReferenceDate();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConstant() {
+        return rawProvider.isConstant();
+    }
+
     /** {@inheritDoc} */
     @Override
     public double getOffset(final AbsoluteDate date) {
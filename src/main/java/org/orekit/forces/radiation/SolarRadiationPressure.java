@@ -29,6 +29,7 @@ import org.hipparchus.util.MathArrays;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.frames.Frame;
 import org.orekit.propagation.FieldSpacecraftState;
 import org.orekit.propagation.SpacecraftState;
@@ -115,7 +116,7 @@ public class SolarRadiationPressure extends AbstractForceModel {
         final AbsoluteDate date         = s.getDate();
         final Frame        frame        = s.getFrame();
         final Vector3D     position     = s.getPVCoordinates().getPosition();
-        final Vector3D     sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final Vector3D     sunSatVector = position.subtract(EnvironmentContext.getPVCoordinates(sun, date, frame).getPosition());
         final double       r2           = sunSatVector.getNormSq();
 
         // compute flux
@@ -266,7 +267,7 @@ public class SolarRadiationPressure extends AbstractForceModel {
                                                                       final DerivativeStructure mass)
         throws OrekitException {
 
-        final FieldVector3D<DerivativeStructure> sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final FieldVector3D<DerivativeStructure> sunSatVector = position.subtract(EnvironmentContext.getPVCoordinates(sun, date, frame).getPosition());
         final DerivativeStructure r2  = sunSatVector.getNormSq();
 
         // compute flux
@@ -287,7 +288,7 @@ public class SolarRadiationPressure extends AbstractForceModel {
         final AbsoluteDate date         = s.getDate();
         final Frame        frame        = s.getFrame();
         final Vector3D     position     = s.getPVCoordinates().getPosition();
-        final Vector3D     sunSatVector = position.subtract(sun.getPVCoordinates(date, frame).getPosition());
+        final Vector3D     sunSatVector = position.subtract(EnvironmentContext.getPVCoordinates(sun, date, frame).getPosition());
         final double       r2           = sunSatVector.getNormSq();
 
         // compute flux
@@ -312,7 +313,7 @@ public class SolarRadiationPressure extends AbstractForceModel {
         throws OrekitException {
         final double[] angle = new double[3];
 
-        final Vector3D satSunVector = sun.getPVCoordinates(date, frame).getPosition().subtract(position);
+        final Vector3D satSunVector = EnvironmentContext.getPVCoordinates(sun, date, frame).getPosition().subtract(position);
 
         // Sat-Sun / Sat-CentralBody angle
         angle[0] = Vector3D.angle(satSunVector, position.negate());
@@ -30,8 +30,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hipparchus.util.FastMath;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.errors.OrekitMessages;
@@ -349,11 +349,27 @@ class BulletinAFilesLoader implements EOPHistoryLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS bulletins A files.
-    * @param supportedNames regular expression for supported files names
-    */
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
+     * @param supportedNames regular expression for supported files names
+     */
     BulletinAFilesLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS bulletins A files.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    BulletinAFilesLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
@@ -361,7 +377,7 @@ class BulletinAFilesLoader implements EOPHistoryLoader {
                             final SortedSet<EOPEntry> history)
         throws OrekitException {
         final Parser parser = new Parser();
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         parser.fill(history);
     }
 
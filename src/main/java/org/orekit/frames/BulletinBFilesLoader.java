@@ -29,8 +29,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hipparchus.util.FastMath;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
@@ -223,11 +223,27 @@ class BulletinBFilesLoader implements EOPHistoryLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS bulletins B files.
-    * @param supportedNames regular expression for supported files names
-    */
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
+     * @param supportedNames regular expression for supported files names
+     */
     BulletinBFilesLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS bulletins B files.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    BulletinBFilesLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
@@ -235,7 +251,7 @@ class BulletinBFilesLoader implements EOPHistoryLoader {
                             final SortedSet<EOPEntry> history)
         throws OrekitException {
         final Parser parser = new Parser(converter);
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         history.addAll(parser.history);
     }
 
@@ -0,0 +1,164 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.ChronologicalComparator;
+import org.orekit.utils.IERSConventions;
+
+/** Earth Orientation Parameters loader using a {@link DataSnapshotCache binary snapshots cache}.
+ * <p>
+ * This class wraps another loader. When the cache contains a snapshot matching
+ * the current source files, the entries are read from the memory-mapped snapshot
+ * and the wrapped loader is not used at all. Otherwise, the wrapped loader parses
+ * the source files and a snapshot of the parsed entries is stored in the cache
+ * for later runs.
+ * </p>
+ * <p>
+ * As the nutation correction converter depends on IERS conventions, the snapshot
+ * key should be specific to the conventions the loader is registered with, for
+ * example:
+ * </p>
+ * <pre>
+ * FramesFactory.addEOPHistoryLoader(IERSConventions.IERS_2010,
+ *                                   new CachedEOPHistoryLoader(cache, "my-eop-2010",
+ *                                                              MY_EOP_FILENAMES,
+ *                                                              new MyEOPHistoryLoader(MY_EOP_FILENAMES)));
+ * </pre>
+ * @see FramesFactory#addEOPHistoryLoader(IERSConventions, EOPHistoryLoader)
+ * @since 9.0
+ */
+public class CachedEOPHistoryLoader implements EOPHistoryLoader {
+
+    /** Number of doubles per entry. */
+    private static final int DOUBLES_PER_ENTRY = 8;
+
+    /** Number of bytes per entry (one int and {@link #DOUBLES_PER_ENTRY} doubles). */
+    private static final int BYTES_PER_ENTRY = Integer.BYTES + DOUBLES_PER_ENTRY * Double.BYTES;
+
+    /** Snapshots cache. */
+    private final DataSnapshotCache cache;
+
+    /** Snapshot key. */
+    private final String key;
+
+    /** Regular expression for supported files names. */
+    private final String supportedNames;
+
+    /** Wrapped loader. */
+    private final EOPHistoryLoader loader;
+
+    /** Simple constructor.
+     * @param cache snapshots cache
+     * @param key snapshot key
+     * @param supportedNames regular expression for supported files names
+     * (must be the same as the one used by the wrapped loader)
+     * @param loader wrapped loader, used when there are no valid snapshots
+     */
+    public CachedEOPHistoryLoader(final DataSnapshotCache cache, final String key,
+                                  final String supportedNames, final EOPHistoryLoader loader) {
+        this.cache          = cache;
+        this.key            = key;
+        this.supportedNames = supportedNames;
+        this.loader         = loader;
+    }
+
+    /** {@inheritDoc} */
+    public void fillHistory(final IERSConventions.NutationCorrectionConverter converter,
+                            final SortedSet<EOPEntry> history)
+        throws OrekitException {
+
+        final long checksum = cache.checksum(supportedNames);
+
+        final List<EOPEntry> fromSnapshot = readSnapshot(cache.read(key, checksum));
+        if (fromSnapshot != null) {
+            // fast path, use the entries from the snapshot
+            history.addAll(fromSnapshot);
+            return;
+        }
+
+        // slow path, parse the source files
+        final SortedSet<EOPEntry> parsed = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        loader.fillHistory(converter, parsed);
+        cache.write(key, checksum, new DataSnapshotCache.SnapshotWriter() {
+            /** {@inheritDoc} */
+            @Override
+            public void write(final DataOutputStream out) throws IOException {
+                out.writeInt(parsed.size());
+                for (final EOPEntry entry : parsed) {
+                    out.writeInt(entry.getMjd());
+                    out.writeDouble(entry.getUT1MinusUTC());
+                    out.writeDouble(entry.getLOD());
+                    out.writeDouble(entry.getX());
+                    out.writeDouble(entry.getY());
+                    out.writeDouble(entry.getDdPsi());
+                    out.writeDouble(entry.getDdEps());
+                    out.writeDouble(entry.getDx());
+                    out.writeDouble(entry.getDy());
+                }
+            }
+        });
+        history.addAll(parsed);
+
+    }
+
+    /** Read the entries from a snapshot.
+     * @param snapshot memory-mapped snapshot content (may be null)
+     * @return entries read, or null if there are no snapshots or if the
+     * snapshot is truncated or corrupted
+     */
+    private List<EOPEntry> readSnapshot(final ByteBuffer snapshot) {
+
+        if (snapshot == null) {
+            return null;
+        }
+
+        try {
+            final int n = snapshot.getInt();
+            if (n < 0 || (long) n * BYTES_PER_ENTRY > snapshot.remaining()) {
+                // this is not a snapshot we can use
+                return null;
+            }
+            final List<EOPEntry> entries = new ArrayList<EOPEntry>(n);
+            for (int i = 0; i < n; ++i) {
+                final int mjd = snapshot.getInt();
+                final double[] data = new double[DOUBLES_PER_ENTRY];
+                for (int j = 0; j < data.length; ++j) {
+                    data[j] = snapshot.getDouble();
+                }
+                entries.add(new EOPEntry(mjd, data[0], data[1], data[2], data[3],
+                                         data[4], data[5], data[6], data[7]));
+            }
+            return entries;
+        } catch (BufferUnderflowException bue) {
+            // the snapshot is truncated, the source files will be parsed again
+            return null;
+        }
+
+    }
+
+}
@@ -26,8 +26,8 @@ import java.util.SortedSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
@@ -138,11 +138,27 @@ class EOP08C04FilesLoader implements EOPHistoryLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS EOP 08 C04 files.
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param supportedNames regular expression for supported files names
      */
     EOP08C04FilesLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS EOP 08 C04 files.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    EOP08C04FilesLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
@@ -150,7 +166,7 @@ class EOP08C04FilesLoader implements EOPHistoryLoader {
                             final SortedSet<EOPEntry> history)
         throws OrekitException {
         final Parser parser = new Parser(converter);
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         history.addAll(parser.history);
     }
 
@@ -17,6 +17,7 @@
 package org.orekit.frames;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,7 @@ import java.util.TreeSet;
 
 import org.hipparchus.RealFieldElement;
 import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.data.DataContext;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.time.AbsoluteDate;
@@ -192,6 +194,9 @@ public class FramesFactory {
     private static transient Map<Predefined, FactoryManagedFrame> FRAMES =
         new HashMap<Predefined, FactoryManagedFrame>();
 
+    /** Tabulated ITRF frames. */
+    private static final Map<List<Object>, Frame> TABULATED_FRAMES = new HashMap<List<Object>, Frame>();
+
     /** Loaders for Earth Orientation parameters. */
     private static final Map<IERSConventions, List<EOPHistoryLoader>> EOP_HISTORY_LOADERS =
         new HashMap<IERSConventions, List<EOPHistoryLoader>>();
@@ -212,6 +217,9 @@ public class FramesFactory {
      * The default loaders look for IERS EOP 08 C04 and bulletins B files. They
      * correspond to {@link IERSConventions#IERS_1996 IERS 1996} conventions.
      * </p>
+     * <p>
+     * The files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param rapidDataColumnsSupportedNames regular expression for supported
      * rapid data columns EOP files names
      * (may be null if the default IERS file names are used)
@@ -224,6 +232,7 @@ public class FramesFactory {
      * (may be null if the default IERS file names are used)
      * @param bulletinASupportedNames regular expression for supported bulletin A files names
      * (may be null if the default IERS file names are used)
+     * @see #addDefaultEOP1980HistoryLoaders(String, String, String, String, String, DataContext)
      * @see <a href="http://hpiers.obspm.fr/eoppc/eop/eopc04/">IERS EOP 08 C04 files</a>
      * @see #addEOPHistoryLoader(IERSConventions, EOPHistoryLoader)
      * @see #clearEOPHistoryLoaders()
@@ -234,28 +243,63 @@ public class FramesFactory {
                                                        final String eopC04SupportedNames,
                                                        final String bulletinBSupportedNames,
                                                        final String bulletinASupportedNames) {
+        addDefaultEOP1980HistoryLoaders(rapidDataColumnsSupportedNames, rapidDataXMLSupportedNames,
+                                        eopC04SupportedNames, bulletinBSupportedNames, bulletinASupportedNames,
+                                        DataContext.getDefault());
+    }
+
+    /** Add the default loaders EOP history (IAU 1980 precession/nutation).
+     * <p>
+     * The default loaders look for IERS EOP 08 C04 and bulletins B files. They
+     * correspond to {@link IERSConventions#IERS_1996 IERS 1996} conventions.
+     * </p>
+     * @param rapidDataColumnsSupportedNames regular expression for supported
+     * rapid data columns EOP files names
+     * (may be null if the default IERS file names are used)
+     * @param rapidDataXMLSupportedNames regular expression for supported
+     * rapid data XML EOP files names
+     * (may be null if the default IERS file names are used)
+     * @param eopC04SupportedNames regular expression for supported EOP 08 C04 files names
+     * (may be null if the default IERS file names are used)
+     * @param bulletinBSupportedNames regular expression for supported bulletin B files names
+     * (may be null if the default IERS file names are used)
+     * @param bulletinASupportedNames regular expression for supported bulletin A files names
+     * (may be null if the default IERS file names are used)
+     * @param context data context from which files are loaded
+     * @see <a href="http://hpiers.obspm.fr/eoppc/eop/eopc04/">IERS EOP 08 C04 files</a>
+     * @see #addEOPHistoryLoader(IERSConventions, EOPHistoryLoader)
+     * @see #clearEOPHistoryLoaders()
+     * @see #addDefaultEOP2000HistoryLoaders(String, String, String, String, String)
+     * @since 9.0
+     */
+    public static void addDefaultEOP1980HistoryLoaders(final String rapidDataColumnsSupportedNames,
+                                                       final String rapidDataXMLSupportedNames,
+                                                       final String eopC04SupportedNames,
+                                                       final String bulletinBSupportedNames,
+                                                       final String bulletinASupportedNames,
+                                                       final DataContext context) {
         final String rapidColNames =
                 (rapidDataColumnsSupportedNames == null) ?
                 RAPID_DATA_PREDICTION_COLUMNS_1980_FILENAME : rapidDataColumnsSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_1996,
-                            new RapidDataAndPredictionColumnsLoader(false, rapidColNames));
+                            new RapidDataAndPredictionColumnsLoader(false, rapidColNames, context));
         final String rapidXmlNames =
                 (rapidDataXMLSupportedNames == null) ?
                 RAPID_DATA_PREDICTION_XML_1980_FILENAME : rapidDataXMLSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_1996,
-                            new RapidDataAndPredictionXMLLoader(rapidXmlNames));
+                            new RapidDataAndPredictionXMLLoader(rapidXmlNames, context));
         final String eopcNames =
                 (eopC04SupportedNames == null) ? EOPC04_1980_FILENAME : eopC04SupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_1996,
-                            new EOP08C04FilesLoader(eopcNames));
+                            new EOP08C04FilesLoader(eopcNames, context));
         final String bulBNames =
                 (bulletinBSupportedNames == null) ? BULLETINB_1980_FILENAME : bulletinBSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_1996,
-                            new BulletinBFilesLoader(bulBNames));
+                            new BulletinBFilesLoader(bulBNames, context));
         final String bulANames =
                     (bulletinASupportedNames == null) ? BULLETINA_FILENAME : bulletinASupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_1996,
-                            new BulletinAFilesLoader(bulANames));
+                            new BulletinAFilesLoader(bulANames, context));
     }
 
     /** Add the default loaders for EOP history (IAU 2000/2006 precession/nutation).
@@ -264,6 +308,9 @@ public class FramesFactory {
      * correspond to both {@link IERSConventions#IERS_2003 IERS 2003} and {@link
      * IERSConventions#IERS_2010 IERS 2010} conventions.
      * </p>
+     * <p>
+     * The files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param rapidDataColumnsSupportedNames regular expression for supported
      * rapid data columns EOP files names
      * (may be null if the default IERS file names are used)
@@ -276,6 +323,7 @@ public class FramesFactory {
      * (may be null if the default IERS file names are used)
      * @param bulletinASupportedNames regular expression for supported bulletin A files names
      * (may be null if the default IERS file names are used)
+     * @see #addDefaultEOP2000HistoryLoaders(String, String, String, String, String, DataContext)
      * @see <a href="http://hpiers.obspm.fr/eoppc/eop/eopc04/">IERS EOP 08 C04 files</a>
      * @see #addEOPHistoryLoader(IERSConventions, EOPHistoryLoader)
      * @see #clearEOPHistoryLoaders()
@@ -286,38 +334,74 @@ public class FramesFactory {
                                                        final String eopC04SupportedNames,
                                                        final String bulletinBSupportedNames,
                                                        final String bulletinASupportedNames) {
+        addDefaultEOP2000HistoryLoaders(rapidDataColumnsSupportedNames, rapidDataXMLSupportedNames,
+                                        eopC04SupportedNames, bulletinBSupportedNames, bulletinASupportedNames,
+                                        DataContext.getDefault());
+    }
+
+    /** Add the default loaders for EOP history (IAU 2000/2006 precession/nutation).
+     * <p>
+     * The default loaders look for IERS EOP 08 C04 and bulletins B files. They
+     * correspond to both {@link IERSConventions#IERS_2003 IERS 2003} and {@link
+     * IERSConventions#IERS_2010 IERS 2010} conventions.
+     * </p>
+     * @param rapidDataColumnsSupportedNames regular expression for supported
+     * rapid data columns EOP files names
+     * (may be null if the default IERS file names are used)
+     * @param rapidDataXMLSupportedNames regular expression for supported
+     * rapid data XML EOP files names
+     * (may be null if the default IERS file names are used)
+     * @param eopC04SupportedNames regular expression for supported EOP 08 C04 files names
+     * (may be null if the default IERS file names are used)
+     * @param bulletinBSupportedNames regular expression for supported bulletin B files names
+     * (may be null if the default IERS file names are used)
+     * @param bulletinASupportedNames regular expression for supported bulletin A files names
+     * (may be null if the default IERS file names are used)
+     * @param context data context from which files are loaded
+     * @see <a href="http://hpiers.obspm.fr/eoppc/eop/eopc04/">IERS EOP 08 C04 files</a>
+     * @see #addEOPHistoryLoader(IERSConventions, EOPHistoryLoader)
+     * @see #clearEOPHistoryLoaders()
+     * @see #addDefaultEOP1980HistoryLoaders(String, String, String, String, String)
+     * @since 9.0
+     */
+    public static void addDefaultEOP2000HistoryLoaders(final String rapidDataColumnsSupportedNames,
+                                                       final String rapidDataXMLSupportedNames,
+                                                       final String eopC04SupportedNames,
+                                                       final String bulletinBSupportedNames,
+                                                       final String bulletinASupportedNames,
+                                                       final DataContext context) {
         final String rapidColNames =
                 (rapidDataColumnsSupportedNames == null) ?
                 RAPID_DATA_PREDICITON_COLUMNS_2000_FILENAME : rapidDataColumnsSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_2003,
-                            new RapidDataAndPredictionColumnsLoader(true, rapidColNames));
+                            new RapidDataAndPredictionColumnsLoader(true, rapidColNames, context));
         addEOPHistoryLoader(IERSConventions.IERS_2010,
-                            new RapidDataAndPredictionColumnsLoader(true, rapidColNames));
+                            new RapidDataAndPredictionColumnsLoader(true, rapidColNames, context));
         final String rapidXmlNames =
             (rapidDataXMLSupportedNames == null) ?
             RAPID_DATA_PREDICITON_XML_2000_FILENAME : rapidDataXMLSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_2003,
-                            new RapidDataAndPredictionXMLLoader(rapidXmlNames));
+                            new RapidDataAndPredictionXMLLoader(rapidXmlNames, context));
         addEOPHistoryLoader(IERSConventions.IERS_2010,
-                            new RapidDataAndPredictionXMLLoader(rapidXmlNames));
+                            new RapidDataAndPredictionXMLLoader(rapidXmlNames, context));
         final String eopcNames =
             (eopC04SupportedNames == null) ? EOPC04_2000_FILENAME : eopC04SupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_2003,
-                            new EOP08C04FilesLoader(eopcNames));
+                            new EOP08C04FilesLoader(eopcNames, context));
         addEOPHistoryLoader(IERSConventions.IERS_2010,
-                            new EOP08C04FilesLoader(eopcNames));
+                            new EOP08C04FilesLoader(eopcNames, context));
         final String bulBNames =
             (bulletinBSupportedNames == null) ? BULLETINB_2000_FILENAME : bulletinBSupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_2003,
-                            new BulletinBFilesLoader(bulBNames));
+                            new BulletinBFilesLoader(bulBNames, context));
         addEOPHistoryLoader(IERSConventions.IERS_2010,
-                            new BulletinBFilesLoader(bulBNames));
+                            new BulletinBFilesLoader(bulBNames, context));
         final String bulANames =
                 (bulletinASupportedNames == null) ? BULLETINA_FILENAME : bulletinASupportedNames;
         addEOPHistoryLoader(IERSConventions.IERS_2003,
-                            new BulletinAFilesLoader(bulANames));
+                            new BulletinAFilesLoader(bulANames, context));
         addEOPHistoryLoader(IERSConventions.IERS_2010,
-                            new BulletinAFilesLoader(bulANames));
+                            new BulletinAFilesLoader(bulANames, context));
     }
 
     /** Add a loader for Earth Orientation Parameters history.
@@ -670,6 +754,121 @@ public class FramesFactory {
         }
     }
 
+    /** Get an ITRF reference frame served from a precomputed table.
+     * <p>
+     * The returned frame is a direct child of {@link #getGCRF() GCRF}, its
+     * transforms are interpolated from a table {@link TabulatedITRFProvider#generate(
+     * IERSConventions, boolean, AbsoluteDate, AbsoluteDate, double, int) generated}
+     * at the first call, so neither precession-nutation nor Earth Orientation
+     * Parameters are evaluated at runtime. The frame is cached, so calls with
+     * the same parameters return the same frame. As the table is generated from
+     * the Earth Orientation Parameters available at the first call, the cache
+     * is not refreshed if these parameters are updated afterwards.
+     * </p>
+     * @param conventions IERS conventions to apply
+     * @param simpleEOP if true, tidal effects are ignored when interpolating EOP
+     * @param start start date of the table
+     * @param end end date of the table (the table will extend up to the first
+     * sample after this date)
+     * @param step time step between samples
+     * @param gridPoints number of points to use in Hermite interpolation
+     * @return ITRF reference frame using the table
+     * @exception OrekitException if the table cannot be generated
+     * @see TabulatedITRFProvider
+     * @since 9.0
+     */
+    public static Frame getTabulatedITRF(final IERSConventions conventions, final boolean simpleEOP,
+                                         final AbsoluteDate start, final AbsoluteDate end,
+                                         final double step, final int gridPoints)
+        throws OrekitException {
+        synchronized (FramesFactory.class) {
+
+            // the table extends up to the first sample after the requested end,
+            // so the key uses the last sample, as the generated table reports it
+            final int n = TabulatedITRFProvider.getSize(start, end, step, gridPoints);
+            final List<Object> key = tabulatedKey(conventions, simpleEOP,
+                                                  start, start.shiftedBy((n - 1) * step),
+                                                  step, gridPoints);
+            Frame frame = TABULATED_FRAMES.get(key);
+
+            if (frame == null) {
+                // it's the first time we need this frame, build it and store it
+                final TabulatedITRFProvider table =
+                        TabulatedITRFProvider.generate(conventions, simpleEOP, start, end, step, gridPoints);
+                frame = buildTabulatedITRF(table);
+                TABULATED_FRAMES.put(tabulatedKey(table.getConventions(), table.isSimpleEOP(),
+                                                  table.getStart(), table.getEnd(),
+                                                  table.getStep(), table.getGridPoints()),
+                                     frame);
+            }
+
+            return frame;
+
+        }
+    }
+
+    /** Get an ITRF reference frame served from a precomputed table.
+     * <p>
+     * The returned frame is a direct child of {@link #getGCRF() GCRF}, its
+     * transforms are interpolated from the table, so neither precession-nutation
+     * nor Earth Orientation Parameters are evaluated at runtime. As tables
+     * with the same parameters may have been generated from different Earth
+     * Orientation Parameters, the frame is <em>not</em> cached: each call builds
+     * a new frame, which callers should keep as long as they use the table.
+     * </p>
+     * @param table precomputed table of GCRF to ITRF transforms
+     * @return ITRF reference frame using the table
+     * @see TabulatedITRFProvider
+     * @since 9.0
+     */
+    public static Frame getTabulatedITRF(final TabulatedITRFProvider table) {
+        return buildTabulatedITRF(table);
+    }
+
+    /** Build the key identifying a tabulated ITRF frame.
+     * @param conventions IERS conventions to apply
+     * @param simpleEOP if true, tidal effects are ignored when interpolating EOP
+     * @param start start date of the table
+     * @param end end date of the table
+     * @param step time step between samples
+     * @param gridPoints number of points to use in Hermite interpolation
+     * @return key identifying the frame
+     */
+    private static List<Object> tabulatedKey(final IERSConventions conventions, final boolean simpleEOP,
+                                             final AbsoluteDate start, final AbsoluteDate end,
+                                             final double step, final int gridPoints) {
+        return Arrays.asList(conventions, simpleEOP, start, end, step, gridPoints);
+    }
+
+    /** Build an ITRF reference frame served from a precomputed table.
+     * @param table precomputed table of GCRF to ITRF transforms
+     * @return ITRF reference frame using the table
+     */
+    private static Frame buildTabulatedITRF(final TabulatedITRFProvider table) {
+        final Predefined reference;
+        switch (table.getConventions()) {
+            case IERS_1996 :
+                reference = table.isSimpleEOP() ?
+                            Predefined.ITRF_CIO_CONV_1996_SIMPLE_EOP :
+                            Predefined.ITRF_CIO_CONV_1996_ACCURATE_EOP;
+                break;
+            case IERS_2003 :
+                reference = table.isSimpleEOP() ?
+                            Predefined.ITRF_CIO_CONV_2003_SIMPLE_EOP :
+                            Predefined.ITRF_CIO_CONV_2003_ACCURATE_EOP;
+                break;
+            case IERS_2010 :
+                reference = table.isSimpleEOP() ?
+                            Predefined.ITRF_CIO_CONV_2010_SIMPLE_EOP :
+                            Predefined.ITRF_CIO_CONV_2010_ACCURATE_EOP;
+                break;
+            default :
+                // this should never happen
+                throw new OrekitInternalError(null);
+        }
+        return new Frame(getGCRF(), table, reference.getName() + " (tabulated)", false);
+    }
+
     /** Get the TIRF reference frame, ignoring tidal effects.
      * @param conventions IERS conventions to apply
      * @return the selected reference frame singleton.
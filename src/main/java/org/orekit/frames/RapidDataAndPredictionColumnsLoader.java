@@ -27,8 +27,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hipparchus.util.MathUtils;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
@@ -134,7 +134,13 @@ class RapidDataAndPredictionColumnsLoader implements EOPHistoryLoader {
     /** File supported name. */
     private final String  supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS bulletins B files.
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param isNonRotatingOrigin if true the supported files <em>must</em>
      * contain δX/δY nutation corrections, otherwise they
      * <em>must</em> contain δΔψ/δΔε nutation
@@ -143,8 +149,24 @@ class RapidDataAndPredictionColumnsLoader implements EOPHistoryLoader {
      */
     RapidDataAndPredictionColumnsLoader(final boolean isNonRotatingOrigin,
                                                final String supportedNames) {
+        this(isNonRotatingOrigin, supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS bulletins B files.
+     * @param isNonRotatingOrigin if true the supported files <em>must</em>
+     * contain δX/δY nutation corrections, otherwise they
+     * <em>must</em> contain δΔψ/δΔε nutation
+     * corrections
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    RapidDataAndPredictionColumnsLoader(final boolean isNonRotatingOrigin,
+                                        final String supportedNames,
+                                        final DataContext context) {
         this.isNonRotatingOrigin = isNonRotatingOrigin;
         this.supportedNames      = supportedNames;
+        this.context             = context;
     }
 
     /** {@inheritDoc} */
@@ -152,7 +174,7 @@ class RapidDataAndPredictionColumnsLoader implements EOPHistoryLoader {
                             final SortedSet<EOPEntry> history)
         throws OrekitException {
         final Parser parser = new Parser(converter, isNonRotatingOrigin);
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         history.addAll(parser.history);
     }
 
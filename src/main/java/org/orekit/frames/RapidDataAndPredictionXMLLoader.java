@@ -27,8 +27,8 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
@@ -69,11 +69,27 @@ class RapidDataAndPredictionXMLLoader implements EOPHistoryLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS XML EOP files.
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param supportedNames regular expression for supported files names
      */
     RapidDataAndPredictionXMLLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS XML EOP files.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    RapidDataAndPredictionXMLLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
@@ -81,7 +97,7 @@ class RapidDataAndPredictionXMLLoader implements EOPHistoryLoader {
                             final SortedSet<EOPEntry> history)
         throws OrekitException {
         final Parser parser = new Parser(converter);
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         history.addAll(parser.history);
     }
 
@@ -0,0 +1,366 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hipparchus.Field;
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.AngularCoordinates;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.IERSConventions;
+
+/** Transform provider from GCRF to ITRF based on a precomputed table.
+ * <p>
+ * The full IERS chain from GCRF to ITRF (precession-nutation, Earth rotation
+ * angle, polar motion and Earth Orientation Parameters lookup) is computed
+ * only once, when the table is {@link #generate(IERSConventions, boolean,
+ * AbsoluteDate, AbsoluteDate, double, int) generated}. The table can be
+ * {@link #write(OutputStream) written} to a compact binary file and
+ * {@link #read(InputStream, String) read} back later, so batch jobs can
+ * get ITRF from {@link FramesFactory#getTabulatedITRF(TabulatedITRFProvider)}
+ * without evaluating nutation series nor looking up Earth Orientation Parameters
+ * at runtime. Transforms are computed by Hermite interpolation of the tabulated
+ * rotations and rotation rates.
+ * </p>
+ * <p>
+ * The table is immutable and hence thread-safe.
+ * </p>
+ * @see FramesFactory#getTabulatedITRF(TabulatedITRFProvider)
+ * @since 9.0
+ */
+public class TabulatedITRFProvider implements TransformProvider {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20170112L;
+
+    /** Format identifier for binary files. */
+    private static final String FORMAT = "ORE-ITRF-TABLE";
+
+    /** Format version for binary files. */
+    private static final int VERSION = 1;
+
+    /** Number of doubles per tabulated sample. */
+    private static final int SAMPLE_SIZE = 10;
+
+    /** Tolerance for dates slightly out of table range (s). */
+    private static final double RANGE_TOLERANCE = 1.0e-6;
+
+    /** Maximum number of samples in a table. */
+    private static final int MAX_SAMPLES = Integer.MAX_VALUE / SAMPLE_SIZE;
+
+    /** IERS conventions used for generating the table. */
+    private final IERSConventions conventions;
+
+    /** Indicator for simple EOP interpolation used for generating the table. */
+    private final boolean simpleEOP;
+
+    /** Date of the first sample. */
+    private final AbsoluteDate start;
+
+    /** Time step between samples. */
+    private final double step;
+
+    /** Number of interpolation points. */
+    private final int gridPoints;
+
+    /** Tabulated data (rotation quaternion, rotation rate and rotation acceleration for each sample). */
+    private final double[] data;
+
+    /** Simple constructor.
+     * @param conventions IERS conventions used for generating the table
+     * @param simpleEOP indicator for simple EOP interpolation used for generating the table
+     * @param start date of the first sample
+     * @param step time step between samples
+     * @param gridPoints number of interpolation points
+     * @param data tabulated data (rotation quaternion, rotation rate and rotation acceleration
+     * for each sample, a reference to the array is stored)
+     */
+    private TabulatedITRFProvider(final IERSConventions conventions, final boolean simpleEOP,
+                                  final AbsoluteDate start, final double step, final int gridPoints,
+                                  final double[] data) {
+        this.conventions = conventions;
+        this.simpleEOP   = simpleEOP;
+        this.start       = start;
+        this.step        = step;
+        this.gridPoints  = gridPoints;
+        this.data        = data;
+    }
+
+    /** Generate a table by sampling the regular GCRF to ITRF transform.
+     * <p>
+     * As Earth rotates fast, short steps and few interpolation points should
+     * be used. A 60 seconds step with 4 points leads to errors below 0.1 mm
+     * at Earth surface, with a table size of about 115 kilobytes per day.
+     * Larger steps or more points increase errors quickly.
+     * </p>
+     * @param conventions IERS conventions to apply
+     * @param simpleEOP if true, tidal effects are ignored when interpolating EOP
+     * @param start start date of the table
+     * @param end end date of the table (the table will extend up to the first
+     * sample after this date)
+     * @param step time step between samples
+     * @param gridPoints number of points to use in Hermite interpolation
+     * @return generated table
+     * @exception OrekitException if end date is before start date or if the
+     * transform cannot be computed at some date (typically if Earth Orientation
+     * Parameters are missing)
+     */
+    public static TabulatedITRFProvider generate(final IERSConventions conventions, final boolean simpleEOP,
+                                                 final AbsoluteDate start, final AbsoluteDate end,
+                                                 final double step, final int gridPoints)
+        throws OrekitException {
+
+        if (step <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, step, 0);
+        }
+        if (gridPoints < 2) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, gridPoints, 2);
+        }
+        if (end.compareTo(start) < 0) {
+            throw new OrekitException(OrekitMessages.TRANSFORM_TABLE_END_BEFORE_START, end, start);
+        }
+        final double span = end.durationFrom(start);
+        if (span / step >= MAX_SAMPLES) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_LARGE,
+                                                     span / step, MAX_SAMPLES);
+        }
+        final int n = getSize(start, end, step, gridPoints);
+
+        final Frame gcrf = FramesFactory.getGCRF();
+        final Frame itrf = FramesFactory.getITRF(conventions, simpleEOP);
+        final double[] data = new double[n * SAMPLE_SIZE];
+        for (int i = 0; i < n; ++i) {
+            final AngularCoordinates ac = gcrf.getTransformTo(itrf, start.shiftedBy(i * step)).getAngular();
+            final Rotation r  = ac.getRotation();
+            final Vector3D w  = ac.getRotationRate();
+            final Vector3D wD = ac.getRotationAcceleration();
+            final int k = i * SAMPLE_SIZE;
+            data[k]     = r.getQ0();
+            data[k + 1] = r.getQ1();
+            data[k + 2] = r.getQ2();
+            data[k + 3] = r.getQ3();
+            data[k + 4] = w.getX();
+            data[k + 5] = w.getY();
+            data[k + 6] = w.getZ();
+            data[k + 7] = wD.getX();
+            data[k + 8] = wD.getY();
+            data[k + 9] = wD.getZ();
+        }
+
+        return new TabulatedITRFProvider(conventions, simpleEOP, start, step, gridPoints, data);
+
+    }
+
+    /** Compute the number of samples of a table.
+     * @param start start date of the table
+     * @param end end date of the table (the table will extend up to the first
+     * sample after this date)
+     * @param step time step between samples
+     * @param gridPoints number of points to use in Hermite interpolation
+     * @return number of samples of the table
+     */
+    static int getSize(final AbsoluteDate start, final AbsoluteDate end,
+                       final double step, final int gridPoints) {
+        return FastMath.max(gridPoints, 1 + (int) FastMath.ceil(end.durationFrom(start) / step));
+    }
+
+    /** Write the table in binary form.
+     * <p>
+     * The stream is flushed but not closed.
+     * </p>
+     * @param out output stream
+     * @exception IOException if table cannot be written
+     * @see #read(InputStream, String)
+     */
+    public void write(final OutputStream out) throws IOException {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeUTF(FORMAT);
+        dos.writeInt(VERSION);
+        dos.writeUTF(conventions.name());
+        dos.writeBoolean(simpleEOP);
+        final long seconds = (long) FastMath.floor(start.durationFrom(AbsoluteDate.J2000_EPOCH));
+        dos.writeLong(seconds);
+        dos.writeDouble(start.durationFrom(AbsoluteDate.J2000_EPOCH.shiftedBy(seconds)));
+        dos.writeDouble(step);
+        dos.writeInt(gridPoints);
+        dos.writeInt(getSize());
+        for (final double d : data) {
+            dos.writeDouble(d);
+        }
+        dos.flush();
+    }
+
+    /** Read a table in binary form.
+     * <p>
+     * The stream is not closed.
+     * </p>
+     * @param in input stream
+     * @param name name of the file (or zip entry), for error messages
+     * @return table read from the stream
+     * @exception IOException if table cannot be read
+     * @exception OrekitException if the stream does not contain a supported table
+     * @see #write(OutputStream)
+     */
+    public static TabulatedITRFProvider read(final InputStream in, final String name)
+        throws IOException, OrekitException {
+        try {
+            final DataInputStream dis = new DataInputStream(in);
+            if (!FORMAT.equals(dis.readUTF()) || dis.readInt() != VERSION) {
+                throw new OrekitException(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE, name);
+            }
+            final IERSConventions conventions = IERSConventions.valueOf(dis.readUTF());
+            final boolean simpleEOP           = dis.readBoolean();
+            final long seconds                = dis.readLong();
+            final double fraction             = dis.readDouble();
+            final double step                 = dis.readDouble();
+            final int gridPoints              = dis.readInt();
+            final int n                       = dis.readInt();
+            if (step <= 0 || gridPoints < 2 || n < gridPoints || n > MAX_SAMPLES) {
+                throw new OrekitException(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE, name);
+            }
+            final double[] data = new double[n * SAMPLE_SIZE];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = dis.readDouble();
+            }
+            return new TabulatedITRFProvider(conventions, simpleEOP,
+                                             AbsoluteDate.J2000_EPOCH.shiftedBy(seconds).shiftedBy(fraction),
+                                             step, gridPoints, data);
+        } catch (IllegalArgumentException iae) {
+            // unknown IERS conventions
+            throw new OrekitException(iae, OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE, name);
+        }
+    }
+
+    /** Get the IERS conventions used for generating the table.
+     * @return IERS conventions used for generating the table
+     */
+    public IERSConventions getConventions() {
+        return conventions;
+    }
+
+    /** Check if simple EOP interpolation was used for generating the table.
+     * @return true if tidal effects were ignored when interpolating EOP
+     */
+    public boolean isSimpleEOP() {
+        return simpleEOP;
+    }
+
+    /** Get the date of the first sample.
+     * @return date of the first sample
+     */
+    public AbsoluteDate getStart() {
+        return start;
+    }
+
+    /** Get the date of the last sample.
+     * @return date of the last sample
+     */
+    public AbsoluteDate getEnd() {
+        return start.shiftedBy((getSize() - 1) * step);
+    }
+
+    /** Get the time step between samples.
+     * @return time step between samples
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** Get the number of interpolation points.
+     * @return number of interpolation points
+     */
+    public int getGridPoints() {
+        return gridPoints;
+    }
+
+    /** Get the number of samples in the table.
+     * @return number of samples in the table
+     */
+    public int getSize() {
+        return data.length / SAMPLE_SIZE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Transform getTransform(final AbsoluteDate date) throws OrekitException {
+        final int first = getFirstIndex(date);
+        final List<Transform> sample = new ArrayList<Transform>(gridPoints);
+        for (int i = first; i < first + gridPoints; ++i) {
+            sample.add(getSample(i));
+        }
+        return Transform.interpolate(date, CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_RR, sample);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends RealFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date)
+        throws OrekitException {
+        final Field<T> field = date.getField();
+        final int first = getFirstIndex(date.toAbsoluteDate());
+        final List<FieldTransform<T>> sample = new ArrayList<FieldTransform<T>>(gridPoints);
+        for (int i = first; i < first + gridPoints; ++i) {
+            sample.add(new FieldTransform<>(field, getSample(i)));
+        }
+        return FieldTransform.interpolate(date, CartesianDerivativesFilter.USE_P, AngularDerivativesFilter.USE_RR, sample);
+    }
+
+    /** Get the index of the first sample to use for interpolation.
+     * @param date interpolation date
+     * @return index of the first sample to use for interpolation
+     * @exception OrekitException if date is outside of table range
+     */
+    private int getFirstIndex(final AbsoluteDate date) throws OrekitException {
+        final double dt = date.durationFrom(start);
+        final int n = getSize();
+        if (dt < -RANGE_TOLERANCE || dt > (n - 1) * step + RANGE_TOLERANCE) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_TRANSFORM_TABLE_DATE,
+                                      date, start, getEnd());
+        }
+        final int central = (int) FastMath.floor(dt / step);
+        return FastMath.max(0, FastMath.min(n - gridPoints, central - (gridPoints - 1) / 2));
+    }
+
+    /** Get one tabulated sample.
+     * @param index index of the sample
+     * @return tabulated transform
+     */
+    private Transform getSample(final int index) {
+        final int k = index * SAMPLE_SIZE;
+        return new Transform(start.shiftedBy(index * step),
+                             new Rotation(data[k], data[k + 1], data[k + 2], data[k + 3], false),
+                             new Vector3D(data[k + 4], data[k + 5], data[k + 6]),
+                             new Vector3D(data[k + 7], data[k + 8], data[k + 9]));
+    }
+
+}
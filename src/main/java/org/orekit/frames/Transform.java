@@ -572,6 +572,210 @@ public class Transform
                                                                     pv.getAcceleration().add(cartesian.getAcceleration())));
     }
 
+    /** Transform an array of positions (including translation effects).
+     * <p>
+     * Positions are stored as consecutive (x, y, z) triplets in flat arrays. No
+     * intermediate object is created, so this method is suited to transforming
+     * large number of points. The source and destination arrays may be the same
+     * array, provided the offsets are also the same (i.e. transform in place).
+     * </p>
+     * @param src array containing the positions to transform
+     * @param srcOffset index of the first coordinate of the first position in {@code src}
+     * @param dst array where to store the transformed positions
+     * @param dstOffset index of the first coordinate of the first position in {@code dst}
+     * @param n number of positions to transform
+     * @see #transformPosition(Vector3D)
+     * @since 9.0
+     */
+    public void transformPositions(final double[] src, final int srcOffset,
+                                   final double[] dst, final int dstOffset,
+                                   final int n) {
+
+        final Vector3D   t = cartesian.getPosition();
+        final double[][] m = angular.getRotation().getMatrix();
+        final double tx  = t.getX();
+        final double ty  = t.getY();
+        final double tz  = t.getZ();
+        final double m00 = m[0][0];
+        final double m01 = m[0][1];
+        final double m02 = m[0][2];
+        final double m10 = m[1][0];
+        final double m11 = m[1][1];
+        final double m12 = m[1][2];
+        final double m20 = m[2][0];
+        final double m21 = m[2][1];
+        final double m22 = m[2][2];
+
+        for (int i = 0; i < n; ++i) {
+            final int    s = srcOffset + 3 * i;
+            final int    d = dstOffset + 3 * i;
+            final double x = src[s]     + tx;
+            final double y = src[s + 1] + ty;
+            final double z = src[s + 2] + tz;
+            dst[d]     = m00 * x + m01 * y + m02 * z;
+            dst[d + 1] = m10 * x + m11 * y + m12 * z;
+            dst[d + 2] = m20 * x + m21 * y + m22 * z;
+        }
+
+    }
+
+    /** Transform an array of vectors (ignoring translation effects).
+     * <p>
+     * Vectors are stored as consecutive (x, y, z) triplets in flat arrays. No
+     * intermediate object is created, so this method is suited to transforming
+     * large number of vectors. The source and destination arrays may be the same
+     * array, provided the offsets are also the same (i.e. transform in place).
+     * </p>
+     * @param src array containing the vectors to transform
+     * @param srcOffset index of the first coordinate of the first vector in {@code src}
+     * @param dst array where to store the transformed vectors
+     * @param dstOffset index of the first coordinate of the first vector in {@code dst}
+     * @param n number of vectors to transform
+     * @see #transformVector(Vector3D)
+     * @since 9.0
+     */
+    public void transformVectors(final double[] src, final int srcOffset,
+                                 final double[] dst, final int dstOffset,
+                                 final int n) {
+
+        final double[][] m = angular.getRotation().getMatrix();
+        final double m00 = m[0][0];
+        final double m01 = m[0][1];
+        final double m02 = m[0][2];
+        final double m10 = m[1][0];
+        final double m11 = m[1][1];
+        final double m12 = m[1][2];
+        final double m20 = m[2][0];
+        final double m21 = m[2][1];
+        final double m22 = m[2][2];
+
+        for (int i = 0; i < n; ++i) {
+            final int    s = srcOffset + 3 * i;
+            final int    d = dstOffset + 3 * i;
+            final double x = src[s];
+            final double y = src[s + 1];
+            final double z = src[s + 2];
+            dst[d]     = m00 * x + m01 * y + m02 * z;
+            dst[d + 1] = m10 * x + m11 * y + m12 * z;
+            dst[d + 2] = m20 * x + m21 * y + m22 * z;
+        }
+
+    }
+
+    /** Transform an array of Cartesian coordinates including kinematic effects.
+     * <p>
+     * Coordinates are stored in flat arrays, with 3, 6 or 9 consecutive doubles
+     * per point depending on the selector: position only (x, y, z), position and
+     * velocity (x, y, z, vx, vy, vz), or position, velocity and acceleration
+     * (x, y, z, vx, vy, vz, ax, ay, az). No intermediate object is created, so
+     * this method is suited to transforming large number of points. The source
+     * and destination arrays may be the same array, provided the offsets are
+     * also the same (i.e. transform in place).
+     * </p>
+     * <p>
+     * For each point, the result is the same as {@link #transformPVCoordinates(PVCoordinates)}
+     * restricted to the derivatives selected.
+     * </p>
+     * @param selector selector specifying the number of coordinates per point
+     * @param src array containing the coordinates to transform
+     * @param srcOffset index of the first coordinate of the first point in {@code src}
+     * @param dst array where to store the transformed coordinates
+     * @param dstOffset index of the first coordinate of the first point in {@code dst}
+     * @param n number of points to transform
+     * @see #transformPVCoordinates(PVCoordinates)
+     * @since 9.0
+     */
+    public void transformPVCoordinates(final CartesianDerivativesFilter selector,
+                                       final double[] src, final int srcOffset,
+                                       final double[] dst, final int dstOffset,
+                                       final int n) {
+
+        if (selector.getMaxOrder() == 0) {
+            transformPositions(src, srcOffset, dst, dstOffset, n);
+            return;
+        }
+        final boolean    useA   = selector.getMaxOrder() >= 2;
+        final int        stride = 3 * (selector.getMaxOrder() + 1);
+
+        final Vector3D   t  = cartesian.getPosition();
+        final Vector3D   tv = cartesian.getVelocity();
+        final Vector3D   ta = cartesian.getAcceleration();
+        final Vector3D   o  = angular.getRotationRate();
+        final Vector3D   oD = angular.getRotationAcceleration();
+        final double[][] m  = angular.getRotation().getMatrix();
+        final double tx   = t.getX();
+        final double ty   = t.getY();
+        final double tz   = t.getZ();
+        final double tvx  = tv.getX();
+        final double tvy  = tv.getY();
+        final double tvz  = tv.getZ();
+        final double tax  = ta.getX();
+        final double tay  = ta.getY();
+        final double taz  = ta.getZ();
+        final double ox   = o.getX();
+        final double oy   = o.getY();
+        final double oz   = o.getZ();
+        final double oDx  = oD.getX();
+        final double oDy  = oD.getY();
+        final double oDz  = oD.getZ();
+        final double m00  = m[0][0];
+        final double m01  = m[0][1];
+        final double m02  = m[0][2];
+        final double m10  = m[1][0];
+        final double m11  = m[1][1];
+        final double m12  = m[1][2];
+        final double m20  = m[2][0];
+        final double m21  = m[2][1];
+        final double m22  = m[2][2];
+
+        for (int i = 0; i < n; ++i) {
+
+            final int s = srcOffset + stride * i;
+            final int d = dstOffset + stride * i;
+
+            // position
+            final double x  = src[s]     + tx;
+            final double y  = src[s + 1] + ty;
+            final double z  = src[s + 2] + tz;
+            final double px = m00 * x + m01 * y + m02 * z;
+            final double py = m10 * x + m11 * y + m12 * z;
+            final double pz = m20 * x + m21 * y + m22 * z;
+
+            // velocity
+            final double vx  = src[s + 3] + tvx;
+            final double vy  = src[s + 4] + tvy;
+            final double vz  = src[s + 5] + tvz;
+            final double cpx = oy * pz - oz * py;
+            final double cpy = oz * px - ox * pz;
+            final double cpz = ox * py - oy * px;
+            final double qx  = m00 * vx + m01 * vy + m02 * vz - cpx;
+            final double qy  = m10 * vx + m11 * vy + m12 * vz - cpy;
+            final double qz  = m20 * vx + m21 * vy + m22 * vz - cpz;
+
+            if (useA) {
+                // acceleration
+                final double ax = src[s + 6] + tax;
+                final double ay = src[s + 7] + tay;
+                final double az = src[s + 8] + taz;
+                dst[d + 6] = m00 * ax + m01 * ay + m02 * az -
+                             2 * (oy * qz - oz * qy) - (oy * cpz - oz * cpy) - (oDy * pz - oDz * py);
+                dst[d + 7] = m10 * ax + m11 * ay + m12 * az -
+                             2 * (oz * qx - ox * qz) - (oz * cpx - ox * cpz) - (oDz * px - oDx * pz);
+                dst[d + 8] = m20 * ax + m21 * ay + m22 * az -
+                             2 * (ox * qy - oy * qx) - (ox * cpy - oy * cpx) - (oDx * py - oDy * px);
+            }
+
+            dst[d]     = px;
+            dst[d + 1] = py;
+            dst[d + 2] = pz;
+            dst[d + 3] = qx;
+            dst[d + 4] = qy;
+            dst[d + 5] = qz;
+
+        }
+
+    }
+
     /** Compute the Jacobian of the {@link #transformPVCoordinates(PVCoordinates)}
      * method of the transform.
      * <p>
@@ -809,6 +1013,31 @@ public class Transform
             return pv;
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public void transformPositions(final double[] src, final int srcOffset,
+                                       final double[] dst, final int dstOffset,
+                                       final int n) {
+            System.arraycopy(src, srcOffset, dst, dstOffset, 3 * n);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void transformVectors(final double[] src, final int srcOffset,
+                                     final double[] dst, final int dstOffset,
+                                     final int n) {
+            System.arraycopy(src, srcOffset, dst, dstOffset, 3 * n);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void transformPVCoordinates(final CartesianDerivativesFilter selector,
+                                           final double[] src, final int srcOffset,
+                                           final double[] dst, final int dstOffset,
+                                           final int n) {
+            System.arraycopy(src, srcOffset, dst, dstOffset, 3 * (selector.getMaxOrder() + 1) * n);
+        }
+
         /** {@inheritDoc} */
         @Override
         public void getJacobian(final CartesianDerivativesFilter selector, final double[][] jacobian) {
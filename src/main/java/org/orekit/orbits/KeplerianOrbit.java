@@ -147,7 +147,7 @@ public class KeplerianOrbit extends Orbit {
         switch (type) {
             case MEAN :
                 tmpV = (a < 0) ? hyperbolicEccentricToTrue(meanToHyperbolicEccentric(anomaly, e)) :
-                    ellipticEccentricToTrue(meanToEllipticEccentric(anomaly));
+                    ellipticEccentricToTrue(meanToEllipticEccentric(anomaly, e));
                 break;
             case ECCENTRIC :
                 tmpV = (a < 0) ? hyperbolicEccentricToTrue(anomaly) :
@@ -368,9 +368,11 @@ public class KeplerianOrbit extends Orbit {
      * R. H. Gooding, Celestial Mechanics 38 (1986) 307-334
      * </p>
      * @param M mean anomaly (rad)
-     * @return v the true anomaly
+     * @param ecc eccentricity
+     * @return E the eccentric anomaly
+     * @since 9.0
      */
-    private double meanToEllipticEccentric(final double M) {
+    public static double meanToEllipticEccentric(final double M, final double ecc) {
 
         // reduce M to [-PI PI) interval
         final double reducedM = MathUtils.normalizeAngle(M, 0.0);
@@ -378,33 +380,33 @@ public class KeplerianOrbit extends Orbit {
         // compute start value according to A. W. Odell and R. H. Gooding S12 starter
         double E;
         if (FastMath.abs(reducedM) < 1.0 / 6.0) {
-            E = reducedM + e * (FastMath.cbrt(6 * reducedM) - reducedM);
+            E = reducedM + ecc * (FastMath.cbrt(6 * reducedM) - reducedM);
         } else {
             if (reducedM < 0) {
                 final double w = FastMath.PI + reducedM;
-                E = reducedM + e * (A * w / (B - w) - FastMath.PI - reducedM);
+                E = reducedM + ecc * (A * w / (B - w) - FastMath.PI - reducedM);
             } else {
                 final double w = FastMath.PI - reducedM;
-                E = reducedM + e * (FastMath.PI - A * w / (B - w) - reducedM);
+                E = reducedM + ecc * (FastMath.PI - A * w / (B - w) - reducedM);
             }
         }
 
-        final double e1 = 1 - e;
+        final double e1 = 1 - ecc;
         final boolean noCancellationRisk = (e1 + E * E / 6) >= 0.1;
 
         // perform two iterations, each consisting of one Halley step and one Newton-Raphson step
         for (int j = 0; j < 2; ++j) {
             final double f;
             double fd;
-            final double fdd  = e * FastMath.sin(E);
-            final double fddd = e * FastMath.cos(E);
+            final double fdd  = ecc * FastMath.sin(E);
+            final double fddd = ecc * FastMath.cos(E);
             if (noCancellationRisk) {
                 f  = (E - fdd) - reducedM;
                 fd = 1 - fddd;
             } else {
-                f  = eMeSinE(E) - reducedM;
+                f  = eMeSinE(E, ecc) - reducedM;
                 final double s = FastMath.sin(0.5 * E);
-                fd = e1 + 2 * e * s * s;
+                fd = e1 + 2 * ecc * s * s;
             }
             final double dee = f * fd / (0.5 * f * fdd - fd * fd);
 
@@ -428,10 +430,11 @@ public class KeplerianOrbit extends Orbit {
      * i.e. near the perigee of almost parabolic orbits
      * </p>
      * @param E eccentric anomaly
+     * @param ecc eccentricity
      * @return E - e sin(E)
      */
-    private double eMeSinE(final double E) {
-        double x = (1 - e) * FastMath.sin(E);
+    private static double eMeSinE(final double E, final double ecc) {
+        double x = (1 - ecc) * FastMath.sin(E);
         final double mE2 = -E * E;
         double term = E;
         double d    = 0;
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.orekit.attitudes.AttitudeProvider;
 import org.orekit.errors.OrekitException;
@@ -64,6 +65,9 @@ public abstract class AbstractPropagator implements Propagator {
     /** Initial state. */
     private SpacecraftState initialState;
 
+    /** Layouts of additional states built by this propagator, per base layout and added name. */
+    private final Map<SpacecraftState.Layout, Map<String, SpacecraftState.Layout>> layouts;
+
     /** Build a new instance.
      */
     protected AbstractPropagator() {
@@ -71,6 +75,7 @@ public abstract class AbstractPropagator implements Propagator {
         stepHandler              = null;
         fixedStepSize            = Double.NaN;
         additionalStateProviders = new ArrayList<AdditionalStateProvider>();
+        layouts                  = new ConcurrentHashMap<SpacecraftState.Layout, Map<String, SpacecraftState.Layout>>();
     }
 
     /** Set a start date.
@@ -196,21 +201,61 @@ public abstract class AbstractPropagator implements Propagator {
                 if (!isAdditionalStateManaged(initial.getKey())) {
                     // this additional state was in the initial state, but is unknown to the propagator
                     // we simply copy its initial value as is
-                    updated = updated.addAdditionalState(initial.getKey(), initial.getValue());
+                    updated = addAdditionalState(updated, initial.getKey(), initial.getValue());
                 }
             }
         }
 
         // update the additional states managed by providers
         for (final AdditionalStateProvider provider : additionalStateProviders) {
-            updated = updated.addAdditionalState(provider.getName(),
-                                                 provider.getAdditionalState(updated));
+            updated = addAdditionalState(updated, provider.getName(),
+                                         provider.getAdditionalState(updated));
         }
 
         return updated;
 
     }
 
+    /** Add an additional state, reusing the layouts already built by this propagator.
+     * <p>
+     * This method is equivalent to {@code state.addAdditionalState(name, value)},
+     * but the mapping from names to offsets in the packed storage of additional
+     * states is built only once for each sequence of additional states handled by
+     * the propagator. Adding the same additional states at each step or at each
+     * derivatives evaluation therefore only copies the values.
+     * </p>
+     * @param state state to which the additional state should be added
+     * @param name name of the additional state
+     * @param value value of the additional state
+     * @return a new instance, with the additional state added
+     * @see SpacecraftState#addAdditionalState(String, double...)
+     * @since 9.0
+     */
+    protected SpacecraftState addAdditionalState(final SpacecraftState state,
+                                                 final String name, final double... value) {
+
+        final SpacecraftState.Layout base = state.getLayout();
+        if (base.getIndex(name) >= 0) {
+            // the name is already present, the layout is unchanged
+            return state.addAdditionalState(name, value);
+        }
+
+        // the maps are concurrent because ephemerides may be shared between threads,
+        // if two threads build the same layout simultaneously, both are equivalent
+        final Map<String, SpacecraftState.Layout> extensions =
+                layouts.computeIfAbsent(base, b -> new ConcurrentHashMap<String, SpacecraftState.Layout>());
+
+        SpacecraftState.Layout extended = extensions.get(name);
+        if (extended == null || extended.getLength(base.size()) != value.length) {
+            // first time this name is added to this layout (or its dimension changed)
+            extended = base.extend(name, value.length);
+            extensions.put(name, extended);
+        }
+
+        return state.addAdditionalState(extended, value);
+
+    }
+
     /** {@inheritDoc} */
     public boolean isAdditionalStateManaged(final String name) {
         for (final AdditionalStateProvider provider : additionalStateProviders) {
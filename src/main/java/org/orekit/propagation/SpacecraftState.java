@@ -18,6 +18,7 @@ package org.orekit.propagation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -59,6 +60,17 @@ import org.orekit.utils.TimeStampedPVCoordinates;
  * data.
  * </p>
  * <p>
+ * Additional states are stored internally in a single contiguous array, with
+ * a layout mapping each name to a slice of this array. Layouts are immutable and
+ * shared between all the states derived from one another, so adding or updating
+ * an additional state only copies one primitive array, and states that merely
+ * differ by orbit, attitude or mass (for example {@link #shiftedBy(double) shifted
+ * states}) share the same array. {@link #getAdditionalState(String)} returns
+ * a copy of one slice of this storage, and {@link #getAdditionalStates()} extracts
+ * all the individual arrays the first time it is called on an instance, and returns
+ * the same map afterwards.
+ * </p>
+ * <p>
  * The state can be slightly shifted to close dates. This shift is based on
  * a simple keplerian model for orbit, a linear extrapolation for attitude
  * taking the spin rate into account and no mass change. It is <em>not</em>
@@ -97,8 +109,14 @@ public class SpacecraftState
     /** Current mass (kg). */
     private final double mass;
 
-    /** Additional states. */
-    private final Map<String, double[]> additional;
+    /** Layout of additional states. */
+    private final Layout layout;
+
+    /** Additional states values, packed according to layout (never modified). */
+    private final double[] additional;
+
+    /** Additional states, extracted from packed values on first use. */
+    private transient volatile Map<String, double[]> extracted;
 
     /** Build a spacecraft state from orbit only.
      * <p>Attitude and mass are set to unspecified non-null arbitrary values.</p>
@@ -204,16 +222,40 @@ public class SpacecraftState
         this.orbit      = orbit;
         this.attitude   = attitude;
         this.mass       = mass;
-        if (additional == null) {
-            this.additional = Collections.emptyMap();
+        if (additional == null || additional.isEmpty()) {
+            this.layout     = Layout.EMPTY;
+            this.additional = Layout.EMPTY_VALUES;
         } else {
-            this.additional = new HashMap<String, double[]>(additional.size());
+            Layout l = Layout.EMPTY;
+            for (final Map.Entry<String, double[]> entry : additional.entrySet()) {
+                l = l.extend(entry.getKey(), entry.getValue().length);
+            }
+            this.layout     = l;
+            this.additional = new double[l.getTotalLength()];
             for (final Map.Entry<String, double[]> entry : additional.entrySet()) {
-                this.additional.put(entry.getKey(), entry.getValue().clone());
+                final int index = l.getIndex(entry.getKey());
+                System.arraycopy(entry.getValue(), 0, this.additional, l.getOffset(index), l.getLength(index));
             }
         }
     }
 
+    /** Build a spacecraft state sharing already packed additional states.
+     * @param orbit the orbit
+     * @param attitude attitude (must be consistent with orbit)
+     * @param mass the mass (kg)
+     * @param layout layout of additional states
+     * @param additional additional states values (will <em>not</em> be copied,
+     * so the caller must not modify it afterwards)
+     */
+    private SpacecraftState(final Orbit orbit, final Attitude attitude, final double mass,
+                            final Layout layout, final double[] additional) {
+        this.orbit      = orbit;
+        this.attitude   = attitude;
+        this.mass       = mass;
+        this.layout     = layout;
+        this.additional = additional;
+    }
+
     /** Add an additional state.
      * <p>
      * {@link SpacecraftState SpacecraftState} instances are immutable,
@@ -233,10 +275,46 @@ public class SpacecraftState
      * @see #getAdditionalStates()
      */
     public SpacecraftState addAdditionalState(final String name, final double ... value) {
-        final Map<String, double[]> newMap = new HashMap<String, double[]>(additional.size() + 1);
-        newMap.putAll(additional);
-        newMap.put(name, value.clone());
+
+        final int index = layout.getIndex(name);
+
+        if (index < 0) {
+            // new name, append a slot at the end of the storage
+            final Layout   newLayout = layout.extend(name, value.length);
+            final double[] newValues = Arrays.copyOf(additional, newLayout.getTotalLength());
+            System.arraycopy(value, 0, newValues, additional.length, value.length);
+            return new SpacecraftState(orbit, attitude, mass, newLayout, newValues);
+        }
+
+        if (layout.getLength(index) == value.length) {
+            // existing name, update the slot in a copy of the storage
+            final double[] newValues = additional.clone();
+            System.arraycopy(value, 0, newValues, layout.getOffset(index), value.length);
+            return new SpacecraftState(orbit, attitude, mass, layout, newValues);
+        }
+
+        // existing name with a different dimension, the layout must be rebuilt
+        final Map<String, double[]> newMap = new HashMap<String, double[]>(getAdditionalStates());
+        newMap.put(name, value);
         return new SpacecraftState(orbit, attitude, mass, newMap);
+
+    }
+
+    /** Add a new additional state using an already built layout.
+     * <p>
+     * This method is equivalent to {@link #addAdditionalState(String, double...)}
+     * for a name not yet present in the instance, but it does not build the
+     * extended layout, so callers can build it only once and reuse it.
+     * </p>
+     * @param extended layout of the instance, extended by the new additional state
+     * (its last additional state must have the dimension of {@code value})
+     * @param value value of the additional state
+     * @return a new instance, with the additional state added
+     */
+    SpacecraftState addAdditionalState(final Layout extended, final double... value) {
+        final double[] newValues = Arrays.copyOf(additional, extended.getTotalLength());
+        System.arraycopy(value, 0, newValues, additional.length, value.length);
+        return new SpacecraftState(orbit, attitude, mass, extended, newValues);
     }
 
     /** Check orbit and attitude dates are equal.
@@ -293,7 +371,7 @@ public class SpacecraftState
      */
     public SpacecraftState shiftedBy(final double dt) {
         return new SpacecraftState(orbit.shiftedBy(dt), attitude.shiftedBy(dt),
-                                   mass, additional);
+                                   mass, layout, additional);
     }
 
     /** {@inheritDoc}
@@ -318,11 +396,7 @@ public class SpacecraftState
         final List<Orbit> orbits = new ArrayList<>();
         final List<Attitude> attitudes = new ArrayList<>();
         final HermiteInterpolator massInterpolator = new HermiteInterpolator();
-        final Map<String, HermiteInterpolator> additionalInterpolators =
-                new HashMap<String, HermiteInterpolator>(additional.size());
-        for (final String name : additional.keySet()) {
-            additionalInterpolators.put(name, new HermiteInterpolator());
-        }
+        final HermiteInterpolator additionalInterpolator = new HermiteInterpolator();
 
         // extract sample data
         try {
@@ -335,8 +409,8 @@ public class SpacecraftState
                                                     new double[] {
                                                          state.getMass()
                                                     });
-                    for (final Map.Entry<String, HermiteInterpolator> entry : additionalInterpolators.entrySet()) {
-                        entry.getValue().addSamplePoint(deltaT, state.getAdditionalState(entry.getKey()));
+                    if (layout.size() > 0) {
+                        additionalInterpolator.addSamplePoint(deltaT, state.packAdditionalStates(layout));
                     }
                 } catch (OrekitException oe) {
                     throw new OrekitExceptionWrapper(oe);
@@ -350,19 +424,14 @@ public class SpacecraftState
         final Orbit interpolatedOrbit       = orbit.interpolate(date, orbits);
         final Attitude interpolatedAttitude = attitude.interpolate(date, attitudes);
         final double interpolatedMass       = massInterpolator.value(0)[0];
-        final Map<String, double[]> interpolatedAdditional;
-        if (additional.isEmpty()) {
-            interpolatedAdditional = null;
-        } else {
-            interpolatedAdditional = new HashMap<String, double[]>(additional.size());
-            for (final Map.Entry<String, HermiteInterpolator> entry : additionalInterpolators.entrySet()) {
-                interpolatedAdditional.put(entry.getKey(), entry.getValue().value(0));
-            }
-        }
+        final double[] interpolatedAdditional = layout.size() > 0 ?
+                                                additionalInterpolator.value(0) :
+                                                Layout.EMPTY_VALUES;
 
         // create the complete interpolated state
+        checkConsistency(interpolatedOrbit, interpolatedAttitude);
         return new SpacecraftState(interpolatedOrbit, interpolatedAttitude,
-                                   interpolatedMass, interpolatedAdditional);
+                                   interpolatedMass, layout, interpolatedAdditional);
 
     }
 
@@ -387,6 +456,13 @@ public class SpacecraftState
         return orbit.getFrame();
     }
 
+    /** Get the layout of additional states.
+     * @return layout of additional states
+     */
+    Layout getLayout() {
+        return layout;
+    }
+
     /** Check if an additional state is available.
      * @param name name of the additional state
      * @return true if the additional state is available
@@ -395,7 +471,7 @@ public class SpacecraftState
      * @see #getAdditionalStates()
      */
     public boolean hasAdditionalState(final String name) {
-        return additional.containsKey(name);
+        return layout.getIndex(name) >= 0;
     }
 
     /** Check if two instances have the same set of additional states available.
@@ -412,25 +488,30 @@ public class SpacecraftState
     public void ensureCompatibleAdditionalStates(final SpacecraftState state)
         throws OrekitException, MathIllegalStateException {
 
+        if (state.layout.isSameAs(layout)) {
+            // states derived from one another share the same layout
+            return;
+        }
+
         // check instance additional states is a subset of the other one
-        for (final Map.Entry<String, double[]> entry : additional.entrySet()) {
-            final double[] other = state.additional.get(entry.getKey());
-            if (other == null) {
+        for (int i = 0; i < layout.size(); ++i) {
+            final int otherIndex = state.layout.getIndex(layout.getName(i));
+            if (otherIndex < 0) {
                 throw new OrekitException(OrekitMessages.UNKNOWN_ADDITIONAL_STATE,
-                                          entry.getKey());
+                                          layout.getName(i));
             }
-            if (other.length != entry.getValue().length) {
+            if (state.layout.getLength(otherIndex) != layout.getLength(i)) {
                 throw new MathIllegalStateException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
-                                                    other.length, entry.getValue().length);
+                                                    state.layout.getLength(otherIndex), layout.getLength(i));
             }
         }
 
-        if (state.additional.size() > additional.size()) {
+        if (state.layout.size() > layout.size()) {
             // the other state has more additional states
-            for (final String name : state.additional.keySet()) {
-                if (!additional.containsKey(name)) {
+            for (int i = 0; i < state.layout.size(); ++i) {
+                if (layout.getIndex(state.layout.getName(i)) < 0) {
                     throw new OrekitException(OrekitMessages.UNKNOWN_ADDITIONAL_STATE,
-                                              name);
+                                              state.layout.getName(i));
                 }
             }
         }
@@ -446,20 +527,58 @@ public class SpacecraftState
      * @see #getAdditionalStates()
      */
     public double[] getAdditionalState(final String name) throws OrekitException {
-        if (!additional.containsKey(name)) {
+        final int index = layout.getIndex(name);
+        if (index < 0) {
             throw new OrekitException(OrekitMessages.UNKNOWN_ADDITIONAL_STATE, name);
         }
-        return additional.get(name).clone();
+        return layout.extract(additional, index);
     }
 
     /** Get an unmodifiable map of additional states.
+     * <p>
+     * The arrays are extracted from the internal packed storage the first time
+     * this method is called on the instance. Later calls return the same map
+     * and the same arrays, without copying them again. As with previous versions,
+     * the arrays must not be modified by callers.
+     * </p>
      * @return unmodifiable map of additional states
      * @see #addAdditionalState(String, double[])
      * @see #hasAdditionalState(String)
      * @see #getAdditionalState(String)
      */
     public Map<String, double[]> getAdditionalStates() {
-        return Collections.unmodifiableMap(additional);
+        Map<String, double[]> map = extracted;
+        if (map == null) {
+            final Map<String, double[]> extractedMap = new HashMap<String, double[]>(2 * layout.size());
+            for (int i = 0; i < layout.size(); ++i) {
+                extractedMap.put(layout.getName(i), layout.extract(additional, i));
+            }
+            map       = Collections.unmodifiableMap(extractedMap);
+            extracted = map;
+        }
+        return map;
+    }
+
+    /** Get all additional states packed according to a given layout.
+     * @param target target layout
+     * @return packed additional states (shared with the instance
+     * if layouts are the same, so it must not be modified)
+     * @exception OrekitException if some additional state in target layout
+     * is not available in the instance
+     */
+    private double[] packAdditionalStates(final Layout target) throws OrekitException {
+        if (target.isSameAs(layout)) {
+            return additional;
+        }
+        final double[] packed = new double[target.getTotalLength()];
+        for (int i = 0; i < target.size(); ++i) {
+            final int index = layout.getIndex(target.getName(i));
+            if (index < 0) {
+                throw new OrekitException(OrekitMessages.UNKNOWN_ADDITIONAL_STATE, target.getName(i));
+            }
+            System.arraycopy(additional, layout.getOffset(index), packed, target.getOffset(i), target.getLength(i));
+        }
+        return packed;
     }
 
     /** Compute the transform from orbite/attitude reference frame to spacecraft frame.
@@ -654,7 +773,8 @@ public class SpacecraftState
         private DTO(final SpacecraftState state) {
 
             this.orbit      = state.orbit;
-            this.additional = state.additional.isEmpty() ? null : state.additional;
+            this.additional = state.layout.size() == 0 ?
+                              null : new HashMap<String, double[]>(state.getAdditionalStates());
 
             final Rotation rotation             = state.attitude.getRotation();
             final Vector3D spin                 = state.attitude.getSpin();
@@ -683,4 +803,142 @@ public class SpacecraftState
 
     }
 
+    /** Immutable layout of additional states in a packed array.
+     * <p>
+     * Layouts are shared between states derived from one another. Extended
+     * layouts are not cached here, so no names are retained once the states using
+     * them are garbage collected. Propagators keep the layouts they build for
+     * their own additional states (see {@link
+     * AbstractPropagator#addAdditionalState(SpacecraftState, String, double...)}).
+     * Layouts built independently by adding the same additional states in the
+     * same order are recognized using {@link #isSameAs(Layout)}, which is also
+     * used for {@link #equals(Object)}.
+     * </p>
+     */
+    static class Layout {
+
+        /** Empty layout. */
+        private static final Layout EMPTY = new Layout(new String[0], new int[1]);
+
+        /** Empty values array. */
+        private static final double[] EMPTY_VALUES = new double[0];
+
+        /** Names of the additional states, in storage order. */
+        private final String[] names;
+
+        /** Offsets of the additional states (with one extra element for total length). */
+        private final int[] offsets;
+
+        /** Map from names to indices. */
+        private final Map<String, Integer> indices;
+
+        /** Hash code (depends only on names and offsets). */
+        private final int hash;
+
+        /** Simple constructor.
+         * @param names names of the additional states, in storage order
+         * @param offsets offsets of the additional states (with one extra element for total length)
+         */
+        Layout(final String[] names, final int[] offsets) {
+            this.names      = names;
+            this.offsets    = offsets;
+            this.indices    = new HashMap<String, Integer>(2 * names.length);
+            for (int i = 0; i < names.length; ++i) {
+                indices.put(names[i], i);
+            }
+            this.hash       = 31 * Arrays.hashCode(names) + Arrays.hashCode(offsets);
+        }
+
+        /** Get a layout with one more additional state.
+         * @param name name of the additional state to add (must not be already present)
+         * @param dimension dimension of the additional state to add
+         * @return extended layout
+         */
+        public Layout extend(final String name, final int dimension) {
+            final String[] extendedNames = Arrays.copyOf(names, names.length + 1);
+            extendedNames[names.length] = name;
+            final int[] extendedOffsets = Arrays.copyOf(offsets, offsets.length + 1);
+            extendedOffsets[offsets.length] = offsets[names.length] + dimension;
+            return new Layout(extendedNames, extendedOffsets);
+        }
+
+        /** Check if another layout has the same names and dimensions, in the same order.
+         * @param other other layout
+         * @return true if the packed arrays of both layouts are interchangeable
+         */
+        public boolean isSameAs(final Layout other) {
+            return other == this ||
+                   (hash == other.hash && Arrays.equals(names, other.names) && Arrays.equals(offsets, other.offsets));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Layout && isSameAs((Layout) other);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /** Get the number of additional states.
+         * @return number of additional states
+         */
+        public int size() {
+            return names.length;
+        }
+
+        /** Get the total length of the packed array.
+         * @return total length of the packed array
+         */
+        public int getTotalLength() {
+            return offsets[names.length];
+        }
+
+        /** Get the index of an additional state.
+         * @param name name of the additional state
+         * @return index of the additional state, or -1 if it is not present
+         */
+        public int getIndex(final String name) {
+            final Integer index = indices.get(name);
+            return index == null ? -1 : index;
+        }
+
+        /** Get the name of an additional state.
+         * @param index index of the additional state
+         * @return name of the additional state
+         */
+        public String getName(final int index) {
+            return names[index];
+        }
+
+        /** Get the offset of an additional state.
+         * @param index index of the additional state
+         * @return offset of the additional state in the packed array
+         */
+        public int getOffset(final int index) {
+            return offsets[index];
+        }
+
+        /** Get the dimension of an additional state.
+         * @param index index of the additional state
+         * @return dimension of the additional state
+         */
+        public int getLength(final int index) {
+            return offsets[index + 1] - offsets[index];
+        }
+
+        /** Extract a copy of an additional state from a packed array.
+         * @param packed packed array
+         * @param index index of the additional state
+         * @return copy of the additional state
+         */
+        public double[] extract(final double[] packed, final int index) {
+            return Arrays.copyOfRange(packed, offsets[index], offsets[index + 1]);
+        }
+
+    }
+
 }
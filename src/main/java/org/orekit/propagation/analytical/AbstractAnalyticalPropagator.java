@@ -27,6 +27,7 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 
 import org.hipparchus.exception.MathRuntimeException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
 import org.orekit.attitudes.Attitude;
 import org.orekit.attitudes.AttitudeProvider;
@@ -44,6 +45,7 @@ import org.orekit.propagation.events.EventState.EventOccurrence;
 import org.orekit.propagation.events.handlers.EventHandler.Action;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.PVCoordinatesProvider;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -380,6 +382,99 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
         }
     }
 
+    /** Evaluate positions and velocities at several dates.
+     * <p>
+     * This method is intended for bulk evaluation, for example on coverage grids.
+     * It neither builds {@link SpacecraftState spacecraft states} nor computes
+     * attitude, mass or additional states. It does <strong>not</strong> call any
+     * step handler nor check any event detector.
+     * </p>
+     * @param dates evaluation dates
+     * @param frame frame in which coordinates are desired
+     * @param pv placeholder for the coordinates, six doubles per date
+     * (x, y, z, vx, vy, vz), its length must be at least 6 {@code dates.length}
+     * @exception OrekitException if some parameters are out of bounds or frames
+     * cannot be converted
+     * @since 9.0
+     */
+    public void getPVCoordinates(final AbsoluteDate[] dates, final Frame frame, final double[] pv)
+        throws OrekitException {
+        final Frame propagationFrame = getFrame();
+        for (int i = 0; i < dates.length; ++i) {
+            getPVCoordinates(dates[i], propagationFrame, frame, pv, 6 * i);
+        }
+    }
+
+    /** Evaluate positions and velocities on a regular dates grid.
+     * <p>
+     * This method is intended for bulk evaluation, for example on coverage grids.
+     * It neither builds {@link SpacecraftState spacecraft states} nor computes
+     * attitude, mass or additional states. It does <strong>not</strong> call any
+     * step handler nor check any event detector.
+     * </p>
+     * @param start first evaluation date
+     * @param step time step between evaluation dates (s), may be negative
+     * @param count number of evaluation dates
+     * @param frame frame in which coordinates are desired
+     * @param pv placeholder for the coordinates, six doubles per date
+     * (x, y, z, vx, vy, vz), its length must be at least 6 {@code count}
+     * @exception OrekitException if some parameters are out of bounds or frames
+     * cannot be converted
+     * @since 9.0
+     */
+    public void getPVCoordinates(final AbsoluteDate start, final double step, final int count,
+                                 final Frame frame, final double[] pv)
+        throws OrekitException {
+        final Frame propagationFrame = getFrame();
+        for (int i = 0; i < count; ++i) {
+            getPVCoordinates(start.shiftedBy(i * step), propagationFrame, frame, pv, 6 * i);
+        }
+    }
+
+    /** Evaluate position and velocity at one date, in any frame.
+     * @param date evaluation date
+     * @param propagationFrame propagation frame
+     * @param frame frame in which coordinates are desired
+     * @param pv placeholder for the coordinates (x, y, z, vx, vy, vz)
+     * @param offset index of the first coordinate in {@code pv}
+     * @exception OrekitException if some parameters are out of bounds or frames
+     * cannot be converted
+     */
+    private void getPVCoordinates(final AbsoluteDate date, final Frame propagationFrame, final Frame frame,
+                                  final double[] pv, final int offset)
+        throws OrekitException {
+        propagatePVCoordinates(date, pv, offset);
+        if (frame != propagationFrame) {
+            propagationFrame.getTransformTo(frame, date).
+                transformPVCoordinates(CartesianDerivativesFilter.USE_PV, pv, offset, pv, offset, 1);
+        }
+    }
+
+    /** Evaluate position and velocity at one date, in the {@link #getFrame() propagation frame}.
+     * <p>
+     * The default implementation simply extracts the coordinates from
+     * {@link #propagateOrbit(AbsoluteDate)}. Propagators should override
+     * it if they can compute the coordinates without building an orbit.
+     * </p>
+     * @param date evaluation date
+     * @param pv placeholder for the coordinates (x, y, z, vx, vy, vz)
+     * @param offset index of the first coordinate in {@code pv}
+     * @exception OrekitException if some parameters are out of bounds
+     * @since 9.0
+     */
+    protected void propagatePVCoordinates(final AbsoluteDate date, final double[] pv, final int offset)
+        throws OrekitException {
+        final TimeStampedPVCoordinates coordinates = propagateOrbit(date).getPVCoordinates(getFrame());
+        final Vector3D p = coordinates.getPosition();
+        final Vector3D v = coordinates.getVelocity();
+        pv[offset]     = p.getX();
+        pv[offset + 1] = p.getY();
+        pv[offset + 2] = p.getZ();
+        pv[offset + 3] = v.getX();
+        pv[offset + 4] = v.getY();
+        pv[offset + 5] = v.getZ();
+    }
+
     /** Internal PVCoordinatesProvider for attitude computation. */
     private class LocalPVProvider implements PVCoordinatesProvider {
 
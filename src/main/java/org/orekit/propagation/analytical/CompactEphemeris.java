@@ -0,0 +1,660 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.attitudes.Attitude;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.ChronologicalComparator;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.TimeStampedAngularCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Memory-efficient ephemeris for tabulated states.
+ * <p>
+ * This class is a drop-in alternative to {@link Ephemeris} for long ephemerides.
+ * Instead of keeping a list of {@link SpacecraftState} instances, the tabulated
+ * data are stored in primitive arrays (struct-of-arrays layout): dates offsets,
+ * Cartesian position, velocity and acceleration, attitude quaternion, rotation
+ * rate and rotation acceleration, mass and additional states. This reduces memory
+ * footprint by roughly an order of magnitude.
+ * </p>
+ * <p>
+ * When the states are regularly sampled, the interpolation points are found by
+ * direct indexing, otherwise a binary search is used. {@link
+ * #getPVCoordinates(AbsoluteDate, Frame) Position-velocity queries} interpolate
+ * the arrays directly, without building intermediate states, orbits or attitudes.
+ * </p>
+ * <p>
+ * Orbits are interpolated in Cartesian coordinates, using position, velocity and
+ * acceleration, and are then converted back to the orbit type of the first state.
+ * Attitudes are interpolated using rotation and rotation rate, mass and additional
+ * states are interpolated using their values only.
+ * </p>
+ * @see Ephemeris
+ * @since 9.0
+ */
+public class CompactEphemeris extends AbstractAnalyticalPropagator implements BoundedPropagator, Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20170117L;
+
+    /** Number of doubles per sample for orbit (position, velocity, acceleration). */
+    private static final int ORBIT_SIZE = 9;
+
+    /** Number of doubles per sample for attitude (quaternion, rotation rate, rotation acceleration). */
+    private static final int ATTITUDE_SIZE = 10;
+
+    /** Relative tolerance for regular sampling detection. */
+    private static final double REGULAR_TOLERANCE = 1.0e-10;
+
+    /** Scratch array for position-velocity interpolation. */
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
+    /** Reference date (date of the first sample). */
+    private final AbsoluteDate reference;
+
+    /** Dates offsets with respect to reference date. */
+    private final double[] offsets;
+
+    /** Time step for regular sampling (NaN for irregular sampling). */
+    private final double step;
+
+    /** Number of points to use in interpolation. */
+    private final int interpolationPoints;
+
+    /** Reference frame. */
+    private final Frame frame;
+
+    /** Central attraction coefficient. */
+    private final double mu;
+
+    /** Orbit type of the states. */
+    private final OrbitType orbitType;
+
+    /** Orbit data (position, velocity, acceleration) for all samples. */
+    private final double[] orbitData;
+
+    /** Attitude reference frame. */
+    private final Frame attitudeFrame;
+
+    /** Attitude data (quaternion, rotation rate, rotation acceleration) for all samples. */
+    private final double[] attitudeData;
+
+    /** Masses for all samples. */
+    private final double[] masses;
+
+    /** Names of the additional states. */
+    private final String[] additional;
+
+    /** Dimensions of the additional states. */
+    private final int[] additionalDimensions;
+
+    /** Additional states data, one array per additional state name. */
+    private final double[][] additionalData;
+
+    /** Constructor with tabulated states.
+     * <p>
+     * The states are copied into primitive arrays, so the list can be
+     * released by the caller once this constructor has returned.
+     * </p>
+     * @param states tabulates states
+     * @param interpolationPoints number of points to use in interpolation
+     * @exception OrekitException if some states have incompatible additional
+     * states or inconsistent frames
+     * @exception MathIllegalArgumentException if the number of states is smaller than
+     * the number of points to use in interpolation
+     */
+    public CompactEphemeris(final List<SpacecraftState> states, final int interpolationPoints)
+        throws OrekitException, MathIllegalArgumentException {
+
+        super(DEFAULT_LAW);
+
+        if (states.size() < interpolationPoints) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.INSUFFICIENT_DIMENSION,
+                                                   states.size(), interpolationPoints);
+        }
+
+        // sort states chronologically
+        final List<SpacecraftState> sorted = new ArrayList<SpacecraftState>(states);
+        Collections.sort(sorted, new ChronologicalComparator());
+
+        final SpacecraftState s0 = sorted.get(0);
+        final int n = sorted.size();
+        this.reference           = s0.getDate();
+        this.interpolationPoints = interpolationPoints;
+        this.frame               = s0.getFrame();
+        this.mu                  = s0.getMu();
+        this.orbitType           = s0.getOrbit().getType();
+        this.attitudeFrame       = s0.getAttitude().getReferenceFrame();
+
+        final Set<String> names0 = s0.getAdditionalStates().keySet();
+        this.additional           = names0.toArray(new String[names0.size()]);
+        this.additionalDimensions = new int[additional.length];
+        this.additionalData       = new double[additional.length][];
+        for (int k = 0; k < additional.length; ++k) {
+            additionalDimensions[k] = s0.getAdditionalState(additional[k]).length;
+            additionalData[k]       = new double[n * additionalDimensions[k]];
+        }
+
+        this.offsets      = new double[n];
+        this.orbitData    = new double[n * ORBIT_SIZE];
+        this.attitudeData = new double[n * ATTITUDE_SIZE];
+        this.masses       = new double[n];
+        for (int i = 0; i < n; ++i) {
+
+            final SpacecraftState state = sorted.get(i);
+            s0.ensureCompatibleAdditionalStates(state);
+            if (state.getFrame() != frame) {
+                throw new OrekitException(OrekitMessages.FRAMES_MISMATCH,
+                                          frame.getName(), state.getFrame().getName());
+            }
+            if (state.getAttitude().getReferenceFrame() != attitudeFrame) {
+                throw new OrekitException(OrekitMessages.FRAMES_MISMATCH,
+                                          attitudeFrame.getName(),
+                                          state.getAttitude().getReferenceFrame().getName());
+            }
+
+            offsets[i] = state.getDate().durationFrom(reference);
+
+            final TimeStampedPVCoordinates pv = state.getPVCoordinates();
+            store(orbitData, i * ORBIT_SIZE,     pv.getPosition());
+            store(orbitData, i * ORBIT_SIZE + 3, pv.getVelocity());
+            store(orbitData, i * ORBIT_SIZE + 6, pv.getAcceleration());
+
+            final TimeStampedAngularCoordinates ac = state.getAttitude().getOrientation();
+            final Rotation r = ac.getRotation();
+            final int k = i * ATTITUDE_SIZE;
+            attitudeData[k]     = r.getQ0();
+            attitudeData[k + 1] = r.getQ1();
+            attitudeData[k + 2] = r.getQ2();
+            attitudeData[k + 3] = r.getQ3();
+            store(attitudeData, k + 4, ac.getRotationRate());
+            store(attitudeData, k + 7, ac.getRotationAcceleration());
+
+            masses[i] = state.getMass();
+
+            for (int j = 0; j < additional.length; ++j) {
+                System.arraycopy(state.getAdditionalState(additional[j]), 0,
+                                 additionalData[j], i * additionalDimensions[j],
+                                 additionalDimensions[j]);
+            }
+
+        }
+
+        this.step = regularStep(offsets);
+
+        // user needs to explicitly set attitude provider if they want to use one
+        setAttitudeProvider(null);
+
+    }
+
+    /** Constructor from already flattened data.
+     * @param dto data transfer object holding the arrays
+     */
+    private CompactEphemeris(final DataTransferObject dto) {
+        super(DEFAULT_LAW);
+        this.reference            = dto.reference;
+        this.offsets              = dto.offsets;
+        this.step                 = regularStep(dto.offsets);
+        this.interpolationPoints  = dto.interpolationPoints;
+        this.frame                = dto.frame;
+        this.mu                   = dto.mu;
+        this.orbitType            = dto.orbitType;
+        this.orbitData            = dto.orbitData;
+        this.attitudeFrame        = dto.attitudeFrame;
+        this.attitudeData         = dto.attitudeData;
+        this.masses               = dto.masses;
+        this.additional           = dto.additional;
+        this.additionalDimensions = dto.additionalDimensions;
+        this.additionalData       = dto.additionalData;
+        setAttitudeProvider(null);
+    }
+
+    /** Store a vector in an array.
+     * @param array array where to store the vector
+     * @param index index of the first component
+     * @param v vector to store
+     */
+    private static void store(final double[] array, final int index, final Vector3D v) {
+        array[index]     = v.getX();
+        array[index + 1] = v.getY();
+        array[index + 2] = v.getZ();
+    }
+
+    /** Check if sampling is regular.
+     * @param offsets dates offsets
+     * @return time step for regular sampling, NaN for irregular sampling
+     */
+    private static double regularStep(final double[] offsets) {
+        if (offsets.length < 2) {
+            return Double.NaN;
+        }
+        final double h = offsets[offsets.length - 1] / (offsets.length - 1);
+        final double tolerance = REGULAR_TOLERANCE * offsets[offsets.length - 1];
+        for (int i = 0; i < offsets.length; ++i) {
+            if (FastMath.abs(offsets[i] - i * h) > tolerance) {
+                return Double.NaN;
+            }
+        }
+        return h;
+    }
+
+    /** Get the first date of the range.
+     * @return the first date of the range
+     */
+    public AbsoluteDate getMinDate() {
+        return reference;
+    }
+
+    /** Get the last date of the range.
+     * @return the last date of the range
+     */
+    public AbsoluteDate getMaxDate() {
+        return reference.shiftedBy(offsets[offsets.length - 1]);
+    }
+
+    /** Get the number of tabulated states.
+     * @return number of tabulated states
+     */
+    public int getNbStates() {
+        return offsets.length;
+    }
+
+    /** Check if the tabulated states are regularly sampled.
+     * <p>
+     * When states are regularly sampled, interpolation points are
+     * found by direct indexing rather than by binary search.
+     * </p>
+     * @return true if the tabulated states are regularly sampled
+     */
+    public boolean isRegularlySampled() {
+        return !Double.isNaN(step);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /** Find the index of the first interpolation point.
+     * @param date interpolation date
+     * @return index of the first interpolation point
+     * @exception TimeStampedCacheException if date is out of range
+     */
+    private int firstIndex(final AbsoluteDate date) throws TimeStampedCacheException {
+
+        final double dt = date.durationFrom(reference);
+        final int    n  = offsets.length;
+        if (dt < 0) {
+            throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                                                getMinDate());
+        } else if (dt > offsets[n - 1]) {
+            throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
+                                                getMaxDate());
+        }
+
+        // find the last sample at or before the date
+        int i;
+        if (Double.isNaN(step)) {
+            final int search = Arrays.binarySearch(offsets, dt);
+            i = (search >= 0) ? search : -search - 2;
+        } else {
+            i = FastMath.min(n - 1, (int) FastMath.floor(dt / step));
+            // fix rounding effects near samples
+            while (i > 0 && offsets[i] > dt) {
+                --i;
+            }
+            while (i < n - 1 && offsets[i + 1] <= dt) {
+                ++i;
+            }
+        }
+
+        // center the interpolation points around the date
+        return FastMath.max(0, FastMath.min(n - interpolationPoints, i - (interpolationPoints - 1) / 2));
+
+    }
+
+    /** Interpolate position-velocity in ephemeris frame.
+     * <p>
+     * The Hermite polynomial matching positions, velocities and accelerations
+     * at all interpolation points is evaluated directly from the tabulated
+     * arrays, using Newton divided differences computed in a thread-local
+     * scratch array.
+     * </p>
+     * @param date interpolation date
+     * @param first index of the first interpolation point
+     * @return interpolated position-velocity
+     */
+    private TimeStampedPVCoordinates interpolatePV(final AbsoluteDate date, final int first) {
+
+        final double dt = date.durationFrom(reference);
+
+        // each interpolation point is used three times (value, first and second derivatives)
+        final int m = 3 * interpolationPoints;
+        // scratch array layout: abscissas, Newton coefficients for each component, results
+        final int r = 4 * m;
+        double[] scratch = SCRATCH.get();
+        if (scratch.length < r + ORBIT_SIZE) {
+            scratch = new double[r + ORBIT_SIZE];
+            SCRATCH.set(scratch);
+        }
+
+        // abscissas, relative to interpolation date
+        for (int j = 0; j < m; ++j) {
+            scratch[j] = offsets[first + j / 3] - dt;
+        }
+
+        for (int c = 0; c < 3; ++c) {
+
+            // Newton coefficients for component c, computed in place
+            final int q = (c + 1) * m;
+            for (int j = 0; j < m; ++j) {
+                scratch[q + j] = orbitData[(first + j / 3) * ORBIT_SIZE + c];
+            }
+            for (int order = 1; order < m; ++order) {
+                for (int j = m - 1; j >= order; --j) {
+                    if (order < 3 && j / 3 == (j - order) / 3) {
+                        // repeated abscissa, use the tabulated derivative
+                        final int k = (first + j / 3) * ORBIT_SIZE + 3 * order + c;
+                        scratch[q + j] = (order == 1) ? orbitData[k] : 0.5 * orbitData[k];
+                    } else {
+                        scratch[q + j] = (scratch[q + j] - scratch[q + j - 1]) /
+                                         (scratch[j] - scratch[j - order]);
+                    }
+                }
+            }
+
+            // evaluate polynomial and its first two derivatives at interpolation date
+            double p0 = 0;
+            double p1 = 0;
+            double p2 = 0;
+            for (int j = m - 1; j >= 0; --j) {
+                final double x = -scratch[j];
+                p2 = 2 * p1 + x * p2;
+                p1 = p0     + x * p1;
+                p0 = scratch[q + j] + x * p0;
+            }
+            scratch[r + c]     = p0;
+            scratch[r + c + 3] = p1;
+            scratch[r + c + 6] = p2;
+
+        }
+
+        return new TimeStampedPVCoordinates(date,
+                                            new Vector3D(scratch[r],     scratch[r + 1], scratch[r + 2]),
+                                            new Vector3D(scratch[r + 3], scratch[r + 4], scratch[r + 5]),
+                                            new Vector3D(scratch[r + 6], scratch[r + 7], scratch[r + 8]));
+
+    }
+
+    /** Interpolate scalar or vector data using values only.
+     * @param dt offset of the interpolation date with respect to reference date
+     * @param first index of the first interpolation point
+     * @param data data to interpolate
+     * @param dimension dimension of the data
+     * @return interpolated data
+     */
+    private double[] interpolateValues(final double dt, final int first,
+                                       final double[] data, final int dimension) {
+        final HermiteInterpolator interpolator = new HermiteInterpolator();
+        for (int i = first; i < first + interpolationPoints; ++i) {
+            interpolator.addSamplePoint(offsets[i] - dt,
+                                        Arrays.copyOfRange(data, i * dimension, (i + 1) * dimension));
+        }
+        return interpolator.value(0.0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SpacecraftState basicPropagate(final AbsoluteDate date) throws OrekitException {
+
+        final int    first = firstIndex(date);
+        final double dt    = date.durationFrom(reference);
+
+        // orbit
+        final Orbit orbit = orbitType.convertType(new CartesianOrbit(interpolatePV(date, first), frame, mu));
+
+        // mass and additional states
+        final double mass = interpolateValues(dt, first, masses, 1)[0];
+        final Map<String, double[]> additionalStates;
+        if (additional.length == 0) {
+            additionalStates = null;
+        } else {
+            additionalStates = new HashMap<String, double[]>(additional.length);
+            for (int k = 0; k < additional.length; ++k) {
+                additionalStates.put(additional[k],
+                                     interpolateValues(dt, first, additionalData[k], additionalDimensions[k]));
+            }
+        }
+
+        // attitude
+        final AttitudeProvider attitudeProvider = getAttitudeProvider();
+        final Attitude attitude;
+        if (attitudeProvider == null) {
+            final List<TimeStampedAngularCoordinates> sample =
+                    new ArrayList<TimeStampedAngularCoordinates>(interpolationPoints);
+            for (int i = first; i < first + interpolationPoints; ++i) {
+                final int k = i * ATTITUDE_SIZE;
+                sample.add(new TimeStampedAngularCoordinates(reference.shiftedBy(offsets[i]),
+                                                             new Rotation(attitudeData[k],
+                                                                          attitudeData[k + 1],
+                                                                          attitudeData[k + 2],
+                                                                          attitudeData[k + 3],
+                                                                          false),
+                                                             new Vector3D(attitudeData[k + 4],
+                                                                          attitudeData[k + 5],
+                                                                          attitudeData[k + 6]),
+                                                             new Vector3D(attitudeData[k + 7],
+                                                                          attitudeData[k + 8],
+                                                                          attitudeData[k + 9])));
+            }
+            attitude = new Attitude(attitudeFrame,
+                                    TimeStampedAngularCoordinates.interpolate(date, AngularDerivativesFilter.USE_RR,
+                                                                              sample));
+        } else {
+            attitude = attitudeProvider.getAttitude(this, date, frame);
+        }
+
+        return new SpacecraftState(orbit, attitude, mass, additionalStates);
+
+    }
+
+    /** {@inheritDoc} */
+    protected Orbit propagateOrbit(final AbsoluteDate date) throws OrekitException {
+        return orbitType.convertType(new CartesianOrbit(interpolatePV(date, firstIndex(date)), frame, mu));
+    }
+
+    /** {@inheritDoc} */
+    protected double getMass(final AbsoluteDate date) throws OrekitException {
+        return interpolateValues(date.durationFrom(reference), firstIndex(date), masses, 1)[0];
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * This method interpolates the tabulated arrays directly, it does
+     * not build any intermediate state, orbit or attitude.
+     * </p>
+     */
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame f)
+        throws OrekitException {
+        final TimeStampedPVCoordinates pv = interpolatePV(date, firstIndex(date));
+        return (f == frame) ? pv : frame.getTransformTo(f, date).transformPVCoordinates(pv);
+    }
+
+    /** Try (and fail) to reset the initial state.
+     * <p>
+     * This method always throws an exception, as ephemerides cannot be reset.
+     * </p>
+     * @param state new initial state to consider
+     * @exception OrekitException always thrown as ephemerides cannot be reset
+     */
+    public void resetInitialState(final SpacecraftState state)
+        throws OrekitException {
+        throw new OrekitException(OrekitMessages.NON_RESETABLE_STATE);
+    }
+
+    /** {@inheritDoc} */
+    protected void resetIntermediateState(final SpacecraftState state, final boolean forward)
+        throws OrekitException {
+        throw new OrekitException(OrekitMessages.NON_RESETABLE_STATE);
+    }
+
+    /** {@inheritDoc} */
+    public SpacecraftState getInitialState() throws OrekitException {
+        return basicPropagate(getMinDate());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isAdditionalStateManaged(final String name) {
+
+        // the additional state may be managed by a specific provider in the base class
+        if (super.isAdditionalStateManaged(name)) {
+            return true;
+        }
+
+        // the additional state may be managed in the states sample
+        for (final String a : additional) {
+            if (a.equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String[] getManagedAdditionalStates() {
+        final String[] upperManaged = super.getManagedAdditionalStates();
+        final String[] managed = new String[upperManaged.length + additional.length];
+        System.arraycopy(upperManaged, 0, managed, 0, upperManaged.length);
+        System.arraycopy(additional, 0, managed, upperManaged.length, additional.length);
+        return managed;
+    }
+
+    /** Replace the instance with a data transfer object for serialization.
+     * <p>
+     * This intermediate class serializes only the tabulated arrays.
+     * </p>
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        return new DataTransferObject(this);
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DataTransferObject implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170117L;
+
+        /** Reference date (date of the first sample). */
+        private final AbsoluteDate reference;
+
+        /** Dates offsets with respect to reference date. */
+        private final double[] offsets;
+
+        /** Number of points to use in interpolation. */
+        private final int interpolationPoints;
+
+        /** Reference frame. */
+        private final Frame frame;
+
+        /** Central attraction coefficient. */
+        private final double mu;
+
+        /** Orbit type of the states. */
+        private final OrbitType orbitType;
+
+        /** Orbit data (position, velocity, acceleration) for all samples. */
+        private final double[] orbitData;
+
+        /** Attitude reference frame. */
+        private final Frame attitudeFrame;
+
+        /** Attitude data (quaternion, rotation rate, rotation acceleration) for all samples. */
+        private final double[] attitudeData;
+
+        /** Masses for all samples. */
+        private final double[] masses;
+
+        /** Names of the additional states. */
+        private final String[] additional;
+
+        /** Dimensions of the additional states. */
+        private final int[] additionalDimensions;
+
+        /** Additional states data, one array per additional state name. */
+        private final double[][] additionalData;
+
+        /** Simple constructor.
+         * @param ephemeris ephemeris to serialize
+         */
+        private DataTransferObject(final CompactEphemeris ephemeris) {
+            this.reference            = ephemeris.reference;
+            this.offsets              = ephemeris.offsets;
+            this.interpolationPoints  = ephemeris.interpolationPoints;
+            this.frame                = ephemeris.frame;
+            this.mu                   = ephemeris.mu;
+            this.orbitType            = ephemeris.orbitType;
+            this.orbitData            = ephemeris.orbitData;
+            this.attitudeFrame        = ephemeris.attitudeFrame;
+            this.attitudeData         = ephemeris.attitudeData;
+            this.masses               = ephemeris.masses;
+            this.additional           = ephemeris.additional;
+            this.additionalDimensions = ephemeris.additionalDimensions;
+            this.additionalData       = ephemeris.additionalData;
+        }
+
+        /** Replace the deserialized data transfer object with a {@link CompactEphemeris}.
+         * @return replacement {@link CompactEphemeris}
+         */
+        private Object readResolve() {
+            return new CompactEphemeris(this);
+        }
+
+    }
+
+}
@@ -86,6 +86,9 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
     /** Serializable UID. */
     private static final long serialVersionUID = 20151202L;
 
+    /** Factory for first order derivatives with respect to time, used for bulk evaluation. */
+    private static final DSFactory FIRST_ORDER = new DSFactory(1, 1);
+
     /** Initial Eckstein-Hechler model. */
     private EHModel initialModel;
 
@@ -428,6 +431,30 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
                                   current.mean.getFrame(), mu);
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * This implementation only computes first order time derivatives and
+     * does not build any orbit.
+     * </p>
+     */
+    @Override
+    protected void propagatePVCoordinates(final AbsoluteDate date, final double[] pv, final int offset)
+        throws OrekitException {
+        final EHModel current = models.get(date);
+        if (current.mean.getFrame() != getFrame()) {
+            super.propagatePVCoordinates(date, pv, offset);
+            return;
+        }
+        final FieldVector3D<DerivativeStructure> p =
+                toCanonicalPosition(current.propagateParameters(date, FIRST_ORDER));
+        pv[offset]     = p.getX().getValue();
+        pv[offset + 1] = p.getY().getValue();
+        pv[offset + 2] = p.getZ().getValue();
+        pv[offset + 3] = p.getX().getPartialDerivative(1);
+        pv[offset + 4] = p.getY().getPartialDerivative(1);
+        pv[offset + 5] = p.getZ().getPartialDerivative(1);
+    }
+
     /** Local class for Eckstein-Hechler model, with fixed mean parameters. */
     private static class EHModel implements Serializable {
 
@@ -643,8 +670,17 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
          */
         public DerivativeStructure[] propagateParameters(final AbsoluteDate date)
             throws OrekitException {
+            return propagateParameters(date, new DSFactory(1, 2));
+        }
 
-            final DSFactory factory = new DSFactory(1, 2);
+        /** Extrapolate an orbit up to a specific target date.
+         * @param date target date for the orbit
+         * @param factory factory for time derivatives (one parameter, order 1 or 2)
+         * @return propagated parameters
+         * @exception OrekitException if some parameters are out of bounds
+         */
+        public DerivativeStructure[] propagateParameters(final AbsoluteDate date, final DSFactory factory)
+            throws OrekitException {
 
             // keplerian evolution
             final DerivativeStructure dt = factory.variable(0, date.durationFrom(mean.getDate()));
@@ -665,17 +701,17 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
             // no secular effect on inclination
 
             // right ascension of ascending node
-            final DerivativeStructure omm =
-                    factory.build(MathUtils.normalizeAngle(mean.getRightAscensionOfAscendingNode() + ommD * xnot.getValue(),
-                                                           FastMath.PI),
-                                  ommD * xnotDot,
-                                  0.0);
+            final double[] ommDerivatives = new double[factory.getCompiler().getSize()];
+            ommDerivatives[0] = MathUtils.normalizeAngle(mean.getRightAscensionOfAscendingNode() + ommD * xnot.getValue(),
+                                                         FastMath.PI);
+            ommDerivatives[1] = ommD * xnotDot;
+            final DerivativeStructure omm = factory.build(ommDerivatives);
 
             // latitude argument
-            final DerivativeStructure xlm =
-                    factory.build(MathUtils.normalizeAngle(mean.getAlphaM() + aMD * xnot.getValue(), FastMath.PI),
-                                  aMD * xnotDot,
-                                  0.0);
+            final double[] xlmDerivatives = new double[factory.getCompiler().getSize()];
+            xlmDerivatives[0] = MathUtils.normalizeAngle(mean.getAlphaM() + aMD * xnot.getValue(), FastMath.PI);
+            xlmDerivatives[1] = aMD * xnotDot;
+            final DerivativeStructure xlm = factory.build(xlmDerivatives);
 
             // periodical terms
             final DerivativeStructure cl1 = xlm.cos();
@@ -775,6 +811,28 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
      */
     private TimeStampedPVCoordinates toCartesian(final AbsoluteDate date, final DerivativeStructure[] parameters) {
 
+        final FieldVector3D<DerivativeStructure> p = toCanonicalPosition(parameters);
+
+        // dispatch derivatives
+        final Vector3D p0 = new Vector3D(p.getX().getValue(),
+                                         p.getY().getValue(),
+                                         p.getZ().getValue());
+        final Vector3D p1 = new Vector3D(p.getX().getPartialDerivative(1),
+                                         p.getY().getPartialDerivative(1),
+                                         p.getZ().getPartialDerivative(1));
+        final Vector3D p2 = new Vector3D(p.getX().getPartialDerivative(2),
+                                         p.getY().getPartialDerivative(2),
+                                         p.getZ().getPartialDerivative(2));
+        return new TimeStampedPVCoordinates(date, p0, p1, p2);
+
+    }
+
+    /** Convert circular parameters <em>with derivatives</em> to Cartesian position.
+     * @param parameters circular parameters (a, ex, ey, i, raan, alphaM)
+     * @return Cartesian position with time derivatives
+     */
+    private FieldVector3D<DerivativeStructure> toCanonicalPosition(final DerivativeStructure[] parameters) {
+
         // evaluate coordinates in the orbit canonical reference frame
         final DerivativeStructure cosOmega = parameters[4].cos();
         final DerivativeStructure sinOmega = parameters[4].sin();
@@ -797,22 +855,9 @@ public class EcksteinHechlerPropagator extends AbstractAnalyticalPropagator impl
         final DerivativeStructure y        = parameters[0].multiply(v);
 
         // canonical orbit reference frame
-        final FieldVector3D<DerivativeStructure> p =
-                new FieldVector3D<DerivativeStructure>(x.multiply(cosOmega).subtract(y.multiply(cosI.multiply(sinOmega))),
-                                                       x.multiply(sinOmega).add(y.multiply(cosI.multiply(cosOmega))),
-                                                       y.multiply(sinI));
-
-        // dispatch derivatives
-        final Vector3D p0 = new Vector3D(p.getX().getValue(),
-                                         p.getY().getValue(),
-                                         p.getZ().getValue());
-        final Vector3D p1 = new Vector3D(p.getX().getPartialDerivative(1),
-                                         p.getY().getPartialDerivative(1),
-                                         p.getZ().getPartialDerivative(1));
-        final Vector3D p2 = new Vector3D(p.getX().getPartialDerivative(2),
-                                         p.getY().getPartialDerivative(2),
-                                         p.getZ().getPartialDerivative(2));
-        return new TimeStampedPVCoordinates(date, p0, p1, p2);
+        return new FieldVector3D<DerivativeStructure>(x.multiply(cosOmega).subtract(y.multiply(cosI.multiply(sinOmega))),
+                                                      x.multiply(sinOmega).add(y.multiply(cosI.multiply(cosOmega))),
+                                                      y.multiply(sinI));
 
     }
 
@@ -22,9 +22,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
 import org.orekit.attitudes.AttitudeProvider;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
+import org.orekit.orbits.KeplerianOrbit;
 import org.orekit.orbits.Orbit;
 import org.orekit.orbits.OrbitType;
 import org.orekit.orbits.PositionAngle;
@@ -48,6 +51,9 @@ public class KeplerianPropagator extends AbstractAnalyticalPropagator implements
     /** All states. */
     private transient TimeSpanMap<SpacecraftState> states;
 
+    /** Last Keplerian motion used for bulk evaluation. */
+    private transient KeplerianMotion lastMotion;
+
     /** Build a propagator from orbit only.
      * <p>The central attraction coefficient μ is set to the same value used
      * for the initial orbit definition. Mass and attitude provider are set to
@@ -163,6 +169,27 @@ public class KeplerianPropagator extends AbstractAnalyticalPropagator implements
 
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void propagatePVCoordinates(final AbsoluteDate date, final double[] pv, final int offset)
+        throws OrekitException {
+
+        final Orbit orbit = states.get(date).getOrbit();
+        KeplerianMotion motion = lastMotion;
+        if (motion == null || motion.orbit != orbit) {
+            if (orbit.getA() < 0 || orbit.getFrame() != getFrame()) {
+                // hyperbolic orbits and frame changes are not optimized
+                super.propagatePVCoordinates(date, pv, offset);
+                return;
+            }
+            motion     = new KeplerianMotion(orbit);
+            lastMotion = motion;
+        }
+
+        motion.computePV(date.durationFrom(orbit.getDate()), pv, offset);
+
+    }
+
     /** {@inheritDoc}*/
     protected double getMass(final AbsoluteDate date) {
         return states.get(date).getMass();
@@ -219,6 +246,100 @@ public class KeplerianPropagator extends AbstractAnalyticalPropagator implements
 
     }
 
+    /** Elliptic Keplerian motion reduced to primitive doubles. */
+    private static class KeplerianMotion {
+
+        /** Reference orbit. */
+        private final Orbit orbit;
+
+        /** Semi-major axis. */
+        private final double a;
+
+        /** Eccentricity. */
+        private final double e;
+
+        /** Square root of 1 - e². */
+        private final double sqrt1me2;
+
+        /** Mean motion. */
+        private final double n;
+
+        /** Mean anomaly at reference date. */
+        private final double m0;
+
+        // CHECKSTYLE: stop JavadocVariable check
+
+        // components of the periapsis direction
+        private final double px;
+        private final double py;
+        private final double pz;
+
+        // components of the direction 90° ahead of periapsis
+        private final double qx;
+        private final double qy;
+        private final double qz;
+
+        // CHECKSTYLE: resume JavadocVariable check
+
+        /** Simple constructor.
+         * @param orbit reference elliptic orbit
+         */
+        KeplerianMotion(final Orbit orbit) {
+
+            final KeplerianOrbit kep = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(orbit);
+            this.orbit    = orbit;
+            this.a        = kep.getA();
+            this.e        = kep.getE();
+            this.sqrt1me2 = FastMath.sqrt(1 - e * e);
+            this.n        = kep.getKeplerianMeanMotion();
+            this.m0       = kep.getMeanAnomaly();
+
+            final double cosRaan = FastMath.cos(kep.getRightAscensionOfAscendingNode());
+            final double sinRaan = FastMath.sin(kep.getRightAscensionOfAscendingNode());
+            final double cosPa   = FastMath.cos(kep.getPerigeeArgument());
+            final double sinPa   = FastMath.sin(kep.getPerigeeArgument());
+            final double cosI    = FastMath.cos(kep.getI());
+            final double sinI    = FastMath.sin(kep.getI());
+            this.px =  cosRaan * cosPa - sinRaan * sinPa * cosI;
+            this.py =  sinRaan * cosPa + cosRaan * sinPa * cosI;
+            this.pz =  sinPa * sinI;
+            this.qx = -cosRaan * sinPa - sinRaan * cosPa * cosI;
+            this.qy = -sinRaan * sinPa + cosRaan * cosPa * cosI;
+            this.qz =  cosPa * sinI;
+
+        }
+
+        /** Compute position and velocity.
+         * @param dt time offset from reference orbit date
+         * @param pv placeholder for the coordinates (x, y, z, vx, vy, vz)
+         * @param offset index of the first coordinate in {@code pv}
+         */
+        public void computePV(final double dt, final double[] pv, final int offset) {
+
+            // solve Kepler equation M = E - e sin(E)
+            final double m    = MathUtils.normalizeAngle(m0 + n * dt, 0.0);
+            final double eA   = KeplerianOrbit.meanToEllipticEccentric(m, e);
+            final double cosE = FastMath.cos(eA);
+            final double sinE = FastMath.sin(eA);
+
+            // coordinates in orbital plane
+            final double x      = a * (cosE - e);
+            final double y      = a * sqrt1me2 * sinE;
+            final double factor = a * n / (1 - e * cosE);
+            final double xDot   = -factor * sinE;
+            final double yDot   =  factor * sqrt1me2 * cosE;
+
+            pv[offset]     = x * px + y * qx;
+            pv[offset + 1] = x * py + y * qy;
+            pv[offset + 2] = x * pz + y * qz;
+            pv[offset + 3] = xDot * px + yDot * qx;
+            pv[offset + 4] = xDot * py + yDot * qy;
+            pv[offset + 5] = xDot * pz + yDot * qz;
+
+        }
+
+    }
+
     /** Internal class used only for serialization. */
     private static class DataTransferObject implements Serializable {
 
@@ -34,6 +34,67 @@ import org.orekit.errors.OrekitException;
  */
 public class SGP4 extends TLEPropagator {
 
+    /** Number of terms used by the propagation kernel. */
+    static final int NB_TERMS = 30;
+
+    /** Number of elements computed by the propagation kernel. */
+    static final int NB_ELEMENTS = 5;
+
+    /** Index of semi-major axis in kernel elements. */
+    static final int A = 0;
+
+    /** Index of eccentricity in kernel elements. */
+    static final int E = 1;
+
+    /** Index of perigee argument in kernel elements. */
+    static final int OMEGA = 2;
+
+    /** Index of right ascension of ascending node in kernel elements. */
+    static final int XNODE = 3;
+
+    /** Index of mean longitude in kernel elements. */
+    static final int XL = 4;
+
+    /** Index of inclination in kernel terms. */
+    static final int I0 = 0;
+
+    /** Index of cosine of inclination in kernel terms. */
+    static final int COSI0 = 1;
+
+    /** Index of sine of inclination in kernel terms. */
+    static final int SINI0 = 2;
+
+    // CHECKSTYLE: stop JavadocVariable check
+    // indices of the other kernel terms, with the same names as the fields
+    private static final int MEAN_ANOMALY     = 3;
+    private static final int PERIGEE_ARGUMENT = 4;
+    private static final int RAAN             = 5;
+    private static final int ECCENTRICITY     = 6;
+    private static final int BSTAR            = 7;
+    private static final int A0DP             = 8;
+    private static final int XN0DP            = 9;
+    private static final int ETA              = 10;
+    private static final int XMDOT            = 11;
+    private static final int OMGDOT           = 12;
+    private static final int XNODOT           = 13;
+    private static final int XNODCF           = 14;
+    private static final int C1               = 15;
+    private static final int C4               = 16;
+    private static final int T2COF            = 17;
+    private static final int LESS_THAN_220    = 18;
+    private static final int DEL_M0           = 19;
+    private static final int D2               = 20;
+    private static final int D3               = 21;
+    private static final int D4               = 22;
+    private static final int T3COF            = 23;
+    private static final int T4COF            = 24;
+    private static final int T5COF            = 25;
+    private static final int SIN_M0           = 26;
+    private static final int OMGCOF           = 27;
+    private static final int XMCOF            = 28;
+    private static final int C5               = 29;
+    // CHECKSTYLE: resume JavadocVariable check
+
     /** If perige is less than 220 km, some calculus are avoided. */
     private boolean lessThan220;
 
@@ -53,6 +114,12 @@ public class SGP4 extends TLEPropagator {
     private double c5;
     // CHECKSTYLE: resume JavadocVariable check
 
+    /** Terms used by the propagation kernel, packed in a flat array. */
+    private double[] terms;
+
+    /** Elements computed by the propagation kernel. */
+    private double[] elements;
+
     /** Constructor for a unique initial TLE.
      * @param initialTLE the TLE to propagate.
      * @param attitudeProvider provider for attitude computation
@@ -97,6 +164,42 @@ public class SGP4 extends TLEPropagator {
         }
 
         c5 = 2 * coef1 * a0dp * beta02 * (1 + 2.75 * (etasq + eeta) + eeta * etasq);
+
+        // pack the terms used by the propagation kernel
+        // (this method is called from the base class constructor, so arrays are allocated here)
+        terms    = new double[NB_TERMS];
+        elements = new double[NB_ELEMENTS];
+        terms[I0]               = tle.getI();
+        terms[COSI0]            = cosi0;
+        terms[SINI0]            = sini0;
+        terms[MEAN_ANOMALY]     = tle.getMeanAnomaly();
+        terms[PERIGEE_ARGUMENT] = tle.getPerigeeArgument();
+        terms[RAAN]             = tle.getRaan();
+        terms[ECCENTRICITY]     = tle.getE();
+        terms[BSTAR]            = tle.getBStar();
+        terms[A0DP]             = a0dp;
+        terms[XN0DP]            = xn0dp;
+        terms[ETA]              = eta;
+        terms[XMDOT]            = xmdot;
+        terms[OMGDOT]           = omgdot;
+        terms[XNODOT]           = xnodot;
+        terms[XNODCF]           = xnodcf;
+        terms[C1]               = c1;
+        terms[C4]               = c4;
+        terms[T2COF]            = t2cof;
+        terms[LESS_THAN_220]    = lessThan220 ? 1.0 : 0.0;
+        terms[DEL_M0]           = delM0;
+        terms[D2]               = d2;
+        terms[D3]               = d3;
+        terms[D4]               = d4;
+        terms[T3COF]            = t3cof;
+        terms[T4COF]            = t4cof;
+        terms[T5COF]            = t5cof;
+        terms[SIN_M0]           = sinM0;
+        terms[OMGCOF]           = omgcof;
+        terms[XMCOF]            = xmcof;
+        terms[C5]               = c5;
+
         // initialized
     }
 
@@ -104,44 +207,76 @@ public class SGP4 extends TLEPropagator {
      * @param tSince the offset from initial epoch (min)
      */
     protected void sxpPropagate(final double tSince) {
+        propagateTerms(tSince, terms, 0, elements);
+        a     = elements[A];
+        e     = elements[E];
+        omega = elements[OMEGA];
+        xnode = elements[XNODE];
+        xl    = elements[XL];
+        i     = tle.getI();
+    }
+
+    /** Copy the terms used by the propagation kernel.
+     * <p>
+     * This method is intended for {@link TLECatalogPropagator}, which
+     * stores the terms of many objects in one flat array.
+     * </p>
+     * @param destination array where to copy the terms
+     * @param offset index of the first term in the destination array
+     * @see #propagateTerms(double, double[], int, double[])
+     */
+    void copyTerms(final double[] destination, final int offset) {
+        System.arraycopy(terms, 0, destination, offset, NB_TERMS);
+    }
+
+    /** SGP4 propagation kernel.
+     * <p>
+     * This method is shared by {@link SGP4} and {@link TLECatalogPropagator},
+     * it does not allocate any object.
+     * </p>
+     * @param tSince the offset from initial epoch (min)
+     * @param t array containing the terms of the object
+     * @param offset index of the first term of the object in the array
+     * @param elements array where to store the propagated elements, at indices
+     * {@link #A}, {@link #E}, {@link #OMEGA}, {@link #XNODE} and {@link #XL}
+     */
+    static void propagateTerms(final double tSince, final double[] t, final int offset,
+                               final double[] elements) {
 
         // Update for secular gravity and atmospheric drag.
-        final double xmdf = tle.getMeanAnomaly() + xmdot * tSince;
-        final double omgadf = tle.getPerigeeArgument() + omgdot * tSince;
-        final double xn0ddf = tle.getRaan() + xnodot * tSince;
-        omega = omgadf;
+        final double xmdf = t[offset + MEAN_ANOMALY] + t[offset + XMDOT] * tSince;
+        final double omgadf = t[offset + PERIGEE_ARGUMENT] + t[offset + OMGDOT] * tSince;
+        final double xn0ddf = t[offset + RAAN] + t[offset + XNODOT] * tSince;
+        double omg = omgadf;
         double xmp = xmdf;
         final double tsq = tSince * tSince;
-        xnode = xn0ddf + xnodcf * tsq;
-        double tempa = 1 - c1 * tSince;
-        double tempe = tle.getBStar() * c4 * tSince;
-        double templ = t2cof * tsq;
+        final double node = xn0ddf + t[offset + XNODCF] * tsq;
+        double tempa = 1 - t[offset + C1] * tSince;
+        double tempe = t[offset + BSTAR] * t[offset + C4] * tSince;
+        double templ = t[offset + T2COF] * tsq;
 
-        if (!lessThan220) {
-            final double delomg = omgcof * tSince;
-            double delm = 1. + eta * FastMath.cos(xmdf);
-            delm = xmcof * (delm * delm * delm - delM0);
+        if (t[offset + LESS_THAN_220] == 0.0) {
+            final double delomg = t[offset + OMGCOF] * tSince;
+            double delm = 1. + t[offset + ETA] * FastMath.cos(xmdf);
+            delm = t[offset + XMCOF] * (delm * delm * delm - t[offset + DEL_M0]);
             final double temp = delomg + delm;
             xmp = xmdf + temp;
-            omega = omgadf - temp;
+            omg = omgadf - temp;
             final double tcube = tsq * tSince;
             final double tfour = tSince * tcube;
-            tempa = tempa - d2 * tsq - d3 * tcube - d4 * tfour;
-            tempe = tempe + tle.getBStar() * c5 * (FastMath.sin(xmp) - sinM0);
-            templ = templ + t3cof * tcube + tfour * (t4cof + tSince * t5cof);
+            tempa = tempa - t[offset + D2] * tsq - t[offset + D3] * tcube - t[offset + D4] * tfour;
+            tempe = tempe + t[offset + BSTAR] * t[offset + C5] * (FastMath.sin(xmp) - t[offset + SIN_M0]);
+            templ = templ + t[offset + T3COF] * tcube + tfour * (t[offset + T4COF] + tSince * t[offset + T5COF]);
         }
 
-        a = a0dp * tempa * tempa;
-        e = tle.getE() - tempe;
+        elements[A]     = t[offset + A0DP] * tempa * tempa;
 
         // A highly arbitrary lower limit on e,  of 1e-6:
-        if (e < 1e-6) {
-            e = 1e-6;
-        }
-
-        xl = xmp + omega + xnode + xn0dp * templ;
+        elements[E]     = FastMath.max(1e-6, t[offset + ECCENTRICITY] - tempe);
 
-        i = tle.getI();
+        elements[OMEGA] = omg;
+        elements[XNODE] = node;
+        elements[XL]    = xmp + omg + node + t[offset + XN0DP] * templ;
 
     }
 
@@ -0,0 +1,407 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.propagation.Propagator;
+import org.orekit.time.AbsoluteDate;
+
+/** Batch propagator for a whole catalog of TLE.
+ * <p>
+ * This class is intended for propagating at once many objects, for example the
+ * full public catalog, at one date or on a regular dates grid. The near Earth
+ * objects initialization terms are stored in one flat primitive array
+ * and evaluated in tight loops with the same SGP4 kernel as {@link SGP4}. The deep
+ * space objects are delegated to one {@link TLEPropagator} each, as the SDP4 model
+ * involves too many intermediate terms to benefit from this layout.
+ * </p>
+ * <p>
+ * The results are TEME positions (m) and velocities (m/s), stored in caller-provided
+ * flat arrays with coordinates of object k at indices {@code 3k}, {@code 3k+1} and
+ * {@code 3k+2}, k being the index of the TLE in the list provided at construction.
+ * Propagating the whole catalog in sequential mode does not allocate any object.
+ * Objects for which the model cannot be evaluated at the requested date (for
+ * example because eccentricity becomes too large) get {@code NaN} coordinates.
+ * </p>
+ * <p>
+ * An optional fork-join pool can be {@link #setPool(ForkJoinPool) set}, in which
+ * case the catalog is split in chunks propagated in parallel. As the deep space
+ * propagators are not thread-safe, instances of this class must not be used
+ * concurrently from several threads, parallelism is handled internally.
+ * </p>
+ * @see TLEPropagator
+ * @since 9.0
+ */
+public class TLECatalogPropagator {
+
+    /** Default minimum number of objects per parallel task. */
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    /** Threshold for too large eccentricity. */
+    private static final double MAX_ECCENTRICITY = 1 - 1e-6;
+
+    /** Catalog. */
+    private final List<TLE> tles;
+
+    /** Reference date for epochs offsets. */
+    private final AbsoluteDate reference;
+
+    /** Number of near Earth objects. */
+    private final int nearSize;
+
+    /** Index of near Earth objects in the catalog. */
+    private final int[] nearIndex;
+
+    /** Epochs of near Earth objects with respect to reference date. */
+    private final double[] epoch;
+
+    /** SGP4 kernel terms of near Earth objects, packed in one flat array. */
+    private final double[] terms;
+
+    /** Scratch array for SGP4 kernel elements in sequential propagation. */
+    private final double[] elements;
+
+    /** Index of deep space objects in the catalog. */
+    private final int[] deepIndex;
+
+    /** Epochs of deep space objects with respect to reference date. */
+    private final double[] deepEpoch;
+
+    /** Deep space propagators. */
+    private final TLEPropagator[] deep;
+
+    /** Pool for parallel propagation (null for sequential propagation). */
+    private ForkJoinPool pool;
+
+    /** Minimum number of objects per parallel task. */
+    private int chunkSize;
+
+    /** Simple constructor.
+     * @param tles catalog to propagate
+     * @exception OrekitException if some propagation model cannot be initialized
+     */
+    public TLECatalogPropagator(final List<TLE> tles) throws OrekitException {
+
+        this.tles      = Collections.unmodifiableList(new ArrayList<TLE>(tles));
+        this.reference = tles.isEmpty() ? AbsoluteDate.J2000_EPOCH : tles.get(0).getDate();
+
+        // split catalog between near Earth and deep space objects
+        final List<Integer> near = new ArrayList<Integer>();
+        final List<Integer> far  = new ArrayList<Integer>();
+        for (int k = 0; k < tles.size(); ++k) {
+            if (TLEPropagator.isDeepSpace(tles.get(k))) {
+                far.add(k);
+            } else {
+                near.add(k);
+            }
+        }
+
+        nearSize        = near.size();
+        nearIndex       = new int[nearSize];
+        epoch           = new double[nearSize];
+        terms           = new double[nearSize * SGP4.NB_TERMS];
+        elements        = new double[SGP4.NB_ELEMENTS];
+        for (int j = 0; j < nearSize; ++j) {
+            nearIndex[j] = near.get(j);
+            initializeNearEarth(j, tles.get(nearIndex[j]));
+        }
+
+        deepIndex = new int[far.size()];
+        deepEpoch = new double[far.size()];
+        deep      = new TLEPropagator[far.size()];
+        for (int j = 0; j < deep.length; ++j) {
+            deepIndex[j] = far.get(j);
+            deepEpoch[j] = tles.get(deepIndex[j]).getDate().durationFrom(reference);
+            deep[j]      = TLEPropagator.selectExtrapolator(tles.get(deepIndex[j]));
+        }
+
+        this.pool      = null;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+
+    }
+
+    /** Get the catalog.
+     * @return unmodifiable view of the catalog
+     */
+    public List<TLE> getTLEs() {
+        return tles;
+    }
+
+    /** Get the number of objects in the catalog.
+     * @return number of objects in the catalog
+     */
+    public int getSize() {
+        return tles.size();
+    }
+
+    /** Get the number of deep space objects in the catalog.
+     * @return number of deep space objects in the catalog
+     */
+    public int getDeepSpaceSize() {
+        return deep.length;
+    }
+
+    /** Set the pool for parallel propagation.
+     * @param pool pool to use for parallel propagation (null for sequential propagation)
+     * @see #setPool(ForkJoinPool, int)
+     */
+    public void setPool(final ForkJoinPool pool) {
+        setPool(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /** Set the pool for parallel propagation.
+     * @param forkJoinPool pool to use for parallel propagation (null for sequential propagation)
+     * @param minChunkSize minimum number of objects per parallel task
+     */
+    public void setPool(final ForkJoinPool forkJoinPool, final int minChunkSize) {
+        if (minChunkSize < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, minChunkSize, 1);
+        }
+        this.pool      = forkJoinPool;
+        this.chunkSize = minChunkSize;
+    }
+
+    /** Propagate the whole catalog at one date.
+     * @param date target date
+     * @param positions array where to store TEME positions (m), its length
+     * must be at least 3 times the catalog size
+     * @param velocities array where to store TEME velocities (m/s), its length
+     * must be at least 3 times the catalog size
+     * @exception OrekitException if some deep space object cannot be propagated
+     */
+    public void propagate(final AbsoluteDate date, final double[] positions, final double[] velocities)
+        throws OrekitException {
+        propagate(date, 0.0, 1, positions, velocities);
+    }
+
+    /** Propagate the whole catalog on a regular dates grid.
+     * <p>
+     * The coordinates for date number j and object k are stored at indices
+     * {@code 3 (j n + k)}, {@code 3 (j n + k) + 1} and {@code 3 (j n + k) + 2},
+     * where n is the catalog size.
+     * </p>
+     * @param start first date of the grid
+     * @param step time step between grid dates (s)
+     * @param count number of grid dates
+     * @param positions array where to store TEME positions (m), its length
+     * must be at least 3 times the catalog size times the number of dates
+     * @param velocities array where to store TEME velocities (m/s), its length
+     * must be at least 3 times the catalog size times the number of dates
+     * @exception OrekitException if some deep space object cannot be propagated
+     * @exception OrekitIllegalArgumentException if arrays are too small or if
+     * 3 times the catalog size times the number of dates exceeds the maximum
+     * array size
+     */
+    public void propagate(final AbsoluteDate start, final double step, final int count,
+                          final double[] positions, final double[] velocities)
+        throws OrekitException {
+
+        final long size = 3L * tles.size() * count;
+        if (size > Integer.MAX_VALUE) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_LARGE,
+                                                     size, Integer.MAX_VALUE);
+        }
+        final int n = (int) size;
+        if (positions.length < n) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     positions.length, n);
+        }
+        if (velocities.length < n) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     velocities.length, n);
+        }
+
+        final double dt0 = start.durationFrom(reference);
+        if (pool == null) {
+            for (int j = 0; j < count; ++j) {
+                propagateRange(dt0 + j * step, j * tles.size(), 0, tles.size(), elements, positions, velocities);
+            }
+        } else {
+            try {
+                for (int j = 0; j < count; ++j) {
+                    pool.invoke(new PropagationTask(dt0 + j * step, j * tles.size(), 0, tles.size(),
+                                                    positions, velocities));
+                }
+            } catch (OrekitExceptionWrapper oew) {
+                throw oew.getException();
+            }
+        }
+
+    }
+
+    /** Propagate a part of the catalog.
+     * <p>
+     * The range of objects indices spans the near Earth objects first,
+     * and the deep space objects next.
+     * </p>
+     * @param dt offset of the target date with respect to reference date (s)
+     * @param offset offset of the first object in the arrays
+     * @param from index of the first object to propagate
+     * @param to index after the last object to propagate
+     * @param scratch scratch array for SGP4 kernel elements
+     * @param positions array where to store TEME positions (m)
+     * @param velocities array where to store TEME velocities (m/s)
+     * @exception OrekitException if some deep space object cannot be propagated
+     */
+    private void propagateRange(final double dt, final int offset, final int from, final int to,
+                                final double[] scratch,
+                                final double[] positions, final double[] velocities)
+        throws OrekitException {
+
+        // near Earth objects
+        for (int j = from; j < FastMath.min(to, nearSize); ++j) {
+            propagateNearEarth(j, (dt - epoch[j]) / 60.0, scratch, positions, velocities, offset + nearIndex[j]);
+        }
+
+        // deep space objects
+        for (int j = FastMath.max(from, nearSize) - nearSize; j < to - nearSize; ++j) {
+            final int index = offset + deepIndex[j];
+            if (!deep[j].computePVCoordinates((dt - deepEpoch[j]) / 60.0, positions, velocities, index)) {
+                setNaN(positions, velocities, index);
+            }
+        }
+
+    }
+
+    /** Store NaN coordinates for one object.
+     * @param positions array where to store TEME positions (m)
+     * @param velocities array where to store TEME velocities (m/s)
+     * @param index index of the object in the arrays
+     */
+    private static void setNaN(final double[] positions, final double[] velocities, final int index) {
+        for (int i = 3 * index; i < 3 * index + 3; ++i) {
+            positions[i]  = Double.NaN;
+            velocities[i] = Double.NaN;
+        }
+    }
+
+    /** Initialize the terms for one near Earth object.
+     * <p>
+     * The terms are computed by a regular {@link SGP4} instance and copied
+     * into the flat storage, so both propagators share the same
+     * initialization code.
+     * </p>
+     * @param j index of the object in the near Earth arrays
+     * @param tle TLE of the object
+     * @exception OrekitException if the SGP4 model cannot be initialized
+     */
+    private void initializeNearEarth(final int j, final TLE tle) throws OrekitException {
+        epoch[j] = tle.getDate().durationFrom(reference);
+        new SGP4(tle, Propagator.DEFAULT_LAW, Propagator.DEFAULT_MASS).copyTerms(terms, j * SGP4.NB_TERMS);
+    }
+
+    /** Propagate one near Earth object.
+     * <p>
+     * This uses the same kernel as {@link SGP4} propagation.
+     * </p>
+     * @param j index of the object in the near Earth arrays
+     * @param tSince the offset from initial epoch (min)
+     * @param scratch scratch array for SGP4 kernel elements
+     * @param positions array where to store TEME positions (m)
+     * @param velocities array where to store TEME velocities (m/s)
+     * @param index index of the object in the arrays
+     */
+    private void propagateNearEarth(final int j, final double tSince, final double[] scratch,
+                                    final double[] positions, final double[] velocities,
+                                    final int index) {
+
+        final int offset = j * SGP4.NB_TERMS;
+        SGP4.propagateTerms(tSince, terms, offset, scratch);
+        if (scratch[SGP4.E] > MAX_ECCENTRICITY) {
+            setNaN(positions, velocities, index);
+            return;
+        }
+
+        TLEPropagator.computePVCoordinates(scratch[SGP4.A], scratch[SGP4.E], terms[offset + SGP4.I0],
+                                           scratch[SGP4.OMEGA], scratch[SGP4.XNODE], scratch[SGP4.XL],
+                                           terms[offset + SGP4.COSI0], terms[offset + SGP4.SINI0],
+                                           positions, velocities, index);
+
+    }
+
+    /** Task for parallel propagation. */
+    private class PropagationTask extends RecursiveAction {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170110L;
+
+        /** Offset of the target date with respect to reference date (s). */
+        private final double dt;
+
+        /** Offset of the first object in the arrays. */
+        private final int offset;
+
+        /** Index of the first object to propagate. */
+        private final int from;
+
+        /** Index after the last object to propagate. */
+        private final int to;
+
+        /** Array where to store TEME positions (m). */
+        private final double[] positions;
+
+        /** Array where to store TEME velocities (m/s). */
+        private final double[] velocities;
+
+        /** Simple constructor.
+         * @param dt offset of the target date with respect to reference date (s)
+         * @param offset offset of the first object in the arrays
+         * @param from index of the first object to propagate
+         * @param to index after the last object to propagate
+         * @param positions array where to store TEME positions (m)
+         * @param velocities array where to store TEME velocities (m/s)
+         */
+        PropagationTask(final double dt, final int offset, final int from, final int to,
+                        final double[] positions, final double[] velocities) {
+            this.dt         = dt;
+            this.offset     = offset;
+            this.from       = from;
+            this.to         = to;
+            this.positions  = positions;
+            this.velocities = velocities;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                try {
+                    propagateRange(dt, offset, from, to, new double[SGP4.NB_ELEMENTS],
+                                   positions, velocities);
+                } catch (OrekitException oe) {
+                    throw new OrekitExceptionWrapper(oe);
+                }
+            } else {
+                final int middle = (from + to) / 2;
+                invokeAll(new PropagationTask(dt, offset, from, middle, positions, velocities),
+                          new PropagationTask(dt, offset, middle, to, positions, velocities));
+            }
+        }
+
+    }
+
+}
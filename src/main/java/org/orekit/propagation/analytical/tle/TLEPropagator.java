@@ -162,6 +162,12 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
     /** Spacecraft mass (kg). */
     private final double mass;
 
+    /** Scratch array for position. */
+    private final double[] scratchPosition;
+
+    /** Scratch array for velocity. */
+    private final double[] scratchVelocity;
+
     /** Protected constructor for derived classes.
      * @param initialTLE the unique TLE to propagate
      * @param attitudeProvider provider for attitude computation
@@ -176,6 +182,8 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         this.tle  = initialTLE;
         this.teme = FramesFactory.getTEME();
         this.mass = mass;
+        this.scratchPosition = new double[3];
+        this.scratchVelocity = new double[3];
         initializeCommons();
         sxpInitialize();
         // set the initial state
@@ -202,6 +210,19 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
      */
     public static TLEPropagator selectExtrapolator(final TLE tle, final AttitudeProvider attitudeProvider,
                                                    final double mass) throws OrekitException {
+        if (isDeepSpace(tle)) {
+            return new DeepSDP4(tle, attitudeProvider, mass);
+        } else {
+            return new SGP4(tle, attitudeProvider, mass);
+        }
+    }
+
+    /** Check if a TLE corresponds to a deep space object.
+     * @param tle the TLE to check
+     * @return true if the TLE must be propagated with the SDP4 model,
+     * false if it must be propagated with the SGP4 model
+     */
+    static boolean isDeepSpace(final TLE tle) {
 
         final double a1 = FastMath.pow( TLEConstants.XKE / (tle.getMeanMotion() * 60.0), TLEConstants.TWO_THIRD);
         final double cosi0 = FastMath.cos(tle.getI());
@@ -215,11 +236,8 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double xn0dp = tle.getMeanMotion() * 60.0 / (delta0 + 1.0);
 
         // Period >= 225 minutes is deep space
-        if (MathUtils.TWO_PI / (xn0dp * TLEConstants.MINUTES_PER_DAY) >= (1.0 / 6.4)) {
-            return new DeepSDP4(tle, attitudeProvider, mass);
-        } else {
-            return new SGP4(tle, attitudeProvider, mass);
-        }
+        return MathUtils.TWO_PI / (xn0dp * TLEConstants.MINUTES_PER_DAY) >= (1.0 / 6.4);
+
     }
 
     /** Get the Earth gravity coefficient used for TLE propagation.
@@ -340,6 +358,67 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
      */
     private PVCoordinates computePVCoordinates() throws OrekitException {
 
+        if (e > (1 - 1e-6)) {
+            throw new OrekitException(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL, e);
+        }
+
+        computePVCoordinates(a, e, i, omega, xnode, xl, cosi0, sini0, scratchPosition, scratchVelocity, 0);
+
+        return new PVCoordinates(new Vector3D(scratchPosition[0], scratchPosition[1], scratchPosition[2]),
+                                 new Vector3D(scratchVelocity[0], scratchVelocity[1], scratchVelocity[2]));
+
+    }
+
+    /** Get the extrapolated position and velocity in flat arrays.
+     * <p>
+     * This method is intended for {@link TLECatalogPropagator}, it
+     * does not allocate any object.
+     * </p>
+     * @param tSince the offset from initial epoch (min)
+     * @param position array where to store position (m)
+     * @param velocity array where to store velocity (m/s)
+     * @param index index of the object in the arrays (the coordinates are stored
+     * at {@code 3 * index}, {@code 3 * index + 1} and {@code 3 * index + 2})
+     * @return false if current orbit is out of supported range (too large
+     * eccentricity ...), in which case the arrays are not updated
+     * @exception OrekitException if current state cannot be propagated
+     */
+    boolean computePVCoordinates(final double tSince,
+                                 final double[] position, final double[] velocity, final int index)
+        throws OrekitException {
+
+        sxpPropagate(tSince);
+        if (e > (1 - 1e-6)) {
+            return false;
+        }
+
+        computePVCoordinates(a, e, i, omega, xnode, xl, cosi0, sini0, position, velocity, index);
+        return true;
+
+    }
+
+    /** Retrieves the position and velocity from the propagated elements.
+     * <p>
+     * Eccentricity must have been checked by caller.
+     * </p>
+     * @param a semi major axis
+     * @param e eccentricity
+     * @param i inclination
+     * @param omega perigee argument
+     * @param xnode right ascension of ascending node
+     * @param xl L from SPTRCK #3
+     * @param cosi0 cosinus inclination
+     * @param sini0 sinus inclination
+     * @param position array where to store position (m)
+     * @param velocity array where to store velocity (m/s)
+     * @param index index of the object in the arrays (the coordinates are stored
+     * at {@code 3 * index}, {@code 3 * index + 1} and {@code 3 * index + 2})
+     */
+    static void computePVCoordinates(final double a, final double e, final double i,
+                                     final double omega, final double xnode, final double xl,
+                                     final double cosi0, final double sini0,
+                                     final double[] position, final double[] velocity, final int index) {
+
         // Long period periodics
         final double axn = e * FastMath.cos(omega);
         double temp = 1.0 / (a * (1.0 - e * e));
@@ -363,10 +442,6 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double x1mth2 = 1.0 - cosi0Sq;
         final double x7thm1 = 7.0 * cosi0Sq - 1.0;
 
-        if (e > (1 - 1e-6)) {
-            throw new OrekitException(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL, e);
-        }
-
         // Solve Kepler's' Equation.
         final double newtonRaphsonEpsilon = 1e-12;
         for (int j = 0; j < 10; j++) {
@@ -435,8 +510,11 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double uz = sinik * sinuk;
 
         // Position and velocity
+        final int    k  = 3 * index;
         final double cr = 1000 * rk * TLEConstants.EARTH_RADIUS;
-        final Vector3D pos = new Vector3D(cr * ux, cr * uy, cr * uz);
+        position[k]     = cr * ux;
+        position[k + 1] = cr * uy;
+        position[k + 2] = cr * uz;
 
         final double rdot   = TLEConstants.XKE * FastMath.sqrt(a) * esinE / r;
         final double rfdot  = TLEConstants.XKE * FastMath.sqrt(pl) / r;
@@ -448,11 +526,9 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double vz     = sinik * cosuk;
 
         final double cv = 1000.0 * TLEConstants.EARTH_RADIUS / 60.0;
-        final Vector3D vel = new Vector3D(cv * (rdotk * ux + rfdotk * vx),
-                                          cv * (rdotk * uy + rfdotk * vy),
-                                          cv * (rdotk * uz + rfdotk * vz));
-
-        return new PVCoordinates(pos, vel);
+        velocity[k]     = cv * (rdotk * ux + rfdotk * vx);
+        velocity[k + 1] = cv * (rdotk * uy + rfdotk * vy);
+        velocity[k + 2] = cv * (rdotk * uz + rfdotk * vz);
 
     }
 
@@ -84,6 +84,14 @@ public class NumericalPropagatorBuilder extends AbstractPropagatorBuilder {
         this.attProvider = attitudeProvider;
     }
 
+    /** Get the integrator builder.
+     * @return first order integrator builder
+     * @since 9.0
+     */
+    public ODEIntegratorBuilder getIntegratorBuilder() {
+        return builder;
+    }
+
     /** Set the initial mass.
      * @param mass the mass (kg)
      */
@@ -16,7 +16,9 @@
  */
 package org.orekit.propagation.integration;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -94,6 +96,15 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
      */
     private boolean meanOrbit;
 
+    /** Date offset of the last main state built from raw components. */
+    private double lastT;
+
+    /** Raw components of the last main state built. */
+    private double[] lastPrimary;
+
+    /** Last main state built from raw components (including pre-integrated additional states). */
+    private SpacecraftState lastState;
+
     /** Build a new instance.
      * @param integrator numerical integrator to use for propagation.
      * @param meanOrbit output only the mean orbit.
@@ -331,6 +342,50 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         integrator.addStepHandler(ephemeris);
     }
 
+    /** Set the propagator to compact ephemeris generation mode, with heap storage.
+     * <p>
+     * This mode is similar to {@link #setEphemerisMode() ephemeris generation mode},
+     * but instead of keeping all step interpolators, the generated ephemeris only
+     * stores one interpolation polynomial per state component and per step, in
+     * primitive arrays. This reduces memory consumption for long propagations
+     * with small steps.
+     * </p>
+     * <p>Note that this method has the side effect of replacing the step handlers
+     * of the underlying integrator set up in the {@link
+     * #AbstractIntegratedPropagator(ODEIntegrator, boolean) constructor}. So if a specific
+     * step handler is needed, it should be added after this method has been called.</p>
+     * @see CompactDenseOutputModel
+     * @see #setCompactEphemerisMode(File)
+     * @since 9.0
+     */
+    public void setCompactEphemerisMode() {
+        setCompactEphemerisMode(null);
+    }
+
+    /** Set the propagator to compact ephemeris generation mode, with memory-mapped storage.
+     * <p>
+     * This mode is similar to {@link #setCompactEphemerisMode()}, but the
+     * interpolation polynomials coefficients are stored in a temporary memory-mapped
+     * file, so they do not consume heap memory.
+     * </p>
+     * <p>Note that this method has the side effect of replacing the step handlers
+     * of the underlying integrator set up in the {@link
+     * #AbstractIntegratedPropagator(ODEIntegrator, boolean) constructor}. So if a specific
+     * step handler is needed, it should be added after this method has been called.</p>
+     * @param directory directory where to create the temporary file (if null,
+     * coefficients are stored on heap)
+     * @see CompactDenseOutputModel
+     * @see #setCompactEphemerisMode()
+     * @since 9.0
+     */
+    public void setCompactEphemerisMode(final File directory) {
+        super.setEphemerisMode();
+        integrator.clearStepHandlers();
+        final EphemerisModeHandler ephemeris = new EphemerisModeHandler(null, true, directory);
+        modeHandler = ephemeris;
+        integrator.addStepHandler(ephemeris);
+    }
+
     /** {@inheritDoc} */
     public BoundedPropagator getGeneratedEphemeris()
         throws IllegalStateException {
@@ -464,8 +519,8 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             finalState = updateAdditionalStates(finalState);
             for (int i = 0; i < additionalEquations.size(); ++i) {
                 final double[] secondary = mathFinalState.getSecondaryState(i + 1);
-                finalState = finalState.addAdditionalState(additionalEquations.get(i).getName(),
-                                                           secondary);
+                finalState = addAdditionalState(finalState, additionalEquations.get(i).getName(),
+                                                secondary);
             }
             resetInitialState(finalState);
             setStartDate(finalState.getDate());
@@ -593,8 +648,8 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         if (!additionalEquations.isEmpty()) {
 
             for (int i = 0; i < additionalEquations.size(); ++i) {
-                state = state.addAdditionalState(additionalEquations.get(i).getName(),
-                                                 equationsMapper.extractEquationData(i + 1, y));
+                state = addAdditionalState(state, additionalEquations.get(i).getName(),
+                                           equationsMapper.extractEquationData(i + 1, y));
             }
 
         }
@@ -603,6 +658,46 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
     }
 
+    /** Get the main state corresponding to raw components.
+     * <p>
+     * When additional equations are registered, the main state is built only once
+     * for each set of raw components, so the main state equations and all the
+     * secondary equations evaluated at the same point share the same instance
+     * instead of each mapping the orbit and calling the attitude provider again.
+     * </p>
+     * @param t current value of the independent <I>time</I> variable
+     * @param primary array containing the current value of the main state vector
+     * @return main state, including pre-integrated additional states
+     * @exception OrekitException if state cannot be mapped
+     */
+    private SpacecraftState getMainState(final double t, final double[] primary)
+        throws OrekitException {
+
+        if (additionalEquations.isEmpty()) {
+            // there is nothing to share
+            return updateAdditionalStates(stateMapper.mapArrayToState(t, primary, true));
+        }
+
+        if (lastState == null || t != lastT || !Arrays.equals(primary, lastPrimary)) {
+
+            // update space dynamics view
+            // use only ODE elements
+            lastState = updateAdditionalStates(stateMapper.mapArrayToState(t, primary, true));
+
+            // keep track of the raw components, reusing the array
+            lastT = t;
+            if (lastPrimary == null || lastPrimary.length != primary.length) {
+                lastPrimary = primary.clone();
+            } else {
+                System.arraycopy(primary, 0, lastPrimary, 0, primary.length);
+            }
+
+        }
+
+        return lastState;
+
+    }
+
     /** Differential equations for the main state (orbit, attitude and mass). */
     public interface MainStateEquations {
 
@@ -629,14 +724,52 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
          */
         double[] computeDerivatives(SpacecraftState state) throws OrekitException;
 
+        /** Compute differential equations for main state from raw components.
+         * <p>
+         * This method allows implementations that do not always need the complete
+         * state to avoid building it. The default implementation gets the state
+         * from the supplier and calls {@link #computeDerivatives(SpacecraftState)}.
+         * </p>
+         * @param date current date
+         * @param y current value of the main state vector (must not be modified)
+         * @param supplier supplier for the complete main state, built only when requested
+         * @return derivatives of main state
+         * @throws OrekitException if differentials cannot be computed
+         * @since 9.0
+         */
+        default double[] computeDerivatives(AbsoluteDate date, double[] y, MainStateSupplier supplier)
+            throws OrekitException {
+            return computeDerivatives(supplier.getMainState());
+        }
+
+    }
+
+    /** Supplier for the main state, built lazily from raw components.
+     * @see MainStateEquations#computeDerivatives(AbsoluteDate, double[], MainStateSupplier)
+     * @since 9.0
+     */
+    public interface MainStateSupplier {
+
+        /** Get the main state.
+         * @return main state, including pre-integrated additional states
+         * @throws OrekitException if state cannot be mapped
+         */
+        SpacecraftState getMainState() throws OrekitException;
+
     }
 
     /** Differential equations for the main state (orbit, attitude and mass), with converted API. */
-    private class ConvertedMainStateEquations implements OrdinaryDifferentialEquation {
+    private class ConvertedMainStateEquations implements OrdinaryDifferentialEquation, MainStateSupplier {
 
         /** Main state equations. */
         private final MainStateEquations main;
 
+        /** Current value of the independent <I>time</I> variable. */
+        private double currentT;
+
+        /** Current value of the main state vector. */
+        private double[] currentY;
+
         /** Simple constructor.
          * @param main main state equations
          */
@@ -657,6 +790,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
                 // use only ODE elements
                 SpacecraftState initialState = stateMapper.mapArrayToState(t0, y0, true);
                 initialState = updateAdditionalStates(initialState);
+                lastState    = null;
                 final AbsoluteDate target = stateMapper.mapDoubleToDate(finalTime);
                 main.init(initialState, target);
             } catch (OrekitException oe) {
@@ -672,19 +806,23 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
                 // increment calls counter
                 ++calls;
 
-                // update space dynamics view
-                // use only ODE elements
-                SpacecraftState currentState = stateMapper.mapArrayToState(t, y, true);
-                currentState = updateAdditionalStates(currentState);
-
-                // compute main state differentials
-                return main.computeDerivatives(currentState);
+                // compute main state differentials,
+                // the complete state being built only if the equations need it
+                currentT = t;
+                currentY = y;
+                return main.computeDerivatives(stateMapper.mapDoubleToDate(t), y, this);
 
             } catch (OrekitException oe) {
                 throw new OrekitExceptionWrapper(oe);
             }
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public SpacecraftState getMainState() throws OrekitException {
+            return AbstractIntegratedPropagator.this.getMainState(currentT, currentY);
+        }
+
     }
 
     /** Differential equations for the secondary state (Jacobians, user variables ...), with converted API. */
@@ -696,14 +834,23 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         /** Dimension of the additional state. */
         private final int dimension;
 
+        /** Scratch array for additional derivatives.
+         * <p>
+         * The integrator copies the derivatives as soon as they are returned,
+         * so the same array can be reused for all evaluations.
+         * </p>
+         */
+        private final double[] secondaryDot;
+
         /** Simple constructor.
          * @param equations additional equations
          * @param dimension dimension of the additional state
          */
         ConvertedSecondaryStateEquations(final AdditionalEquations equations,
                                          final int dimension) {
-            this.equations = equations;
-            this.dimension = dimension;
+            this.equations    = equations;
+            this.dimension    = dimension;
+            this.secondaryDot = new double[dimension];
         }
 
         /** {@inheritDoc} */
@@ -720,12 +867,11 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
                 // update space dynamics view
                 // the state contains only the ODE elements
-                SpacecraftState currentState = stateMapper.mapArrayToState(t, primary, true);
-                currentState = updateAdditionalStates(currentState);
-                currentState = currentState.addAdditionalState(equations.getName(), secondary);
+                final SpacecraftState currentState =
+                        addAdditionalState(getMainState(t, primary), equations.getName(), secondary);
 
                 // compute additional derivatives
-                final double[] secondaryDot = new double[secondary.length];
+                Arrays.fill(secondaryDot, 0.0);
                 final double[] additionalMainDot =
                         equations.computeDerivatives(currentState, secondaryDot);
                 if (additionalMainDot != null) {
@@ -946,7 +1092,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             s = updateAdditionalStates(s);
             for (int i = 0; i < additionalEquations.size(); ++i) {
                 final double[] secondary = os.getSecondaryState(i + 1);
-                s = s.addAdditionalState(additionalEquations.get(i).getName(), secondary);
+                s = addAdditionalState(s, additionalEquations.get(i).getName(), secondary);
             }
 
             return s;
@@ -964,9 +1110,18 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
     private class EphemerisModeHandler implements ModeHandler, ODEStepHandler {
 
-        /** Underlying raw mathematical model. */
+        /** Underlying raw mathematical model (null in compact mode). */
         private DenseOutputModel model;
 
+        /** Underlying compact mathematical model (null in regular mode). */
+        private CompactDenseOutputModel compactModel;
+
+        /** Indicator for compact mode. */
+        private final boolean compact;
+
+        /** Directory for memory-mapped storage in compact mode (null for heap storage). */
+        private final File directory;
+
         /** Generated ephemeris. */
         private BoundedPropagator ephemeris;
 
@@ -983,7 +1138,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
          *  filled by the propagator.
          */
         EphemerisModeHandler() {
-            this.handler = null;
+            this(null, false, null);
         }
 
         /** Creates a new instance of EphemerisModeHandler which must be
@@ -991,14 +1146,34 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
          *  @param handler the handler to notify of every integrator step.
          */
         EphemerisModeHandler(final OrekitStepHandler handler) {
-            this.handler = new AdaptedStepHandler(handler);
+            this(handler, false, null);
+        }
+
+        /** Creates a new instance of EphemerisModeHandler which must be
+         *  filled by the propagator.
+         *  @param handler the handler to notify of every integrator step (may be null)
+         *  @param compact if true, a {@link CompactDenseOutputModel} is used
+         *  @param directory directory for memory-mapped storage in compact mode
+         *  (null for heap storage)
+         */
+        EphemerisModeHandler(final OrekitStepHandler handler,
+                             final boolean compact, final File directory) {
+            this.handler   = (handler == null) ? null : new AdaptedStepHandler(handler);
+            this.compact   = compact;
+            this.directory = directory;
         }
 
         /** {@inheritDoc} */
         public void initialize(final boolean activateHandlers,
                                final AbsoluteDate targetDate) {
             this.activate = activateHandlers;
-            this.model    = new DenseOutputModel();
+            if (compact) {
+                this.model        = null;
+                this.compactModel = new CompactDenseOutputModel(directory);
+            } else {
+                this.model        = new DenseOutputModel();
+                this.compactModel = null;
+            }
             this.endDate  = targetDate;
 
             // ephemeris will be generated when last step is processed
@@ -1024,12 +1199,16 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
                         this.handler.handleStep(interpolator, isLast);
                     }
 
-                    model.handleStep(interpolator, isLast);
+                    if (compact) {
+                        compactModel.handleStep(interpolator, isLast);
+                    } else {
+                        model.handleStep(interpolator, isLast);
+                    }
                     if (isLast) {
 
                         // set up the boundary dates
-                        final double tI = model.getInitialTime();
-                        final double tF = model.getFinalTime();
+                        final double tI = compact ? compactModel.getInitialTime() : model.getInitialTime();
+                        final double tF = compact ? compactModel.getFinalTime()   : model.getFinalTime();
                         // tI is almost? always zero
                         final AbsoluteDate startDate =
                                 stateMapper.mapDoubleToDate(tI);
@@ -1062,9 +1241,15 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
                         }
 
                         // create the ephemeris
-                        ephemeris = new IntegratedEphemeris(startDate, minDate, maxDate,
-                                                            stateMapper, meanOrbit, model, unmanaged,
-                                                            getAdditionalStateProviders(), names);
+                        if (compact) {
+                            ephemeris = new IntegratedEphemeris(startDate, minDate, maxDate,
+                                                                stateMapper, meanOrbit, compactModel, unmanaged,
+                                                                getAdditionalStateProviders(), names);
+                        } else {
+                            ephemeris = new IntegratedEphemeris(startDate, minDate, maxDate,
+                                                                stateMapper, meanOrbit, model, unmanaged,
+                                                                getAdditionalStateProviders(), names);
+                        }
 
                     }
                 }
@@ -1075,7 +1260,11 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
         /** {@inheritDoc} */
         public void init(final ODEStateAndDerivative s0, final double t) {
-            model.init(s0, t);
+            if (compact) {
+                compactModel.init(s0, t);
+            } else {
+                model.init(s0, t);
+            }
             if (this.handler != null) {
                 this.handler.init(s0, t);
             }
@@ -0,0 +1,523 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.analysis.polynomials.PolynomialFunction;
+import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.ode.ODEStateAndDerivative;
+import org.hipparchus.ode.sampling.ODEStateInterpolator;
+import org.hipparchus.ode.sampling.ODEStepHandler;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+
+/** Compact dense output model for integrated ephemerides.
+ * <p>
+ * This class is an alternative to Hipparchus {@link org.hipparchus.ode.DenseOutputModel
+ * DenseOutputModel}. Instead of keeping a copy of each step interpolator (with all
+ * its internal arrays and references), each step is packed as one polynomial per
+ * state component. The polynomials are built by Hermite interpolation using the
+ * state and its derivative at {@link #NODES} points in the step (including both
+ * step ends), so they have degree {@code 2 NODES - 1}. This is consistent with
+ * the order of the dense output of the integrators commonly used in space flight
+ * dynamics (for example the 7<sup>th</sup> order interpolator of Dormand-Prince
+ * 8(5,3)).
+ * </p>
+ * <p>
+ * The polynomials coefficients are stored either in primitive arrays on the heap
+ * or in a temporary memory-mapped file, which is deleted as soon as it has been
+ * created so it does not remain on disk after the run. In the latter case, the heap
+ * footprint is limited to two doubles per step.
+ * </p>
+ * <p>
+ * Once generated, instances of this class are read-only and are therefore
+ * thread-safe. Instances using a memory-mapped file are serialized as heap-based
+ * instances.
+ * </p>
+ * @see AbstractIntegratedPropagator#setCompactEphemerisMode()
+ * @see AbstractIntegratedPropagator#setCompactEphemerisMode(File)
+ * @since 9.0
+ */
+public class CompactDenseOutputModel implements ODEStepHandler, Serializable {
+
+    /** Number of interpolation nodes in each step. */
+    public static final int NODES = 4;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20170118L;
+
+    /** Normalized abscissae of the interpolation nodes (Chebyshev-Lobatto points). */
+    private static final double[] ABSCISSAE = {
+        0.0, 0.25, 0.75, 1.0
+    };
+
+    /** Number of polynomial coefficients per component. */
+    private static final int COEFFICIENTS = 2 * NODES;
+
+    /** Initial capacity for steps arrays. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Directory for memory-mapped file (null for heap storage). */
+    private final transient File directory;
+
+    /** Dimensions of primary and secondary states. */
+    private int[] dimensions;
+
+    /** Complete state dimension. */
+    private int completeDimension;
+
+    /** Indicator for forward integration. */
+    private boolean forward;
+
+    /** Number of steps. */
+    private int size;
+
+    /** Start times of steps. */
+    private double[] starts;
+
+    /** Signed durations of steps. */
+    private double[] durations;
+
+    /** Final time. */
+    private double finalTime;
+
+    /** Storage for polynomials coefficients. */
+    private Storage storage;
+
+    /** Build an empty model with heap storage.
+     */
+    public CompactDenseOutputModel() {
+        this(null);
+    }
+
+    /** Build an empty model.
+     * @param directory directory where to create the temporary memory-mapped
+     * file (null for heap storage)
+     */
+    public CompactDenseOutputModel(final File directory) {
+        this.directory = directory;
+        this.size      = 0;
+        this.starts    = new double[INITIAL_CAPACITY];
+        this.durations = new double[INITIAL_CAPACITY];
+        this.storage   = (directory == null) ? new HeapStorage() : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final ODEStateAndDerivative s0, final double t) {
+        size              = 0;
+        finalTime         = s0.getTime();
+        forward           = t >= s0.getTime();
+        dimensions        = new int[s0.getNumberOfSecondaryStates() + 1];
+        for (int i = 0; i < dimensions.length; ++i) {
+            dimensions[i] = s0.getSecondaryStateDimension(i);
+        }
+        completeDimension = s0.getCompleteStateDimension();
+
+        // a previous integration may have trimmed the arrays and closed the storage,
+        // for mapped storage a new temporary file will be created at first step
+        starts            = new double[INITIAL_CAPACITY];
+        durations         = new double[INITIAL_CAPACITY];
+        storage           = (directory == null) ? new HeapStorage() : null;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final ODEStateInterpolator interpolator, final boolean isLast)
+        throws OrekitExceptionWrapper {
+
+        final ODEStateAndDerivative s0 = interpolator.getPreviousState();
+        final ODEStateAndDerivative s1 = interpolator.getCurrentState();
+        final double t0 = s0.getTime();
+        final double h  = s1.getTime() - t0;
+        if (h == 0) {
+            // ignore empty steps
+            if (isLast && storage != null) {
+                closeStorage();
+            }
+            return;
+        }
+
+        // fit one polynomial per component, using normalized time in the step
+        final HermiteInterpolator hermite = new HermiteInterpolator();
+        for (int k = 0; k < NODES; ++k) {
+            final ODEStateAndDerivative s;
+            if (k == 0) {
+                s = s0;
+            } else if (k == NODES - 1) {
+                s = s1;
+            } else {
+                s = interpolator.getInterpolatedState(t0 + ABSCISSAE[k] * h);
+            }
+            final double[] yDot = s.getCompleteDerivative();
+            for (int i = 0; i < yDot.length; ++i) {
+                yDot[i] *= h;
+            }
+            hermite.addSamplePoint(ABSCISSAE[k], s.getCompleteState(), yDot);
+        }
+        final PolynomialFunction[] polynomials = hermite.getPolynomials();
+
+        // store the step
+        if (size == starts.length) {
+            starts    = Arrays.copyOf(starts,    2 * size);
+            durations = Arrays.copyOf(durations, 2 * size);
+        }
+        starts[size]    = t0;
+        durations[size] = h;
+        try {
+            if (storage == null) {
+                storage = new MappedStorage(directory);
+            }
+            final long base = ((long) size) * completeDimension * COEFFICIENTS;
+            storage.ensureCapacity(base + completeDimension * COEFFICIENTS);
+            for (int i = 0; i < completeDimension; ++i) {
+                final double[] c = polynomials[i].getCoefficients();
+                for (int j = 0; j < COEFFICIENTS; ++j) {
+                    storage.put(base + i * COEFFICIENTS + j, (j < c.length) ? c[j] : 0.0);
+                }
+            }
+        } catch (OrekitException oe) {
+            throw new OrekitExceptionWrapper(oe);
+        }
+        ++size;
+        finalTime = s1.getTime();
+
+        if (isLast) {
+            closeStorage();
+        }
+
+    }
+
+    /** Release the resources used during generation.
+     * @exception OrekitExceptionWrapper if resources cannot be released
+     */
+    private void closeStorage() throws OrekitExceptionWrapper {
+        try {
+            starts    = Arrays.copyOf(starts,    size);
+            durations = Arrays.copyOf(durations, size);
+            storage.close(((long) size) * completeDimension * COEFFICIENTS);
+        } catch (OrekitException oe) {
+            throw new OrekitExceptionWrapper(oe);
+        }
+    }
+
+    /** Get the initial integration time.
+     * @return initial integration time
+     */
+    public double getInitialTime() {
+        return starts[0];
+    }
+
+    /** Get the final integration time.
+     * @return final integration time
+     */
+    public double getFinalTime() {
+        return finalTime;
+    }
+
+    /** Get the number of stored steps.
+     * @return number of stored steps
+     */
+    public int getNbSteps() {
+        return size;
+    }
+
+    /** Check if the coefficients are stored in a memory-mapped file.
+     * @return true if coefficients are stored in a memory-mapped file
+     */
+    public boolean isMapped() {
+        return storage instanceof MappedStorage;
+    }
+
+    /** Get the state at interpolated time.
+     * <p>
+     * Times slightly outside of the integration range are extrapolated
+     * using the first or last step polynomials.
+     * </p>
+     * @param time time of the interpolated point
+     * @return state at interpolated time
+     */
+    public ODEStateAndDerivative getInterpolatedState(final double time) {
+
+        // select the step and compute normalized time
+        final int    k = locate(time);
+        final double h = durations[k];
+        final double x = (time - starts[k]) / h;
+
+        // evaluate the polynomials and their derivatives using Horner scheme
+        final double[] y    = new double[completeDimension];
+        final double[] yDot = new double[completeDimension];
+        final long base = ((long) k) * completeDimension * COEFFICIENTS;
+        for (int i = 0; i < completeDimension; ++i) {
+            final long offset = base + i * COEFFICIENTS;
+            double p  = storage.get(offset + COEFFICIENTS - 1);
+            double dp = 0;
+            for (int j = COEFFICIENTS - 2; j >= 0; --j) {
+                dp = dp * x + p;
+                p  = p  * x + storage.get(offset + j);
+            }
+            y[i]    = p;
+            yDot[i] = dp / h;
+        }
+
+        // split complete state into primary and secondary states
+        final double[] primary           = Arrays.copyOf(y,    dimensions[0]);
+        final double[] primaryDerivative = Arrays.copyOf(yDot, dimensions[0]);
+        final double[][] secondary           = new double[dimensions.length - 1][];
+        final double[][] secondaryDerivative = new double[dimensions.length - 1][];
+        int start = dimensions[0];
+        for (int i = 1; i < dimensions.length; ++i) {
+            secondary[i - 1]           = Arrays.copyOfRange(y,    start, start + dimensions[i]);
+            secondaryDerivative[i - 1] = Arrays.copyOfRange(yDot, start, start + dimensions[i]);
+            start += dimensions[i];
+        }
+
+        return new ODEStateAndDerivative(time, primary, primaryDerivative, secondary, secondaryDerivative);
+
+    }
+
+    /** Find the step containing a time.
+     * @param time time to locate
+     * @return index of the step containing the time (first or last step
+     * if time is outside of integration range)
+     */
+    private int locate(final double time) {
+        // find the last step starting before time (in integration direction)
+        int low  = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (forward ? starts[middle] <= time : starts[middle] >= time) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return FastMath.max(0, low);
+    }
+
+    /** Replace the instance with a heap-based one for serialization.
+     * @return instance to serialize
+     */
+    private Object writeReplace() {
+        if (storage instanceof HeapStorage) {
+            return this;
+        }
+        final CompactDenseOutputModel copy = new CompactDenseOutputModel();
+        copy.dimensions        = dimensions;
+        copy.completeDimension = completeDimension;
+        copy.forward           = forward;
+        copy.size              = size;
+        copy.starts            = starts;
+        copy.durations         = durations;
+        copy.finalTime         = finalTime;
+        final long n = ((long) size) * completeDimension * COEFFICIENTS;
+        copy.storage.ensureCapacity(n);
+        for (long i = 0; i < n; ++i) {
+            copy.storage.put(i, storage.get(i));
+        }
+        return copy;
+    }
+
+    /** Interface for coefficients storage. */
+    private interface Storage {
+
+        /** Ensure storage capacity.
+         * @param capacity minimum number of doubles to store
+         * @exception OrekitException if storage cannot be extended
+         */
+        void ensureCapacity(long capacity) throws OrekitException;
+
+        /** Store one coefficient.
+         * @param index index of the coefficient
+         * @param value value of the coefficient
+         */
+        void put(long index, double value);
+
+        /** Get one coefficient.
+         * @param index index of the coefficient
+         * @return value of the coefficient
+         */
+        double get(long index);
+
+        /** Release the resources used during generation.
+         * @param used number of doubles really used
+         * @exception OrekitException if resources cannot be released
+         */
+        void close(long used) throws OrekitException;
+
+    }
+
+    /** Storage in primitive arrays chunks on heap.
+     * <p>
+     * Coefficients are split in fixed size chunks, so long ephemerides are
+     * not limited by the maximum size of one Java array.
+     * </p>
+     */
+    private static class HeapStorage implements Storage, Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170215L;
+
+        /** Base 2 logarithm of the number of doubles per chunk. */
+        private static final int CHUNK_BITS = 16;
+
+        /** Number of doubles per chunk. */
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        /** Mask for index in chunk. */
+        private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+        /** Coefficients chunks. */
+        private double[][] chunks;
+
+        /** Simple constructor.
+         */
+        HeapStorage() {
+            chunks = new double[0][];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void ensureCapacity(final long capacity) {
+            final int needed = (int) ((capacity + CHUNK_MASK) >>> CHUNK_BITS);
+            if (needed > chunks.length) {
+                final int old = chunks.length;
+                chunks = Arrays.copyOf(chunks, needed);
+                for (int i = old; i < chunks.length; ++i) {
+                    chunks[i] = new double[CHUNK_SIZE];
+                }
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void put(final long index, final double value) {
+            chunks[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)] = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double get(final long index) {
+            return chunks[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close(final long used) {
+            // trim unused capacity
+            final int full      = (int) (used >>> CHUNK_BITS);
+            final int remainder = (int) (used & CHUNK_MASK);
+            if (remainder == 0) {
+                chunks = Arrays.copyOf(chunks, full);
+            } else {
+                chunks = Arrays.copyOf(chunks, full + 1);
+                chunks[full] = Arrays.copyOf(chunks[full], remainder);
+            }
+        }
+
+    }
+
+    /** Storage in a temporary memory-mapped file. */
+    private static class MappedStorage implements Storage {
+
+        /** Base 2 logarithm of the number of doubles per chunk. */
+        private static final int CHUNK_BITS = 20;
+
+        /** Number of doubles per chunk. */
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        /** Mask for index in chunk. */
+        private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+        /** Mapped chunks. */
+        private final List<DoubleBuffer> chunks;
+
+        /** Temporary file. */
+        private RandomAccessFile raf;
+
+        /** Simple constructor.
+         * @param directory directory where to create the temporary file
+         * @exception OrekitException if temporary file cannot be created
+         */
+        MappedStorage(final File directory) throws OrekitException {
+            try {
+                final File file = File.createTempFile("orekit-ephemeris-", ".bin", directory);
+                raf    = new RandomAccessFile(file, "rw");
+                chunks = new ArrayList<DoubleBuffer>();
+                // the mapping remains valid even after the file has been removed from directory
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            } catch (IOException ioe) {
+                throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void ensureCapacity(final long capacity) throws OrekitException {
+            try {
+                while (((long) chunks.size()) << CHUNK_BITS < capacity) {
+                    final long position = ((long) chunks.size()) * CHUNK_SIZE * Double.BYTES;
+                    chunks.add(raf.getChannel().
+                               map(FileChannel.MapMode.READ_WRITE, position, CHUNK_SIZE * Double.BYTES).
+                               asDoubleBuffer());
+                }
+            } catch (IOException ioe) {
+                throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void put(final long index, final double value) {
+            chunks.get((int) (index >>> CHUNK_BITS)).put((int) (index & CHUNK_MASK), value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double get(final long index) {
+            return chunks.get((int) (index >>> CHUNK_BITS)).get((int) (index & CHUNK_MASK));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close(final long used) throws OrekitException {
+            try {
+                // the mapped buffers remain valid after the file has been closed
+                raf.close();
+            } catch (IOException ioe) {
+                throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+            }
+        }
+
+    }
+
+}
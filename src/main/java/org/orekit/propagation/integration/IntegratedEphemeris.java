@@ -65,7 +65,9 @@ import org.orekit.utils.TimeStampedPVCoordinates;
  * </p>
  * <p>
  * Note that this class stores all intermediate states along with interpolation
- * models, so it may be memory intensive.
+ * models, so it may be memory intensive. When built from a {@link
+ * CompactDenseOutputModel}, only the interpolation polynomials coefficients are
+ * stored, in primitive arrays or in a memory-mapped file.
  * </p>
  *
  * @see org.orekit.propagation.numerical.NumericalPropagator
@@ -102,9 +104,12 @@ public class IntegratedEphemeris
     /** Last date of the range. */
     private final AbsoluteDate maxDate;
 
-    /** Underlying raw mathematical model. */
+    /** Underlying raw mathematical model (null if compact model is used). */
     private DenseOutputModel model;
 
+    /** Underlying compact mathematical model (null if raw model is used). */
+    private CompactDenseOutputModel compactModel;
+
     /** Unmanaged additional states that must be simply copied. */
     private final Map<String, double[]> unmanaged;
 
@@ -128,16 +133,68 @@ public class IntegratedEphemeris
                                final List<AdditionalStateProvider> providers,
                                final String[] equations)
         throws OrekitException {
+        this(startDate, minDate, maxDate, mapper, meanOrbit, model, null,
+             unmanaged, providers, equations);
+    }
+
+    /** Creates a new instance of IntegratedEphemeris using a compact model.
+     * @param startDate Start date of the integration (can be minDate or maxDate)
+     * @param minDate first date of the range
+     * @param maxDate last date of the range
+     * @param mapper mapper between raw double components and spacecraft state
+     * @param meanOrbit output only the mean orbit
+     * @param compactModel underlying compact mathematical model
+     * @param unmanaged unmanaged additional states that must be simply copied
+     * @param providers providers for pre-integrated states
+     * @param equations names of additional equations
+     * @exception OrekitException if several providers have the same name
+     * @since 9.0
+     */
+    public IntegratedEphemeris(final AbsoluteDate startDate,
+                               final AbsoluteDate minDate, final AbsoluteDate maxDate,
+                               final StateMapper mapper, final boolean meanOrbit,
+                               final CompactDenseOutputModel compactModel,
+                               final Map<String, double[]> unmanaged,
+                               final List<AdditionalStateProvider> providers,
+                               final String[] equations)
+        throws OrekitException {
+        this(startDate, minDate, maxDate, mapper, meanOrbit, null, compactModel,
+             unmanaged, providers, equations);
+    }
+
+    /** Creates a new instance of IntegratedEphemeris.
+     * @param startDate Start date of the integration (can be minDate or maxDate)
+     * @param minDate first date of the range
+     * @param maxDate last date of the range
+     * @param mapper mapper between raw double components and spacecraft state
+     * @param meanOrbit output only the mean orbit
+     * @param model underlying raw mathematical model (null if compact model is used)
+     * @param compactModel underlying compact mathematical model (null if raw model is used)
+     * @param unmanaged unmanaged additional states that must be simply copied
+     * @param providers providers for pre-integrated states
+     * @param equations names of additional equations
+     * @exception OrekitException if several providers have the same name
+     */
+    private IntegratedEphemeris(final AbsoluteDate startDate,
+                                final AbsoluteDate minDate, final AbsoluteDate maxDate,
+                                final StateMapper mapper, final boolean meanOrbit,
+                                final DenseOutputModel model,
+                                final CompactDenseOutputModel compactModel,
+                                final Map<String, double[]> unmanaged,
+                                final List<AdditionalStateProvider> providers,
+                                final String[] equations)
+        throws OrekitException {
 
         super(mapper.getAttitudeProvider());
 
-        this.startDate = startDate;
-        this.minDate   = minDate;
-        this.maxDate   = maxDate;
-        this.mapper    = mapper;
-        this.meanOrbit = meanOrbit;
-        this.model     = model;
-        this.unmanaged = unmanaged;
+        this.startDate    = startDate;
+        this.minDate      = minDate;
+        this.maxDate      = maxDate;
+        this.mapper       = mapper;
+        this.meanOrbit    = meanOrbit;
+        this.model        = model;
+        this.compactModel = compactModel;
+        this.unmanaged    = unmanaged;
 
         // set up the pre-integrated providers
         for (final AdditionalStateProvider provider : providers) {
@@ -169,7 +226,8 @@ public class IntegratedEphemeris
                                            date, minDate, maxDate);
         }
 
-        return model.getInterpolatedState(date.durationFrom(startDate));
+        final double t = date.durationFrom(startDate);
+        return (compactModel == null) ? model.getInterpolatedState(t) : compactModel.getInterpolatedState(t);
 
     }
 
@@ -271,7 +329,7 @@ public class IntegratedEphemeris
             }
         }
 
-        return new DataTransferObject(startDate, minDate, maxDate, mapper, meanOrbit, model,
+        return new DataTransferObject(startDate, minDate, maxDate, mapper, meanOrbit, model, compactModel,
                                       unmanagedNames, unmanagedValues,
                                       serializableProviders.toArray(new AdditionalStateProvider[serializableProviders.size()]),
                                       equationNames.toArray(new String[equationNames.size()]));
@@ -316,7 +374,7 @@ public class IntegratedEphemeris
     private static class DataTransferObject implements Serializable {
 
         /** Serializable UID. */
-        private static final long serialVersionUID = 20140213L;
+        private static final long serialVersionUID = 20170118L;
 
         /** Mapper between raw double components and spacecraft state. */
         private final StateMapper mapper;
@@ -336,6 +394,9 @@ public class IntegratedEphemeris
         /** Underlying raw mathematical model. */
         private final DenseOutputModel model;
 
+        /** Underlying compact mathematical model. */
+        private final CompactDenseOutputModel compactModel;
+
         /** Names of unmanaged additional states that must be simply copied. */
         private final String[] unmanagedNames;
 
@@ -355,6 +416,7 @@ public class IntegratedEphemeris
          * @param mapper mapper between raw double components and spacecraft state
          * @param meanOrbit output only the mean orbit.
          * @param model underlying raw mathematical model
+         * @param compactModel underlying compact mathematical model
          * @param unmanagedNames names of unmanaged additional states that must be simply copied
          * @param unmanagedValues values of unmanaged additional states that must be simply copied
          * @param providers providers for pre-integrated states
@@ -364,6 +426,7 @@ public class IntegratedEphemeris
                                   final AbsoluteDate minDate, final AbsoluteDate maxDate,
                                   final StateMapper mapper, final boolean meanOrbit,
                                   final DenseOutputModel model,
+                                  final CompactDenseOutputModel compactModel,
                                   final String[] unmanagedNames, final double[][] unmanagedValues,
                                   final AdditionalStateProvider[] providers,
                                   final String[] equations) {
@@ -373,6 +436,7 @@ public class IntegratedEphemeris
             this.mapper          = mapper;
             this.meanOrbit       = meanOrbit;
             this.model           = model;
+            this.compactModel    = compactModel;
             this.unmanagedNames  = unmanagedNames;
             this.unmanagedValues = unmanagedValues;
             this.providers       = providers;
@@ -388,7 +452,7 @@ public class IntegratedEphemeris
                 for (int i = 0; i < unmanagedNames.length; ++i) {
                     unmanaged.put(unmanagedNames[i], unmanagedValues[i]);
                 }
-                return new IntegratedEphemeris(startDate, minDate, maxDate, mapper, meanOrbit, model,
+                return new IntegratedEphemeris(startDate, minDate, maxDate, mapper, meanOrbit, model, compactModel,
                                                unmanaged, Arrays.asList(providers), equations);
             } catch (OrekitException oe) {
                 throw new OrekitInternalError(oe);
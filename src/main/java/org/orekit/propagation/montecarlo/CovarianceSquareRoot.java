@@ -0,0 +1,95 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RectangularCholeskyDecomposition;
+import org.hipparchus.util.FastMath;
+
+/** Utility class computing square roots of covariance matrices.
+ * <p>
+ * Covariances of orbits and parameters mix very different scales (meters,
+ * meters per second, radians, m³/s²...), so absolute thresholds in the
+ * factorization are meaningless. The factorization is therefore performed on
+ * the correlation matrix, with rank detection so semi-definite covariances
+ * (for example parameters with zero variance or fully correlated parameters)
+ * are supported, and the root is scaled back afterwards.
+ * </p>
+ * @since 9.0
+ */
+final class CovarianceSquareRoot {
+
+    /** Threshold for rank detection in correlation matrices. */
+    private static final double RANK_THRESHOLD = 1.0e-12;
+
+    /** Private constructor for a utility class.
+     */
+    private CovarianceSquareRoot() {
+    }
+
+    /** Compute a rectangular square root of a covariance matrix.
+     * @param covariance covariance matrix
+     * @return n×r matrix B such that B.B<sup>T</sup> = covariance, where r is the rank of the covariance
+     * @exception org.hipparchus.exception.MathIllegalArgumentException if covariance
+     * is not positive semi-definite
+     */
+    public static RealMatrix rectangularRoot(final RealMatrix covariance) {
+
+        final int n = covariance.getRowDimension();
+        final double[] sigma = new double[n];
+        for (int i = 0; i < n; ++i) {
+            final double variance = covariance.getEntry(i, i);
+            sigma[i] = variance > 0 ? FastMath.sqrt(variance) : 1.0;
+        }
+
+        final RealMatrix correlation = covariance.copy();
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                correlation.setEntry(i, j, correlation.getEntry(i, j) / (sigma[i] * sigma[j]));
+            }
+        }
+
+        final RealMatrix root = new RectangularCholeskyDecomposition(correlation, RANK_THRESHOLD).getRootMatrix();
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < root.getColumnDimension(); ++j) {
+                root.multiplyEntry(i, j, sigma[i]);
+            }
+        }
+        return root;
+
+    }
+
+    /** Compute a square root of a covariance matrix.
+     * <p>
+     * The root is the {@link #rectangularRoot(RealMatrix) rectangular root}
+     * padded with zero columns if the covariance is rank deficient.
+     * </p>
+     * @param covariance covariance matrix
+     * @return n×n matrix B such that B.B<sup>T</sup> = covariance
+     * @exception org.hipparchus.exception.MathIllegalArgumentException if covariance
+     * is not positive semi-definite
+     */
+    public static RealMatrix squareRoot(final RealMatrix covariance) {
+        final int n = covariance.getRowDimension();
+        final RealMatrix rectangular = rectangularRoot(covariance);
+        final RealMatrix square = MatrixUtils.createRealMatrix(n, n);
+        square.setSubMatrix(rectangular.getData(), 0, 0);
+        return square;
+    }
+
+}
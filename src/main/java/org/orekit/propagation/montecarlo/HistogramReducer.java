@@ -0,0 +1,130 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** Reducer building histograms of a scalar quantity at each target date.
+ * <p>
+ * The histograms have regular bins between a lower and an upper bound.
+ * Values outside of these bounds are counted separately as underflows
+ * and overflows.
+ * </p>
+ * @since 9.0
+ */
+public class HistogramReducer implements SampleReducer {
+
+    /** Function extracting the scalar quantity from states. */
+    private final ToDoubleFunction<SpacecraftState> function;
+
+    /** Lower bound of the histograms. */
+    private final double lower;
+
+    /** Upper bound of the histograms. */
+    private final double upper;
+
+    /** Number of bins. */
+    private final int nbBins;
+
+    /** Counts at each target date, with underflow at index 0
+     * and overflow at index nbBins + 1. */
+    private final List<long[]> counts;
+
+    /** Simple constructor.
+     * @param function function extracting the scalar quantity from states
+     * (for example {@code s -> s.getA()})
+     * @param lower lower bound of the histograms
+     * @param upper upper bound of the histograms
+     * @param nbBins number of bins
+     */
+    public HistogramReducer(final ToDoubleFunction<SpacecraftState> function,
+                            final double lower, final double upper, final int nbBins) {
+        if (nbBins < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, nbBins, 1);
+        }
+        if (upper <= lower) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, upper, lower);
+        }
+        this.function = function;
+        this.lower    = lower;
+        this.upper    = upper;
+        this.nbBins   = nbBins;
+        this.counts   = new ArrayList<long[]>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final int samples, final List<AbsoluteDate> targetDates) {
+        counts.clear();
+        for (int i = 0; i < targetDates.size(); ++i) {
+            counts.add(new long[nbBins + 2]);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reduce(final int sampleIndex, final double[] dispersions,
+                       final List<SpacecraftState> states) {
+        for (int i = 0; i < states.size(); ++i) {
+            final double value = function.applyAsDouble(states.get(i));
+            final int index;
+            if (value < lower) {
+                index = 0;
+            } else if (value >= upper) {
+                index = nbBins + 1;
+            } else {
+                index = 1 + FastMath.min(nbBins - 1, (int) FastMath.floor(nbBins * (value - lower) / (upper - lower)));
+            }
+            ++counts.get(i)[index];
+        }
+    }
+
+    /** Get the bins counts at one target date.
+     * @param dateIndex index of the target date
+     * @return counts for each bin (underflows and overflows excluded)
+     */
+    public long[] getCounts(final int dateIndex) {
+        final long[] c = new long[nbBins];
+        System.arraycopy(counts.get(dateIndex), 1, c, 0, nbBins);
+        return c;
+    }
+
+    /** Get the number of values below the lower bound at one target date.
+     * @param dateIndex index of the target date
+     * @return number of values below the lower bound
+     */
+    public long getUnderflows(final int dateIndex) {
+        return counts.get(dateIndex)[0];
+    }
+
+    /** Get the number of values above the upper bound at one target date.
+     * @param dateIndex index of the target date
+     * @return number of values above the upper bound
+     */
+    public long getOverflows(final int dateIndex) {
+        return counts.get(dateIndex)[nbBins + 1];
+    }
+
+}
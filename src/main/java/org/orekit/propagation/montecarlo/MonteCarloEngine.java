@@ -0,0 +1,546 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.distribution.RealDistribution;
+import org.hipparchus.distribution.continuous.NormalDistribution;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.PropagatorBuilder;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/** Monte Carlo engine propagating dispersed samples in parallel.
+ * <p>
+ * Each sample is built from a {@link PropagatorBuilder} whose {@link ParameterDriver
+ * parameters drivers} (orbital parameters as well as force models parameters) are
+ * offset by values drawn from user-provided {@link #addDispersion(String,
+ * RealDistribution) distributions}, or from {@link #addCorrelatedDispersion(List,
+ * RealMatrix) multivariate normal distributions} for correlated parameters like
+ * orbit covariances, then propagated to a list of target dates.
+ * </p>
+ * <p>
+ * Samples are propagated by a fork-join {@link #setPool(ForkJoinPool) pool}, each
+ * worker getting its own builder from a {@link PropagatorBuilderFactory} and pulling
+ * samples indices one at a time, so the load is balanced even when samples have very
+ * different propagation costs (for example re-entering samples). Results are streamed
+ * to per-sample {@link SampleStepHandlerFactory step handlers} and to {@link
+ * SampleReducer reducers}: only the states at target dates of samples completed out
+ * of order are kept, waiting for their predecessors, so reducers see all samples in
+ * indices order. Workers do not start a sample more than {@link #WINDOW_FACTOR} times
+ * the pool parallelism ahead of the oldest sample not yet reduced, so the number
+ * of pending samples remains bounded even if one sample is very slow.
+ * </p>
+ * <p>
+ * Runs are reproducible: the random generator of each sample is seeded from the
+ * engine seed and the sample index, and values are drawn by inversion of the
+ * distributions cumulative probability functions, so the dispersions of a sample
+ * do not depend on which thread propagated it nor on the number of workers.
+ * </p>
+ * @since 9.0
+ */
+public class MonteCarloEngine {
+
+    /** Ratio between the maximum number of samples started ahead of the oldest
+     * sample not yet reduced and the pool parallelism.
+     */
+    public static final int WINDOW_FACTOR = 4;
+
+    /** Factory for per-worker propagator builders. */
+    private final PropagatorBuilderFactory factory;
+
+    /** Seed for random generators. */
+    private final long seed;
+
+    /** Names of the dispersed parameters. */
+    private final List<String> names;
+
+    /** Dispersions, each one covering one or more consecutive parameters in {@link #names}. */
+    private final List<Dispersion> dispersionModels;
+
+    /** Reducers. */
+    private final List<SampleReducer> reducers;
+
+    /** Factory for per-sample step handlers (may be null). */
+    private SampleStepHandlerFactory handlerFactory;
+
+    /** Pool for parallel propagation (null for sequential propagation). */
+    private ForkJoinPool pool;
+
+    /** Simple constructor.
+     * <p>
+     * By default, samples are propagated sequentially in the caller thread,
+     * parallel propagation requires {@link #setPool(ForkJoinPool) setting a pool}.
+     * </p>
+     * @param factory factory for propagator builders, called once for each worker
+     * @param seed seed for random generators
+     */
+    public MonteCarloEngine(final PropagatorBuilderFactory factory, final long seed) {
+        this.factory          = factory;
+        this.seed             = seed;
+        this.names            = new ArrayList<String>();
+        this.dispersionModels = new ArrayList<Dispersion>();
+        this.reducers         = new ArrayList<SampleReducer>();
+        this.handlerFactory   = null;
+        this.pool             = null;
+    }
+
+    /** Add a dispersion on one parameter.
+     * <p>
+     * The parameter is looked up by name first among the {@link
+     * PropagatorBuilder#getOrbitalParametersDrivers() orbital parameters}
+     * and then among the {@link PropagatorBuilder#getPropagationParametersDrivers()
+     * propagation parameters} of the builders. For each sample, a value drawn from
+     * the distribution is added to the nominal value of the parameter (the
+     * result being clipped to the parameter allowed range).
+     * </p>
+     * @param parameterName name of the dispersed parameter
+     * @param distribution distribution of the offset with respect to nominal value
+     */
+    public void addDispersion(final String parameterName, final RealDistribution distribution) {
+        names.add(parameterName);
+        dispersionModels.add(new IndependentDispersion(distribution));
+    }
+
+    /** Add a correlated dispersion on several parameters.
+     * <p>
+     * The offsets of the parameters with respect to their nominal values are
+     * drawn from a zero-mean multivariate normal distribution with the given
+     * covariance, as when dispersing an orbit according to its covariance.
+     * Parameters are looked up as in {@link #addDispersion(String, RealDistribution)}.
+     * The covariance may be only semi-definite, as the factorization is performed
+     * on the correlation matrix with rank detection, so parameters with very
+     * different scales (meters and radians for example) are handled consistently.
+     * </p>
+     * @param parameterNames names of the dispersed parameters
+     * @param covariance covariance of the offsets with respect to nominal values
+     * @exception OrekitIllegalArgumentException if covariance dimensions do not match
+     * the number of parameters
+     * @exception org.hipparchus.exception.MathIllegalArgumentException if covariance
+     * is not positive semi-definite
+     */
+    public void addCorrelatedDispersion(final List<String> parameterNames, final RealMatrix covariance) {
+        final int n = parameterNames.size();
+        if (covariance.getRowDimension() != n || covariance.getColumnDimension() != n) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     covariance.getRowDimension(), n);
+        }
+        names.addAll(parameterNames);
+        dispersionModels.add(new CorrelatedDispersion(covariance));
+    }
+
+    /** Add a reducer for samples states at target dates.
+     * @param reducer reducer to add
+     */
+    public void addReducer(final SampleReducer reducer) {
+        reducers.add(reducer);
+    }
+
+    /** Set the factory for per-sample step handlers.
+     * @param stepHandlerFactory factory for step handlers (null if no step handlers are needed)
+     */
+    public void setStepHandlerFactory(final SampleStepHandlerFactory stepHandlerFactory) {
+        this.handlerFactory = stepHandlerFactory;
+    }
+
+    /** Set the pool for parallel propagation.
+     * @param pool pool to use for parallel propagation (null for sequential propagation)
+     */
+    public void setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Draw the dispersions of one sample.
+     * <p>
+     * This method is deterministic, it can be used to recompute the dispersions
+     * of any sample after a run.
+     * </p>
+     * @param sampleIndex index of the sample
+     * @return dispersions of the sample, in dispersions registration order
+     */
+    public double[] getDispersions(final int sampleIndex) {
+        final RandomGenerator random =
+                new Well19937a(new int[] {
+                    (int) (seed >>> 32), (int) (seed & 0xffffffffL), sampleIndex
+                });
+        final double[] values = new double[names.size()];
+        int offset = 0;
+        for (final Dispersion dispersion : dispersionModels) {
+            dispersion.draw(random, values, offset);
+            offset += dispersion.getDimension();
+        }
+        return values;
+    }
+
+    /** Draw a probability suitable for inversion of unbounded distributions.
+     * @param random random generator
+     * @return probability in the open interval (0, 1)
+     */
+    private static double drawProbability(final RandomGenerator random) {
+        double p = random.nextDouble();
+        while (p == 0.0) {
+            // avoid infinite values for unbounded distributions
+            p = random.nextDouble();
+        }
+        return p;
+    }
+
+    /** Run a Monte Carlo simulation.
+     * <p>
+     * Each sample is propagated to all target dates in the order of the list,
+     * each leg starting from the state reached at the previous target date.
+     * </p>
+     * @param samples number of samples
+     * @param targetDates target dates at which states are provided to reducers
+     * @exception OrekitException if some parameter is not supported by the builders,
+     * if some sample cannot be propagated, or if some handler or reducer fails
+     */
+    public void run(final int samples, final List<AbsoluteDate> targetDates)
+        throws OrekitException {
+
+        if (samples < 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, samples, 0);
+        }
+        final List<AbsoluteDate> dates = Collections.unmodifiableList(new ArrayList<AbsoluteDate>(targetDates));
+
+        // this first worker also checks the dispersed parameters are supported
+        final Worker first = new Worker(factory.createBuilder());
+
+        for (final SampleReducer reducer : reducers) {
+            reducer.init(samples, dates);
+        }
+        final Dispatcher dispatcher =
+                new Dispatcher(pool == null ? Integer.MAX_VALUE : WINDOW_FACTOR * pool.getParallelism());
+
+        if (pool == null) {
+            for (int i = 0; i < samples; ++i) {
+                first.processSample(i, dates, dispatcher);
+            }
+        } else {
+            new ParallelRunner<Worker>() {
+
+                /** {@inheritDoc} */
+                @Override
+                Worker createWorker() throws OrekitException {
+                    return new Worker(factory.createBuilder());
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                void process(final Worker worker, final int index) throws OrekitException {
+                    worker.processSample(index, dates, dispatcher);
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                boolean waitForSlot(final int index) throws OrekitException {
+                    return dispatcher.waitForSlot(index);
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                void abort() {
+                    dispatcher.abort();
+                }
+
+            }.run(pool, first, samples);
+        }
+
+    }
+
+    /** Worker processing samples with its own builder. */
+    private class Worker {
+
+        /** Propagator builder. */
+        private final PropagatorBuilder builder;
+
+        /** Drivers of the dispersed parameters. */
+        private final ParameterDriver[] drivers;
+
+        /** Nominal values of the dispersed parameters. */
+        private final double[] nominal;
+
+        /** Simple constructor.
+         * @param builder propagator builder dedicated to this worker
+         * @exception OrekitException if some dispersed parameter is not supported
+         */
+        Worker(final PropagatorBuilder builder) throws OrekitException {
+            this.builder = builder;
+            this.drivers = new ParameterDriver[names.size()];
+            this.nominal = new double[names.size()];
+            for (int i = 0; i < drivers.length; ++i) {
+                drivers[i] = findDriver(names.get(i));
+                nominal[i] = drivers[i].getValue();
+            }
+        }
+
+        /** Find a parameter driver.
+         * @param name name of the parameter
+         * @return driver for the parameter
+         * @exception OrekitException if parameter is not supported
+         */
+        private ParameterDriver findDriver(final String name) throws OrekitException {
+
+            final List<ParameterDriver> all = new ArrayList<ParameterDriver>();
+            all.addAll(builder.getOrbitalParametersDrivers().getDrivers());
+            all.addAll(builder.getPropagationParametersDrivers().getDrivers());
+
+            final StringBuilder supported = new StringBuilder();
+            for (final ParameterDriver driver : all) {
+                if (driver.getName().equals(name)) {
+                    return driver;
+                }
+                if (supported.length() > 0) {
+                    supported.append(", ");
+                }
+                supported.append(driver.getName());
+            }
+
+            throw new OrekitException(OrekitMessages.UNSUPPORTED_PARAMETER_NAME,
+                                      name, supported.toString());
+
+        }
+
+        /** Process one sample.
+         * @param sampleIndex index of the sample
+         * @param dates target dates
+         * @param dispatcher dispatcher for the results
+         * @exception OrekitException if sample cannot be propagated or results cannot be handled
+         */
+        public void processSample(final int sampleIndex, final List<AbsoluteDate> dates,
+                                  final Dispatcher dispatcher)
+            throws OrekitException {
+
+            // apply dispersions
+            final double[] dispersions = getDispersions(sampleIndex);
+            for (int i = 0; i < drivers.length; ++i) {
+                drivers[i].setValue(nominal[i] + dispersions[i]);
+            }
+
+            // build propagator for this sample
+            final Propagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+            if (handlerFactory != null) {
+                final OrekitStepHandler handler = handlerFactory.createHandler(sampleIndex, dispersions.clone());
+                if (handler != null) {
+                    propagator.setMasterMode(handler);
+                }
+            }
+
+            // propagate to all target dates
+            final List<SpacecraftState> states = new ArrayList<SpacecraftState>(dates.size());
+            for (final AbsoluteDate date : dates) {
+                states.add(propagator.propagate(date));
+            }
+
+            dispatcher.dispatch(sampleIndex, dispersions, states);
+
+        }
+
+    }
+
+    /** Dispatcher providing samples to reducers in indices order. */
+    private class Dispatcher {
+
+        /** Maximum distance between a started sample and the next sample to reduce. */
+        private final int window;
+
+        /** Index of the next sample to reduce. */
+        private int next;
+
+        /** Indicator for aborted runs. */
+        private boolean aborted;
+
+        /** Samples completed out of order, waiting for their predecessors. */
+        private final Map<Integer, Sample> pending;
+
+        /** Simple constructor.
+         * @param window maximum distance between a started sample and the next sample to reduce
+         */
+        Dispatcher(final int window) {
+            this.window  = window;
+            this.next    = 0;
+            this.aborted = false;
+            this.pending = new HashMap<Integer, Sample>();
+        }
+
+        /** Wait until a sample is close enough to the next sample to reduce to be started.
+         * <p>
+         * The sample at index {@code next} is always started without waiting, and
+         * as indices are handed out in increasing order it is already held by a
+         * running worker when another worker waits, so waiting cannot deadlock.
+         * </p>
+         * @param sampleIndex index of the sample
+         * @return true if the sample can be started, false if the run has been aborted
+         * @exception OrekitException if the waiting thread has been interrupted
+         */
+        public synchronized boolean waitForSlot(final int sampleIndex)
+            throws OrekitException {
+            try {
+                while (!aborted && sampleIndex - next >= window) {
+                    wait();
+                }
+                return !aborted;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+            }
+        }
+
+        /** Abort the run, releasing waiting workers.
+         */
+        public synchronized void abort() {
+            aborted = true;
+            notifyAll();
+        }
+
+        /** Dispatch one completed sample.
+         * @param sampleIndex index of the sample
+         * @param dispersions dispersions applied to the sample
+         * @param states states of the sample at target dates
+         * @exception OrekitException if some reducer fails
+         */
+        public synchronized void dispatch(final int sampleIndex, final double[] dispersions,
+                                          final List<SpacecraftState> states)
+            throws OrekitException {
+            pending.put(sampleIndex, new Sample(dispersions, Collections.unmodifiableList(states)));
+            for (Sample sample = pending.remove(next); sample != null; sample = pending.remove(next)) {
+                for (final SampleReducer reducer : reducers) {
+                    reducer.reduce(next, sample.dispersions, sample.states);
+                }
+                ++next;
+                notifyAll();
+            }
+        }
+
+    }
+
+    /** Container for completed samples. */
+    private static class Sample {
+
+        /** Dispersions applied to the sample. */
+        private final double[] dispersions;
+
+        /** States at target dates. */
+        private final List<SpacecraftState> states;
+
+        /** Simple constructor.
+         * @param dispersions dispersions applied to the sample
+         * @param states states at target dates
+         */
+        Sample(final double[] dispersions, final List<SpacecraftState> states) {
+            this.dispersions = dispersions;
+            this.states      = states;
+        }
+
+    }
+
+    /** Dispersion of one or more consecutive parameters. */
+    private interface Dispersion {
+
+        /** Get the number of dispersed parameters.
+         * @return number of dispersed parameters
+         */
+        int getDimension();
+
+        /** Draw the offsets of the dispersed parameters.
+         * @param random random generator for the sample
+         * @param values array where offsets should be stored
+         * @param offset index of the first parameter in the array
+         */
+        void draw(RandomGenerator random, double[] values, int offset);
+
+    }
+
+    /** Dispersion of one parameter according to a univariate distribution. */
+    private static class IndependentDispersion implements Dispersion {
+
+        /** Distribution of the offset. */
+        private final RealDistribution distribution;
+
+        /** Simple constructor.
+         * @param distribution distribution of the offset
+         */
+        IndependentDispersion(final RealDistribution distribution) {
+            this.distribution = distribution;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return 1;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void draw(final RandomGenerator random, final double[] values, final int offset) {
+            values[offset] = distribution.inverseCumulativeProbability(drawProbability(random));
+        }
+
+    }
+
+    /** Dispersion of several parameters according to a multivariate normal distribution. */
+    private static class CorrelatedDispersion implements Dispersion {
+
+        /** Standard normal distribution. */
+        private final NormalDistribution normal;
+
+        /** Root of the covariance matrix (root.root<sup>T</sup> = covariance). */
+        private final RealMatrix root;
+
+        /** Simple constructor.
+         * @param covariance covariance matrix
+         */
+        CorrelatedDispersion(final RealMatrix covariance) {
+            this.normal = new NormalDistribution(0.0, 1.0);
+            this.root   = CovarianceSquareRoot.rectangularRoot(covariance);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return root.getRowDimension();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void draw(final RandomGenerator random, final double[] values, final int offset) {
+            final double[] z = new double[root.getColumnDimension()];
+            for (int j = 0; j < z.length; ++j) {
+                z[j] = normal.inverseCumulativeProbability(drawProbability(random));
+            }
+            final double[] x = root.operate(z);
+            System.arraycopy(x, 0, values, offset, x.length);
+        }
+
+    }
+
+}
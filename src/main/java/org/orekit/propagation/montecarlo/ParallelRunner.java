@@ -0,0 +1,194 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+
+/** Runner processing indexed items in a fork-join pool, using one worker per pool thread.
+ * <p>
+ * Workers pull item indices from a shared counter until all items have been
+ * processed or some worker has failed. The first worker is provided by the
+ * caller, which has typically created it beforehand to check the configuration;
+ * the other workers are created by the tasks themselves, in the pool threads.
+ * </p>
+ * @param <W> type of the workers
+ * @see MonteCarloEngine
+ * @see UnscentedCovariancePropagator
+ * @since 9.0
+ */
+abstract class ParallelRunner<W> {
+
+    /** Process all items.
+     * @param pool pool to use
+     * @param first first worker, already created
+     * @param size number of items
+     * @exception OrekitException if some worker cannot be created or some item cannot be processed
+     */
+    void run(final ForkJoinPool pool, final W first, final int size)
+        throws OrekitException {
+        try {
+            pool.invoke(new RunTask(first, size));
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+    }
+
+    /** Create a worker.
+     * <p>
+     * This method is called in the pool threads.
+     * </p>
+     * @return new worker
+     * @exception OrekitException if the worker cannot be created
+     */
+    abstract W createWorker() throws OrekitException;
+
+    /** Process one item.
+     * @param worker worker to use
+     * @param index index of the item
+     * @exception OrekitException if the item cannot be processed
+     */
+    abstract void process(W worker, int index) throws OrekitException;
+
+    /** Wait until an item can be started.
+     * <p>
+     * The default implementation returns true immediately.
+     * </p>
+     * @param index index of the item
+     * @return false if the run has been aborted
+     * @exception OrekitException if the wait is interrupted
+     */
+    boolean waitForSlot(final int index) throws OrekitException {
+        return true;
+    }
+
+    /** Notify that the run is aborted because some worker did not complete.
+     * <p>
+     * The default implementation does nothing.
+     * </p>
+     */
+    void abort() {
+        // nothing to do by default
+    }
+
+    /** Task running all items using one worker per pool thread. */
+    private class RunTask extends RecursiveAction {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170601L;
+
+        /** First worker, already created. */
+        private final transient W first;
+
+        /** Number of items. */
+        private final int size;
+
+        /** Simple constructor.
+         * @param first first worker, already created
+         * @param size number of items
+         */
+        RunTask(final W first, final int size) {
+            this.first = first;
+            this.size  = size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+
+            final AtomicInteger nextIndex = new AtomicInteger(0);
+            final AtomicBoolean failed    = new AtomicBoolean(false);
+
+            final int nbWorkers = FastMath.min(getPool().getParallelism(), size);
+            final List<WorkerTask> tasks = new ArrayList<WorkerTask>(nbWorkers);
+            for (int i = 0; i < nbWorkers; ++i) {
+                tasks.add(new WorkerTask(i == 0 ? first : null, nextIndex, failed, size));
+            }
+            invokeAll(tasks);
+
+        }
+
+    }
+
+    /** Task for one worker, pulling items until none remain. */
+    private class WorkerTask extends RecursiveAction {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20170601L;
+
+        /** Worker (null if it must be created by the task). */
+        private transient W worker;
+
+        /** Index of the next item to process. */
+        private final AtomicInteger nextIndex;
+
+        /** Indicator for failures in other workers. */
+        private final AtomicBoolean failed;
+
+        /** Number of items. */
+        private final int size;
+
+        /** Simple constructor.
+         * @param worker worker (null if it must be created by the task)
+         * @param nextIndex index of the next item to process
+         * @param failed indicator for failures in other workers
+         * @param size number of items
+         */
+        WorkerTask(final W worker, final AtomicInteger nextIndex, final AtomicBoolean failed,
+                   final int size) {
+            this.worker    = worker;
+            this.nextIndex = nextIndex;
+            this.failed    = failed;
+            this.size      = size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            boolean completed = false;
+            try {
+                if (worker == null) {
+                    worker = createWorker();
+                }
+                for (int i = nextIndex.getAndIncrement();
+                     i < size && !failed.get() && waitForSlot(i);
+                     i = nextIndex.getAndIncrement()) {
+                    process(worker, i);
+                }
+                completed = true;
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            } finally {
+                if (!completed) {
+                    // other workers may be waiting for an item that will never be processed
+                    failed.set(true);
+                    abort();
+                }
+            }
+        }
+
+    }
+
+}
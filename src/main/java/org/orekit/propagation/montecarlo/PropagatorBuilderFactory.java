@@ -0,0 +1,41 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.conversion.PropagatorBuilder;
+
+/** Factory for propagator builders used by {@link MonteCarloEngine}.
+ * <p>
+ * As building propagators changes the values of the {@link
+ * org.orekit.utils.ParameterDriver parameters drivers} of the builder and of its
+ * force models, builders cannot be shared between threads. The engine therefore
+ * calls this factory once for each worker thread, and each call must return a
+ * builder with its own force models instances, all configured identically.
+ * </p>
+ * @since 9.0
+ */
+@FunctionalInterface
+public interface PropagatorBuilderFactory {
+
+    /** Create a new propagator builder with nominal settings.
+     * @return new propagator builder
+     * @exception OrekitException if builder cannot be created
+     */
+    PropagatorBuilder createBuilder() throws OrekitException;
+
+}
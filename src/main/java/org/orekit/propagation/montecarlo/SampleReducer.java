@@ -0,0 +1,59 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.List;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** Reducer for Monte Carlo samples states at target dates.
+ * <p>
+ * Reducers are called by {@link MonteCarloEngine} sequentially and in
+ * increasing samples indices order, regardless of the order in which the
+ * worker threads complete the samples. Implementations therefore do not need to
+ * be thread-safe, and floating point accumulations are exactly reproducible
+ * from one run to another with the same seed.
+ * </p>
+ * @since 9.0
+ */
+public interface SampleReducer {
+
+    /** Initialize reducer at the start of a Monte Carlo run.
+     * <p>
+     * The default method does nothing
+     * </p>
+     * @param samples number of samples in the run
+     * @param targetDates target dates at which states are reduced
+     * @exception OrekitException if reducer cannot be initialized
+     */
+    default void init(int samples, List<AbsoluteDate> targetDates) throws OrekitException {
+        // nothing by default
+    }
+
+    /** Reduce one sample.
+     * @param sampleIndex index of the sample
+     * @param dispersions dispersions applied to the sample parameters,
+     * in dispersions registration order
+     * @param states states of the sample at the target dates
+     * @exception OrekitException if sample cannot be reduced
+     */
+    void reduce(int sampleIndex, double[] dispersions, List<SpacecraftState> states)
+        throws OrekitException;
+
+}
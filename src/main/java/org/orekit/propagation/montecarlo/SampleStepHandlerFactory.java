@@ -0,0 +1,47 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+
+/** Factory for step handlers attached to each Monte Carlo sample.
+ * <p>
+ * The handlers are called from the worker threads, samples being processed
+ * in no particular order, so handlers sharing data must be thread-safe.
+ * </p>
+ * @since 9.0
+ */
+@FunctionalInterface
+public interface SampleStepHandlerFactory {
+
+    /** Create a step handler for one sample.
+     * <p>
+     * If several target dates are used, the handler {@link
+     * OrekitStepHandler#init(org.orekit.propagation.SpacecraftState,
+     * org.orekit.time.AbsoluteDate) init} method is called at the start
+     * of each propagation leg between consecutive target dates.
+     * </p>
+     * @param sampleIndex index of the sample
+     * @param dispersions dispersions applied to the sample parameters,
+     * in dispersions registration order
+     * @return step handler for the sample (may be null if sample does not need a step handler)
+     * @exception OrekitException if handler cannot be created
+     */
+    OrekitStepHandler createHandler(int sampleIndex, double[] dispersions) throws OrekitException;
+
+}
@@ -0,0 +1,78 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.hipparchus.stat.descriptive.StatisticalSummary;
+import org.hipparchus.stat.descriptive.StreamingStatistics;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** Reducer computing streaming statistics of a scalar quantity at each target date.
+ * <p>
+ * Only aggregated values (mean, variance, extrema...) are stored, so memory
+ * consumption does not depend on the number of samples.
+ * </p>
+ * @since 9.0
+ */
+public class StatisticsReducer implements SampleReducer {
+
+    /** Function extracting the scalar quantity from states. */
+    private final ToDoubleFunction<SpacecraftState> function;
+
+    /** Statistics at each target date. */
+    private final List<StreamingStatistics> statistics;
+
+    /** Simple constructor.
+     * @param function function extracting the scalar quantity from states
+     * (for example {@code s -> s.getA()})
+     */
+    public StatisticsReducer(final ToDoubleFunction<SpacecraftState> function) {
+        this.function   = function;
+        this.statistics = new ArrayList<StreamingStatistics>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final int samples, final List<AbsoluteDate> targetDates) {
+        statistics.clear();
+        for (int i = 0; i < targetDates.size(); ++i) {
+            statistics.add(new StreamingStatistics());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reduce(final int sampleIndex, final double[] dispersions,
+                       final List<SpacecraftState> states) {
+        for (int i = 0; i < states.size(); ++i) {
+            statistics.get(i).addValue(function.applyAsDouble(states.get(i)));
+        }
+    }
+
+    /** Get the statistics at one target date.
+     * @param dateIndex index of the target date
+     * @return statistics at the target date
+     */
+    public StatisticalSummary getStatistics(final int dateIndex) {
+        return statistics.get(dateIndex).getSummary();
+    }
+
+}
@@ -0,0 +1,415 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.ode.nonstiff.RungeKuttaIntegrator;
+import org.hipparchus.util.FastMath;
+import org.orekit.attitudes.Attitude;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.forces.SharedEnvironmentCache;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.conversion.PropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
+
+/** Covariance propagation using the unscented transform.
+ * <p>
+ * The initial uncertainty is described by a covariance on the Cartesian position
+ * and velocity of an initial state, optionally extended with the {@link
+ * PropagatorBuilder#getPropagationParametersDrivers() propagation parameters}
+ * that are {@link ParameterDriver#isSelected() selected} in the builder (for
+ * example drag or radiation pressure coefficients). The 2n+1 sigma points of the
+ * scaled unscented transform are propagated through the full nonlinear dynamics
+ * of propagators built by the builders, and the mean and covariance are
+ * reconstructed at each target date.
+ * </p>
+ * <p>
+ * Sigma points are propagated by a fork-join {@link #setPool(ForkJoinPool) pool}
+ * in the same way as in {@link MonteCarloEngine}, each worker using its own builder.
+ * When builders are {@link NumericalPropagatorBuilder numerical propagators builders}
+ * with fixed step integrators, sigma points are evaluated at the same dates, so by
+ * default a {@link SharedEnvironmentCache} is bound to all workers during the propagation
+ * and frames transforms and ephemerides needed by force models are computed only once for
+ * all sigma points. With adaptive step size integrators, dates almost never match and
+ * sharing is disabled by default, it can be forced using {@link #setCacheSize(int)}.
+ * </p>
+ * <p>
+ * The sigma points use the scaled unscented transform parameters α, β and κ. The
+ * default values α = 1, β = 2, κ = 0 give a zero weight to the central point in the
+ * mean and ensure all covariance weights are positive.
+ * </p>
+ * @see MonteCarloEngine
+ * @since 9.0
+ */
+public class UnscentedCovariancePropagator {
+
+    /** Default maximum number of entries in the shared environment cache. */
+    public static final int DEFAULT_CACHE_SIZE = 100000;
+
+    /** Factory for per-worker propagator builders. */
+    private final PropagatorBuilderFactory factory;
+
+    /** Spread parameter α. */
+    private final double alpha;
+
+    /** Prior knowledge parameter β. */
+    private final double beta;
+
+    /** Secondary scaling parameter κ. */
+    private final double kappa;
+
+    /** Pool for parallel propagation (null for sequential propagation). */
+    private ForkJoinPool pool;
+
+    /** Maximum number of entries in the shared environment cache (negative for automatic setting). */
+    private int cacheSize;
+
+    /** Simple constructor with default unscented transform parameters.
+     * @param factory factory for propagator builders, called once for each worker
+     */
+    public UnscentedCovariancePropagator(final PropagatorBuilderFactory factory) {
+        this(factory, 1.0, 2.0, 0.0);
+    }
+
+    /** Simple constructor.
+     * @param factory factory for propagator builders, called once for each worker
+     * @param alpha spread parameter α of the sigma points
+     * @param beta prior knowledge parameter β (2 is optimal for Gaussian distributions)
+     * @param kappa secondary scaling parameter κ
+     */
+    public UnscentedCovariancePropagator(final PropagatorBuilderFactory factory,
+                                         final double alpha, final double beta, final double kappa) {
+        this.factory   = factory;
+        this.alpha     = alpha;
+        this.beta      = beta;
+        this.kappa     = kappa;
+        this.pool      = null;
+        this.cacheSize = -1;
+    }
+
+    /** Set the pool for parallel propagation.
+     * @param pool pool to use for parallel propagation (null for sequential propagation)
+     */
+    public void setPool(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Set the maximum number of entries in the shared environment cache.
+     * <p>
+     * By default, the cache size is set automatically: {@link #DEFAULT_CACHE_SIZE}
+     * if builders are {@link NumericalPropagatorBuilder numerical propagators builders}
+     * with fixed step integrators, 0 otherwise.
+     * </p>
+     * @param cacheSize maximum number of entries in the shared environment cache
+     * (0 disables sharing between sigma points, negative values restore automatic setting)
+     */
+    public void setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /** Propagate a covariance.
+     * <p>
+     * The covariance is factored on its correlation matrix with rank detection,
+     * so it may mix very different scales and may be only semi-definite.
+     * If the {@link org.orekit.forces.gravity.NewtonianAttraction#CENTRAL_ATTRACTION_COEFFICIENT
+     * central attraction coefficient} is a selected propagation parameter, each sigma
+     * point orbit uses its own value of the coefficient.
+     * </p>
+     * @param initialState initial state, considered as the mean
+     * @param covariance initial covariance on Cartesian position and velocity in
+     * the frame of the initial state, followed by the selected propagation parameters
+     * @param targetDates target dates at which mean and covariance are reconstructed
+     * @return mean and covariance at target dates
+     * @exception OrekitException if sigma points cannot be propagated
+     * @exception org.hipparchus.exception.MathIllegalArgumentException if covariance
+     * is not positive semi-definite
+     */
+    public UnscentedPropagationResult propagate(final SpacecraftState initialState,
+                                                final RealMatrix covariance,
+                                                final List<AbsoluteDate> targetDates)
+        throws OrekitException {
+
+        final List<AbsoluteDate> dates = Collections.unmodifiableList(new ArrayList<AbsoluteDate>(targetDates));
+
+        // the first worker also provides the nominal values of propagation parameters
+        final Worker first = new Worker(factory.createBuilder());
+        final int n = 6 + first.drivers.length;
+        if (covariance.getRowDimension() != n || covariance.getColumnDimension() != n) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     covariance.getRowDimension(), n);
+        }
+
+        // unscented transform weights
+        final double lambda = alpha * alpha * (n + kappa) - n;
+        final double wm0    = lambda / (n + lambda);
+        final double wc0    = wm0 + 1 - alpha * alpha + beta;
+        final double wi     = 0.5 / (n + lambda);
+
+        // sigma points
+        final Frame frame = initialState.getFrame();
+        final PVCoordinates pv = initialState.getPVCoordinates();
+        final double[] mean = new double[n];
+        System.arraycopy(pv.getPosition().toArray(), 0, mean, 0, 3);
+        System.arraycopy(pv.getVelocity().toArray(), 0, mean, 3, 3);
+        System.arraycopy(first.nominal, 0, mean, 6, first.nominal.length);
+        final RealMatrix root = CovarianceSquareRoot.squareRoot(covariance).scalarMultiply(FastMath.sqrt(n + lambda));
+        final double[][] sigmaPoints = new double[2 * n + 1][];
+        sigmaPoints[0] = mean.clone();
+        for (int j = 0; j < n; ++j) {
+            sigmaPoints[j + 1]     = mean.clone();
+            sigmaPoints[j + 1 + n] = mean.clone();
+            for (int i = 0; i < n; ++i) {
+                sigmaPoints[j + 1][i]     += root.getEntry(i, j);
+                sigmaPoints[j + 1 + n][i] -= root.getEntry(i, j);
+            }
+        }
+
+        // propagate sigma points
+        final double[][][] propagated = new double[sigmaPoints.length][][];
+        final double[]     runtimes   = new double[sigmaPoints.length];
+        final int size = cacheSize >= 0 ? cacheSize : automaticCacheSize(first.builder, initialState);
+        final SharedEnvironmentCache cache = size > 0 ? new SharedEnvironmentCache(size) : null;
+        final Batch batch = new Batch(initialState, sigmaPoints, dates, cache, propagated, runtimes);
+        if (pool == null) {
+            final SharedEnvironmentCache previous = cache == null ? null : cache.bind();
+            try {
+                for (int k = 0; k < sigmaPoints.length; ++k) {
+                    first.processSigmaPoint(k, batch);
+                }
+            } finally {
+                if (cache != null) {
+                    SharedEnvironmentCache.restore(previous);
+                }
+            }
+        } else {
+            new ParallelRunner<Worker>() {
+
+                /** {@inheritDoc} */
+                @Override
+                Worker createWorker() throws OrekitException {
+                    return new Worker(factory.createBuilder());
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                void process(final Worker worker, final int index) throws OrekitException {
+                    final SharedEnvironmentCache previous = cache == null ? null : cache.bind();
+                    try {
+                        worker.processSigmaPoint(index, batch);
+                    } finally {
+                        if (cache != null) {
+                            SharedEnvironmentCache.restore(previous);
+                        }
+                    }
+                }
+
+            }.run(pool, first, sigmaPoints.length);
+        }
+
+        // reconstruct mean and covariance, in sigma points order
+        final List<RealVector> means       = new ArrayList<RealVector>(dates.size());
+        final List<RealMatrix> covariances = new ArrayList<RealMatrix>(dates.size());
+        for (int d = 0; d < dates.size(); ++d) {
+            final double[] m = new double[n];
+            for (int k = 0; k < propagated.length; ++k) {
+                final double w = k == 0 ? wm0 : wi;
+                for (int i = 0; i < n; ++i) {
+                    m[i] += w * propagated[k][d][i];
+                }
+            }
+            final double[][] c     = new double[n][n];
+            final double[]   delta = new double[n];
+            for (int k = 0; k < propagated.length; ++k) {
+                final double w = k == 0 ? wc0 : wi;
+                for (int i = 0; i < n; ++i) {
+                    delta[i] = propagated[k][d][i] - m[i];
+                }
+                for (int i = 0; i < n; ++i) {
+                    for (int j = 0; j < n; ++j) {
+                        c[i][j] += w * delta[i] * delta[j];
+                    }
+                }
+            }
+            means.add(new ArrayRealVector(m, false));
+            covariances.add(MatrixUtils.createRealMatrix(c));
+        }
+
+        return new UnscentedPropagationResult(frame, dates,
+                                              Collections.unmodifiableList(means),
+                                              Collections.unmodifiableList(covariances),
+                                              runtimes);
+
+    }
+
+    /** Select the shared environment cache size automatically.
+     * <p>
+     * Sharing is useful only when all sigma points are evaluated at the same
+     * dates, which is the case only with fixed step integrators.
+     * </p>
+     * @param builder propagator builder
+     * @param initialState initial state
+     * @return {@link #DEFAULT_CACHE_SIZE} if builder uses a fixed step integrator, 0 otherwise
+     * @exception OrekitException if integrator cannot be built
+     */
+    private static int automaticCacheSize(final PropagatorBuilder builder, final SpacecraftState initialState)
+        throws OrekitException {
+        if (builder instanceof NumericalPropagatorBuilder) {
+            final NumericalPropagatorBuilder numerical = (NumericalPropagatorBuilder) builder;
+            if (numerical.getIntegratorBuilder().buildIntegrator(initialState.getOrbit(),
+                                                                 numerical.getOrbitType())
+                    instanceof RungeKuttaIntegrator) {
+                return DEFAULT_CACHE_SIZE;
+            }
+        }
+        return 0;
+    }
+
+    /** Sigma points batch shared by all workers. */
+    private static class Batch {
+
+        /** Initial state. */
+        private final SpacecraftState initialState;
+
+        /** Sigma points. */
+        private final double[][] sigmaPoints;
+
+        /** Target dates. */
+        private final List<AbsoluteDate> dates;
+
+        /** Cache shared between sigma points (null if sharing is disabled). */
+        private final SharedEnvironmentCache cache;
+
+        /** Propagated sigma points, indexed by sigma point then by target date. */
+        private final double[][][] propagated;
+
+        /** Propagation runtime for each sigma point (s). */
+        private final double[] runtimes;
+
+        /** Simple constructor.
+         * @param initialState initial state
+         * @param sigmaPoints sigma points
+         * @param dates target dates
+         * @param cache cache shared between sigma points (null if sharing is disabled)
+         * @param propagated propagated sigma points (filled up by workers)
+         * @param runtimes propagation runtime for each sigma point (filled up by workers)
+         */
+        Batch(final SpacecraftState initialState, final double[][] sigmaPoints,
+              final List<AbsoluteDate> dates, final SharedEnvironmentCache cache,
+              final double[][][] propagated, final double[] runtimes) {
+            this.initialState = initialState;
+            this.sigmaPoints  = sigmaPoints;
+            this.dates        = dates;
+            this.cache        = cache;
+            this.propagated   = propagated;
+            this.runtimes     = runtimes;
+        }
+
+    }
+
+    /** Worker processing sigma points with its own builder. */
+    private static class Worker {
+
+        /** Propagator builder. */
+        private final PropagatorBuilder builder;
+
+        /** Drivers of the selected propagation parameters. */
+        private final ParameterDriver[] drivers;
+
+        /** Nominal values of the selected propagation parameters. */
+        private final double[] nominal;
+
+        /** Simple constructor.
+         * @param builder propagator builder dedicated to this worker
+         */
+        Worker(final PropagatorBuilder builder) {
+            final List<ParameterDriver> selected = new ArrayList<ParameterDriver>();
+            for (final ParameterDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+                if (driver.isSelected()) {
+                    selected.add(driver);
+                }
+            }
+            this.builder = builder;
+            this.drivers = selected.toArray(new ParameterDriver[selected.size()]);
+            this.nominal = new double[drivers.length];
+            for (int i = 0; i < drivers.length; ++i) {
+                nominal[i] = drivers[i].getValue();
+            }
+        }
+
+        /** Process one sigma point.
+         * @param index index of the sigma point
+         * @param batch sigma points batch
+         * @exception OrekitException if sigma point cannot be propagated
+         */
+        public void processSigmaPoint(final int index, final Batch batch)
+            throws OrekitException {
+
+            final long start = System.nanoTime();
+            final double[] point = batch.sigmaPoints[index];
+
+            // build propagator with the sigma point propagation parameters
+            for (int i = 0; i < drivers.length; ++i) {
+                drivers[i].setValue(point[6 + i]);
+            }
+            final Propagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+
+            // set up the sigma point initial state, using the central attraction
+            // coefficient of the built propagator, which may be a sigma point parameter
+            final SpacecraftState initialState = batch.initialState;
+            final Orbit orbit = new CartesianOrbit(new PVCoordinates(new Vector3D(point[0], point[1], point[2]),
+                                                                     new Vector3D(point[3], point[4], point[5])),
+                                                   initialState.getFrame(), initialState.getDate(),
+                                                   propagator.getInitialState().getMu());
+            final Attitude attitude = propagator.getAttitudeProvider().getAttitude(orbit, orbit.getDate(),
+                                                                                  orbit.getFrame());
+            propagator.resetInitialState(new SpacecraftState(orbit, attitude, initialState.getMass()));
+
+            // propagate to all target dates
+            final double[][] results = new double[batch.dates.size()][point.length];
+            for (int d = 0; d < results.length; ++d) {
+                final PVCoordinates pv = propagator.propagate(batch.dates.get(d)).getPVCoordinates(orbit.getFrame());
+                System.arraycopy(pv.getPosition().toArray(), 0, results[d], 0, 3);
+                System.arraycopy(pv.getVelocity().toArray(), 0, results[d], 3, 3);
+                System.arraycopy(point, 6, results[d], 6, drivers.length);
+            }
+
+            batch.propagated[index] = results;
+            batch.runtimes[index]   = 1.0e-9 * (System.nanoTime() - start);
+
+        }
+
+    }
+
+}
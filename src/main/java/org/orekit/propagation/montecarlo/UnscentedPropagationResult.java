@@ -0,0 +1,131 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Container for the results of an {@link UnscentedCovariancePropagator unscented propagation}.
+ * <p>
+ * The mean and covariance at each target date are expressed on the same variables
+ * as the initial covariance: Cartesian position and velocity in the frame of the
+ * initial state, followed by the selected propagation parameters.
+ * </p>
+ * @since 9.0
+ */
+public class UnscentedPropagationResult {
+
+    /** Frame in which positions and velocities are expressed. */
+    private final Frame frame;
+
+    /** Target dates. */
+    private final List<AbsoluteDate> dates;
+
+    /** Means at target dates. */
+    private final List<RealVector> means;
+
+    /** Covariances at target dates. */
+    private final List<RealMatrix> covariances;
+
+    /** Propagation runtime for each sigma point (s). */
+    private final double[] runtimes;
+
+    /** Simple constructor.
+     * @param frame frame in which positions and velocities are expressed
+     * @param dates target dates
+     * @param means means at target dates
+     * @param covariances covariances at target dates
+     * @param runtimes propagation runtime for each sigma point (s)
+     */
+    UnscentedPropagationResult(final Frame frame, final List<AbsoluteDate> dates,
+                               final List<RealVector> means, final List<RealMatrix> covariances,
+                               final double[] runtimes) {
+        this.frame       = frame;
+        this.dates       = dates;
+        this.means       = means;
+        this.covariances = covariances;
+        this.runtimes    = runtimes;
+    }
+
+    /** Get the target dates.
+     * @return target dates
+     */
+    public List<AbsoluteDate> getDates() {
+        return dates;
+    }
+
+    /** Get the mean at one target date.
+     * @param dateIndex index of the target date
+     * @return mean at target date
+     */
+    public RealVector getMean(final int dateIndex) {
+        return means.get(dateIndex).copy();
+    }
+
+    /** Get the mean position-velocity at one target date.
+     * @param dateIndex index of the target date
+     * @return mean position-velocity at target date, in the frame of the initial state
+     */
+    public TimeStampedPVCoordinates getMeanPVCoordinates(final int dateIndex) {
+        final RealVector mean = means.get(dateIndex);
+        return new TimeStampedPVCoordinates(dates.get(dateIndex),
+                                            new Vector3D(mean.getEntry(0), mean.getEntry(1), mean.getEntry(2)),
+                                            new Vector3D(mean.getEntry(3), mean.getEntry(4), mean.getEntry(5)));
+    }
+
+    /** Get the frame in which positions and velocities are expressed.
+     * @return frame in which positions and velocities are expressed
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /** Get the covariance at one target date.
+     * @param dateIndex index of the target date
+     * @return covariance at target date
+     */
+    public RealMatrix getCovariance(final int dateIndex) {
+        return covariances.get(dateIndex).copy();
+    }
+
+    /** Get the number of sigma points.
+     * @return number of sigma points
+     */
+    public int getSigmaPointsNumber() {
+        return runtimes.length;
+    }
+
+    /** Get the propagation runtimes of sigma points.
+     * <p>
+     * The runtimes include building the propagator and propagating
+     * the sigma point to all target dates. The first sigma point is
+     * the mean, the other ones are the symmetric points in the order
+     * of the covariance square root columns.
+     * </p>
+     * @return propagation runtime for each sigma point (s)
+     */
+    public double[] getRuntimes() {
+        return runtimes.clone();
+    }
+
+}
@@ -0,0 +1,37 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * This package provides tools propagating uncertainties through nonlinear
+ * dynamics: a Monte Carlo engine running many propagations from dispersed
+ * initial orbits and force models parameters, and an unscented transform
+ * covariance propagator using a small deterministic set of sigma points.
+ *
+ * <p>
+ * Propagators are built using {@link org.orekit.propagation.conversion.PropagatorBuilder
+ * propagator builders}, and dispersions are applied to the {@link
+ * org.orekit.utils.ParameterDriver parameters drivers} they expose. Samples are
+ * propagated in parallel, and results are streamed either to per-sample step handlers
+ * or to {@link org.orekit.propagation.montecarlo.SampleReducer reducers} that
+ * accumulate statistics at target dates, so the trajectories of all samples never
+ * need to be kept in memory.
+ * </p>
+ *
+ * @since 9.0
+ *
+ */
+package org.orekit.propagation.montecarlo;
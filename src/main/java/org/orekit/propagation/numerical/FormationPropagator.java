@@ -0,0 +1,725 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.numerical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.ExpandableODE;
+import org.hipparchus.ode.ODEIntegrator;
+import org.hipparchus.ode.ODEState;
+import org.hipparchus.ode.ODEStateAndDerivative;
+import org.hipparchus.ode.OrdinaryDifferentialEquation;
+import org.hipparchus.ode.events.Action;
+import org.hipparchus.ode.events.ODEEventHandler;
+import org.hipparchus.ode.sampling.ODEStateInterpolator;
+import org.hipparchus.ode.sampling.ODEStepHandler;
+import org.hipparchus.util.Precision;
+import org.orekit.attitudes.Attitude;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.sampling.OrekitFixedStepHandler;
+import org.orekit.time.AbsoluteDate;
+
+/** Numerical propagator for several spacecraft integrated together.
+ * <p>
+ * This propagator integrates the motion of all the members of a formation
+ * or constellation in one single ODE system, using one integrator. All members
+ * are therefore always evaluated at the same dates, and consecutively: environment
+ * quantities that are cached by date (frames transforms, celestial bodies
+ * ephemerides, atmosphere inputs ...) are computed for the first member and
+ * reused by all the other ones through an {@link EnvironmentContext}, instead of
+ * being recomputed by independent propagators running at slightly different dates.
+ * </p>
+ * <p>
+ * Each member has its own initial state, attitude provider and force models. The
+ * {@link NewtonianAttraction central attraction} corresponding to the initial orbit is
+ * added automatically to the force models. The {@link ForceModel#getEventsDetectors()
+ * events detectors} of the force models (maneuvers firing, eclipses ...) are registered
+ * with the integrator, each one seeing only the state of its own member. As these
+ * detectors may hold per-trajectory state, each member needs its own instances of force
+ * models that have events detectors, and sharing them between members is rejected.
+ * Force models without events detectors, like gravity fields, can be shared.
+ * The state of each member is integrated in {@link OrbitType#CARTESIAN Cartesian}
+ * parameters (seven elements including mass), in the frame of the first member, so
+ * all members must share the same initial date and the same frame. Additional states
+ * are not propagated.
+ * </p>
+ * <p>
+ * As the step size is shared, adaptive stepsize integrators control the error on all
+ * members at once, so the step sizes are driven by the member with the most demanding
+ * dynamics. The integrator tolerances must have seven elements per member, in members
+ * order (see {@link #tolerances(double)}).
+ * </p>
+ * <p>
+ * Per-member sampling is available using {@link #addFixedStepHandler(int, double,
+ * OrekitFixedStepHandler)}, which provides each handler with {@link SpacecraftState}
+ * instances for its own member.
+ * </p>
+ * <p>
+ * After a propagation, the initial states of all members are reset to the propagated
+ * states, so a new propagation continues from there.
+ * </p>
+ * @see NumericalPropagator
+ * @since 9.0
+ */
+public class FormationPropagator {
+
+    /** Number of state vector elements per member. */
+    private static final int MEMBER_DIMENSION = 7;
+
+    /** Integrator shared by all members. */
+    private final ODEIntegrator integrator;
+
+    /** Formation members. */
+    private final List<Member> members;
+
+    /** Fixed step samplers. */
+    private final List<FixedStepSampler> samplers;
+
+    /** Counter for differential equations calls. */
+    private int calls;
+
+    /** Environment context shared by all members, reused for all evaluations. */
+    private final EnvironmentContext environment;
+
+    /** Simple constructor.
+     * @param integrator numerical integrator shared by all members
+     */
+    public FormationPropagator(final ODEIntegrator integrator) {
+        this.integrator  = integrator;
+        this.members     = new ArrayList<Member>();
+        this.samplers    = new ArrayList<FixedStepSampler>();
+        this.environment = new EnvironmentContext();
+    }
+
+    /** Add a member to the formation.
+     * @param initialState initial state of the member
+     * @param attitudeProvider attitude provider for the member
+     * @param forceModels perturbing force models for the member (the central
+     * attraction is added automatically)
+     * @return index of the member in the formation
+     * @exception OrekitException if the initial state is not consistent
+     * with the states of already registered members, or if a force model
+     * with events detectors is already used by another member
+     */
+    public int addMember(final SpacecraftState initialState, final AttitudeProvider attitudeProvider,
+                         final List<ForceModel> forceModels)
+        throws OrekitException {
+
+        if (!members.isEmpty()) {
+            final SpacecraftState first = members.get(0).state;
+            if (!initialState.getDate().equals(first.getDate())) {
+                throw new OrekitException(OrekitMessages.FORMATION_MEMBER_DATE_MISMATCH,
+                                          initialState.getDate(), members.size(), first.getDate());
+            }
+            if (initialState.getFrame() != first.getFrame()) {
+                throw new OrekitException(OrekitMessages.FRAMES_MISMATCH,
+                                          initialState.getFrame().getName(), first.getFrame().getName());
+            }
+        }
+        if (initialState.getMass() <= 0.0) {
+            throw new OrekitException(OrekitMessages.SPACECRAFT_MASS_BECOMES_NEGATIVE,
+                                      initialState.getMass());
+        }
+        for (final ForceModel forceModel : forceModels) {
+            if (forceModel.getEventsDetectors().findAny().isPresent()) {
+                for (int i = 0; i < members.size(); ++i) {
+                    if (members.get(i).uses(forceModel)) {
+                        throw new OrekitException(OrekitMessages.FORMATION_SHARED_FORCE_MODEL, i);
+                    }
+                }
+            }
+        }
+
+        members.add(new Member(members.size(), initialState, attitudeProvider, forceModels));
+        return members.size() - 1;
+
+    }
+
+    /** Get the number of members in the formation.
+     * @return number of members in the formation
+     */
+    public int getMembersNumber() {
+        return members.size();
+    }
+
+    /** Get the current initial state of a member.
+     * @param member index of the member
+     * @return current initial state of the member
+     */
+    public SpacecraftState getInitialState(final int member) {
+        return members.get(member).state;
+    }
+
+    /** Add a fixed step handler for one member.
+     * @param member index of the member
+     * @param h fixed step size (s)
+     * @param handler handler called at fixed steps with the state of the member
+     */
+    public void addFixedStepHandler(final int member, final double h, final OrekitFixedStepHandler handler) {
+        samplers.add(new FixedStepSampler(members.get(member), h, handler));
+    }
+
+    /** Get the number of calls to the differential equations computation method.
+     * <p>
+     * Each call corresponds to one evaluation of the derivatives of all members.
+     * </p>
+     * @return number of calls to the differential equations computation method
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /** Get the environment context shared by all members during derivatives evaluations.
+     * <p>
+     * The context counters allow to monitor how many environment computations
+     * were saved by sharing quantities between members and force models.
+     * </p>
+     * @return environment context
+     */
+    public EnvironmentContext getEnvironmentContext() {
+        return environment;
+    }
+
+    /** Estimate tolerance vectors for the whole formation.
+     * <p>
+     * The tolerances are estimated for each member by {@link
+     * NumericalPropagator#tolerances(double, Orbit, OrbitType)} in
+     * {@link OrbitType#CARTESIAN Cartesian} parameters, and concatenated.
+     * </p>
+     * @param dP user specified position error
+     * @return a two rows array, row 0 being the absolute tolerance error and row 1
+     * being the relative tolerance error
+     * @exception OrekitException if Jacobian is singular
+     */
+    public double[][] tolerances(final double dP) throws OrekitException {
+        final double[][] tolerances = new double[2][MEMBER_DIMENSION * members.size()];
+        for (final Member member : members) {
+            final double[][] t = NumericalPropagator.tolerances(dP, member.state.getOrbit(), OrbitType.CARTESIAN);
+            System.arraycopy(t[0], 0, tolerances[0], member.offset, MEMBER_DIMENSION);
+            System.arraycopy(t[1], 0, tolerances[1], member.offset, MEMBER_DIMENSION);
+        }
+        return tolerances;
+    }
+
+    /** Propagate all members up to a target date.
+     * @param target target date
+     * @return propagated states of all members, in members order
+     * @exception OrekitException if some force model cannot be evaluated
+     */
+    public List<SpacecraftState> propagate(final AbsoluteDate target) throws OrekitException {
+
+        if (members.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final AbsoluteDate initialDate = members.get(0).state.getDate();
+
+        // initialize members
+        final double[] y0 = new double[MEMBER_DIMENSION * members.size()];
+        for (final Member member : members) {
+            member.init(target);
+            member.mapStateToArray(member.state, y0);
+        }
+        for (final FixedStepSampler sampler : samplers) {
+            sampler.init(target);
+        }
+
+        // mathematical integration
+        integrator.clearStepHandlers();
+        if (!samplers.isEmpty()) {
+            integrator.addStepHandler(new SamplersHandler());
+        }
+        integrator.clearEventHandlers();
+        for (final Member member : members) {
+            member.setUpEventsDetectors(integrator, initialDate);
+        }
+        calls = 0;
+        final ODEStateAndDerivative mathFinalState;
+        try {
+            mathFinalState = integrator.integrate(new ExpandableODE(new FormationEquations(initialDate)),
+                                                  new ODEState(0.0, y0),
+                                                  target.durationFrom(initialDate));
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+
+        // get final states
+        final AbsoluteDate finalDate = initialDate.shiftedBy(mathFinalState.getTime());
+        final List<SpacecraftState> finalStates = new ArrayList<SpacecraftState>(members.size());
+        for (final Member member : members) {
+            member.state = member.mapArrayToState(finalDate, mathFinalState.getPrimaryState());
+            finalStates.add(member.state);
+        }
+
+        return finalStates;
+
+    }
+
+    /** Formation member. */
+    private static class Member implements TimeDerivativesEquations {
+
+        /** Offset of the member in the formation state vector. */
+        private final int offset;
+
+        /** Attitude provider. */
+        private final AttitudeProvider attitudeProvider;
+
+        /** Force models, including central attraction as the last one. */
+        private final List<ForceModel> forceModels;
+
+        /** Central attraction coefficient. */
+        private final double mu;
+
+        /** Current initial state. */
+        private SpacecraftState state;
+
+        /** Member state vector. */
+        private final double[] y;
+
+        /** Member derivatives vector. */
+        private final double[] yDot;
+
+        /** Current orbit. */
+        private Orbit orbit;
+
+        /** Simple constructor.
+         * @param index index of the member in the formation
+         * @param initialState initial state
+         * @param attitudeProvider attitude provider
+         * @param forceModels perturbing force models
+         */
+        Member(final int index, final SpacecraftState initialState,
+               final AttitudeProvider attitudeProvider, final List<ForceModel> forceModels) {
+            this.offset           = index * MEMBER_DIMENSION;
+            this.attitudeProvider = attitudeProvider;
+            this.mu               = initialState.getMu();
+            this.forceModels      = new ArrayList<ForceModel>(forceModels);
+            this.forceModels.add(new NewtonianAttraction(mu));
+            this.state            = initialState;
+            this.y                = new double[MEMBER_DIMENSION];
+            this.yDot             = new double[MEMBER_DIMENSION];
+        }
+
+        /** Check if a force model instance is used by this member.
+         * @param forceModel force model to check
+         * @return true if the instance is used by this member
+         */
+        public boolean uses(final ForceModel forceModel) {
+            for (final ForceModel used : forceModels) {
+                if (used == forceModel) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Register the events detectors of the force models with the integrator.
+         * @param integ integrator shared by all members
+         * @param initialDate formation initial date
+         */
+        public void setUpEventsDetectors(final ODEIntegrator integ, final AbsoluteDate initialDate) {
+            for (final ForceModel forceModel : forceModels) {
+                forceModel.getEventsDetectors().forEach(detector ->
+                    integ.addEventHandler(new MemberEventDetector(this, detector, initialDate),
+                                          detector.getMaxCheckInterval(),
+                                          detector.getThreshold(),
+                                          detector.getMaxIterationCount()));
+            }
+        }
+
+        /** Initialize the force models at the start of propagation.
+         * @param target target date
+         * @exception OrekitException if some force model cannot be initialized
+         */
+        public void init(final AbsoluteDate target)
+            throws OrekitException {
+            for (final ForceModel forceModel : forceModels) {
+                forceModel.init(state, target);
+            }
+        }
+
+        /** Map the formation state vector to the member state.
+         * @param date current date
+         * @param formationY formation state vector
+         * @return member state
+         * @exception OrekitException if mass becomes negative or attitude cannot be computed
+         */
+        public SpacecraftState mapArrayToState(final AbsoluteDate date, final double[] formationY)
+            throws OrekitException {
+
+            System.arraycopy(formationY, offset, y, 0, MEMBER_DIMENSION);
+            final double mass = y[MEMBER_DIMENSION - 1];
+            if (mass <= 0.0) {
+                throw new OrekitException(OrekitMessages.SPACECRAFT_MASS_BECOMES_NEGATIVE, mass);
+            }
+
+            final Orbit    o        = OrbitType.CARTESIAN.mapArrayToOrbit(y, PositionAngle.TRUE, date, mu,
+                                                                          state.getFrame());
+            final Attitude attitude = attitudeProvider.getAttitude(o, date, state.getFrame());
+            return new SpacecraftState(o, attitude, mass);
+
+        }
+
+        /** Map the member state to the formation state vector.
+         * @param memberState member state
+         * @param formationY formation state vector to update (only
+         * the slice of this member is changed)
+         */
+        public void mapStateToArray(final SpacecraftState memberState, final double[] formationY) {
+            OrbitType.CARTESIAN.mapOrbitToArray(memberState.getOrbit(), PositionAngle.TRUE, y);
+            y[MEMBER_DIMENSION - 1] = memberState.getMass();
+            System.arraycopy(y, 0, formationY, offset, MEMBER_DIMENSION);
+        }
+
+        /** Compute the member derivatives.
+         * @param date current date
+         * @param formationY formation state vector
+         * @param formationYDot formation derivatives vector to fill
+         * @exception OrekitException if some force model cannot be evaluated
+         */
+        public void computeDerivatives(final AbsoluteDate date, final double[] formationY,
+                                       final double[] formationYDot)
+            throws OrekitException {
+
+            final SpacecraftState current = mapArrayToState(date, formationY);
+            orbit = current.getOrbit();
+            Arrays.fill(yDot, 0.0);
+
+            // compute the contributions of all perturbing forces,
+            // using the Kepler contribution at the end since
+            // NewtonianAttraction is always the last instance in the list
+            for (final ForceModel forceModel : forceModels) {
+                forceModel.addContribution(current, this);
+            }
+
+            System.arraycopy(yDot, 0, formationYDot, offset, MEMBER_DIMENSION);
+
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void addKeplerContribution(final double gm) {
+            orbit.addKeplerContribution(PositionAngle.TRUE, gm, yDot);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void addXYZAcceleration(final double x, final double y, final double z) {
+            // in Cartesian parameters, accelerations are directly the velocity derivatives
+            yDot[3] += x;
+            yDot[4] += y;
+            yDot[5] += z;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void addAcceleration(final Vector3D gamma, final Frame frame)
+            throws OrekitException {
+            final Transform t = EnvironmentContext.getTransform(frame, orbit.getFrame(), orbit.getDate());
+            final Vector3D gammInRefFrame = t.transformVector(gamma);
+            addXYZAcceleration(gammInRefFrame.getX(), gammInRefFrame.getY(), gammInRefFrame.getZ());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void addMassDerivative(final double q) {
+            if (q > 0) {
+                throw new OrekitIllegalArgumentException(OrekitMessages.POSITIVE_FLOW_RATE, q);
+            }
+            yDot[MEMBER_DIMENSION - 1] += q;
+        }
+
+    }
+
+    /** Adapter mapping the formation state to one member for an events detector. */
+    private static class MemberEventDetector implements ODEEventHandler {
+
+        /** Member seen by the detector. */
+        private final Member member;
+
+        /** Underlying events detector. */
+        private final EventDetector detector;
+
+        /** Formation initial date. */
+        private final AbsoluteDate initialDate;
+
+        /** Time of the previous call to g. */
+        private double lastT;
+
+        /** Value from the previous call to g. */
+        private double lastG;
+
+        /** Simple constructor.
+         * @param member member seen by the detector
+         * @param detector underlying events detector
+         * @param initialDate formation initial date
+         */
+        MemberEventDetector(final Member member, final EventDetector detector, final AbsoluteDate initialDate) {
+            this.member      = member;
+            this.detector    = detector;
+            this.initialDate = initialDate;
+            this.lastT       = Double.NaN;
+            this.lastG       = Double.NaN;
+        }
+
+        /** Get the member state.
+         * @param s formation state
+         * @return state of the member
+         * @exception OrekitException if mass becomes negative or attitude cannot be computed
+         */
+        private SpacecraftState memberState(final ODEState s) throws OrekitException {
+            return member.mapArrayToState(initialDate.shiftedBy(s.getTime()), s.getPrimaryState());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void init(final ODEStateAndDerivative s0, final double t) {
+            try {
+                detector.init(memberState(s0), initialDate.shiftedBy(t));
+                lastT = Double.NaN;
+                lastG = Double.NaN;
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double g(final ODEStateAndDerivative s) {
+            try {
+                if (!Precision.equals(lastT, s.getTime(), 0)) {
+                    lastT = s.getTime();
+                    lastG = detector.g(memberState(s));
+                }
+                return lastG;
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Action eventOccurred(final ODEStateAndDerivative s, final boolean increasing) {
+            try {
+                switch (detector.eventOccurred(memberState(s), increasing)) {
+                    case STOP :
+                        return Action.STOP;
+                    case RESET_STATE :
+                        return Action.RESET_STATE;
+                    case RESET_DERIVATIVES :
+                        return Action.RESET_DERIVATIVES;
+                    default :
+                        return Action.CONTINUE;
+                }
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public ODEState resetState(final ODEStateAndDerivative s) {
+            try {
+                // only the slice of the member is reset, other members are unchanged
+                final SpacecraftState newState = detector.resetState(memberState(s));
+                final double[] formationY = s.getPrimaryState().clone();
+                member.mapStateToArray(newState, formationY);
+                return new ODEState(s.getTime(), formationY);
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+    }
+
+    /** Differential equations for the whole formation. */
+    private class FormationEquations implements OrdinaryDifferentialEquation {
+
+        /** Formation initial date. */
+        private final AbsoluteDate initialDate;
+
+        /** Simple constructor.
+         * @param initialDate formation initial date
+         */
+        FormationEquations(final AbsoluteDate initialDate) {
+            this.initialDate = initialDate;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return MEMBER_DIMENSION * members.size();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double[] computeDerivatives(final double t, final double[] y)
+            throws OrekitExceptionWrapper {
+            try {
+
+                // increment calls counter
+                ++calls;
+
+                // all members are evaluated at the same date,
+                // sharing the environment quantities
+                final AbsoluteDate date = initialDate.shiftedBy(t);
+                final double[] yDot = new double[y.length];
+                environment.open(date);
+                try {
+                    for (final Member member : members) {
+                        member.computeDerivatives(date, y, yDot);
+                    }
+                } finally {
+                    environment.close();
+                }
+
+                return yDot;
+
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+    }
+
+    /** Step handler dispatching steps to fixed step samplers. */
+    private class SamplersHandler implements ODEStepHandler {
+
+        /** {@inheritDoc} */
+        @Override
+        public void handleStep(final ODEStateInterpolator interpolator, final boolean isLast)
+            throws OrekitExceptionWrapper {
+            try {
+                final AbsoluteDate initialDate = members.get(0).state.getDate();
+                for (final FixedStepSampler sampler : samplers) {
+                    sampler.handleStep(initialDate, interpolator, isLast);
+                }
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+    }
+
+    /** Fixed step sampler for one member. */
+    private static class FixedStepSampler {
+
+        /** Sampled member. */
+        private final Member member;
+
+        /** Fixed time step. */
+        private final double h;
+
+        /** Underlying fixed step handler. */
+        private final OrekitFixedStepHandler handler;
+
+        /** Last state sent (or to be sent) to the handler. */
+        private SpacecraftState lastState;
+
+        /** Time offset of the last state. */
+        private double lastT;
+
+        /** Simple constructor.
+         * @param member sampled member
+         * @param h fixed time step
+         * @param handler underlying fixed step handler
+         */
+        FixedStepSampler(final Member member, final double h, final OrekitFixedStepHandler handler) {
+            this.member  = member;
+            this.h       = h;
+            this.handler = handler;
+        }
+
+        /** Initialize the sampler at the start of propagation.
+         * @param target target date
+         * @exception OrekitException if the handler cannot be initialized
+         */
+        public void init(final AbsoluteDate target) throws OrekitException {
+            lastState = null;
+            handler.init(member.state, target, h);
+        }
+
+        /** Handle the last accepted step.
+         * @param initialDate formation initial date
+         * @param interpolator interpolator for the last accepted step
+         * @param isLast true if the step is the last one
+         * @exception OrekitException if the state cannot be mapped or the handler fails
+         */
+        public void handleStep(final AbsoluteDate initialDate, final ODEStateInterpolator interpolator,
+                               final boolean isLast)
+            throws OrekitException {
+
+            if (lastState == null) {
+                // initialize lastState in the first step case
+                final ODEStateAndDerivative previous = interpolator.getPreviousState();
+                lastT     = previous.getTime();
+                lastState = member.mapArrayToState(initialDate.shiftedBy(lastT), previous.getPrimaryState());
+            }
+
+            // take the propagation direction into account
+            final boolean forward = interpolator.isForward();
+            final double  step    = forward ? h : -h;
+            final double  currentT = interpolator.getCurrentState().getTime();
+
+            // use the interpolator to push fixed steps events to the underlying handler
+            double nextT = lastT + step;
+            boolean nextInStep = forward ^ (nextT > currentT);
+            while (nextInStep) {
+
+                // output the stored previous step
+                handler.handleStep(lastState, false);
+
+                // store the next step
+                lastT     = nextT;
+                lastState = member.mapArrayToState(initialDate.shiftedBy(nextT),
+                                                   interpolator.getInterpolatedState(nextT).getPrimaryState());
+
+                // prepare next iteration
+                nextT      = lastT + step;
+                nextInStep = forward ^ (nextT > currentT);
+
+            }
+
+            if (isLast) {
+                // there will be no more steps,
+                // the stored one should be flagged as being the last
+                handler.handleStep(lastState, true);
+            }
+
+        }
+
+    }
+
+}
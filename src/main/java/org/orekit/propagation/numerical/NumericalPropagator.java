@@ -32,6 +32,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.EnvironmentContext;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.gravity.NewtonianAttraction;
 import org.orekit.frames.Frame;
@@ -144,6 +145,9 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
     /** Force models used during the extrapolation of the orbit. */
     private final List<ForceModel> forceModels;
 
+    /** Environment context shared by force models, reused for all evaluations. */
+    private final EnvironmentContext environment;
+
     /** Create a new instance of NumericalPropagator, based on orbit definition mu.
      * After creation, the instance is empty, i.e. the attitude provider is set to an
      * unspecified default law and there are no perturbing forces at all.
@@ -158,6 +162,7 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
     public NumericalPropagator(final ODEIntegrator integrator) {
         super(integrator, true);
         forceModels = new ArrayList<ForceModel>();
+        environment = new EnvironmentContext();
         initMapper();
         setAttitudeProvider(DEFAULT_LAW);
         setSlaveMode();
@@ -179,6 +184,17 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         addForceModel(new NewtonianAttraction(mu));
     }
 
+    /** Get the environment context shared by force models during derivatives evaluations.
+     * <p>
+     * The context counters allow to monitor how many environment computations
+     * were saved by sharing quantities between force models.
+     * </p>
+     * @return environment context
+     */
+    public EnvironmentContext getEnvironmentContext() {
+        return environment;
+    }
+
     /** Set the central attraction coefficient μ only in upper class.
      * @param mu central attraction coefficient (m³/s²)
      */
@@ -495,22 +511,38 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
     /** Internal class for osculating parameters integration. */
     private class Main implements MainStateEquations, TimeDerivativesEquations {
 
-        /** Derivatives array. */
+        /** Derivatives array (reused for all evaluations). */
         private final double[] yDot;
 
-        /** Current orbit. */
+        /** Current orbit (null when evaluating from raw Cartesian coordinates). */
         private Orbit orbit;
 
+        /** Current date. */
+        private AbsoluteDate date;
+
+        /** Propagation frame. */
+        private Frame propagationFrame;
+
+        /** Central attraction coefficient of the orbit. */
+        private double orbitMu;
+
+        /** Current raw Cartesian coordinates (null when evaluating from a complete state). */
+        private double[] pv;
+
         /** Jacobian of the orbital parameters with respect to the cartesian parameters. */
         private double[][] jacobian;
 
+        /** Indicator for propagation in Cartesian parameters (identity Jacobian). */
+        private final boolean cartesian;
+
         /** Simple constructor.
          * @param integrator numerical integrator to use for propagation.
          */
         Main(final ODEIntegrator integrator) {
 
-            this.yDot     = new double[7];
-            this.jacobian = new double[6][6];
+            this.yDot      = new double[7];
+            this.jacobian  = new double[6][6];
+            this.cartesian = getOrbitType() == OrbitType.CARTESIAN;
 
             for (final ForceModel forceModel : forceModels) {
                 forceModel.getEventsDetectors().forEach(detector -> setUpEventDetector(integrator, detector));
@@ -522,36 +554,123 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         @Override
         public void init(final SpacecraftState initialState, final AbsoluteDate target)
                 throws OrekitException {
+            propagationFrame = initialState.getFrame();
+            orbitMu          = initialState.getMu();
             for (final ForceModel forceModel : forceModels) {
                 forceModel.init(initialState, target);
             }
         }
 
-        /** {@inheritDoc} */
+        /** {@inheritDoc}
+         * <p>
+         * The returned array is reused by all evaluations. This is safe because
+         * the integrator copies the main state derivatives into the complete
+         * derivatives array before the next evaluation, after the secondary
+         * equations have had a chance to add their own contributions to it.
+         * </p>
+         */
         public double[] computeDerivatives(final SpacecraftState state) throws OrekitException {
 
             orbit = state.getOrbit();
+            date  = state.getDate();
+            pv    = null;
             Arrays.fill(yDot, 0.0);
-            orbit.getJacobianWrtCartesian(getPositionAngleType(), jacobian);
+            if (!cartesian) {
+                orbit.getJacobianWrtCartesian(getPositionAngleType(), jacobian);
+            }
 
             // compute the contributions of all perturbing forces,
             // using the Kepler contribution at the end since
-            // NewtonianAttraction is always the last instance in the list
-            for (final ForceModel forceModel : forceModels) {
-                forceModel.addContribution(state, this);
+            // NewtonianAttraction is always the last instance in the list,
+            // environment quantities being shared between force models
+            environment.open(state.getDate());
+            try {
+                for (final ForceModel forceModel : forceModels) {
+                    forceModel.addContribution(state, this);
+                }
+            } finally {
+                environment.close();
+            }
+
+            return yDot;
+
+        }
+
+        /** {@inheritDoc}
+         * <p>
+         * When propagating in Cartesian parameters, the force models that {@link
+         * ForceModel#dependsOnPositionVelocityOnly() depend only on position, velocity
+         * and mass} are evaluated directly from the raw coordinates, and the complete
+         * state (orbit and attitude) is built only if some other force model needs it.
+         * </p>
+         */
+        @Override
+        public double[] computeDerivatives(final AbsoluteDate currentDate, final double[] y,
+                                           final MainStateSupplier supplier)
+            throws OrekitException {
+
+            if (!cartesian) {
+                // the orbit is needed anyway for the Jacobian
+                return computeDerivatives(supplier.getMainState());
             }
 
-            return yDot.clone();
+            orbit = null;
+            date  = currentDate;
+            pv    = y;
+            Arrays.fill(yDot, 0.0);
+
+            environment.open(date);
+            try {
+                SpacecraftState state = null;
+                for (final ForceModel forceModel : forceModels) {
+                    if (forceModel.dependsOnPositionVelocityOnly()) {
+                        forceModel.addContribution(date, propagationFrame, orbitMu, y, y[6], this);
+                    } else {
+                        if (state == null) {
+                            // build the complete state only once, when first needed
+                            state = supplier.getMainState();
+                        }
+                        forceModel.addContribution(state, this);
+                    }
+                }
+            } finally {
+                environment.close();
+            }
+
+            return yDot;
 
         }
 
         /** {@inheritDoc} */
         public void addKeplerContribution(final double mu) {
-            orbit.addKeplerContribution(getPositionAngleType(), mu, yDot);
+            if (pv == null) {
+                orbit.addKeplerContribution(getPositionAngleType(), mu, yDot);
+                return;
+            }
+
+            // position derivative is velocity
+            yDot[0] += pv[3];
+            yDot[1] += pv[4];
+            yDot[2] += pv[5];
+
+            // velocity derivative is Newtonian acceleration
+            final double r2    = pv[0] * pv[0] + pv[1] * pv[1] + pv[2] * pv[2];
+            final double coeff = -mu / (r2 * FastMath.sqrt(r2));
+            yDot[3] += coeff * pv[0];
+            yDot[4] += coeff * pv[1];
+            yDot[5] += coeff * pv[2];
+
         }
 
         /** {@inheritDoc} */
         public void addXYZAcceleration(final double x, final double y, final double z) {
+            if (cartesian) {
+                // the Jacobian is identity, accelerations are directly the velocity derivatives
+                yDot[3] += x;
+                yDot[4] += y;
+                yDot[5] += z;
+                return;
+            }
             for (int i = 0; i < 6; ++i) {
                 final double[] jRow = jacobian[i];
                 yDot[i] += jRow[3] * x + jRow[4] * y + jRow[5] * z;
@@ -561,7 +680,7 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         /** {@inheritDoc} */
         public void addAcceleration(final Vector3D gamma, final Frame frame)
             throws OrekitException {
-            final Transform t = frame.getTransformTo(orbit.getFrame(), orbit.getDate());
+            final Transform t = frame.getTransformTo(propagationFrame, date);
             final Vector3D gammInRefFrame = t.transformVector(gamma);
             addXYZAcceleration(gammInRefFrame.getX(), gammInRefFrame.getY(), gammInRefFrame.getZ());
         }
@@ -0,0 +1,145 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+
+/** UTC-TAI offsets loader using a {@link DataSnapshotCache binary snapshots cache}.
+ * <p>
+ * This class wraps another loader. When the cache contains a snapshot matching
+ * the current source files, the offsets are read from the memory-mapped snapshot
+ * and the wrapped loader is not used at all. Otherwise, the wrapped loader parses
+ * the source files and a snapshot of the parsed offsets is stored in the cache
+ * for later runs.
+ * </p>
+ * <pre>
+ * TimeScalesFactory.addUTCTAIOffsetsLoader(new CachedUTCTAIOffsetsLoader(cache, "utc-tai",
+ *                                                                        "^UTC-TAI\\.history$",
+ *                                                                        new UTCTAIHistoryFilesLoader()));
+ * </pre>
+ * @see TimeScalesFactory#addUTCTAIOffsetsLoader(UTCTAIOffsetsLoader)
+ * @since 9.0
+ */
+public class CachedUTCTAIOffsetsLoader implements UTCTAIOffsetsLoader {
+
+    /** Number of bytes per offset (four ints and two doubles). */
+    private static final int BYTES_PER_OFFSET = 4 * Integer.BYTES + 2 * Double.BYTES;
+
+    /** Snapshots cache. */
+    private final DataSnapshotCache cache;
+
+    /** Snapshot key. */
+    private final String key;
+
+    /** Regular expression for supported files names. */
+    private final String supportedNames;
+
+    /** Wrapped loader. */
+    private final UTCTAIOffsetsLoader loader;
+
+    /** Simple constructor.
+     * @param cache snapshots cache
+     * @param key snapshot key
+     * @param supportedNames regular expression for supported files names
+     * (must be the same as the one used by the wrapped loader)
+     * @param loader wrapped loader, used when there are no valid snapshots
+     */
+    public CachedUTCTAIOffsetsLoader(final DataSnapshotCache cache, final String key,
+                                     final String supportedNames, final UTCTAIOffsetsLoader loader) {
+        this.cache          = cache;
+        this.key            = key;
+        this.supportedNames = supportedNames;
+        this.loader         = loader;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<OffsetModel> loadOffsets() throws OrekitException {
+
+        final long checksum = cache.checksum(supportedNames);
+
+        final List<OffsetModel> fromSnapshot = readSnapshot(cache.read(key, checksum));
+        if (fromSnapshot != null) {
+            // fast path, use the offsets from the snapshot
+            return fromSnapshot;
+        }
+
+        // slow path, parse the source files
+        final List<OffsetModel> parsed = loader.loadOffsets();
+        cache.write(key, checksum, new DataSnapshotCache.SnapshotWriter() {
+            /** {@inheritDoc} */
+            @Override
+            public void write(final DataOutputStream out) throws IOException {
+                out.writeInt(parsed.size());
+                for (final OffsetModel model : parsed) {
+                    out.writeInt(model.getStart().getYear());
+                    out.writeInt(model.getStart().getMonth());
+                    out.writeInt(model.getStart().getDay());
+                    out.writeInt(model.getMJDRef());
+                    out.writeDouble(model.getOffset());
+                    out.writeDouble(model.getSlope());
+                }
+            }
+        });
+        return parsed;
+
+    }
+
+    /** Read the offsets from a snapshot.
+     * @param snapshot memory-mapped snapshot content (may be null)
+     * @return offsets read, or null if there are no snapshots or if the
+     * snapshot is truncated or corrupted
+     */
+    private List<OffsetModel> readSnapshot(final ByteBuffer snapshot) {
+
+        if (snapshot == null) {
+            return null;
+        }
+
+        try {
+            final int n = snapshot.getInt();
+            if (n < 0 || (long) n * BYTES_PER_OFFSET > snapshot.remaining()) {
+                // this is not a snapshot we can use
+                return null;
+            }
+            final List<OffsetModel> offsets = new ArrayList<OffsetModel>(n);
+            for (int i = 0; i < n; ++i) {
+                final int year   = snapshot.getInt();
+                final int month  = snapshot.getInt();
+                final int day    = snapshot.getInt();
+                final int mjdRef = snapshot.getInt();
+                final double offset = snapshot.getDouble();
+                final double slope  = snapshot.getDouble();
+                offsets.add(new OffsetModel(new DateComponents(year, month, day), mjdRef, offset, slope));
+            }
+            return offsets;
+        } catch (BufferUnderflowException bue) {
+            // the snapshot is truncated, the source files will be parsed again
+            return null;
+        }
+
+    }
+
+}
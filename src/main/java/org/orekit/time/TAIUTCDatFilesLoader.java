@@ -27,8 +27,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hipparchus.util.FastMath;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 
@@ -47,18 +47,34 @@ public class TAIUTCDatFilesLoader implements UTCTAIOffsetsLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for tai-utc.dat file from USNO.
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
      * @param supportedNames regular expression for supported files names
      */
     public TAIUTCDatFilesLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for tai-utc.dat file from USNO.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    public TAIUTCDatFilesLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
     @Override
     public List<OffsetModel> loadOffsets() throws OrekitException {
         final Parser parser = new Parser();
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         return parser.getOffsets();
     }
 
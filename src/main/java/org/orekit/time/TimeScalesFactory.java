@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.orekit.data.DataContext;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.frames.EOPHistory;
@@ -123,8 +124,23 @@ public class TimeScalesFactory implements Serializable {
      * @since 7.1
      */
     public static void addDefaultUTCTAIOffsetsLoaders() {
-        addUTCTAIOffsetsLoader(new TAIUTCDatFilesLoader(TAIUTCDatFilesLoader.DEFAULT_SUPPORTED_NAMES));
-        addUTCTAIOffsetsLoader(new UTCTAIHistoryFilesLoader());
+        addDefaultUTCTAIOffsetsLoaders(DataContext.getDefault());
+    }
+
+    /** Add the default loaders for UTC-TAI offsets history files (both IERS and USNO),
+     * loading files from a specified data context.
+     * <p>
+     * The loaders are the same as the ones set up by {@link #addDefaultUTCTAIOffsetsLoaders()},
+     * but they browse the providers of the specified context instead of the providers of
+     * the {@link DataContext#getDefault() default context}.
+     * </p>
+     * @param context data context from which files are loaded
+     * @see #addDefaultUTCTAIOffsetsLoaders()
+     * @since 9.0
+     */
+    public static void addDefaultUTCTAIOffsetsLoaders(final DataContext context) {
+        addUTCTAIOffsetsLoader(new TAIUTCDatFilesLoader(TAIUTCDatFilesLoader.DEFAULT_SUPPORTED_NAMES, context));
+        addUTCTAIOffsetsLoader(new UTCTAIHistoryFilesLoader(context));
     }
 
     /** Clear loaders for UTC-TAI offsets history files.
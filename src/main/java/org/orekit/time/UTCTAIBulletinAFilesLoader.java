@@ -30,8 +30,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hipparchus.util.FastMath;
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 
@@ -64,11 +64,27 @@ public class UTCTAIBulletinAFilesLoader implements UTCTAIOffsetsLoader {
     /** Regular expression for supported files names. */
     private final String supportedNames;
 
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
     /** Build a loader for IERS bulletins A files.
-    * @param supportedNames regular expression for supported files names
-    */
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
+     * @param supportedNames regular expression for supported files names
+     */
     public UTCTAIBulletinAFilesLoader(final String supportedNames) {
+        this(supportedNames, DataContext.getDefault());
+    }
+
+    /** Build a loader for IERS bulletins A files.
+     * @param supportedNames regular expression for supported files names
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    public UTCTAIBulletinAFilesLoader(final String supportedNames, final DataContext context) {
         this.supportedNames = supportedNames;
+        this.context        = context;
     }
 
     /** {@inheritDoc} */
@@ -76,7 +92,7 @@ public class UTCTAIBulletinAFilesLoader implements UTCTAIOffsetsLoader {
     public List<OffsetModel> loadOffsets() throws OrekitException {
 
         final Parser parser = new Parser();
-        DataProvidersManager.getInstance().feed(supportedNames, parser);
+        context.feed(supportedNames, parser);
         final SortedMap<Integer, Integer> taiUtc = parser.getTaiUtc();
         final SortedMap<Integer, Double>  ut1Utc = parser.getUt1Utc();
 
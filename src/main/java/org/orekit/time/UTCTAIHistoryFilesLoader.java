@@ -26,8 +26,8 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.orekit.data.DataContext;
 import org.orekit.data.DataLoader;
-import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 
@@ -47,15 +47,31 @@ public class UTCTAIHistoryFilesLoader implements UTCTAIOffsetsLoader {
     /** Supported files name pattern. */
     private static final String SUPPORTED_NAMES = "^UTC-TAI\\.history$";
 
-    /** Build a loader for UTC-TAI history file. */
+    /** Data context from which files are loaded. */
+    private final DataContext context;
+
+    /** Build a loader for UTC-TAI history file.
+     * <p>
+     * Files are loaded from the {@link DataContext#getDefault() default data context}.
+     * </p>
+     */
     public UTCTAIHistoryFilesLoader() {
+        this(DataContext.getDefault());
+    }
+
+    /** Build a loader for UTC-TAI history file.
+     * @param context data context from which files are loaded
+     * @since 9.0
+     */
+    public UTCTAIHistoryFilesLoader(final DataContext context) {
+        this.context = context;
     }
 
     /** {@inheritDoc} */
     @Override
     public List<OffsetModel> loadOffsets() throws OrekitException {
         final Parser parser = new Parser();
-        DataProvidersManager.getInstance().feed(SUPPORTED_NAMES, parser);
+        context.feed(SUPPORTED_NAMES, parser);
         return parser.getOffsets();
     }
 
@@ -21,7 +21,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hipparchus.RealFieldElement;
 import org.hipparchus.analysis.interpolation.FieldHermiteInterpolator;
@@ -133,7 +136,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getXYSpXY2Function()
+        TimeVectorFunction getRawXYSpXY2Function()
             throws OrekitException {
 
             // set up nutation arguments
@@ -272,7 +275,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getPrecessionFunction() throws OrekitException {
+        TimeVectorFunction getRawPrecessionFunction() throws OrekitException {
 
             // set up the conventional polynomials
             // the following values are from Lieske et al. paper:
@@ -301,7 +304,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getNutationFunction()
+        TimeVectorFunction getRawNutationFunction()
             throws OrekitException {
 
             // set up nutation arguments
@@ -767,7 +770,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getXYSpXY2Function()
+        TimeVectorFunction getRawXYSpXY2Function()
             throws OrekitException {
 
             // set up nutation arguments
@@ -809,7 +812,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getPrecessionFunction() throws OrekitException {
+        TimeVectorFunction getRawPrecessionFunction() throws OrekitException {
 
             // set up the conventional polynomials
             // the following values are from equation 32 in IERS 2003 conventions
@@ -835,7 +838,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getNutationFunction()
+        TimeVectorFunction getRawNutationFunction()
             throws OrekitException {
 
             // set up nutation arguments
@@ -990,12 +993,63 @@ public enum IERSConventions {
         public TimeScalarFunction getGASTFunction(final TimeScale ut1, final EOPHistory eopHistory)
             throws OrekitException {
 
-            // set up nutation arguments
-            final FundamentalNutationArguments arguments = getNutationArguments(null);
-
             // mean obliquity function
             final TimeScalarFunction epsilon = getMeanObliquityFunction();
 
+            // nutation in longitude and equation of equinoxes series
+            final TimeVectorFunction psiGst = interpolateSeries(PSI_GST_KEY, this::getRawPsiGstFunction);
+
+            // ERA function
+            final TimeScalarFunction era = getEarthOrientationAngleFunction(ut1);
+
+            return new TimeScalarFunction() {
+
+                /** {@inheritDoc} */
+                @Override
+                public double value(final AbsoluteDate date) {
+
+                    // evaluate equation of origins
+                    final double[] angles = psiGst.value(date);
+                    final double ddPsi    = (eopHistory == null) ? 0 : eopHistory.getEquinoxNutationCorrection(date)[0];
+                    final double deltaPsi = angles[0] + angles[1] + ddPsi;
+                    final double epsilonA = epsilon.value(date);
+
+                    // subtract equation of origin from EA
+                    // (hence add the series above which have the sign included)
+                    return era.value(date) + deltaPsi * FastMath.cos(epsilonA) + angles[2];
+
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                public <T extends RealFieldElement<T>> T value(final FieldAbsoluteDate<T> date) {
+
+                    // evaluate equation of origins
+                    final T[] angles = psiGst.value(date);
+                    final T ddPsi    = (eopHistory == null) ? date.getField().getZero() : eopHistory.getEquinoxNutationCorrection(date)[0];
+                    final T deltaPsi = angles[0].add(angles[1]).add(ddPsi);
+                    final T epsilonA = epsilon.value(date);
+
+                    // subtract equation of origin from EA
+                    // (hence add the series above which have the sign included)
+                    return era.value(date).add(deltaPsi.multiply(epsilonA.cos())).add(angles[2]);
+
+                }
+
+            };
+
+        }
+
+        /** Get the raw function computing nutation in longitude and equation of equinoxes series.
+         * @return raw function computing nutation in longitude and equation of equinoxes series
+         * @exception OrekitException if table cannot be loaded
+         * @see #getGASTFunction(TimeScale, EOPHistory)
+         */
+        private TimeVectorFunction getRawPsiGstFunction() throws OrekitException {
+
+            // set up nutation arguments
+            final FundamentalNutationArguments arguments = getNutationArguments(null);
+
             // set up Poisson series
             final double milliAS = Constants.ARC_SECONDS_TO_RADIANS * 1.0e-3;
             final PoissonSeriesParser luniSolarPsiParser =
@@ -1025,43 +1079,18 @@ public enum IERSConventions {
             final PoissonSeries.CompiledSeries psiGstSeries =
                     PoissonSeries.compile(psiLuniSolarSeries, psiPlanetarySeries, gstSeries);
 
-            // ERA function
-            final TimeScalarFunction era = getEarthOrientationAngleFunction(ut1);
-
-            return new TimeScalarFunction() {
+            return new TimeVectorFunction() {
 
                 /** {@inheritDoc} */
                 @Override
-                public double value(final AbsoluteDate date) {
-
-                    // evaluate equation of origins
-                    final BodiesElements elements = arguments.evaluateAll(date);
-                    final double[] angles = psiGstSeries.value(elements);
-                    final double ddPsi    = (eopHistory == null) ? 0 : eopHistory.getEquinoxNutationCorrection(date)[0];
-                    final double deltaPsi = angles[0] + angles[1] + ddPsi;
-                    final double epsilonA = epsilon.value(date);
-
-                    // subtract equation of origin from EA
-                    // (hence add the series above which have the sign included)
-                    return era.value(date) + deltaPsi * FastMath.cos(epsilonA) + angles[2];
-
+                public double[] value(final AbsoluteDate date) {
+                    return psiGstSeries.value(arguments.evaluateAll(date));
                 }
 
                 /** {@inheritDoc} */
                 @Override
-                public <T extends RealFieldElement<T>> T value(final FieldAbsoluteDate<T> date) {
-
-                    // evaluate equation of origins
-                    final FieldBodiesElements<T> elements = arguments.evaluateAll(date);
-                    final T[] angles = psiGstSeries.value(elements);
-                    final T ddPsi    = (eopHistory == null) ? date.getField().getZero() : eopHistory.getEquinoxNutationCorrection(date)[0];
-                    final T deltaPsi = angles[0].add(angles[1]).add(ddPsi);
-                    final T epsilonA = epsilon.value(date);
-
-                    // subtract equation of origin from EA
-                    // (hence add the series above which have the sign included)
-                    return era.value(date).add(deltaPsi.multiply(epsilonA.cos())).add(angles[2]);
-
+                public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
+                    return psiGstSeries.value(arguments.evaluateAll(date));
                 }
 
             };
@@ -1488,7 +1517,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getXYSpXY2Function() throws OrekitException {
+        TimeVectorFunction getRawXYSpXY2Function() throws OrekitException {
 
             // set up nutation arguments
             final FundamentalNutationArguments arguments = getNutationArguments(null);
@@ -1807,7 +1836,7 @@ public enum IERSConventions {
 
         /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getPrecessionFunction() throws OrekitException {
+        TimeVectorFunction getRawPrecessionFunction() throws OrekitException {
 
             // set up the conventional polynomials
             // the following values are from equation 5.40 in IERS 2010 conventions
@@ -1839,7 +1868,7 @@ public enum IERSConventions {
 
          /** {@inheritDoc} */
         @Override
-        public TimeVectorFunction getNutationFunction()
+        TimeVectorFunction getRawNutationFunction()
             throws OrekitException {
 
             // set up nutation arguments
@@ -1966,24 +1995,11 @@ public enum IERSConventions {
         public TimeScalarFunction getGASTFunction(final TimeScale ut1, final EOPHistory eopHistory)
             throws OrekitException {
 
-            // set up nutation arguments
-            final FundamentalNutationArguments arguments = getNutationArguments(null);
-
             // mean obliquity function
             final TimeScalarFunction epsilon = getMeanObliquityFunction();
 
-            // set up Poisson series
-            final double microAS = Constants.ARC_SECONDS_TO_RADIANS * 1.0e-6;
-            final PoissonSeriesParser baseParser =
-                    new PoissonSeriesParser(17).
-                        withFirstDelaunay(4).
-                        withFirstPlanetary(9).
-                        withSinCos(0, 2, microAS, 3, microAS);
-            final PoissonSeriesParser gstParser  = baseParser.withPolynomialPart('t', Unit.ARC_SECONDS);
-            final PoissonSeries psiSeries        = baseParser.parse(getStream(PSI_SERIES), PSI_SERIES);
-            final PoissonSeries gstSeries        = gstParser.parse(getStream(GST_SERIES), GST_SERIES);
-            final PoissonSeries.CompiledSeries psiGstSeries =
-                    PoissonSeries.compile(psiSeries, gstSeries);
+            // nutation in longitude and equation of equinoxes series
+            final TimeVectorFunction psiGst = interpolateSeries(PSI_GST_KEY, this::getRawPsiGstFunction);
 
             // ERA function
             final TimeScalarFunction era = getEarthOrientationAngleFunction(ut1);
@@ -1995,8 +2011,7 @@ public enum IERSConventions {
                 public double value(final AbsoluteDate date) {
 
                     // evaluate equation of origins
-                    final BodiesElements elements = arguments.evaluateAll(date);
-                    final double[] angles = psiGstSeries.value(elements);
+                    final double[] angles = psiGst.value(date);
                     final double ddPsi    = (eopHistory == null) ? 0 : eopHistory.getEquinoxNutationCorrection(date)[0];
                     final double deltaPsi = angles[0] + ddPsi;
                     final double epsilonA = epsilon.value(date);
@@ -2012,8 +2027,7 @@ public enum IERSConventions {
                 public <T extends RealFieldElement<T>> T value(final FieldAbsoluteDate<T> date) {
 
                     // evaluate equation of origins
-                    final FieldBodiesElements<T> elements = arguments.evaluateAll(date);
-                    final T[] angles = psiGstSeries.value(elements);
+                    final T[] angles = psiGst.value(date);
                     final T ddPsi    = (eopHistory == null) ? date.getField().getZero() : eopHistory.getEquinoxNutationCorrection(date)[0];
                     final T deltaPsi = angles[0].add(ddPsi);
                     final T epsilonA = epsilon.value(date);
@@ -2028,6 +2042,47 @@ public enum IERSConventions {
 
         }
 
+        /** Get the raw function computing nutation in longitude and equation of equinoxes series.
+         * @return raw function computing nutation in longitude and equation of equinoxes series
+         * @exception OrekitException if table cannot be loaded
+         * @see #getGASTFunction(TimeScale, EOPHistory)
+         */
+        private TimeVectorFunction getRawPsiGstFunction() throws OrekitException {
+
+            // set up nutation arguments
+            final FundamentalNutationArguments arguments = getNutationArguments(null);
+
+            // set up Poisson series
+            final double microAS = Constants.ARC_SECONDS_TO_RADIANS * 1.0e-6;
+            final PoissonSeriesParser baseParser =
+                    new PoissonSeriesParser(17).
+                        withFirstDelaunay(4).
+                        withFirstPlanetary(9).
+                        withSinCos(0, 2, microAS, 3, microAS);
+            final PoissonSeriesParser gstParser  = baseParser.withPolynomialPart('t', Unit.ARC_SECONDS);
+            final PoissonSeries psiSeries        = baseParser.parse(getStream(PSI_SERIES), PSI_SERIES);
+            final PoissonSeries gstSeries        = gstParser.parse(getStream(GST_SERIES), GST_SERIES);
+            final PoissonSeries.CompiledSeries psiGstSeries =
+                    PoissonSeries.compile(psiSeries, gstSeries);
+
+            return new TimeVectorFunction() {
+
+                /** {@inheritDoc} */
+                @Override
+                public double[] value(final AbsoluteDate date) {
+                    return psiGstSeries.value(arguments.evaluateAll(date));
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
+                    return psiGstSeries.value(arguments.evaluateAll(date));
+                }
+
+            };
+
+        }
+
         /** {@inheritDoc} */
         @Override
         public TimeVectorFunction getEOPTidalCorrection()
@@ -2073,6 +2128,25 @@ public enum IERSConventions {
     /** IERS conventions resources base directory. */
     private static final String IERS_BASE = "/assets/org/orekit/IERS-conventions/";
 
+    /** Name of the nutation series, for interpolation. */
+    private static final String NUTATION_KEY = "nutation";
+
+    /** Name of the precession series, for interpolation. */
+    private static final String PRECESSION_KEY = "precession";
+
+    /** Name of the CIP/CIO series, for interpolation. */
+    private static final String XY_KEY = "X-Y-s+XY/2";
+
+    /** Name of the nutation in longitude and equation of equinoxes series, for interpolation. */
+    private static final String PSI_GST_KEY = "psi-GST";
+
+    /** Interpolated series, shared by all frames using these conventions. */
+    private final Map<List<Object>, TimeVectorFunction> interpolatedSeries =
+            new HashMap<List<Object>, TimeVectorFunction>();
+
+    /** Nutation function combining interpolated ΔΨ and Δε with the equation of equinoxes correction. */
+    private CorrectedNutationFunction correctedNutation;
+
     /** Get the reference epoch for fundamental nutation arguments.
      * @return reference epoch for fundamental nutation arguments
      * @since 6.1
@@ -2122,11 +2196,27 @@ public enum IERSConventions {
      * <p>
      * The returned function computes the two X, Y components of CIP and the S+XY/2 component of the non-rotating CIO.
      * </p>
+     * <p>
+     * If {@link OrekitConfiguration#setSeriesInterpolation(int, double, double) series
+     * interpolation} has been configured, the returned function is an {@link
+     * InterpolatingTimeVectorFunction} wrapping the raw series.
+     * </p>
      * @return function computing the Celestial Intermediate Pole and Celestial Intermediate Origin components
      * @exception OrekitException if table cannot be loaded
      * @since 6.1
      */
-    public abstract TimeVectorFunction getXYSpXY2Function()
+    public TimeVectorFunction getXYSpXY2Function()
+        throws OrekitException {
+        return interpolateSeries(XY_KEY, this::getRawXYSpXY2Function);
+    }
+
+    /** Get the raw function computing the Celestial Intermediate Pole and Celestial Intermediate Origin components.
+     * @return raw function computing the Celestial Intermediate Pole and Celestial Intermediate Origin components
+     * @exception OrekitException if table cannot be loaded
+     * @see #getXYSpXY2Function()
+     * @since 9.0
+     */
+    abstract TimeVectorFunction getRawXYSpXY2Function()
         throws OrekitException;
 
     /** Get the function computing the raw Earth Orientation Angle.
@@ -2154,11 +2244,26 @@ public enum IERSConventions {
      * function returned by {@link #getMeanObliquityFunction()} at {@link
      * #getNutationReferenceEpoch() nutation reference epoch}.
      * </p>
+     * <p>
+     * If {@link OrekitConfiguration#setSeriesInterpolation(int, double, double) series
+     * interpolation} has been configured, the returned function is an {@link
+     * InterpolatingTimeVectorFunction} wrapping the raw function.
+     * </p>
      * @return function computing the precession angle
      * @exception OrekitException if table cannot be loaded
      * @since 6.1
      */
-    public abstract TimeVectorFunction getPrecessionFunction() throws OrekitException;
+    public TimeVectorFunction getPrecessionFunction() throws OrekitException {
+        return interpolateSeries(PRECESSION_KEY, this::getRawPrecessionFunction);
+    }
+
+    /** Get the raw function computing the precession angles.
+     * @return raw function computing the precession angle
+     * @exception OrekitException if table cannot be loaded
+     * @see #getPrecessionFunction()
+     * @since 9.0
+     */
+    abstract TimeVectorFunction getRawPrecessionFunction() throws OrekitException;
 
     /** Get the function computing the nutation angles.
      * <p>
@@ -2166,14 +2271,103 @@ public enum IERSConventions {
      * and the correction to the equation of equinoxes introduced since 1997-02-27 by IAU 1994
      * resolution C7 (the correction is forced to 0 before this date)
      * </p>
+     * <p>
+     * If {@link OrekitConfiguration#setSeriesInterpolation(int, double, double) series
+     * interpolation} has been configured, ΔΨ and Δε are interpolated using an {@link
+     * InterpolatingTimeVectorFunction} wrapping the raw series. The correction to the
+     * equation of equinoxes is discontinuous at 1997-02-27, so it is not interpolated
+     * but evaluated directly and added after interpolation.
+     * </p>
      * @return function computing the nutation in longitude ΔΨ and Δε
      * and the correction of equation of equinoxes
      * @exception OrekitException if table cannot be loaded
      * @since 6.1
      */
-    public abstract TimeVectorFunction getNutationFunction()
+    public TimeVectorFunction getNutationFunction()
+        throws OrekitException {
+
+        if (OrekitConfiguration.getSeriesInterpolationPoints() < 1) {
+            // series are evaluated directly
+            return getRawNutationFunction();
+        }
+
+        final TimeVectorFunction psiEpsilon =
+                interpolateSeries(NUTATION_KEY, () -> new PsiEpsilonFunction(getRawNutationFunction()));
+        synchronized (interpolatedSeries) {
+            if (correctedNutation == null || correctedNutation.psiEpsilon != psiEpsilon) {
+                // the interpolating wrapper has changed, the correction must be bound to the new one
+                correctedNutation = new CorrectedNutationFunction(psiEpsilon, getNutationArguments(null));
+            }
+            return correctedNutation;
+        }
+
+    }
+
+    /** Get the raw function computing the nutation angles.
+     * @return raw function computing the nutation in longitude ΔΨ and Δε
+     * and the correction of equation of equinoxes
+     * @exception OrekitException if table cannot be loaded
+     * @see #getNutationFunction()
+     * @since 9.0
+     */
+    abstract TimeVectorFunction getRawNutationFunction()
         throws OrekitException;
 
+    /** Get a series-based function, wrapped according to the global configuration.
+     * <p>
+     * If {@link OrekitConfiguration#setSeriesInterpolation(int, double, double) series
+     * interpolation} has been configured, the interpolating wrapper is built only once
+     * for each series and each setting, so all the frames using these conventions share
+     * the same interpolation grid.
+     * </p>
+     * @param name name of the series
+     * @param builder builder for the raw function
+     * @return raw function itself, or a shared interpolating wrapper if {@link
+     * OrekitConfiguration#setSeriesInterpolation(int, double, double) series
+     * interpolation} has been configured
+     * @exception OrekitException if table cannot be loaded
+     */
+    TimeVectorFunction interpolateSeries(final String name, final RawSeriesBuilder builder)
+        throws OrekitException {
+
+        final int gridPoints = OrekitConfiguration.getSeriesInterpolationPoints();
+        if (gridPoints < 1) {
+            // series are evaluated directly
+            return builder.build();
+        }
+
+        final double step      = OrekitConfiguration.getSeriesInterpolationStep();
+        final double threshold = OrekitConfiguration.getSeriesInterpolationThreshold();
+        final List<Object> setting = Arrays.asList(gridPoints, step, threshold);
+        final List<Object> key     = Arrays.asList(name, gridPoints, step, threshold);
+
+        synchronized (interpolatedSeries) {
+
+            // drop wrappers built for previous settings
+            interpolatedSeries.keySet().removeIf(k -> !k.subList(1, k.size()).equals(setting));
+
+            TimeVectorFunction function = interpolatedSeries.get(key);
+            if (function == null) {
+                function = new InterpolatingTimeVectorFunction(builder.build(), gridPoints, step, threshold);
+                interpolatedSeries.put(key, function);
+            }
+            return function;
+
+        }
+
+    }
+
+    /** Builder for raw series-based functions. */
+    interface RawSeriesBuilder {
+
+        /** Build the raw function.
+         * @return raw function
+         * @exception OrekitException if table cannot be loaded
+         */
+        TimeVectorFunction build() throws OrekitException;
+
+    }
+
     /** Get the function computing Greenwich mean sidereal time, in radians.
      * @param ut1 UT1 time scale
      * @return function computing Greenwich mean sidereal time
@@ -2493,6 +2687,87 @@ public enum IERSConventions {
 
     };
 
+    /** Function keeping only ΔΨ and Δε from a raw nutation function.
+     * <p>
+     * This function is smooth and can be interpolated, whereas the raw
+     * nutation function includes the {@link IAU1994ResolutionC7 correction
+     * to the equation of equinoxes} which is discontinuous at 1997-02-27.
+     * </p>
+     */
+    private static class PsiEpsilonFunction implements TimeVectorFunction {
+
+        /** Raw nutation function. */
+        private final TimeVectorFunction rawNutation;
+
+        /** Simple constructor.
+         * @param rawNutation raw nutation function
+         */
+        PsiEpsilonFunction(final TimeVectorFunction rawNutation) {
+            this.rawNutation = rawNutation;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double[] value(final AbsoluteDate date) {
+            final double[] nutation = rawNutation.value(date);
+            return new double[] {
+                nutation[0], nutation[1]
+            };
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
+            final T[] nutation = rawNutation.value(date);
+            final T[] result   = MathArrays.buildArray(date.getField(), 2);
+            result[0] = nutation[0];
+            result[1] = nutation[1];
+            return result;
+        }
+
+    }
+
+    /** Nutation function adding the equation of equinoxes correction to interpolated ΔΨ and Δε. */
+    private static class CorrectedNutationFunction implements TimeVectorFunction {
+
+        /** Interpolated ΔΨ and Δε. */
+        private final TimeVectorFunction psiEpsilon;
+
+        /** Nutation arguments. */
+        private final FundamentalNutationArguments arguments;
+
+        /** Simple constructor.
+         * @param psiEpsilon interpolated ΔΨ and Δε
+         * @param arguments nutation arguments
+         */
+        CorrectedNutationFunction(final TimeVectorFunction psiEpsilon,
+                                  final FundamentalNutationArguments arguments) {
+            this.psiEpsilon = psiEpsilon;
+            this.arguments  = arguments;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double[] value(final AbsoluteDate date) {
+            final double[] pe = psiEpsilon.value(date);
+            return new double[] {
+                pe[0], pe[1], IAU1994ResolutionC7.value(arguments.evaluateAll(date))
+            };
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
+            final T[] pe     = psiEpsilon.value(date);
+            final T[] result = MathArrays.buildArray(date.getField(), 3);
+            result[0] = pe[0];
+            result[1] = pe[1];
+            result[2] = IAU1994ResolutionC7.value(arguments.evaluateAll(date));
+            return result;
+        }
+
+    }
+
     /** Stellar angle model.
      * <p>
      * The stellar angle computed here has been defined in the paper "A non-rotating origin on the
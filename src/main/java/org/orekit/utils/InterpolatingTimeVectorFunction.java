@@ -0,0 +1,422 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.analysis.differentiation.DSFactory;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.hipparchus.analysis.interpolation.FieldHermiteInterpolator;
+import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeStamped;
+import org.orekit.time.TimeVectorFunction;
+
+/** Time vector function using thread-safe interpolation on a regular grid.
+ * <p>
+ * This class wraps a costly raw function, typically one of the precession,
+ * nutation or CIP functions from {@link IERSConventions} which evaluate Poisson
+ * series with thousands of terms. The raw function is evaluated only at grid
+ * points regularly spaced by a fixed step, and the values are interpolated
+ * in between using polynomial Hermite interpolation. The grid points are
+ * aligned on {@link AbsoluteDate#J2000_EPOCH J2000}, so the same points are
+ * reused regardless of the order in which dates are requested.
+ * </p>
+ * <p>
+ * Each grid point holds both the value and the first time derivative of the
+ * raw function, the latter being computed by evaluating the raw function on
+ * {@link DerivativeStructure} dates. The interpolation uses both, so the
+ * primitive double values, the {@link #derivatives(AbsoluteDate, int)
+ * derivatives} and the field values (including the time derivatives embedded
+ * in field elements) all come from the same interpolating polynomial, which
+ * matches the raw derivatives at grid points.
+ * </p>
+ * <p>
+ * The grid points are stored in a {@link LockFreeTimeStampedCache}, so an
+ * instance can be shared between threads: once a date range has been
+ * tabulated by one thread, all threads interpolate from the same points
+ * without any locking.
+ * </p>
+ * <p>
+ * The interpolation accuracy depends on the number of grid points and on the
+ * step. An error threshold can be enforced: each time a new date range is
+ * tabulated (i.e. each time a new slot is created in the cache), the interpolated
+ * value at the middle of the central grid interval is compared with the raw
+ * function and an {@link OrekitIllegalStateException} is thrown if the
+ * threshold is exceeded. This is a
+ * sampled check, not a guaranteed bound at all dates. A more thorough check against
+ * the raw function for a given date range is available using {@link
+ * #getMaxError(AbsoluteDate, AbsoluteDate, int)}, which is intended as a
+ * diagnostic for tuning the grid before long runs.
+ * </p>
+ * @see IERSConventions#getNutationFunction()
+ * @see OrekitConfiguration#setSeriesInterpolation(int, double, double)
+ * @see LockFreeTimeStampedCache
+ * @see org.orekit.frames.InterpolatingTransformProvider
+ * @since 9.0
+ */
+public class InterpolatingTimeVectorFunction implements TimeVectorFunction {
+
+    /** Raw (non-interpolated) function. */
+    private final TimeVectorFunction rawFunction;
+
+    /** Grid points time step. */
+    private final double step;
+
+    /** Maximum interpolation error allowed at check points. */
+    private final double threshold;
+
+    /** Cache for grid points. */
+    private final LockFreeTimeStampedCache<GridPoint> cache;
+
+    /** Simple constructor.
+     * <p>
+     * The cache is configured with {@link OrekitConfiguration#getCacheSlotsNumber()}
+     * slots spanning at most one Julian year, and a new slot is created when a date
+     * is farther than 30 days from already tabulated points.
+     * </p>
+     * @param rawFunction raw (non-interpolated) function
+     * @param gridPoints number of interpolation grid points
+     * @param step grid points time step
+     * @param threshold maximum interpolation error allowed at check points,
+     * for all components (use {@code Double.POSITIVE_INFINITY} to skip the checks)
+     */
+    public InterpolatingTimeVectorFunction(final TimeVectorFunction rawFunction,
+                                           final int gridPoints, final double step,
+                                           final double threshold) {
+        this(rawFunction, gridPoints, step, threshold,
+             OrekitConfiguration.getCacheSlotsNumber(), Constants.JULIAN_YEAR, 30 * Constants.JULIAN_DAY);
+    }
+
+    /** Simple constructor.
+     * @param rawFunction raw (non-interpolated) function
+     * @param gridPoints number of interpolation grid points
+     * @param step grid points time step
+     * @param threshold maximum interpolation error allowed at check points,
+     * for all components (use {@code Double.POSITIVE_INFINITY} to skip the checks)
+     * @param maxSlots maximum number of independent cached time slots
+     * in the {@link LockFreeTimeStampedCache time-stamped cache}
+     * @param maxSpan maximum duration span in seconds of one slot
+     * in the {@link LockFreeTimeStampedCache time-stamped cache}
+     * @param newSlotInterval time interval above which a new slot is created
+     * in the {@link LockFreeTimeStampedCache time-stamped cache}
+     */
+    public InterpolatingTimeVectorFunction(final TimeVectorFunction rawFunction,
+                                           final int gridPoints, final double step,
+                                           final double threshold,
+                                           final int maxSlots, final double maxSpan,
+                                           final double newSlotInterval) {
+        this.rawFunction = rawFunction;
+        this.step        = step;
+        this.threshold   = threshold;
+        this.cache       = new LockFreeTimeStampedCache<GridPoint>(gridPoints, maxSlots, maxSpan, newSlotInterval,
+                                                                   new GridPointGenerator(gridPoints));
+    }
+
+    /** Get the underlying raw (non-interpolated) function.
+     * @return raw (non-interpolated) function
+     */
+    public TimeVectorFunction getRawFunction() {
+        return rawFunction;
+    }
+
+    /** Get the number of interpolation grid points.
+     * @return number of interpolation grid points
+     */
+    public int getGridPoints() {
+        return cache.getNeighborsSize();
+    }
+
+    /** Get the grid points time step.
+     * @return grid points time step
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** Get the maximum interpolation error allowed at check points.
+     * @return maximum interpolation error allowed at check points
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /** {@inheritDoc}
+     * @exception OrekitIllegalStateException if a new date range is tabulated
+     * and the interpolation error exceeds the threshold
+     */
+    @Override
+    public double[] value(final AbsoluteDate date) {
+        return buildInterpolator(date).value(0.0);
+    }
+
+    /** Compute the function and its derivatives with respect to time.
+     * @param date date
+     * @param order maximum derivation order
+     * @return array containing the function value at index 0 and
+     * its derivatives up to {@code order} at the following indices
+     * @exception OrekitIllegalStateException if a new date range is tabulated
+     * and the interpolation error exceeds the threshold
+     */
+    public double[][] derivatives(final AbsoluteDate date, final int order) {
+        return buildInterpolator(date).derivatives(0.0, order);
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The field elements are interpolated from the same grid points as
+     * the primitive double values, so derivatives with respect to time
+     * embedded in the field elements are consistent with {@link
+     * #derivatives(AbsoluteDate, int)}.
+     * </p>
+     * @exception OrekitIllegalStateException if a new date range is tabulated
+     * and the interpolation error exceeds the threshold
+     */
+    @Override
+    public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
+
+        final AbsoluteDate base = date.toAbsoluteDate();
+        final T zero = date.getField().getZero();
+        final FieldHermiteInterpolator<T> interpolator = new FieldHermiteInterpolator<T>();
+        for (final GridPoint point : getSample(base)) {
+            final T[] value      = MathArrays.buildArray(date.getField(), point.value.length);
+            final T[] derivative = MathArrays.buildArray(date.getField(), point.derivative.length);
+            for (int i = 0; i < value.length; ++i) {
+                value[i]      = zero.add(point.value[i]);
+                derivative[i] = zero.add(point.derivative[i]);
+            }
+            interpolator.addSamplePoint(zero.add(point.date.durationFrom(base)), value, derivative);
+        }
+
+        return interpolator.value(date.durationFrom(base));
+
+    }
+
+    /** Compute the maximum interpolation error with respect to the raw function.
+     * <p>
+     * This method is a diagnostic intended to help selecting the number of grid points,
+     * the step and the threshold. It compares the interpolated values with the raw function at regularly
+     * spaced dates (hence it is as costly as evaluating the raw function at all
+     * these dates).
+     * </p>
+     * @param start start date of the check range
+     * @param end end date of the check range
+     * @param n number of check dates
+     * @return maximum absolute error for each component of the function
+     */
+    public double[] getMaxError(final AbsoluteDate start, final AbsoluteDate end, final int n) {
+        final double   h        = end.durationFrom(start) / FastMath.max(1, n - 1);
+        double[]       maxError = null;
+        for (int k = 0; k < n; ++k) {
+            final AbsoluteDate date         = start.shiftedBy(k * h);
+            final double[]     raw          = rawFunction.value(date);
+            final double[]     interpolated = value(date);
+            if (maxError == null) {
+                maxError = new double[raw.length];
+            }
+            for (int i = 0; i < raw.length; ++i) {
+                maxError[i] = FastMath.max(maxError[i], FastMath.abs(interpolated[i] - raw[i]));
+            }
+        }
+        return maxError;
+    }
+
+    /** Build an interpolator centered on a date.
+     * @param date date (will correspond to abscissa 0 in the interpolator)
+     * @return interpolator
+     */
+    private HermiteInterpolator buildInterpolator(final AbsoluteDate date) {
+        return buildInterpolator(date, getSample(date));
+    }
+
+    /** Build an interpolator centered on a date.
+     * @param date date (will correspond to abscissa 0 in the interpolator)
+     * @param sample grid points to use
+     * @return interpolator
+     */
+    private HermiteInterpolator buildInterpolator(final AbsoluteDate date, final List<GridPoint> sample) {
+        final HermiteInterpolator interpolator = new HermiteInterpolator();
+        for (final GridPoint point : sample) {
+            interpolator.addSamplePoint(point.date.durationFrom(date), point.value, point.derivative);
+        }
+        return interpolator;
+    }
+
+    /** Get the grid points surrounding a date.
+     * @param date date
+     * @return grid points surrounding the date
+     */
+    private List<GridPoint> getSample(final AbsoluteDate date) {
+        try {
+            return cache.getNeighbors(date).collect(Collectors.toList());
+        } catch (TimeStampedCacheException tsce) {
+            // this should never happen as the grid is unbounded
+            throw new OrekitInternalError(tsce);
+        }
+    }
+
+    /** Tabulated value of the raw function. */
+    private static class GridPoint implements TimeStamped {
+
+        /** Date of the grid point. */
+        private final AbsoluteDate date;
+
+        /** Value of the raw function. */
+        private final double[] value;
+
+        /** First time derivative of the raw function. */
+        private final double[] derivative;
+
+        /** Simple constructor.
+         * @param date date of the grid point
+         * @param value value of the raw function
+         * @param derivative first time derivative of the raw function
+         */
+        GridPoint(final AbsoluteDate date, final double[] value, final double[] derivative) {
+            this.date       = date;
+            this.value      = value;
+            this.derivative = derivative;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public AbsoluteDate getDate() {
+            return date;
+        }
+
+    }
+
+    /** Generator for grid points aligned on J2000. */
+    private class GridPointGenerator implements TimeStampedGenerator<GridPoint> {
+
+        /** Number of neighbors. */
+        private final int neighborsSize;
+
+        /** Factory for time offsets with respect to grid points. */
+        private final DSFactory factory;
+
+        /** Simple constructor.
+         * @param neighborsSize number of neighbors
+         */
+        GridPointGenerator(final int neighborsSize) {
+            this.neighborsSize = neighborsSize;
+            this.factory       = new DSFactory(1, 1);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public List<GridPoint> generate(final AbsoluteDate existingDate, final AbsoluteDate date) {
+
+            final List<GridPoint> generated = new ArrayList<GridPoint>();
+
+            if (existingDate == null) {
+
+                // no prior existing points, generate a first set centered around date
+                final long first = index(date) - (neighborsSize - 1) / 2;
+                for (int i = 0; i < neighborsSize; ++i) {
+                    generated.add(gridPoint(first + i));
+                }
+
+                // check accuracy in the new date range
+                checkAccuracy(generated);
+
+            } else {
+
+                // some points have already been generated
+                // add the missing ones up to specified date
+                final long existing = FastMath.round(existingDate.durationFrom(AbsoluteDate.J2000_EPOCH) / step);
+                if (date.compareTo(existingDate) > 0) {
+                    // forward generation
+                    for (long k = existing + 1; k <= index(date) + 1; ++k) {
+                        generated.add(gridPoint(k));
+                    }
+                } else {
+                    // backward generation
+                    for (long k = index(date); k < existing; ++k) {
+                        generated.add(gridPoint(k));
+                    }
+                }
+
+            }
+
+            return generated;
+
+        }
+
+        /** Get the index of the grid point just before a date.
+         * @param date date
+         * @return index of the grid point just before date
+         */
+        private long index(final AbsoluteDate date) {
+            return (long) FastMath.floor(date.durationFrom(AbsoluteDate.J2000_EPOCH) / step);
+        }
+
+        /** Evaluate the raw function at a grid point.
+         * @param k index of the grid point
+         * @return grid point
+         */
+        private GridPoint gridPoint(final long k) {
+            final AbsoluteDate t = AbsoluteDate.J2000_EPOCH.shiftedBy(k * step);
+            final DerivativeStructure[] raw =
+                    rawFunction.value(new FieldAbsoluteDate<>(t, factory.variable(0, 0.0)));
+            final double[] value      = new double[raw.length];
+            final double[] derivative = new double[raw.length];
+            for (int i = 0; i < raw.length; ++i) {
+                value[i]      = raw[i].getValue();
+                derivative[i] = raw[i].getPartialDerivative(1);
+            }
+            return new GridPoint(t, value, derivative);
+        }
+
+        /** Check interpolation accuracy in a newly tabulated date range.
+         * @param points grid points of the new date range
+         * @exception OrekitIllegalStateException if interpolation error
+         * at the middle of the central grid interval exceeds the threshold
+         */
+        private void checkAccuracy(final List<GridPoint> points) {
+
+            if (Double.isInfinite(threshold)) {
+                // checks are disabled
+                return;
+            }
+
+            final AbsoluteDate middle = points.get((points.size() - 1) / 2).getDate().shiftedBy(0.5 * step);
+            final double[] interpolated = buildInterpolator(middle, points).value(0.0);
+            final double[] raw          = rawFunction.value(middle);
+            for (int i = 0; i < raw.length; ++i) {
+                final double error = FastMath.abs(interpolated[i] - raw[i]);
+                if (error > threshold) {
+                    throw new OrekitIllegalStateException(OrekitMessages.TOO_LARGE_INTERPOLATION_ERROR,
+                                                          error, middle, threshold);
+                }
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,878 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Thread-safe cache for {@link TimeStamped time-stamped} data with lock-free reads.
+ * <p>
+ * This class is an alternative to {@link GenericTimeStampedCache} with the same
+ * configuration parameters and the same statistics counters. The difference lies
+ * in the way concurrent accesses are managed. Here, the list of slots and the
+ * entries of each slot are immutable and are published atomically. Calls to
+ * {@link #getNeighbors(AbsoluteDate)} that can be served by already cached entries
+ * therefore never acquire any lock. Only calls that need to generate new entries,
+ * create a new slot or evict an old one are serialized. Extending a slot creates
+ * a new copy of it, so this implementation is best suited to workloads where cache
+ * hits largely dominate, which is the case for most frames and ephemerides caches.
+ * </p>
+ * <p>
+ * The read path also avoids writing to memory shared between reader threads as
+ * much as possible: the calls counter is striped, the slot last access time is
+ * only updated when it is older than {@link #ACCESS_UPDATE_THRESHOLD} and the
+ * guessed index of each slot is only written when it changes.
+ * </p>
+ * @param <T> Type of the cached data.
+ * @see GenericTimeStampedCache
+ * @since 9.0
+ */
+public class LockFreeTimeStampedCache<T extends TimeStamped> implements TimeStampedCache<T> {
+
+    /** Minimum age in milliseconds before a slot last access time is updated.
+     * <p>
+     * Last access times are only used to select slots for eviction, so a coarse
+     * resolution is sufficient and avoids writing shared memory on each hit.
+     * </p>
+     */
+    public static final long ACCESS_UPDATE_THRESHOLD = 100L;
+
+    /** Quantum step. */
+    private static final double QUANTUM_STEP = 1.0e-6;
+
+    /** Reference date for indexing. */
+    private final AtomicReference<AbsoluteDate> reference;
+
+    /** Maximum number of independent cached time slots. */
+    private final int maxSlots;
+
+    /** Maximum duration span in seconds of one slot. */
+    private final double maxSpan;
+
+    /** Quantum gap above which a new slot is created instead of extending an existing one. */
+    private final long newSlotQuantumGap;
+
+    /** Generator to use for yet non-cached data. */
+    private final TimeStampedGenerator<T> generator;
+
+    /** Number of entries in a neighbors array. */
+    private final int neighborsSize;
+
+    /** Independent time slots cached (the published lists are never modified). */
+    private final AtomicReference<List<Slot>> slots;
+
+    /** Number of calls to the getNeighbors method (striped to avoid contention between readers). */
+    private final LongAdder getNeighborsCalls;
+
+    /** Number of calls to the generate method. */
+    private final AtomicInteger generateCalls;
+
+    /** Number of evictions. */
+    private final AtomicInteger evictions;
+
+    /** Lock serializing slots generation and eviction. */
+    private final ReentrantLock lock;
+
+    /** Simple constructor.
+     * @param neighborsSize fixed size of the arrays to be returned by {@link
+     * #getNeighbors(AbsoluteDate)}, must be at least 2
+     * @param maxSlots maximum number of independent cached time slots
+     * @param maxSpan maximum duration span in seconds of one slot
+     * (can be set to {@code Double.POSITIVE_INFINITY} if desired)
+     * @param newSlotInterval time interval above which a new slot is created
+     * instead of extending an existing one
+     * @param generator generator to use for yet non-existent data
+     */
+    public LockFreeTimeStampedCache(final int neighborsSize, final int maxSlots, final double maxSpan,
+                                    final double newSlotInterval, final TimeStampedGenerator<T> generator) {
+
+        // safety check
+        if (maxSlots < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, maxSlots, 1);
+        }
+        if (neighborsSize < 2) {
+            throw new OrekitIllegalArgumentException(OrekitMessages.NOT_ENOUGH_CACHED_NEIGHBORS,
+                                                     neighborsSize, 2);
+        }
+
+        this.reference         = new AtomicReference<AbsoluteDate>();
+        this.maxSlots          = maxSlots;
+        this.maxSpan           = maxSpan;
+        this.newSlotQuantumGap = FastMath.round(newSlotInterval / QUANTUM_STEP);
+        this.generator         = generator;
+        this.neighborsSize     = neighborsSize;
+        this.slots             = new AtomicReference<List<Slot>>(Collections.<Slot>emptyList());
+        this.getNeighborsCalls = new LongAdder();
+        this.generateCalls     = new AtomicInteger(0);
+        this.evictions         = new AtomicInteger(0);
+        this.lock              = new ReentrantLock();
+
+    }
+
+    /** Get the generator.
+     * @return generator
+     */
+    public TimeStampedGenerator<T> getGenerator() {
+        return generator;
+    }
+
+    /** Get the maximum number of independent cached time slots.
+     * @return maximum number of independent cached time slots
+     */
+    public int getMaxSlots() {
+        return maxSlots;
+    }
+
+    /** Get the maximum duration span in seconds of one slot.
+     * @return maximum duration span in seconds of one slot
+     */
+    public double getMaxSpan() {
+        return maxSpan;
+    }
+
+    /** Get quantum gap above which a new slot is created instead of extending an existing one.
+     * <p>
+     * The quantum gap is the {@code newSlotInterval} value provided at construction
+     * rounded to the nearest quantum step used internally by the cache.
+     * </p>
+     * @return quantum gap in seconds
+     */
+    public double getNewSlotQuantumGap() {
+        return newSlotQuantumGap * QUANTUM_STEP;
+    }
+
+    /** Get the number of calls to the {@link #getNeighbors(AbsoluteDate)} method.
+     * <p>
+     * This number of calls is used as a reference to interpret {@link #getGenerateCalls()}.
+     * </p>
+     * @return number of calls to the {@link #getNeighbors(AbsoluteDate)} method
+     * @see #getGenerateCalls()
+     */
+    public int getGetNeighborsCalls() {
+        return getNeighborsCalls.intValue();
+    }
+
+    /** Get the number of calls to the generate method.
+     * <p>
+     * This number of calls is related to the number of cache misses and may
+     * be used to tune the cache configuration. Each cache miss implies at
+     * least one call is performed, but may require several calls if the new
+     * date is far offset from the existing cache, depending on the number of
+     * elements and step between elements in the arrays returned by the generator.
+     * </p>
+     * @return number of calls to the generate method
+     * @see #getGetNeighborsCalls()
+     */
+    public int getGenerateCalls() {
+        return generateCalls.get();
+    }
+
+    /** Get the number of slots evictions.
+     * <p>
+     * This number should remain small when the max number of slots is sufficient
+     * with respect to the number of concurrent requests to the cache. If it
+     * increases too much, then the cache configuration is probably bad and cache
+     * does not really improve things (in this case, the {@link #getGenerateCalls()
+     * number of calls to the generate method} will probably increase too.
+     * </p>
+     * @return number of slots evictions
+     */
+    public int getSlotsEvictions() {
+        return evictions.get();
+    }
+
+    /** Get the number of slots in use.
+     * @return number of slots in use
+     */
+    public int getSlots() {
+        return slots.get().size();
+    }
+
+    /** Get the total number of entries cached.
+     * @return total number of entries cached
+     */
+    public int getEntries() {
+        int entries = 0;
+        for (final Slot slot : slots.get()) {
+            entries += slot.getEntries();
+        }
+        return entries;
+    }
+
+    /** Get the earliest cached entry.
+     * @return earliest cached entry
+     * @exception IllegalStateException if the cache has no slots at all
+     * @see #getSlots()
+     */
+    public T getEarliest() throws IllegalStateException {
+        final List<Slot> current = slots.get();
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return current.get(0).getEarliest();
+    }
+
+    /** Get the latest cached entry.
+     * @return latest cached entry
+     * @exception IllegalStateException if the cache has no slots at all
+     * @see #getSlots()
+     */
+    public T getLatest() throws IllegalStateException {
+        final List<Slot> current = slots.get();
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return current.get(current.size() - 1).getLatest();
+    }
+
+    /** Get the fixed size of the arrays to be returned by {@link #getNeighbors(AbsoluteDate)}.
+     * @return size of the array
+     */
+    public int getNeighborsSize() {
+        return neighborsSize;
+    }
+
+    /** Get the entries surrounding a central date.
+     * <p>
+     * If the central date is well within covered range, the returned array
+     * will be balanced with half the points before central date and half the
+     * points after it (depending on n parity, of course). If the central date
+     * is near the generator range boundary, then the returned array will be
+     * unbalanced and will contain only the n earliest (or latest) generated
+     * (and cached) entries. A typical example of the later case is leap seconds
+     * cache, since the number of leap seconds cannot be arbitrarily increased.
+     * </p>
+     * <p>
+     * No lock is acquired if the already cached entries are sufficient.
+     * </p>
+     * @param central central date
+     * @return array of cached entries surrounding specified date (the size
+     * of the array is fixed to the one specified in the {@link
+     * #LockFreeTimeStampedCache(int, int, double, double, TimeStampedGenerator)
+     * constructor})
+     * @exception TimeStampedCacheException if entries are not chronologically
+     * sorted or if new data cannot be generated
+     * @see #getEarliest()
+     * @see #getLatest()
+     */
+    public Stream<T> getNeighbors(final AbsoluteDate central) throws TimeStampedCacheException {
+
+        getNeighborsCalls.increment();
+        final long dateQuantum = quantum(central);
+
+        // lock-free path, using the currently published slots
+        final List<Slot> current = slots.get();
+        if (!current.isEmpty()) {
+            final Slot slot = current.get(slotIndex(current, dateQuantum));
+            if (slot.covers(dateQuantum)) {
+                final int firstNeighbor = slot.entryIndex(dateQuantum) - (neighborsSize - 1) / 2;
+                if (firstNeighbor >= 0 && firstNeighbor + neighborsSize <= slot.getEntries()) {
+                    slot.updateLastAccess();
+                    return slot.getNeighbors(firstNeighbor);
+                }
+            }
+        }
+
+        // the cache must be updated, this is serialized
+        lock.lock();
+        try {
+            return updateAndGetNeighbors(central, dateQuantum);
+        } finally {
+            lock.unlock();
+        }
+
+    }
+
+    /** Convert a date to a rough global quantum.
+     * @param date date to convert
+     * @return quantum corresponding to the date
+     */
+    private long quantum(final AbsoluteDate date) {
+        AbsoluteDate ref = reference.get();
+        if (ref == null) {
+            // only the very first calls attempt to set the reference
+            reference.compareAndSet(null, date);
+            ref = reference.get();
+        }
+        return FastMath.round(date.durationFrom(ref) / QUANTUM_STEP);
+    }
+
+    /** Update the cache so it covers a date and get the entries surrounding it.
+     * <p>
+     * We own the global lock while calling this method.
+     * </p>
+     * @param central central date
+     * @param dateQuantum global quantum of the date
+     * @return array of cached entries surrounding specified date
+     * @exception TimeStampedCacheException if entries are not chronologically
+     * sorted or if new data cannot be generated
+     */
+    private Stream<T> updateAndGetNeighbors(final AbsoluteDate central, final long dateQuantum)
+        throws TimeStampedCacheException {
+
+        // check slots again as another thread may have changed
+        // the list while we were waiting for the lock
+        final List<Slot> current = slots.get();
+        int index = current.isEmpty() ? 0 : slotIndex(current, dateQuantum);
+        final boolean createSlot = current.isEmpty() || !current.get(index).covers(dateQuantum);
+
+        // prepare the slot entries, either from scratch or from the existing ones
+        final SlotBuilder builder;
+        if (createSlot) {
+            if (!current.isEmpty() && current.get(index).getLatestQuantum() < dateQuantum - newSlotQuantumGap) {
+                ++index;
+            }
+            builder = new SlotBuilder(central);
+        } else {
+            builder = new SlotBuilder(current.get(index));
+        }
+
+        // make sure the slot is balanced around the central date
+        final int firstNeighbor = builder.balance(central, dateQuantum);
+        final Slot slot = builder.build();
+
+        // publish the updated slots list
+        final List<Slot> updated = new ArrayList<Slot>(current);
+        if (createSlot) {
+            if (updated.size() >= maxSlots) {
+                // we must prevent exceeding allowed max
+
+                // select the oldest accessed slot for eviction
+                int evict = 0;
+                for (int i = 0; i < updated.size(); ++i) {
+                    if (updated.get(i).getLastAccess() < updated.get(evict).getLastAccess()) {
+                        evict = i;
+                    }
+                }
+
+                // evict the selected slot
+                evictions.incrementAndGet();
+                updated.remove(evict);
+
+                if (evict < index) {
+                    // adjust index of created slot as it was shifted by the eviction
+                    index--;
+                }
+            }
+            updated.add(index, slot);
+        } else {
+            updated.set(index, slot);
+        }
+        slots.set(updated);
+
+        return slot.getNeighbors(firstNeighbor);
+
+    }
+
+    /** Get the index of the slot in which a date could be cached.
+     * @param list non-empty list of slots
+     * @param dateQuantum quantum of the date to search for
+     * @return the slot in which the date could be cached
+     */
+    private int slotIndex(final List<Slot> list, final long dateQuantum) {
+
+        int  iInf = 0;
+        final long qInf = list.get(iInf).getEarliestQuantum();
+        int  iSup = list.size() - 1;
+        final long qSup = list.get(iSup).getLatestQuantum();
+        while (iSup - iInf > 0) {
+            final int iInterp = (int) ((iInf * (qSup - dateQuantum) + iSup * (dateQuantum - qInf)) / (qSup - qInf));
+            final int iMed    = FastMath.max(iInf, FastMath.min(iInterp, iSup));
+            final Slot slot   = list.get(iMed);
+            if (dateQuantum < slot.getEarliestQuantum()) {
+                iSup = iMed - 1;
+            } else if (dateQuantum > slot.getLatestQuantum()) {
+                iInf = FastMath.min(iSup, iMed + 1);
+            } else {
+                return iMed;
+            }
+        }
+
+        return iInf;
+
+    }
+
+    /** Generate entries and check ordering.
+     * @param existingDate date of the closest already existing entry (may be null)
+     * @param date date that must be covered by the range of the generated array
+     * @return chronologically sorted list of generated entries
+     * @exception TimeStampedCacheException if if entries are not chronologically
+     * sorted or if new data cannot be generated
+     */
+    private List<T> generateAndCheck(final AbsoluteDate existingDate, final AbsoluteDate date)
+        throws TimeStampedCacheException {
+        generateCalls.incrementAndGet();
+        final List<T> entries = generator.generate(existingDate, date);
+        if (entries.isEmpty()) {
+            throw new TimeStampedCacheException(OrekitMessages.NO_DATA_GENERATED, date);
+        }
+        for (int i = 1; i < entries.size(); ++i) {
+            if (entries.get(i).getDate().compareTo(entries.get(i - 1).getDate()) < 0) {
+                throw new TimeStampedCacheException(OrekitMessages.NON_CHRONOLOGICALLY_SORTED_ENTRIES,
+                                                    entries.get(i - 1).getDate(),
+                                                    entries.get(i).getDate());
+            }
+        }
+        return entries;
+    }
+
+    /** Immutable time slot. */
+    private final class Slot {
+
+        /** Cached time-stamped entries. */
+        private final List<T> data;
+
+        /** Global quanta of the cached entries. */
+        private final long[] quanta;
+
+        /** Index from a previous recent call.
+         * <p>
+         * This field is deliberately neither volatile nor atomic: a stale
+         * value only costs a full search, and writes occur only when it changes.
+         * </p>
+         */
+        private int guessedIndex;
+
+        /** Last access time. */
+        private volatile long lastAccess;
+
+        /** Simple constructor.
+         * @param data cached time-stamped entries
+         * @param quanta global quanta of the cached entries
+         * @param lastAccess last access time
+         */
+        Slot(final List<T> data, final long[] quanta, final long lastAccess) {
+            this.data         = data;
+            this.quanta       = quanta;
+            this.guessedIndex = quanta.length / 2;
+            this.lastAccess   = lastAccess;
+        }
+
+        /** Get the earliest entry contained in the slot.
+         * @return earliest entry contained in the slot
+         */
+        public T getEarliest() {
+            return data.get(0);
+        }
+
+        /** Get the quantum of the earliest date contained in the slot.
+         * @return quantum of the earliest date contained in the slot
+         */
+        public long getEarliestQuantum() {
+            return quanta[0];
+        }
+
+        /** Get the latest entry contained in the slot.
+         * @return latest entry contained in the slot
+         */
+        public T getLatest() {
+            return data.get(data.size() - 1);
+        }
+
+        /** Get the quantum of the latest date contained in the slot.
+         * @return quantum of the latest date contained in the slot
+         */
+        public long getLatestQuantum() {
+            return quanta[quanta.length - 1];
+        }
+
+        /** Get the number of entries contained in the slot.
+         * @return number of entries contained in the slot
+         */
+        public int getEntries() {
+            return quanta.length;
+        }
+
+        /** Check if a date is close enough to the slot to be handled by it.
+         * @param dateQuantum global quantum of the date
+         * @return true if the slot (possibly extended) can handle the date
+         */
+        public boolean covers(final long dateQuantum) {
+            return getEarliestQuantum() <= dateQuantum + newSlotQuantumGap &&
+                   getLatestQuantum()   >= dateQuantum - newSlotQuantumGap;
+        }
+
+        /** Get last access time of slot.
+         * @return last known access time
+         */
+        public long getLastAccess() {
+            return lastAccess;
+        }
+
+        /** Update last access time of slot.
+         * <p>
+         * The time is updated only if it is older than {@link #ACCESS_UPDATE_THRESHOLD},
+         * so slots accessed continuously are not written to on each hit.
+         * </p>
+         */
+        public void updateLastAccess() {
+            final long now = System.currentTimeMillis();
+            if (now - lastAccess > ACCESS_UPDATE_THRESHOLD) {
+                lastAccess = now;
+            }
+        }
+
+        /** Get the entries starting at some index.
+         * @param firstNeighbor index of the first neighbor
+         * @return a new stream containing date neighbors
+         */
+        public Stream<T> getNeighbors(final int firstNeighbor) {
+            final Stream.Builder<T> builder = Stream.builder();
+            for (int i = 0; i < neighborsSize; ++i) {
+                builder.accept(data.get(firstNeighbor + i));
+            }
+            return builder.build();
+        }
+
+        /** Get the index of the entry corresponding to a date.
+         * @param dateQuantum global quantum of the date
+         * @return index in the array such that entry[index] is before
+         * date and entry[index + 1] is after date (or they are at array boundaries)
+         */
+        public int entryIndex(final long dateQuantum) {
+
+            // first quick guesses, assuming a recent search was close enough
+            final int guess = guessedIndex;
+            if (guess > 0 && guess < quanta.length) {
+                if (quanta[guess] <= dateQuantum) {
+                    if (guess + 1 < quanta.length && quanta[guess + 1] > dateQuantum) {
+                        // good guess!
+                        return guess;
+                    } else {
+                        // perhaps we have simply shifted just one point forward ?
+                        if (guess + 2 < quanta.length && quanta[guess + 2] > dateQuantum) {
+                            guessedIndex = guess + 1;
+                            return guess + 1;
+                        }
+                    }
+                } else {
+                    // perhaps we have simply shifted just one point backward ?
+                    if (guess > 1 && quanta[guess - 1] <= dateQuantum) {
+                        guessedIndex = guess - 1;
+                        return guess - 1;
+                    }
+                }
+            }
+
+            // quick guesses have failed, we need to perform a full blown search
+            final int index = searchIndex(quanta, quanta.length, dateQuantum);
+            if (index >= 0 && index < quanta.length && index != guess) {
+                guessedIndex = index;
+            }
+            return index;
+
+        }
+
+    }
+
+    /** Get the index of the entry corresponding to a date.
+     * @param quanta sorted quanta of the entries
+     * @param size number of entries to consider
+     * @param dateQuantum global quantum of the date
+     * @return index in the array such that entry[index] is before
+     * date and entry[index + 1] is after date (or they are at array boundaries)
+     */
+    private static int searchIndex(final long[] quanta, final int size, final long dateQuantum) {
+
+        if (dateQuantum < quanta[0]) {
+            // date if before the first entry
+            return -1;
+        } else if (dateQuantum > quanta[size - 1]) {
+            // date is after the last entry
+            return size;
+        } else {
+
+            // try to get an existing entry
+            int  iInf = 0;
+            final long qInf = quanta[iInf];
+            int  iSup = size - 1;
+            final long qSup = quanta[iSup];
+            while (iSup - iInf > 0) {
+                // within a continuous slot, entries are expected to be roughly linear
+                final int iInterp = (int) ((iInf * (qSup - dateQuantum) + iSup * (dateQuantum - qInf)) / (qSup - qInf));
+                final int iMed    = FastMath.max(iInf + 1, FastMath.min(iInterp, iSup));
+                if (dateQuantum < quanta[iMed]) {
+                    iSup = iMed - 1;
+                } else if (dateQuantum > quanta[iMed]) {
+                    iInf = iMed;
+                } else {
+                    return iMed;
+                }
+            }
+
+            return iInf;
+
+        }
+
+    }
+
+    /** Mutable builder for slots.
+     * <p>
+     * Builders are used only while owning the global lock.
+     * </p>
+     */
+    private final class SlotBuilder {
+
+        /** Cached time-stamped entries. */
+        private final List<T> data;
+
+        /** Global quanta of the cached entries. */
+        private long[] quanta;
+
+        /** Creation time of the original slot. */
+        private final long lastAccess;
+
+        /** Build a new slot from scratch.
+         * @param date central date for initial entries to insert in the slot
+         * @exception TimeStampedCacheException if entries are not chronologically
+         * sorted or if new data cannot be generated
+         */
+        SlotBuilder(final AbsoluteDate date) throws TimeStampedCacheException {
+
+            this.data       = new ArrayList<T>();
+            this.quanta     = new long[neighborsSize];
+            this.lastAccess = System.currentTimeMillis();
+
+            // set up first entries
+            for (final T entry : generateAndCheck(null, date)) {
+                add(data.size(), entry, quantum(entry.getDate()));
+            }
+
+            while (data.size() < neighborsSize) {
+                // we need to generate more entries
+
+                final AbsoluteDate entry0 = data.get(0).getDate();
+                final AbsoluteDate entryN = data.get(data.size() - 1).getDate();
+
+                if (entryN.durationFrom(date) <= date.durationFrom(entry0)) {
+                    // generate additional point at the end of the slot
+                    appendAtEnd(generateAndCheck(entryN,
+                                                 entryN.shiftedBy(getMeanStep() * (neighborsSize - data.size()))));
+                } else {
+                    // generate additional point at the start of the slot
+                    insertAtStart(generateAndCheck(entry0,
+                                                   entry0.shiftedBy(-getMeanStep() * (neighborsSize - data.size()))));
+                }
+
+            }
+
+        }
+
+        /** Build a new slot from an existing one.
+         * @param slot existing slot
+         */
+        SlotBuilder(final Slot slot) {
+            this.data       = new ArrayList<T>(slot.data);
+            this.quanta     = slot.quanta.clone();
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        /** Build the immutable slot.
+         * @return immutable slot
+         */
+        public Slot build() {
+            final long[] trimmed = new long[data.size()];
+            System.arraycopy(quanta, 0, trimmed, 0, trimmed.length);
+            return new Slot(Collections.unmodifiableList(data), trimmed, lastAccess);
+        }
+
+        /** Generate entries as needed so the slot is balanced around a date.
+         * <p>
+         * If the underlying {@link TimeStampedGenerator generator} cannot extend the
+         * slot, then the neighbors will be unbalanced and will contain only the n
+         * earliest (or latest) cached entries.
+         * </p>
+         * @param central central date
+         * @param dateQuantum global quantum of the date
+         * @return index of the first neighbor of the central date
+         * @exception TimeStampedCacheException if entries are not chronologically
+         * sorted or if new data cannot be generated
+         */
+        public int balance(final AbsoluteDate central, final long dateQuantum)
+            throws TimeStampedCacheException {
+
+            int firstNeighbor = searchIndex(quanta, data.size(), dateQuantum) - (neighborsSize - 1) / 2;
+            while (firstNeighbor < 0 || firstNeighbor + neighborsSize > data.size()) {
+
+                // estimate which data we need to be generated
+                final double step = getMeanStep();
+                final AbsoluteDate existingDate;
+                final AbsoluteDate generationDate;
+                final boolean simplyRebalance;
+                if (firstNeighbor < 0) {
+                    existingDate    = data.get(0).getDate();
+                    generationDate  = existingDate.shiftedBy(step * firstNeighbor);
+                    simplyRebalance = existingDate.compareTo(central) <= 0;
+                } else {
+                    existingDate    = data.get(data.size() - 1).getDate();
+                    generationDate  = existingDate.shiftedBy(step * (firstNeighbor + neighborsSize - data.size()));
+                    simplyRebalance = existingDate.compareTo(central) >= 0;
+                }
+
+                // generated data and add it to the slot
+                try {
+                    if (firstNeighbor < 0) {
+                        insertAtStart(generateAndCheck(existingDate, generationDate));
+                    } else {
+                        appendAtEnd(generateAndCheck(existingDate, generationDate));
+                    }
+                } catch (TimeStampedCacheException tce) {
+                    if (simplyRebalance) {
+                        // we were simply trying to rebalance an unbalanced interval near slot end
+                        // we failed, but the central date is already covered by the existing (unbalanced) data
+                        // so we ignore the exception and stop the loop, we will continue with what we have
+                        break;
+                    } else {
+                        throw tce;
+                    }
+                }
+
+                firstNeighbor = searchIndex(quanta, data.size(), dateQuantum) - (neighborsSize - 1) / 2;
+
+            }
+
+            // we may end up with a non-balanced neighborhood,
+            // adjust the start point to fit within the cache
+            return FastMath.max(0, FastMath.min(firstNeighbor, data.size() - neighborsSize));
+
+        }
+
+        /** Get the mean step between entries.
+         * @return mean step between entries (or an arbitrary non-null value
+         * if there are fewer than 2 entries)
+         */
+        private double getMeanStep() {
+            if (data.size() < 2) {
+                return 1.0;
+            } else {
+                final AbsoluteDate t0 = data.get(0).getDate();
+                final AbsoluteDate tn = data.get(data.size() - 1).getDate();
+                return tn.durationFrom(t0) / (data.size() - 1);
+            }
+        }
+
+        /** Add an entry.
+         * @param index index at which the entry should be added
+         * @param entry entry to add
+         * @param quantum quantum of the entry
+         */
+        private void add(final int index, final T entry, final long quantum) {
+            final int n = data.size();
+            if (n == quanta.length) {
+                final long[] extended = new long[FastMath.max(2 * n, neighborsSize)];
+                System.arraycopy(quanta, 0, extended, 0, n);
+                quanta = extended;
+            }
+            System.arraycopy(quanta, index, quanta, index + 1, n - index);
+            quanta[index] = quantum;
+            data.add(index, entry);
+        }
+
+        /** Remove an entry.
+         * @param index index of the entry to remove
+         */
+        private void remove(final int index) {
+            final int n = data.size();
+            System.arraycopy(quanta, index + 1, quanta, index, n - index - 1);
+            data.remove(index);
+        }
+
+        /** Insert data at slot start.
+         * @param generated data to insert
+         * @exception TimeStampedCacheException if new data cannot be generated
+         */
+        private void insertAtStart(final List<T> generated) throws TimeStampedCacheException {
+
+            // insert data at start
+            boolean inserted = false;
+            final long q0 = quanta[0];
+            for (int i = 0; i < generated.size(); ++i) {
+                final long quantum = quantum(generated.get(i).getDate());
+                if (quantum < q0) {
+                    add(i, generated.get(i), quantum);
+                    inserted = true;
+                } else {
+                    break;
+                }
+            }
+
+            if (!inserted) {
+                throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                                                    data.get(0).getDate());
+            }
+
+            // evict excess data at end
+            final AbsoluteDate t0 = data.get(0).getDate();
+            while (data.size() > neighborsSize &&
+                   data.get(data.size() - 1).getDate().durationFrom(t0) > maxSpan) {
+                remove(data.size() - 1);
+            }
+
+        }
+
+        /** Append data at slot end.
+         * @param generated data to append
+         * @exception TimeStampedCacheException if new data cannot be generated
+         */
+        private void appendAtEnd(final List<T> generated) throws TimeStampedCacheException {
+
+            // append data at end
+            boolean appended = false;
+            final int  n  = data.size();
+            final long qn = quanta[n - 1];
+            for (int i = generated.size() - 1; i >= 0; --i) {
+                final long quantum = quantum(generated.get(i).getDate());
+                if (quantum > qn) {
+                    add(n, generated.get(i), quantum);
+                    appended = true;
+                } else {
+                    break;
+                }
+            }
+
+            if (!appended) {
+                throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
+                                                    data.get(data.size() - 1).getDate());
+            }
+
+            // evict excess data at start
+            final AbsoluteDate tn = data.get(data.size() - 1).getDate();
+            while (data.size() > neighborsSize &&
+                   tn.durationFrom(data.get(0).getDate()) > maxSpan) {
+                remove(0);
+            }
+
+        }
+
+    }
+
+}
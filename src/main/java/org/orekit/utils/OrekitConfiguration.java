@@ -24,10 +24,22 @@ package org.orekit.utils;
 public class OrekitConfiguration {
 
     /** Number of slots to use in caches. */
-    private static int CACHE_SLOTS_NUMBER;
+    private static volatile int CACHE_SLOTS_NUMBER;
+
+    /** Number of grid points for series interpolation (0 if series are evaluated directly). */
+    private static volatile int SERIES_INTERPOLATION_POINTS;
+
+    /** Grid step for series interpolation. */
+    private static volatile double SERIES_INTERPOLATION_STEP;
+
+    /** Maximum interpolation error allowed for series interpolation. */
+    private static volatile double SERIES_INTERPOLATION_THRESHOLD;
 
     static {
-        CACHE_SLOTS_NUMBER = 100;
+        CACHE_SLOTS_NUMBER             = 100;
+        SERIES_INTERPOLATION_POINTS    = 0;
+        SERIES_INTERPOLATION_STEP      = Double.NaN;
+        SERIES_INTERPOLATION_THRESHOLD = Double.NaN;
     }
 
     /** Private constructor.
@@ -52,4 +64,61 @@ public class OrekitConfiguration {
         return CACHE_SLOTS_NUMBER;
     }
 
+    /** Set the interpolation of the precession, nutation and CIP/CIO series.
+     * <p>
+     * By default, the functions returned by {@link IERSConventions#getPrecessionFunction()},
+     * {@link IERSConventions#getNutationFunction()} and {@link IERSConventions#getXYSpXY2Function()}
+     * evaluate the complete series at each date. When interpolation is set up, they
+     * are wrapped in {@link InterpolatingTimeVectorFunction} instances, so the series are
+     * evaluated only on a regular grid (the correction to the equation of equinoxes
+     * returned by the nutation function is discontinuous, so it is not interpolated).
+     * As the frames built by {@link
+     * org.orekit.frames.FramesFactory FramesFactory} get these functions when they are
+     * first built, this setting must be configured before the frames are used.
+     * </p>
+     * <p>
+     * The Greenwich apparent sidereal time series used by {@link
+     * IERSConventions#getGASTFunction(org.orekit.time.TimeScale, org.orekit.frames.EOPHistory)}
+     * are interpolated too. The interpolating wrappers are built once for each
+     * conventions and each setting, and are shared by all the frames using them.
+     * </p>
+     * @param gridPoints number of interpolation grid points (0 to evaluate the series directly)
+     * @param step grid points time step (s)
+     * @param threshold maximum interpolation error allowed at check points (rad)
+     * @see InterpolatingTimeVectorFunction
+     * @since 9.0
+     */
+    public static void setSeriesInterpolation(final int gridPoints, final double step, final double threshold) {
+        OrekitConfiguration.SERIES_INTERPOLATION_POINTS    = gridPoints;
+        OrekitConfiguration.SERIES_INTERPOLATION_STEP      = step;
+        OrekitConfiguration.SERIES_INTERPOLATION_THRESHOLD = threshold;
+    }
+
+    /** Get the number of grid points for series interpolation.
+     * @return number of grid points for series interpolation (0 if series are evaluated directly)
+     * @see #setSeriesInterpolation(int, double, double)
+     * @since 9.0
+     */
+    public static int getSeriesInterpolationPoints() {
+        return SERIES_INTERPOLATION_POINTS;
+    }
+
+    /** Get the grid step for series interpolation.
+     * @return grid step for series interpolation (s)
+     * @see #setSeriesInterpolation(int, double, double)
+     * @since 9.0
+     */
+    public static double getSeriesInterpolationStep() {
+        return SERIES_INTERPOLATION_STEP;
+    }
+
+    /** Get the maximum interpolation error allowed for series interpolation.
+     * @return maximum interpolation error allowed for series interpolation (rad)
+     * @see #setSeriesInterpolation(int, double, double)
+     * @since 9.0
+     */
+    public static double getSeriesInterpolationThreshold() {
+        return SERIES_INTERPOLATION_THRESHOLD;
+    }
+
 }
@@ -0,0 +1,253 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.bodies;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hipparchus.util.Decimal64Field;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+public class MappedJPLEphemeridesTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testSharedMapping() throws OrekitException, URISyntaxException {
+        final File file = getFile("regular-data/de405-ephemerides/unxp0003.405");
+        Assert.assertSame(MappedJPLEphemerides.getInstance(file),
+                          MappedJPLEphemerides.getInstance(new File(file.getParentFile(), "../de405-ephemerides/unxp0003.405")));
+        Assert.assertSame(MappedJPLEphemerides.getInstance(file),
+                          new MappedJPLEphemeridesLoader(file, JPLEphemeridesLoader.EphemerisType.MOON).getEphemerides());
+    }
+
+    @Test
+    public void testConstants() throws OrekitException, URISyntaxException {
+        final MappedJPLEphemerides mapped =
+                MappedJPLEphemerides.getInstance(getFile("regular-data/de405-ephemerides/unxp0003.405"));
+        final JPLEphemeridesLoader loader =
+                new JPLEphemeridesLoader("^unxp0003\\.405$", JPLEphemeridesLoader.EphemerisType.SUN);
+        Assert.assertEquals("unxp0003.405", mapped.getName());
+        Assert.assertEquals(loader.getLoadedAstronomicalUnit(), mapped.getLoadedAstronomicalUnit(), 1.0e-15);
+        Assert.assertEquals(loader.getLoadedEarthMoonMassRatio(), mapped.getLoadedEarthMoonMassRatio(), 1.0e-15);
+        for (final JPLEphemeridesLoader.EphemerisType type : JPLEphemeridesLoader.EphemerisType.values()) {
+            Assert.assertEquals(loader.getLoadedGravitationalCoefficient(type),
+                                mapped.getLoadedGravitationalCoefficient(type),
+                                1.0e-15 * loader.getLoadedGravitationalCoefficient(type));
+        }
+        Assert.assertTrue(Double.isNaN(mapped.getLoadedConstant("not-a-constant")));
+        Assert.assertEquals(2002, mapped.getStartEpoch().getComponents(TimeScalesFactory.getTDB()).getDate().getYear());
+        Assert.assertEquals(2004, mapped.getFinalEpoch().getComponents(TimeScalesFactory.getTDB()).getDate().getYear());
+    }
+
+    @Test
+    public void testSameAsLoaderDE() throws OrekitException, URISyntaxException {
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 1, 1, 0, 0, 0.0, TimeScalesFactory.getTT());
+        for (final JPLEphemeridesLoader.EphemerisType type : JPLEphemeridesLoader.EphemerisType.values()) {
+            checkSameAsLoader("regular-data/de405-ephemerides/unxp0003.405", "^unxp0003\\.405$",
+                              type, t0, 0.0);
+        }
+    }
+
+    @Test
+    public void testSameAsLoaderInpop() throws OrekitException, URISyntaxException {
+        final AbsoluteDate t0 = new AbsoluteDate(1969, 7, 17, 10, 43, 23.4, TimeScalesFactory.getTT());
+        for (final String name : new String[] {
+            "inpop10b_TCB_summer_1969_bigendian.dat",
+            "inpop10b_TCB_summer_1969_littleendian.dat",
+            "inpop10b_TDB_summer_1969_bigendian.dat"
+        }) {
+            checkSameAsLoader("inpop/" + name, "^" + name.replace(".", "\\.") + "$",
+                              JPLEphemeridesLoader.EphemerisType.MARS, t0, 0.0);
+        }
+    }
+
+    @Test
+    public void testField() throws OrekitException, URISyntaxException {
+        final CelestialBody moon =
+                new MappedJPLEphemeridesLoader(getFile("regular-data/de405-ephemerides/unxp0003.405"),
+                                               JPLEphemeridesLoader.EphemerisType.MOON).
+                loadCelestialBody(CelestialBodyFactory.MOON);
+        final Frame gcrf = FramesFactory.getGCRF();
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 6, 1, 0, 0, 0.0, TimeScalesFactory.getTT());
+        for (double dt = 0; dt < 40 * Constants.JULIAN_DAY; dt += 7200) {
+            final AbsoluteDate date = t0.shiftedBy(dt);
+            final PVCoordinates pv  = moon.getPVCoordinates(date, gcrf);
+            final PVCoordinates fpv = ((JPLCelestialBody) moon).
+                                      getPVCoordinates(new FieldAbsoluteDate<>(Decimal64Field.getInstance(), date),
+                                                       gcrf).
+                                      toPVCoordinates();
+            Assert.assertEquals(0.0, pv.getPosition().distance(fpv.getPosition()), 1.0e-6);
+            Assert.assertEquals(0.0, pv.getVelocity().distance(fpv.getVelocity()), 1.0e-9);
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException, URISyntaxException {
+        final MappedJPLEphemerides mapped =
+                MappedJPLEphemerides.getInstance(getFile("regular-data/de405-ephemerides/unxp0003.405"));
+        final CelestialBody sun =
+                new MappedJPLEphemeridesLoader(mapped, JPLEphemeridesLoader.EphemerisType.SUN).
+                loadCelestialBody(CelestialBodyFactory.SUN);
+        final Frame icrf = FramesFactory.getICRF();
+
+        // the boundaries themselves are supported
+        Assert.assertNotNull(sun.getPVCoordinates(mapped.getStartEpoch(), icrf));
+        Assert.assertNotNull(sun.getPVCoordinates(mapped.getFinalEpoch(), icrf));
+
+        for (final AbsoluteDate date : new AbsoluteDate[] {
+            mapped.getStartEpoch().shiftedBy(-Constants.JULIAN_DAY),
+            mapped.getFinalEpoch().shiftedBy(Constants.JULIAN_DAY)
+        }) {
+            try {
+                sun.getPVCoordinates(date, icrf);
+                Assert.fail("an exception should have been thrown");
+            } catch (OrekitException oe) {
+                Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, oe.getSpecifier());
+            }
+        }
+    }
+
+    @Test
+    public void testNotAJPLFile() throws URISyntaxException {
+        try {
+            MappedJPLEphemerides.getInstance(getFile("regular-data/UTC-TAI.history"));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertTrue(oe.getSpecifier() == OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE ||
+                              oe.getSpecifier() == OrekitMessages.UNABLE_TO_READ_JPL_HEADER);
+        }
+    }
+
+    @Test
+    public void testNoChunks() throws URISyntaxException, IOException {
+        final File file = tempFolder.newFile("no-chunks.405");
+        Files.copy(getFile("regular-data/de405-ephemerides/unxp0003.405").toPath(), file.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+
+        // set the number of chunks for Mercury to 0 (which is the same in both byte orders)
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(JPLEphemeridesLoader.HEADER_CHEBISHEV_INDICES_OFFSET + 8);
+            raf.writeInt(0);
+        }
+
+        try {
+            MappedJPLEphemerides.getInstance(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_JPL_EPHEMERIDES_BINARY_FILE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testMissingFile() throws URISyntaxException {
+        try {
+            MappedJPLEphemerides.getInstance(new File(getFile("regular-data/UTC-TAI.history").getParentFile(),
+                                                      "not-a-file.405"));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMultiThreading() throws OrekitException, URISyntaxException,
+                                            InterruptedException, ExecutionException {
+        final CelestialBody mars =
+                new MappedJPLEphemeridesLoader(getFile("regular-data/de405-ephemerides/unxp0003.405"),
+                                               JPLEphemeridesLoader.EphemerisType.MARS).
+                loadCelestialBody(CelestialBodyFactory.MARS);
+        final Frame icrf = FramesFactory.getICRF();
+        final AbsoluteDate t0 = new AbsoluteDate(2003, 1, 1, 0, 0, 0.0, TimeScalesFactory.getTT());
+
+        // reference values computed sequentially
+        final int n = 200;
+        final PVCoordinates[] reference = new PVCoordinates[n];
+        for (int i = 0; i < n; ++i) {
+            reference[i] = mars.getPVCoordinates(t0.shiftedBy(i * 86400.0), icrf);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<PVCoordinates>> futures = new ArrayList<Future<PVCoordinates>>();
+            for (int i = 0; i < n; ++i) {
+                final AbsoluteDate date = t0.shiftedBy(((i * 37) % n) * 86400.0);
+                futures.add(executor.submit(() -> mars.getPVCoordinates(date, icrf)));
+            }
+            for (int i = 0; i < n; ++i) {
+                final PVCoordinates pv = futures.get(i).get();
+                Assert.assertEquals(0.0, pv.getPosition().distance(reference[(i * 37) % n].getPosition()), 0.0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void checkSameAsLoader(final String resource, final String supportedNames,
+                                   final JPLEphemeridesLoader.EphemerisType type,
+                                   final AbsoluteDate t0, final double tolerance)
+        throws OrekitException, URISyntaxException {
+        final CelestialBody mapped =
+                new MappedJPLEphemeridesLoader(getFile(resource), type).loadCelestialBody(type.name());
+        final CelestialBody parsed =
+                new JPLEphemeridesLoader(supportedNames, type).loadCelestialBody(type.name());
+        final Frame icrf = FramesFactory.getICRF();
+        for (double dt = 0; dt < 30 * Constants.JULIAN_DAY; dt += 3600) {
+            final AbsoluteDate date = t0.shiftedBy(dt);
+            final PVCoordinates pvMapped = mapped.getPVCoordinates(date, icrf);
+            final PVCoordinates pvParsed = parsed.getPVCoordinates(date, icrf);
+            Assert.assertEquals(0.0, pvMapped.getPosition().distance(pvParsed.getPosition()), tolerance);
+            Assert.assertEquals(0.0, pvMapped.getVelocity().distance(pvParsed.getVelocity()), tolerance);
+        }
+    }
+
+    private File getFile(final String resource) throws URISyntaxException {
+        return new File(MappedJPLEphemeridesTest.class.getClassLoader().getResource(resource).toURI());
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data/de405-ephemerides:inpop");
+    }
+
+}
@@ -0,0 +1,135 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.OffsetModel;
+import org.orekit.time.UTCTAIHistoryFilesLoader;
+
+public class DataContextTest {
+
+    @Test
+    public void testDefault() {
+        Assert.assertSame(DataProvidersManager.getInstance(), DataContext.getDefault().getDataProvidersManager());
+        Assert.assertSame(DataContext.getDefault(), DataContext.getDefault());
+        Assert.assertNotSame(DataProvidersManager.getInstance(), new DataContext().getDataProvidersManager());
+    }
+
+    @Test
+    public void testIndependentContexts() throws OrekitException {
+
+        File top = new File(getPath("regular-data"));
+        DataContext context1 = new DataContext();
+        context1.addProvider(new DirectoryCrawler(new File(top, "de405-ephemerides")));
+        DataContext context2 = new DataContext();
+        context2.addProvider(new DirectoryCrawler(new File(new File(top, "Earth-orientation-parameters"), "monthly")));
+
+        CountingLoader loader1 = new CountingLoader();
+        Assert.assertTrue(context1.feed(".*\\.405$", loader1));
+        Assert.assertEquals(4, loader1.getCount());
+        Assert.assertEquals(4, context1.getLoadedDataNames().size());
+        Assert.assertEquals(0, context2.getLoadedDataNames().size());
+
+        CountingLoader loader2 = new CountingLoader();
+        Assert.assertFalse(context2.feed(".*\\.405$", loader2));
+        Assert.assertEquals(0, loader2.getCount());
+        Assert.assertTrue(context2.feed("bulletinb_.*\\.txt$", loader2));
+        Assert.assertEquals(2, loader2.getCount());
+        Assert.assertEquals(4, context1.getLoadedDataNames().size());
+        Assert.assertEquals(2, context2.getLoadedDataNames().size());
+
+    }
+
+    @Test
+    public void testConcurrentFeed() throws InterruptedException, ExecutionException {
+
+        final DataContext context = new DataContext();
+        context.addProvider(new DirectoryCrawler(new File(getPath("regular-data"))));
+
+        final int nbThreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 4 * nbThreads; ++i) {
+            final String supported = (i % 2 == 0) ? ".*\\.405$" : ".*\\.tle$";
+            results.add(executor.submit(new Callable<Integer>() {
+                public Integer call() throws OrekitException {
+                    final CountingLoader loader = new CountingLoader();
+                    context.feed(supported, loader);
+                    return loader.getCount();
+                }
+            }));
+        }
+        for (final Future<Integer> result : results) {
+            Assert.assertEquals(4, result.get().intValue());
+        }
+        executor.shutdown();
+        Assert.assertEquals(8, context.getLoadedDataNames().size());
+
+    }
+
+    @Test
+    public void testLoadersBoundToContext() throws OrekitException {
+
+        final DataContext context = new DataContext();
+        context.addProvider(new DirectoryCrawler(new File(getPath("regular-data"))));
+
+        final List<OffsetModel> offsets = new UTCTAIHistoryFilesLoader(context).loadOffsets();
+        Assert.assertFalse(offsets.isEmpty());
+        Assert.assertEquals(1, context.getLoadedDataNames().size());
+        Assert.assertTrue(context.getLoadedDataNames().iterator().next().endsWith("UTC-TAI.history"));
+
+    }
+
+    private static class CountingLoader implements DataLoader {
+        private final AtomicInteger count = new AtomicInteger(0);
+        public boolean stillAcceptsData() {
+            return true;
+        }
+        public void loadData(InputStream input, String name) {
+            count.incrementAndGet();
+        }
+        public int getCount() {
+            return count.get();
+        }
+    }
+
+    private String getPath(String resourceName) {
+        try {
+            ClassLoader loader = DataContextTest.class.getClassLoader();
+            return loader.getResource(resourceName).toURI().getPath();
+        } catch (URISyntaxException e) {
+            Assert.fail(e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+}
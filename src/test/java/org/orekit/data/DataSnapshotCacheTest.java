@@ -0,0 +1,98 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.data;
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+
+
+public class DataSnapshotCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testNotADirectory() throws IOException {
+        File file = tempFolder.newFile("not-a-directory");
+        try {
+            new DataSnapshotCache(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_DIRECTORY, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testChecksumUsesFileContent() throws OrekitException, IOException {
+        File data = tempFolder.newFolder("data");
+        File file = new File(data, "source.txt");
+        write(file, "first version");
+        DataProvidersManager.getInstance().clearProviders();
+        DataProvidersManager.getInstance().addProvider(new DirectoryCrawler(data));
+        DataSnapshotCache cache = new DataSnapshotCache(tempFolder.newFolder("cache"));
+
+        final long reference = cache.checksum("^source\\.txt$");
+        Assert.assertEquals(reference, cache.checksum("^source\\.txt$"));
+
+        // only the modification time changes
+        Assert.assertTrue(file.setLastModified(file.lastModified() - 10000L));
+        Assert.assertEquals(reference, cache.checksum("^source\\.txt$"));
+
+        // same size and modification time, but different content
+        final long modificationTime = file.lastModified();
+        write(file, "other version");
+        Assert.assertTrue(file.setLastModified(modificationTime));
+        Assert.assertNotEquals(reference, cache.checksum("^source\\.txt$"));
+
+    }
+
+    @Test
+    public void testContentChecksum() {
+        final byte[] content = "some content".getBytes(StandardCharsets.UTF_8);
+        final long reference = DataSnapshotCache.checksum(content, "configuration A");
+        Assert.assertEquals(reference, DataSnapshotCache.checksum(content.clone(), "configuration A"));
+        Assert.assertNotEquals(reference, DataSnapshotCache.checksum(content, "configuration B"));
+        Assert.assertNotEquals(reference,
+                               DataSnapshotCache.checksum("other content".getBytes(StandardCharsets.UTF_8),
+                                                          "configuration A"));
+    }
+
+    @After
+    public void tearDown() {
+        Utils.setDataRoot("regular-data");
+    }
+
+    private void write(final File file, final String content) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
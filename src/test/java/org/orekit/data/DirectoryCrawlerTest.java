@@ -23,11 +23,16 @@ import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
 
 public class DirectoryCrawlerTest {
 
@@ -73,6 +78,84 @@ public class DirectoryCrawlerTest {
         Assert.assertEquals(6, crawler.getCount());
     }
 
+    @Test
+    public void testPrefetched() throws OrekitException, URISyntaxException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (String name : new String[] { "regular-data", "compressed-data", "zipped-data" }) {
+                File root = new File(DirectoryCrawlerTest.class.getClassLoader().getResource(name).toURI().getPath());
+                RecordingLoader sequential = new RecordingLoader(Integer.MAX_VALUE);
+                new DirectoryCrawler(root).feed(Pattern.compile(".*"), sequential);
+                RecordingLoader prefetched = new RecordingLoader(Integer.MAX_VALUE);
+                new DirectoryCrawler(root, executor, 3).feed(Pattern.compile(".*"), prefetched);
+                Assert.assertTrue(sequential.names.size() > 0);
+                Assert.assertEquals(sequential.names, prefetched.names);
+                Assert.assertEquals(sequential.sizes, prefetched.sizes);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrefetchedStopAccepting() throws OrekitException, URISyntaxException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            File root = new File(DirectoryCrawlerTest.class.getClassLoader().getResource("regular-data").toURI().getPath());
+            RecordingLoader loader = new RecordingLoader(3);
+            new DirectoryCrawler(root, executor, 8).feed(Pattern.compile(".*"), loader);
+            Assert.assertEquals(3, loader.names.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrefetchedNotAccepting() throws OrekitException, URISyntaxException {
+        // as the loader does not accept any data, no read task must be
+        // submitted to the executor, which has already been shut down
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        executor.shutdown();
+        File root = new File(DirectoryCrawlerTest.class.getClassLoader().getResource("regular-data").toURI().getPath());
+        RecordingLoader loader = new RecordingLoader(0);
+        Assert.assertFalse(new DirectoryCrawler(root, executor, 8).feed(Pattern.compile(".*"), loader));
+        Assert.assertEquals(0, loader.names.size());
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testNegativePrefetch() throws OrekitException, URISyntaxException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            File root = new File(DirectoryCrawlerTest.class.getClassLoader().getResource("regular-data").toURI().getPath());
+            new DirectoryCrawler(root, executor, -1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testNullExecutor() throws OrekitException, URISyntaxException {
+        File root = new File(DirectoryCrawlerTest.class.getClassLoader().getResource("regular-data").toURI().getPath());
+        new DirectoryCrawler(root, null, 8);
+    }
+
+    @Test(expected=OrekitException.class)
+    public void testPrefetchedIOException() throws OrekitException, URISyntaxException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        URL url =
+            DirectoryCrawlerTest.class.getClassLoader().getResource("regular-data");
+        try {
+            new DirectoryCrawler(new File(url.toURI().getPath()), executor, 4).feed(Pattern.compile(".*"), new IOExceptionLoader());
+        } catch (OrekitException oe) {
+            // expected behavior
+            Assert.assertEquals(IOException.class, oe.getCause().getClass());
+            Assert.assertEquals("dummy error", oe.getMessage());
+            throw oe;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test(expected=OrekitException.class)
     public void testIOException() throws OrekitException, URISyntaxException {
         URL url =
@@ -116,6 +199,26 @@ public class DirectoryCrawlerTest {
         }
     }
 
+    private static class RecordingLoader implements DataLoader {
+        private final int max;
+        private final List<String>  names = new ArrayList<String>();
+        private final List<Integer> sizes = new ArrayList<Integer>();
+        RecordingLoader(int max) {
+            this.max = max;
+        }
+        public boolean stillAcceptsData() {
+            return names.size() < max;
+        }
+        public void loadData(InputStream input, String name) throws IOException {
+            int size = 0;
+            while (input.read() >= 0) {
+                ++size;
+            }
+            names.add(name);
+            sizes.add(size);
+        }
+    }
+
     private static class IOExceptionLoader implements DataLoader {
         public boolean stillAcceptsData() {
             return true;
@@ -18,6 +18,8 @@ package org.orekit.data;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -32,7 +34,9 @@ import org.hipparchus.util.Decimal64;
 import org.hipparchus.util.Decimal64Field;
 import org.hipparchus.util.FastMath;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.orekit.Utils;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
@@ -47,6 +51,9 @@ import org.orekit.utils.IERSConventions;
 
 public class PoissonSeriesParserTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Test(expected=OrekitException.class)
     public void testEmptyData() throws OrekitException {
         buildData("");
@@ -436,6 +443,53 @@ public class PoissonSeriesParserTest {
 
     }
 
+    @Test
+    public void testSnapshot()
+        throws OrekitException, IOException, NoSuchMethodException, SecurityException,
+               IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+
+        Utils.setDataRoot("regular-data");
+        String directory = "/assets/org/orekit/IERS-conventions/";
+        File cacheDirectory = tempFolder.newFolder("cache");
+        PoissonSeriesParser parser =
+                new PoissonSeriesParser(17).withPolynomialPart('t', PolynomialParser.Unit.NO_UNITS).
+                    withFirstDelaunay(4).withFirstPlanetary(9).withSinCos(0, 2, 1.0, 3, 1.0);
+        PoissonSeries reference =
+                parser.parse(getClass().getResourceAsStream(directory + "2010/tab5.2a.txt"), "2010/tab5.2a.txt");
+
+        try {
+            PoissonSeriesParser.setSnapshotCache(new DataSnapshotCache(cacheDirectory));
+            PoissonSeries parsed =
+                    parser.parse(getClass().getResourceAsStream(directory + "2010/tab5.2a.txt"), "2010/tab5.2a.txt");
+            Assert.assertEquals(1, cacheDirectory.listFiles().length);
+            PoissonSeries fromSnapshot =
+                    parser.parse(getClass().getResourceAsStream(directory + "2010/tab5.2a.txt"), "2010/tab5.2a.txt");
+            Assert.assertEquals(1, cacheDirectory.listFiles().length);
+            Assert.assertEquals(reference.getNonPolynomialSize(), fromSnapshot.getNonPolynomialSize());
+
+            // the same table parsed with another configuration uses another snapshot
+            PoissonSeriesParser other =
+                    new PoissonSeriesParser(17).withPolynomialPart('t', PolynomialParser.Unit.MICRO_ARC_SECONDS).
+                        withFirstDelaunay(4).withFirstPlanetary(9).withSinCos(0, 2, 1.0, 3, 1.0);
+            other.parse(getClass().getResourceAsStream(directory + "2010/tab5.2a.txt"), "2010/tab5.2a.txt");
+            Assert.assertEquals(2, cacheDirectory.listFiles().length);
+
+            Method m = IERSConventions.class.getDeclaredMethod("getNutationArguments", TimeScale.class);
+            m.setAccessible(true);
+            FundamentalNutationArguments arguments =
+                    (FundamentalNutationArguments) m.invoke(IERSConventions.IERS_2010, (TimeScale) null);
+            for (double dt = 0; dt < Constants.JULIAN_YEAR; dt += Constants.JULIAN_DAY) {
+                BodiesElements elements = arguments.evaluateAll(AbsoluteDate.J2000_EPOCH.shiftedBy(dt));
+                double x = reference.value(elements);
+                Assert.assertEquals(x, parsed.value(elements),       1.0e-15 * FastMath.abs(x));
+                Assert.assertEquals(x, fromSnapshot.value(elements), 1.0e-15 * FastMath.abs(x));
+            }
+        } finally {
+            PoissonSeriesParser.setSnapshotCache(null);
+        }
+
+    }
+
     @Test
     public void testCorruptedLDelaunayMultiplier() {
         checkCorrupted("/tides/tab6.5a-corrupted-l-Delaunay-multiplier.txt", "σ₁");
@@ -21,11 +21,14 @@ import java.io.File;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
 
 public class ZipJarCrawlerTest {
 
@@ -45,6 +48,39 @@ public class ZipJarCrawlerTest {
         Assert.assertEquals(6, crawler.getCount());
     }
 
+    @Test
+    public void testMultiZipPrefetched() throws OrekitException, URISyntaxException {
+        URL url =
+            ZipJarCrawlerTest.class.getClassLoader().getResource("zipped-data/multizip.zip");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CountingLoader crawler = new CountingLoader();
+            new ZipJarCrawler(new File(url.toURI().getPath()), executor, 2).feed(Pattern.compile(".*\\.txt$"), crawler);
+            Assert.assertEquals(6, crawler.getCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testNegativePrefetch() throws URISyntaxException {
+        URL url =
+            ZipJarCrawlerTest.class.getClassLoader().getResource("zipped-data/multizip.zip");
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            new ZipJarCrawler(new File(url.toURI().getPath()), executor, -1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testNullExecutor() throws URISyntaxException {
+        URL url =
+            ZipJarCrawlerTest.class.getClassLoader().getResource("zipped-data/multizip.zip");
+        new ZipJarCrawler(new File(url.toURI().getPath()), null, 2);
+    }
+
     private static class CountingLoader implements DataLoader {
         private int count = 0;
         public boolean stillAcceptsData() {
@@ -18,6 +18,8 @@ package org.orekit.estimation.leastsquares;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem.Evaluation;
@@ -25,9 +27,11 @@ import org.hipparchus.optim.nonlinear.vector.leastsquares.LevenbergMarquardtOpti
 import org.junit.Assert;
 import org.junit.Test;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.estimation.Context;
 import org.orekit.estimation.EstimationTestUtils;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
 import org.orekit.estimation.measurements.EstimationsProvider;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.estimation.measurements.PVMeasurementCreator;
@@ -298,6 +302,88 @@ public class BatchLSEstimatorTest {
                                      0.0, 8.1e-7);
     }
 
-}
+    @Test
+    public void testParallelSameAsSequential() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+
+        final NumericalPropagatorBuilder sequentialBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final NumericalPropagatorBuilder parallelBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
 
+        // create perfect range and range rate measurements
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           sequentialBuilder);
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<ObservedMeasurement<?>>();
+        measurements.addAll(EstimationTestUtils.createMeasurements(propagator,
+                                                                   new RangeMeasurementCreator(context),
+                                                                   1.0, 3.0, 300.0));
+        measurements.addAll(EstimationTestUtils.createMeasurements(propagator,
+                                                                   new RangeRateMeasurementCreator(context, false),
+                                                                   1.0, 3.0, 300.0));
+
+        // create orbit estimators, one of them evaluating measurements in parallel
+        final BatchLSEstimator sequential = new BatchLSEstimator(sequentialBuilder,
+                                                                 new LevenbergMarquardtOptimizer());
+        final BatchLSEstimator parallel   = new BatchLSEstimator(parallelBuilder,
+                                                                 new LevenbergMarquardtOptimizer());
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.setPool(pool, 3);
+            for (final BatchLSEstimator estimator : new BatchLSEstimator[] { sequential, parallel }) {
+                for (final ObservedMeasurement<?> measurement : measurements) {
+                    estimator.addMeasurement(measurement);
+                }
+                estimator.setParametersConvergenceThreshold(1.0e-3);
+                estimator.setMaxIterations(10);
+                estimator.setMaxEvaluations(20);
+                final ParameterDriver aDriver = estimator.getOrbitalParametersDrivers(true).getDrivers().get(0);
+                aDriver.setValue(aDriver.getValue() + 1.2);
+                estimator.estimate();
+            }
+        } finally {
+            pool.shutdown();
+        }
 
+        // results must be exactly the same
+        Assert.assertEquals(sequential.getIterationsCount(),  parallel.getIterationsCount());
+        Assert.assertEquals(sequential.getEvaluationsCount(), parallel.getEvaluationsCount());
+        Assert.assertEquals(sequential.getOptimum().getRMS(), parallel.getOptimum().getRMS(), 0.0);
+        for (int i = 0; i < sequential.getOptimum().getPoint().getDimension(); ++i) {
+            Assert.assertEquals(sequential.getOptimum().getPoint().getEntry(i),
+                                parallel.getOptimum().getPoint().getEntry(i),
+                                0.0);
+        }
+        final Map<ObservedMeasurement<?>, EstimatedMeasurement<?>> sequentialEstimations =
+                        sequential.getLastEstimations();
+        final Map<ObservedMeasurement<?>, EstimatedMeasurement<?>> parallelEstimations =
+                        parallel.getLastEstimations();
+        Assert.assertEquals(measurements.size(), parallelEstimations.size());
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            final double[] s = sequentialEstimations.get(measurement).getEstimatedValue();
+            final double[] p = parallelEstimations.get(measurement).getEstimatedValue();
+            for (int i = 0; i < s.length; ++i) {
+                Assert.assertEquals(s[i], p[i], 0.0);
+            }
+        }
+
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testWrongChunkSize() throws OrekitException {
+        Context context = EstimationTestUtils.eccentricContext();
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            new BatchLSEstimator(propagatorBuilder, new LevenbergMarquardtOptimizer()).setPool(pool, 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LevenbergMarquardtOptimizer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.Context;
+import org.orekit.estimation.EstimationTestUtils;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.RangeMeasurementCreator;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.utils.ParameterDriver;
+
+public class MultiSatelliteBatchLSDriverTest {
+
+    @Test
+    public void testSameAsSequential() throws OrekitException, InterruptedException {
+
+        final Context context = EstimationTestUtils.eccentricContext();
+        final int n = 4;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final MultiSatelliteBatchLSDriver driver =
+                            new MultiSatelliteBatchLSDriver(executor, new LevenbergMarquardtOptimizer());
+            driver.setParametersConvergenceThreshold(1.0e-2);
+            driver.setMaxIterations(10);
+            driver.setMaxEvaluations(20);
+
+            // reference estimations, performed sequentially
+            final BatchLSEstimator[] reference = new BatchLSEstimator[n];
+            for (int k = 0; k < n; ++k) {
+                reference[k] = new BatchLSEstimator(createBuilder(context, k), new LevenbergMarquardtOptimizer());
+                for (final ObservedMeasurement<?> measurement : createMeasurements(context)) {
+                    reference[k].addMeasurement(measurement);
+                }
+                reference[k].setParametersConvergenceThreshold(1.0e-2);
+                reference[k].setMaxIterations(10);
+                reference[k].setMaxEvaluations(20);
+                reference[k].estimate();
+                driver.addSatellite("sat-" + k, createBuilder(context, k), createMeasurements(context));
+            }
+            Assert.assertEquals(n, driver.getNbSatellites());
+
+            final List<MultiSatelliteBatchLSDriver.SatelliteResult> results = driver.estimate();
+            Assert.assertEquals(n, results.size());
+            for (int k = 0; k < n; ++k) {
+                final MultiSatelliteBatchLSDriver.SatelliteResult result = results.get(k);
+                Assert.assertEquals("sat-" + k, result.getName());
+                Assert.assertTrue(result.isSuccessful());
+                Assert.assertNull(result.getError());
+                Assert.assertNotNull(result.getPropagator());
+                Assert.assertTrue(result.getElapsedTime() > 0);
+                Assert.assertEquals(reference[k].getIterationsCount(),  result.getIterationsCount());
+                Assert.assertEquals(reference[k].getEvaluationsCount(), result.getEvaluationsCount());
+                Assert.assertEquals(reference[k].getOptimum().getRMS(), result.getRMS(), 0.0);
+                for (int i = 0; i < reference[k].getOptimum().getPoint().getDimension(); ++i) {
+                    Assert.assertEquals(reference[k].getOptimum().getPoint().getEntry(i),
+                                        result.getEstimator().getOptimum().getPoint().getEntry(i),
+                                        0.0);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testFailureIsolated() throws OrekitException, InterruptedException {
+
+        final Context context = EstimationTestUtils.eccentricContext();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final MultiSatelliteBatchLSDriver driver =
+                            new MultiSatelliteBatchLSDriver(executor, new LevenbergMarquardtOptimizer());
+            driver.setParametersConvergenceThreshold(1.0e-2);
+            driver.setMaxEvaluations(20);
+
+            // the first satellite cannot converge in one iteration
+            driver.setMaxIterations(1);
+            driver.addSatellite("failing", createBuilder(context, 3), createMeasurements(context));
+            driver.setMaxIterations(10);
+            driver.addSatellite("succeeding", createBuilder(context, 0), createMeasurements(context));
+
+            final List<MultiSatelliteBatchLSDriver.SatelliteResult> results = driver.estimate();
+            Assert.assertFalse(results.get(0).isSuccessful());
+            Assert.assertNotNull(results.get(0).getError());
+            Assert.assertNull(results.get(0).getPropagator());
+            Assert.assertTrue(Double.isNaN(results.get(0).getRMS()));
+            Assert.assertTrue(results.get(1).isSuccessful());
+            Assert.assertTrue(results.get(1).getIterationsCount() > 1);
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    private NumericalPropagatorBuilder createBuilder(final Context context, final int k)
+        throws OrekitException {
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final ParameterDriver aDriver = propagatorBuilder.getOrbitalParametersDrivers().getDrivers().get(0);
+        aDriver.setValue(aDriver.getValue() + 1.2 * (k + 1));
+        return propagatorBuilder;
+    }
+
+    private List<ObservedMeasurement<?>> createMeasurements(final Context context)
+        throws OrekitException {
+        final Propagator propagator =
+                        EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                             context.createBuilder(OrbitType.KEPLERIAN,
+                                                                                   PositionAngle.TRUE, true,
+                                                                                   1.0e-6, 60.0, 1.0));
+        // each satellite gets its own stations, so estimations running
+        // in parallel never share the stations parameters drivers
+        return EstimationTestUtils.createMeasurements(propagator,
+                                                      new RangeMeasurementCreator(createSatelliteContext(context)),
+                                                      1.0, 3.0, 300.0);
+    }
+
+    private Context createSatelliteContext(final Context context)
+        throws OrekitException {
+        final Context satelliteContext = new Context();
+        satelliteContext.conventions        = context.conventions;
+        satelliteContext.earth              = context.earth;
+        satelliteContext.sun                = context.sun;
+        satelliteContext.moon               = context.moon;
+        satelliteContext.radiationSensitive = context.radiationSensitive;
+        satelliteContext.dragSensitive      = context.dragSensitive;
+        satelliteContext.gravity            = context.gravity;
+        satelliteContext.utc                = context.utc;
+        satelliteContext.ut1                = context.ut1;
+        satelliteContext.initialOrbit       = context.initialOrbit;
+        satelliteContext.stations           = new ArrayList<GroundStation>();
+        for (final GroundStation station : context.stations) {
+            final TopocentricFrame base = station.getBaseFrame();
+            satelliteContext.stations.add(new GroundStation(new TopocentricFrame(context.earth,
+                                                                                 base.getPoint(),
+                                                                                 base.getName())));
+        }
+        return satelliteContext;
+    }
+
+}
@@ -0,0 +1,301 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.estimation.Context;
+import org.orekit.estimation.EstimationTestUtils;
+import org.orekit.estimation.measurements.Bias;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.OutlierFilter;
+import org.orekit.estimation.measurements.PVMeasurementCreator;
+import org.orekit.estimation.measurements.Range;
+import org.orekit.estimation.measurements.RangeMeasurementCreator;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+import org.orekit.utils.PVCoordinates;
+
+public class KalmanEstimatorTest {
+
+    @Test
+    public void testKeplerPV() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+
+        // create perfect PV measurements
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new PVMeasurementCreator(),
+                                                               0.0, 1.0, 300.0);
+
+        // create orbit estimator, starting from a wrong orbit
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, false,
+                                              1.0e-6, 60.0, 1.0);
+        final RealMatrix initialCovariance = MatrixUtils.createRealIdentityMatrix(6).scalarMultiply(1.0e6);
+        final KalmanEstimator estimator =
+                        new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                            new ConstantProcessNoise(initialCovariance,
+                                                                     MatrixUtils.createRealMatrix(6, 6)));
+        final int[] calls = new int[1];
+        estimator.setObserver((processed, estimated, corrected, covariance) -> {
+            Assert.assertEquals(++calls[0], processed);
+            Assert.assertEquals(0.0, corrected.getDate().durationFrom(estimated.getDate()), 1.0e-15);
+        });
+
+        final SpacecraftState estimated = estimator.processMeasurements(measurements);
+        Assert.assertEquals(measurements.size(), calls[0]);
+        Assert.assertEquals(measurements.size(), estimator.getProcessedMeasurements());
+        Assert.assertEquals(0.0,
+                            estimated.getDate().durationFrom(measurements.get(measurements.size() - 1).getDate()),
+                            1.0e-15);
+
+        // check estimated state against reference
+        final PVCoordinates reference =
+                        EstimationTestUtils.createPropagator(context.initialOrbit, referenceBuilder).
+                        propagate(estimated.getDate()).getPVCoordinates();
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(reference.getPosition(), estimated.getPVCoordinates().getPosition()),
+                            2.0);
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(reference.getVelocity(), estimated.getPVCoordinates().getVelocity()),
+                            2.0e-3);
+
+        // covariance must have shrunk
+        final RealMatrix covariance = estimator.getEstimatedCovariance();
+        for (int i = 0; i < 6; ++i) {
+            Assert.assertTrue(covariance.getEntry(i, i) < 1.0e-2 * initialCovariance.getEntry(i, i));
+        }
+
+    }
+
+    @Test
+    public void testKeplerRange() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+
+        // create perfect range measurements
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 3.0, 300.0);
+
+        // create orbit estimator, starting from a wrong orbit
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, false,
+                                              1.0e-6, 60.0, 1.0);
+        final KalmanEstimator estimator =
+                        new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                            new ConstantProcessNoise(MatrixUtils.createRealIdentityMatrix(6).scalarMultiply(1.0e8),
+                                                                     MatrixUtils.createRealMatrix(6, 6)));
+
+        // measurements are processed one at a time, as a stream
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            final SpacecraftState estimated = estimator.processMeasurement(measurement);
+            Assert.assertEquals(0.0, estimated.getDate().durationFrom(measurement.getDate()), 1.0e-15);
+        }
+
+        final SpacecraftState estimated = estimator.getEstimatedState();
+        final PVCoordinates reference =
+                        EstimationTestUtils.createPropagator(context.initialOrbit, referenceBuilder).
+                        propagate(estimated.getDate()).getPVCoordinates();
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(reference.getPosition(), estimated.getPVCoordinates().getPosition()),
+                            10.0);
+
+        // the estimator can provide a propagator starting from the last estimate
+        final SpacecraftState later = estimator.buildPropagator().propagate(estimated.getDate().shiftedBy(600.0));
+        Assert.assertEquals(600.0, later.getDate().durationFrom(estimated.getDate()), 1.0e-10);
+
+    }
+
+    @Test
+    public void testOutlier() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+
+        // create perfect range measurements, then corrupt one of them
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           propagatorBuilder);
+        final List<ObservedMeasurement<?>> perfect =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 3.0, 300.0);
+        final int warmup  = 5;
+        final int outlier = perfect.size() / 2;
+        Assert.assertTrue(outlier > warmup);
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<ObservedMeasurement<?>>();
+        for (int i = 0; i < perfect.size(); ++i) {
+            final Range range = (Range) perfect.get(i);
+            final double offset = i == outlier ? 1000.0 : 0.0;
+            final Range modified = new Range(range.getStation(), range.getDate(),
+                                             range.getObservedValue()[0] + offset,
+                                             range.getTheoreticalStandardDeviation()[0],
+                                             range.getBaseWeight()[0]);
+            modified.addModifier(new OutlierFilter<Range>(warmup, 5.0));
+            measurements.add(modified);
+        }
+
+        final KalmanEstimator estimator =
+                        new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                            new ConstantProcessNoise(MatrixUtils.createRealIdentityMatrix(6).scalarMultiply(100.0),
+                                                                     MatrixUtils.createRealMatrix(6, 6)));
+        final int[] rejected = new int[1];
+        estimator.setObserver((processed, estimated, corrected, covariance) -> {
+            Assert.assertEquals(processed, estimated.getIteration());
+            if (estimated.getCurrentWeight()[0] == 0.0) {
+                Assert.assertEquals(outlier + 1, processed);
+                Assert.assertEquals(0.0, corrected.getDate().durationFrom(estimated.getDate()), 1.0e-15);
+                ++rejected[0];
+            }
+        });
+
+        final SpacecraftState estimated = estimator.processMeasurements(measurements);
+        Assert.assertEquals(1, rejected[0]);
+        final PVCoordinates reference =
+                        EstimationTestUtils.createPropagator(context.initialOrbit, propagatorBuilder).
+                        propagate(estimated.getDate()).getPVCoordinates();
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(reference.getPosition(), estimated.getPVCoordinates().getPosition()),
+                            10.0);
+
+    }
+
+    @Test
+    public void testCentralAttractionAndRangeBias() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+
+        // create perfect range measurements
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final List<ObservedMeasurement<?>> perfect =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 3.0, 300.0);
+
+        // add a range bias to the measurements, and the corresponding estimated modifier
+        final double trueBias = 3.0;
+        final Bias<Range> bias = new Bias<Range>(new String[] { "range bias" }, new double[] { 0.0 },
+                                                 new double[] { 1.0 },
+                                                 new double[] { -10.0 }, new double[] { 10.0 });
+        bias.getParametersDrivers().get(0).setSelected(true);
+        final ParameterDriversList estimatedMeasurementsParameters = new ParameterDriversList();
+        estimatedMeasurementsParameters.add(bias.getParametersDrivers().get(0));
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<ObservedMeasurement<?>>();
+        for (final ObservedMeasurement<?> measurement : perfect) {
+            final Range range = (Range) measurement;
+            final Range biased = new Range(range.getStation(), range.getDate(),
+                                           range.getObservedValue()[0] + trueBias,
+                                           range.getTheoreticalStandardDeviation()[0],
+                                           range.getBaseWeight()[0]);
+            biased.addModifier(bias);
+            measurements.add(biased);
+        }
+
+        // create orbit estimator, starting from a wrong central attraction coefficient
+        final double trueMu  = context.initialOrbit.getMu();
+        final double wrongMu = trueMu * (1.0 + 1.0e-6);
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        ParameterDriver muDriver = null;
+        for (final ParameterDriver driver : propagatorBuilder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.getName().equals(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT)) {
+                muDriver = driver;
+            }
+        }
+        muDriver.setSelected(true);
+        muDriver.setValue(wrongMu);
+        final RealMatrix initialCovariance =
+                        MatrixUtils.createRealDiagonalMatrix(new double[] {
+                            100.0, 100.0, 100.0, 100.0, 100.0, 100.0, 1.0, 100.0
+                        });
+        final KalmanEstimator estimator =
+                        new KalmanEstimator(propagatorBuilder, estimatedMeasurementsParameters,
+                                            new ConstantProcessNoise(initialCovariance,
+                                                                     MatrixUtils.createRealMatrix(8, 8)));
+        Assert.assertEquals(wrongMu, estimator.getEstimatedState().getMu(), 1.0e-15 * trueMu);
+
+        final SpacecraftState estimated = estimator.processMeasurements(measurements);
+
+        // both parameters have converged
+        Assert.assertEquals(trueMu, muDriver.getValue(), 0.1 * FastMath.abs(wrongMu - trueMu));
+        Assert.assertEquals(trueBias, bias.getParametersDrivers().get(0).getValue(), 0.1 * trueBias);
+        Assert.assertEquals(muDriver.getValue(), estimated.getMu(), 1.0e-15 * trueMu);
+        final PVCoordinates reference =
+                        EstimationTestUtils.createPropagator(context.initialOrbit, referenceBuilder).
+                        propagate(estimated.getDate()).getPVCoordinates();
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(reference.getPosition(), estimated.getPVCoordinates().getPosition()),
+                            10.0);
+
+    }
+
+    @Test
+    public void testWrongCovarianceDimension() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext();
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        try {
+            new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                new ConstantProcessNoise(MatrixUtils.createRealIdentityMatrix(5),
+                                                         MatrixUtils.createRealMatrix(5, 5)));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(5, ((Integer) oiae.getParts()[0]).intValue());
+            Assert.assertEquals(6, ((Integer) oiae.getParts()[1]).intValue());
+        }
+
+    }
+
+}
@@ -0,0 +1,292 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces;
+
+
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.SolarInputs97to05;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.forces.drag.DragForce;
+import org.orekit.forces.drag.IsotropicDrag;
+import org.orekit.forces.drag.atmosphere.DTM2000;
+import org.orekit.forces.drag.atmosphere.HarrisPriester;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.ThirdBodyAttraction;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.SHMFormatReader;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.integration.AdditionalEquations;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+
+public class EnvironmentContextTest {
+
+    @Test
+    public void testNoContext() throws OrekitException {
+        EnvironmentContext context = new EnvironmentContext();
+        Assert.assertNull(context.getDate());
+        AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        for (int i = 0; i < 3; ++i) {
+            Transform t = EnvironmentContext.getTransform(itrf, eme2000, date);
+            Assert.assertEquals(0.0,
+                                Rotation.distance(itrf.getTransformTo(eme2000, date).getRotation(),
+                                                  t.getRotation()),
+                                0.0);
+            TimeStampedPVCoordinates pv = EnvironmentContext.getPVCoordinates(sun, date, eme2000);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(sun.getPVCoordinates(date, eme2000).getPosition(),
+                                                  pv.getPosition()),
+                                0.0);
+        }
+
+        // requests performed outside of any context are not counted
+        Assert.assertEquals(0, context.getRequestsCount());
+        Assert.assertEquals(0, context.getComputationsCount());
+
+    }
+
+    @Test
+    public void testMemoization() throws OrekitException {
+        AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        EnvironmentContext context = new EnvironmentContext();
+        context.open(date);
+        Assert.assertEquals(0.0, date.durationFrom(context.getDate()), 0.0);
+        try {
+            Transform t1 = EnvironmentContext.getTransform(itrf, eme2000, date);
+            Transform t2 = EnvironmentContext.getTransform(itrf, eme2000, new AbsoluteDate(date, 0.0));
+            Assert.assertSame(t1, t2);
+            Assert.assertNotSame(t1, EnvironmentContext.getTransform(eme2000, itrf, date));
+            Assert.assertNotSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date.shiftedBy(1.0)));
+            TimeStampedPVCoordinates pv1 = EnvironmentContext.getPVCoordinates(sun, date, eme2000);
+            TimeStampedPVCoordinates pv2 = EnvironmentContext.getPVCoordinates(sun, date, eme2000);
+            Assert.assertSame(pv1, pv2);
+            Assert.assertNotSame(pv1, EnvironmentContext.getPVCoordinates(sun, date, itrf));
+        } finally {
+            context.close();
+        }
+        Assert.assertEquals(7, context.getRequestsCount());
+        Assert.assertEquals(5, context.getComputationsCount());
+
+        // once closed, nothing is memoized nor counted anymore
+        Assert.assertNotSame(EnvironmentContext.getTransform(itrf, eme2000, date),
+                             EnvironmentContext.getTransform(itrf, eme2000, date));
+        Assert.assertEquals(7, context.getRequestsCount());
+        Assert.assertEquals(5, context.getComputationsCount());
+
+        context.resetCounters();
+        Assert.assertEquals(0, context.getRequestsCount());
+        Assert.assertEquals(0, context.getComputationsCount());
+
+    }
+
+    @Test
+    public void testReuse() throws OrekitException {
+        AbsoluteDate date1 = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        AbsoluteDate date2 = date1.shiftedBy(60.0);
+        EnvironmentContext context = new EnvironmentContext();
+
+        context.open(date1);
+        Transform t1 = EnvironmentContext.getTransform(itrf, eme2000, date1);
+        context.close();
+
+        // opening again at the same date keeps the memoized quantities
+        context.open(new AbsoluteDate(date1, 0.0));
+        Assert.assertSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date1));
+        context.close();
+
+        // opening at another date drops them
+        context.open(date2);
+        Transform t2 = EnvironmentContext.getTransform(itrf, eme2000, date2);
+        Assert.assertSame(t2, EnvironmentContext.getTransform(itrf, eme2000, date2));
+        context.close();
+        context.open(date1);
+        Assert.assertNotSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date1));
+        context.close();
+
+        Assert.assertEquals(5, context.getRequestsCount());
+        Assert.assertEquals(3, context.getComputationsCount());
+
+    }
+
+    @Test
+    public void testAtmosphereModel() throws OrekitException {
+        AbsoluteDate date = new AbsoluteDate(2003, 7, 14, 12, 0, 0.0, TimeScalesFactory.getUTC());
+        OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                      Constants.WGS84_EARTH_FLATTENING, itrf);
+        DTM2000 atm = new DTM2000(SolarInputs97to05.getInstance(), sun, earth);
+        Vector3D p1 = new Vector3D(7000000.0, 0.0, 0.0);
+        Vector3D p2 = new Vector3D(0.0, 7000000.0, 1000000.0);
+        double rho1 = atm.getDensity(date, p1, eme2000);
+        double rho2 = atm.getDensity(date, p2, eme2000);
+
+        EnvironmentContext context = new EnvironmentContext();
+        context.open(date);
+        try {
+            Assert.assertEquals(rho1, atm.getDensity(date, p1, eme2000), 0.0);
+            Assert.assertEquals(rho2, atm.getDensity(date, p2, eme2000), 0.0);
+        } finally {
+            context.close();
+        }
+
+        // the Earth frame transform and the Sun position are computed only once
+        Assert.assertEquals(4, context.getRequestsCount());
+        Assert.assertEquals(2, context.getComputationsCount());
+
+    }
+
+    @Test(expected = OrekitInternalError.class)
+    public void testOpenTwice() {
+        EnvironmentContext context = new EnvironmentContext();
+        context.open(AbsoluteDate.J2000_EPOCH);
+        try {
+            context.open(AbsoluteDate.J2000_EPOCH);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testNested() throws OrekitException {
+        AbsoluteDate date1 = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        AbsoluteDate date2 = date1.shiftedBy(60.0);
+        EnvironmentContext context1 = new EnvironmentContext();
+        EnvironmentContext context2 = new EnvironmentContext();
+        context1.open(date1);
+        Transform t1 = EnvironmentContext.getTransform(itrf, eme2000, date1);
+        context2.open(date2);
+        Assert.assertNotSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date1));
+        Transform t2 = EnvironmentContext.getTransform(itrf, eme2000, date2);
+        Assert.assertSame(t2, EnvironmentContext.getTransform(itrf, eme2000, date2));
+        context2.close();
+        Assert.assertSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date1));
+        context1.close();
+        Assert.assertNotSame(t1, EnvironmentContext.getTransform(itrf, eme2000, date1));
+
+        // each context counts only the requests performed while it was the current one
+        Assert.assertEquals(2, context1.getRequestsCount());
+        Assert.assertEquals(1, context1.getComputationsCount());
+        Assert.assertEquals(3, context2.getRequestsCount());
+        Assert.assertEquals(2, context2.getComputationsCount());
+
+    }
+
+    @Test
+    public void testSharedCacheBindings() {
+        SharedEnvironmentCache outer = new SharedEnvironmentCache(10);
+        SharedEnvironmentCache inner = new SharedEnvironmentCache(10);
+        Assert.assertNull(outer.bind());
+        Assert.assertSame(outer, inner.bind());
+        Assert.assertSame(inner, SharedEnvironmentCache.getBound());
+
+        // restoring the previous binding leaves the outer cache in place
+        SharedEnvironmentCache.restore(outer);
+        Assert.assertSame(outer, SharedEnvironmentCache.getBound());
+        SharedEnvironmentCache.restore(null);
+        Assert.assertNull(SharedEnvironmentCache.getBound());
+    }
+
+    @Test
+    public void testPropagationSavings() throws OrekitException {
+
+        final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            itrf);
+        final KeplerianOrbit orbit = new KeplerianOrbit(6878137.0, 0.001, FastMath.toRadians(51.6),
+                                                        FastMath.toRadians(30.0), FastMath.toRadians(20.0),
+                                                        0.0, PositionAngle.MEAN, eme2000,
+                                                        AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0),
+                                                        Constants.EIGEN5C_EARTH_MU);
+        NumericalPropagator propagator = new NumericalPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.addForceModel(new HolmesFeatherstoneAttractionModel(itrf,
+                                                                       GravityFieldFactory.getNormalizedProvider(4, 4)));
+        propagator.addForceModel(new ThirdBodyAttraction(sun));
+        propagator.addForceModel(new DragForce(new HarrisPriester(sun, earth), new IsotropicDrag(2.0, 2.2)));
+
+        // count the evaluations performed at a date different from the previous one
+        final AbsoluteDate[] lastDate = new AbsoluteDate[1];
+        final long[] newDates = new long[1];
+        propagator.addAdditionalEquations(new AdditionalEquations() {
+            public String getName() {
+                return "dates-counter";
+            }
+            public double[] computeDerivatives(SpacecraftState s, double[] pDot) {
+                if (!s.getDate().equals(lastDate[0])) {
+                    lastDate[0] = s.getDate();
+                    ++newDates[0];
+                }
+                return null;
+            }
+        });
+        propagator.setInitialState(new SpacecraftState(orbit, 1000.0).addAdditionalState("dates-counter", 0.0));
+
+        propagator.propagate(orbit.getDate().shiftedBy(600.0));
+        final long calls = propagator.getCalls();
+        Assert.assertTrue(calls > 0);
+
+        // Runge-Kutta stages often share dates (the two middle stages, and
+        // the end of one step with the start of the next one)
+        Assert.assertTrue(newDates[0] < calls);
+
+        // at each evaluation, five requests are performed:
+        //  - gravity field: ITRF to EME2000 transform
+        //  - third body: Sun in EME2000
+        //  - atmosphere density: Sun in ITRF and EME2000 to ITRF transform
+        //  - atmosphere velocity: ITRF to EME2000 transform (already computed for gravity field)
+        // the four distinct quantities are computed only when the date changes
+        final EnvironmentContext context = propagator.getEnvironmentContext();
+        Assert.assertEquals(5 * calls, context.getRequestsCount());
+        Assert.assertEquals(4 * newDates[0], context.getComputationsCount());
+
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/shm-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new SHMFormatReader("^eigen_cg03c_coef$", false));
+        itrf    = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        eme2000 = FramesFactory.getEME2000();
+        sun     = CelestialBodyFactory.getSun();
+    }
+
+    private Frame         itrf;
+    private Frame         eme2000;
+    private CelestialBody sun;
+
+}
@@ -0,0 +1,201 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.potential.GRGSFormatReader;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.numerical.TimeDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
+
+
+public class AdaptiveHolmesFeatherstoneAttractionModelTest {
+
+    @Test
+    public void testTruncationDegree() throws OrekitException {
+
+        AdaptiveHolmesFeatherstoneAttractionModel model =
+                new AdaptiveHolmesFeatherstoneAttractionModel(itrf, provider, 1.0e-10);
+        Assert.assertEquals(1.0e-10, model.getTolerance(), 0.0);
+
+        int previous = Integer.MAX_VALUE;
+        for (double r = 6600000.0; r < 400000000.0; r *= 1.1) {
+            int degree = model.getTruncationDegree(r);
+            Assert.assertTrue(degree <= previous);
+            Assert.assertTrue(degree >= 2);
+            Assert.assertTrue(degree <= 69);
+            previous = degree;
+        }
+        Assert.assertEquals(69, model.getTruncationDegree(6600000.0));
+        Assert.assertTrue(model.getTruncationDegree(42164000.0) < 20);
+        Assert.assertEquals(2, model.getTruncationDegree(384400000.0));
+
+    }
+
+    @Test
+    public void testZeroTolerance() throws OrekitException {
+
+        AdaptiveHolmesFeatherstoneAttractionModel adaptive =
+                new AdaptiveHolmesFeatherstoneAttractionModel(itrf, provider, 0.0);
+        SpacecraftState full     = propagate(new HolmesFeatherstoneAttractionModel(itrf, provider), 3600.0);
+        SpacecraftState adapted  = propagate(adaptive, 3600.0);
+
+        Assert.assertEquals(0.0,
+                            full.getPVCoordinates().getPosition().distance(adapted.getPVCoordinates().getPosition()),
+                            0.0);
+        Assert.assertTrue(adaptive.getEvaluationsCount(69) > 0);
+        for (int n = 0; n < 69; ++n) {
+            Assert.assertEquals(0L, adaptive.getEvaluationsCount(n));
+        }
+
+    }
+
+    @Test
+    public void testHighlyEccentricOrbit() throws OrekitException {
+
+        AdaptiveHolmesFeatherstoneAttractionModel adaptive =
+                new AdaptiveHolmesFeatherstoneAttractionModel(itrf, provider, 1.0e-11);
+        SpacecraftState full     = propagate(new HolmesFeatherstoneAttractionModel(itrf, provider),
+                                             Constants.JULIAN_DAY);
+        SpacecraftState adapted  = propagate(adaptive, Constants.JULIAN_DAY);
+
+        Assert.assertEquals(0.0,
+                            full.getPVCoordinates().getPosition().distance(adapted.getPVCoordinates().getPosition()),
+                            1.0);
+
+        // evaluations near perigee use the full field,
+        // evaluations near apogee use a strongly truncated field
+        long low = 0;
+        for (int n = 0; n < 20; ++n) {
+            low += adaptive.getEvaluationsCount(n);
+        }
+        Assert.assertTrue(low > 0);
+        Assert.assertTrue(adaptive.getEvaluationsCount(69) > 0);
+
+    }
+
+    @Test
+    public void testCentralAttractionChange() throws OrekitException {
+
+        AdaptiveHolmesFeatherstoneAttractionModel adaptive =
+                new AdaptiveHolmesFeatherstoneAttractionModel(itrf, provider, 1.0e-10);
+        AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        double[] radii = { 7000000.0, 12000000.0, 20000000.0, 42164000.0 };
+
+        // build the truncated models before changing the central attraction coefficient
+        Vector3D[] before = new Vector3D[radii.length];
+        int[]      degree = new int[radii.length];
+        for (int i = 0; i < radii.length; ++i) {
+            degree[i] = adaptive.getTruncationDegree(radii[i]);
+            before[i] = acceleration(adaptive, date, radii[i]);
+        }
+        Assert.assertTrue(degree[radii.length - 1] < degree[0]);
+
+        // the change must reach the truncated models already built
+        ParameterDriver muDriver = adaptive.getParametersDrivers()[0];
+        muDriver.setValue(1.001 * muDriver.getValue());
+        for (int i = 0; i < radii.length; ++i) {
+            Assert.assertEquals(degree[i], adaptive.getTruncationDegree(radii[i]));
+            Vector3D after = acceleration(adaptive, date, radii[i]);
+            Assert.assertEquals(0.0, Vector3D.distance(before[i].scalarMultiply(1.001), after),
+                                1.0e-12 * before[i].getNorm());
+        }
+
+    }
+
+    private Vector3D acceleration(final ForceModel model, final AbsoluteDate date, final double r)
+        throws OrekitException {
+        final Orbit orbit = new CartesianOrbit(new PVCoordinates(new Vector3D(0.6 * r, 0.0, 0.8 * r),
+                                                                 new Vector3D(0.0, FastMath.sqrt(provider.getMu() / r), 0.0)),
+                                               FramesFactory.getEME2000(), date, provider.getMu());
+        final double[] acceleration = new double[3];
+        model.addContribution(new SpacecraftState(orbit), new TimeDerivativesEquations() {
+            public void addKeplerContribution(final double mu) {
+                Assert.fail("no Keplerian contribution expected");
+            }
+            public void addXYZAcceleration(final double x, final double y, final double z) {
+                acceleration[0] += x;
+                acceleration[1] += y;
+                acceleration[2] += z;
+            }
+            public void addAcceleration(final Vector3D gamma, final Frame frame) {
+                Assert.fail("no frame acceleration expected");
+            }
+            public void addMassDerivative(final double q) {
+                Assert.fail("no mass derivative expected");
+            }
+        });
+        return new Vector3D(acceleration);
+    }
+
+    private SpacecraftState propagate(final ForceModel model, final double duration)
+        throws OrekitException {
+        AbsoluteDate date = new AbsoluteDate(new DateComponents(2000, 07, 01),
+                                             new TimeComponents(13, 59, 27.816),
+                                             TimeScalesFactory.getUTC());
+        Orbit orbit = new KeplerianOrbit(24500000.0, 0.7, FastMath.toRadians(63.4),
+                                         FastMath.toRadians(270.0), FastMath.toRadians(15.0),
+                                         0, PositionAngle.MEAN, FramesFactory.getEME2000(), date,
+                                         provider.getMu());
+        double[][] tolerances = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(1.0e-3, 600,
+                                                                       tolerances[0], tolerances[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.addForceModel(model);
+        propagator.setInitialState(new SpacecraftState(orbit));
+        return propagator.propagate(date.shiftedBy(duration));
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        itrf     = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        provider = GravityFieldFactory.getNormalizedProvider(69, 69);
+    }
+
+    private Frame itrf;
+    private NormalizedSphericalHarmonicsProvider provider;
+
+}
@@ -0,0 +1,391 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.hipparchus.analysis.differentiation.DSFactory;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.potential.GRGSFormatReader;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.TideSystem;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.IERSConventions;
+
+
+public class GriddedAttractionModelTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testAccuracy() throws OrekitException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        Assert.assertEquals(1.0e-5, gridded.getTolerance(), 0.0);
+        Assert.assertEquals(0, gridded.getNodesNumber());
+        Assert.assertEquals(0, gridded.getCellsNumber());
+
+        RandomGenerator random = new Well19937a(0x2f4a3b1c5d6e7f80L);
+        int interpolated = 0;
+        for (int i = 0; i < 1000; ++i) {
+            Vector3D position = randomPosition(random);
+            double[] gradient = gridded.gradient(position);
+            double[] direct   = reference.gradient(AbsoluteDate.J2000_EPOCH, position);
+            Assert.assertEquals(0.0, new Vector3D(gradient).distance(new Vector3D(direct)),
+                                gridded.getTolerance());
+            if (!Arrays.equals(gradient, direct)) {
+                // the reference model is used as is in rejected cells,
+                // so only interpolation can change the result
+                ++interpolated;
+            }
+        }
+
+        // with this grid, all cells visited should be interpolable
+        Assert.assertEquals(1000, interpolated);
+        Assert.assertTrue(gridded.getNodesNumber() > 0);
+        Assert.assertTrue(gridded.getCellsNumber() > 0);
+
+    }
+
+    @Test
+    public void testRejectedCells() throws OrekitException {
+
+        // with a tolerance this small, no cell can be interpolated
+        GriddedAttractionModel gridded =
+                new GriddedAttractionModel(itrf, reference, AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-15);
+        RandomGenerator random = new Well19937a(0x4c1d3e5f7a9b2c4dL);
+        for (int i = 0; i < 100; ++i) {
+            Vector3D position = randomPosition(random);
+            Assert.assertArrayEquals(reference.gradient(AbsoluteDate.J2000_EPOCH, position),
+                                     gridded.gradient(position), 0.0);
+        }
+        Assert.assertTrue(gridded.getCellsNumber() > 0);
+
+    }
+
+    @Test
+    public void testDerivatives() throws OrekitException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        DSFactory factory = new DSFactory(6, 1);
+        RandomGenerator random = new Well19937a(0x1b2c3d4e5f607182L);
+        for (int i = 0; i < 100; ++i) {
+
+            // cell center, so finite differences remain in the same cell
+            Vector3D position = new Vector3D(6900000.0 + 20000.0 * (random.nextInt(10) + 0.5),
+                                             new Vector3D(FastMath.toRadians(random.nextInt(360) - 179.5),
+                                                          FastMath.toRadians(random.nextInt(160) - 79.5)));
+            FieldVector3D<DerivativeStructure> dsPosition =
+                    new FieldVector3D<>(factory.variable(0, position.getX()),
+                                        factory.variable(1, position.getY()),
+                                        factory.variable(2, position.getZ()));
+            FieldVector3D<DerivativeStructure> dsVelocity =
+                    new FieldVector3D<>(factory.variable(3, 0.0),
+                                        factory.variable(4, 0.0),
+                                        factory.variable(5, 0.0));
+            FieldVector3D<DerivativeStructure> acceleration =
+                    gridded.accelerationDerivatives(AbsoluteDate.J2000_EPOCH, itrf,
+                                                    dsPosition, dsVelocity, null, factory.constant(1000.0));
+            DerivativeStructure[] components = new DerivativeStructure[] {
+                acceleration.getX(), acceleration.getY(), acceleration.getZ()
+            };
+
+            // values are interpolated
+            double[] gradient = gridded.gradient(position);
+            Assert.assertFalse(Arrays.equals(reference.gradient(AbsoluteDate.J2000_EPOCH, position), gradient));
+            double norm = new Vector3D(gradient).getNorm();
+            for (int k = 0; k < 3; ++k) {
+                Assert.assertEquals(gradient[k], components[k].getValue(), 1.0e-13 * norm);
+            }
+
+            // derivatives are those of the interpolating function
+            double h = 1.0;
+            Vector3D[] steps = new Vector3D[] { Vector3D.PLUS_I, Vector3D.PLUS_J, Vector3D.PLUS_K };
+            for (int j = 0; j < 3; ++j) {
+                double[] gP = gridded.gradient(new Vector3D(1, position, +h, steps[j]));
+                double[] gM = gridded.gradient(new Vector3D(1, position, -h, steps[j]));
+                int[] orders = new int[6];
+                orders[j] = 1;
+                for (int k = 0; k < 3; ++k) {
+                    double fd = (gP[k] - gM[k]) / (2 * h);
+                    Assert.assertEquals(fd, components[k].getPartialDerivative(orders), 1.0e-6 * norm / position.getNorm());
+                }
+                Assert.assertEquals(0.0, components[j].getPartialDerivative(0, 0, 0, 1, 0, 0), 0.0);
+            }
+
+        }
+
+    }
+
+    @Test
+    public void testOutsideShell() throws OrekitException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        for (Vector3D position : new Vector3D[] {
+            new Vector3D(6600000.0, new Vector3D(0.3, 0.2)),
+            new Vector3D(8000000.0, new Vector3D(0.3, 0.2)),
+            new Vector3D(7000000.0, new Vector3D(0.3, 0.5 * FastMath.PI - 1.0e-4))
+        }) {
+            Assert.assertArrayEquals(reference.gradient(AbsoluteDate.J2000_EPOCH, position),
+                                     gridded.gradient(position), 0.0);
+        }
+        Assert.assertEquals(0, gridded.getNodesNumber());
+        Assert.assertEquals(0, gridded.getCellsNumber());
+
+    }
+
+    @Test
+    public void testSaveLoad() throws OrekitException, IOException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        RandomGenerator random = new Well19937a(0x7e8d9c0b1a2f3e4dL);
+        Vector3D[] positions = new Vector3D[100];
+        for (int i = 0; i < positions.length; ++i) {
+            positions[i] = randomPosition(random);
+            gridded.gradient(positions[i]);
+        }
+
+        File file = new File(tempFolder.newFolder(), "grid.bin");
+        gridded.saveTables(file);
+
+        GriddedAttractionModel loaded = createModel(10);
+        Assert.assertTrue(loaded.loadTables(file));
+        Assert.assertEquals(gridded.getNodesNumber(), loaded.getNodesNumber());
+        Assert.assertEquals(gridded.getCellsNumber(), loaded.getCellsNumber());
+        for (Vector3D position : positions) {
+            Assert.assertArrayEquals(gridded.gradient(position), loaded.gradient(position), 0.0);
+        }
+        Assert.assertEquals(gridded.getNodesNumber(), loaded.getNodesNumber());
+
+        // tables saved for a different grid are ignored
+        GriddedAttractionModel other = createModel(11);
+        Assert.assertFalse(other.loadTables(file));
+        Assert.assertEquals(0, other.getNodesNumber());
+        Assert.assertFalse(other.loadTables(new File(file.getParentFile(), "missing.bin")));
+
+    }
+
+    @Test
+    public void testLoadWithOtherReferenceModel() throws OrekitException, IOException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        RandomGenerator random = new Well19937a(0x3c4d5e6f7a8b9c0dL);
+        for (int i = 0; i < 100; ++i) {
+            gridded.gradient(randomPosition(random));
+        }
+        File file = new File(tempFolder.newFolder(), "grid.bin");
+        gridded.saveTables(file);
+
+        // same grid, but different gravity field degree and order
+        HolmesFeatherstoneAttractionModel truncated =
+                new HolmesFeatherstoneAttractionModel(itrf, GravityFieldFactory.getNormalizedProvider(8, 8));
+        GriddedAttractionModel otherField =
+                new GriddedAttractionModel(itrf, truncated, AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertFalse(otherField.loadTables(file));
+        Assert.assertEquals(0, otherField.getNodesNumber());
+
+        // same grid, but different reference date
+        GriddedAttractionModel otherDate =
+                new GriddedAttractionModel(itrf, reference, AbsoluteDate.J2000_EPOCH.shiftedBy(86400.0),
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertFalse(otherDate.loadTables(file));
+
+        // same grid, but different body frame
+        Frame otherFrame = FramesFactory.getITRF(IERSConventions.IERS_2003, true);
+        GriddedAttractionModel otherBody =
+                new GriddedAttractionModel(otherFrame,
+                                           new HolmesFeatherstoneAttractionModel(otherFrame,
+                                                                                 GravityFieldFactory.getNormalizedProvider(20, 20)),
+                                           AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertFalse(otherBody.loadTables(file));
+
+        // same degree and order, but one different coefficient
+        HolmesFeatherstoneAttractionModel modified =
+                new HolmesFeatherstoneAttractionModel(itrf,
+                                                      new ModifiedProvider(GravityFieldFactory.getNormalizedProvider(20, 20),
+                                                                           1.0e-15, null));
+        GriddedAttractionModel otherCoefficients =
+                new GriddedAttractionModel(itrf, modified, AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertFalse(otherCoefficients.loadTables(file));
+
+        // same coefficients, but different tide system
+        HolmesFeatherstoneAttractionModel otherTide =
+                new HolmesFeatherstoneAttractionModel(itrf,
+                                                      new ModifiedProvider(GravityFieldFactory.getNormalizedProvider(20, 20),
+                                                                           0.0, TideSystem.ZERO_TIDE));
+        GriddedAttractionModel otherTideSystem =
+                new GriddedAttractionModel(itrf, otherTide, AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertFalse(otherTideSystem.loadTables(file));
+
+        // an unmodified wrapper is accepted
+        HolmesFeatherstoneAttractionModel same =
+                new HolmesFeatherstoneAttractionModel(itrf,
+                                                      new ModifiedProvider(GravityFieldFactory.getNormalizedProvider(20, 20),
+                                                                           0.0, null));
+        GriddedAttractionModel sameModel =
+                new GriddedAttractionModel(itrf, same, AbsoluteDate.J2000_EPOCH,
+                                           6900000.0, 7100000.0, 10, 180, 360, 1.0e-5);
+        Assert.assertTrue(sameModel.loadTables(file));
+
+        // different central attraction coefficient
+        reference.getParametersDrivers()[0].setValue(1.001 * reference.getParametersDrivers()[0].getValue());
+        Assert.assertFalse(createModel(10).loadTables(file));
+
+    }
+
+    @Test
+    public void testCentralAttractionChange() throws OrekitException, IOException {
+
+        GriddedAttractionModel gridded = createModel(10);
+        RandomGenerator random = new Well19937a(0x5a6b7c8d9e0f1a2bL);
+        Vector3D[] positions = new Vector3D[20];
+        double[][] gradients = new double[positions.length][];
+        for (int i = 0; i < positions.length; ++i) {
+            positions[i] = randomPosition(random);
+            gradients[i] = gridded.gradient(positions[i]);
+        }
+        Assert.assertTrue(gridded.getNodesNumber() > 0);
+        File file = new File(tempFolder.newFolder(), "grid.bin");
+        gridded.saveTables(file);
+
+        // changing the reference model central attraction coefficient drops the tables
+        reference.getParametersDrivers()[0].setValue(1.001 * reference.getParametersDrivers()[0].getValue());
+        Assert.assertEquals(0, gridded.getNodesNumber());
+        Assert.assertEquals(0, gridded.getCellsNumber());
+        Assert.assertFalse(gridded.loadTables(file));
+
+        // the recomputed nodes use the new value
+        GriddedAttractionModel fresh = createModel(10);
+        for (int i = 0; i < positions.length; ++i) {
+            final double[] g = gridded.gradient(positions[i]);
+            Assert.assertArrayEquals(fresh.gradient(positions[i]), g, 0.0);
+            Assert.assertNotEquals(gradients[i][0], g[0], 1.0e-10);
+        }
+
+    }
+
+    private GriddedAttractionModel createModel(final int nR) {
+        return new GriddedAttractionModel(itrf, reference, AbsoluteDate.J2000_EPOCH,
+                                          6900000.0, 7100000.0, nR, 180, 360, 1.0e-5);
+    }
+
+    private Vector3D randomPosition(final RandomGenerator random) {
+        return new Vector3D(6900000.0 + 200000.0 * random.nextDouble(),
+                            new Vector3D(2 * FastMath.PI * random.nextDouble(),
+                                         FastMath.toRadians(160.0 * (random.nextDouble() - 0.5))));
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        itrf      = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        reference = new HolmesFeatherstoneAttractionModel(itrf, GravityFieldFactory.getNormalizedProvider(20, 20));
+    }
+
+    private Frame itrf;
+    private HolmesFeatherstoneAttractionModel reference;
+
+    /** Provider with a modified C₂₀ coefficient and tide system. */
+    private static class ModifiedProvider implements NormalizedSphericalHarmonicsProvider {
+
+        private final NormalizedSphericalHarmonicsProvider raw;
+        private final double deltaC20;
+        private final TideSystem tideSystem;
+
+        ModifiedProvider(final NormalizedSphericalHarmonicsProvider raw,
+                         final double deltaC20, final TideSystem tideSystem) {
+            this.raw        = raw;
+            this.deltaC20   = deltaC20;
+            this.tideSystem = (tideSystem == null) ? raw.getTideSystem() : tideSystem;
+        }
+
+        public int getMaxDegree() {
+            return raw.getMaxDegree();
+        }
+
+        public int getMaxOrder() {
+            return raw.getMaxOrder();
+        }
+
+        public double getMu() {
+            return raw.getMu();
+        }
+
+        public double getAe() {
+            return raw.getAe();
+        }
+
+        public AbsoluteDate getReferenceDate() {
+            return raw.getReferenceDate();
+        }
+
+        public double getOffset(final AbsoluteDate date) {
+            return raw.getOffset(date);
+        }
+
+        public TideSystem getTideSystem() {
+            return tideSystem;
+        }
+
+        public NormalizedSphericalHarmonics onDate(final AbsoluteDate date) throws OrekitException {
+            final NormalizedSphericalHarmonics harmonics = raw.onDate(date);
+            return new NormalizedSphericalHarmonics() {
+
+                public AbsoluteDate getDate() {
+                    return harmonics.getDate();
+                }
+
+                public double getNormalizedCnm(final int n, final int m) throws OrekitException {
+                    final double cnm = harmonics.getNormalizedCnm(n, m);
+                    return (n == 2 && m == 0) ? cnm + deltaC20 : cnm;
+                }
+
+                public double getNormalizedSnm(final int n, final int m) throws OrekitException {
+                    return harmonics.getNormalizedSnm(n, m);
+                }
+
+            };
+        }
+
+    }
+
+}
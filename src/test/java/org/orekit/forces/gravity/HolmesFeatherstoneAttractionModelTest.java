@@ -17,6 +17,15 @@
 package org.orekit.forces.gravity;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.hipparchus.Field;
 import org.hipparchus.analysis.differentiation.DSFactory;
 import org.hipparchus.analysis.differentiation.DerivativeStructure;
@@ -44,6 +53,7 @@ import org.orekit.bodies.CelestialBodyFactory;
 import org.orekit.errors.OrekitException;
 import org.orekit.forces.AbstractForceModelTest;
 import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel.GradientHessian;
 import org.orekit.forces.gravity.potential.GRGSFormatReader;
 import org.orekit.forces.gravity.potential.GravityFieldFactory;
 import org.orekit.forces.gravity.potential.ICGEMFormatReader;
@@ -418,6 +428,182 @@ public class HolmesFeatherstoneAttractionModelTest extends AbstractForceModelTes
 
     }
 
+    @Test
+    public void testWorkspaceReuse()
+        throws OrekitException, InterruptedException, ExecutionException {
+
+        int max = 50;
+        NormalizedSphericalHarmonicsProvider provider = new GleasonProvider(max, max);
+        final HolmesFeatherstoneAttractionModel shared =
+                new HolmesFeatherstoneAttractionModel(itrf, provider);
+
+        final List<Vector3D> positions = new ArrayList<Vector3D>();
+        double r = 1.25;
+        for (double lambda = 0; lambda < 2 * FastMath.PI; lambda += 0.5) {
+            for (double theta = 0.05; theta < 3.11; theta += 0.13) {
+                positions.add(new Vector3D(r * FastMath.sin(theta) * FastMath.cos(lambda),
+                                           r * FastMath.sin(theta) * FastMath.sin(lambda),
+                                           r * FastMath.cos(theta)));
+            }
+        }
+
+        // results from reused work buffers must be identical to results from fresh buffers,
+        // even when the buffers are used concurrently by several threads
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<double[][]>> results = new ArrayList<Future<double[][]>>();
+        for (final Vector3D position : positions) {
+            results.add(executor.submit(new Callable<double[][]>() {
+                public double[][] call() throws OrekitException {
+                    return new double[][] {
+                        { shared.nonCentralPart(null, position) },
+                        shared.gradient(null, position),
+                        shared.gradientHessian(null, position).getGradient()
+                    };
+                }
+            }));
+        }
+        for (int i = 0; i < positions.size(); ++i) {
+            HolmesFeatherstoneAttractionModel fresh = new HolmesFeatherstoneAttractionModel(itrf, provider);
+            double[][] sharedResult = results.get(i).get();
+            Assert.assertEquals(fresh.nonCentralPart(null, positions.get(i)), sharedResult[0][0], 0.0);
+            Assert.assertArrayEquals(fresh.gradient(null, positions.get(i)), sharedResult[1], 0.0);
+            Assert.assertArrayEquals(fresh.gradientHessian(null, positions.get(i)).getGradient(), sharedResult[2], 0.0);
+        }
+        executor.shutdown();
+
+    }
+
+    @Test
+    public void testNullReferenceDateTimeDependentField() throws OrekitException {
+
+        // this provider has no reference date, but its coefficients still depend on date
+        final int max = 20;
+        NormalizedSphericalHarmonicsProvider provider = new GleasonProvider(max, max) {
+            @Override
+            public NormalizedSphericalHarmonics onDate(final AbsoluteDate date) throws OrekitException {
+                final double scale = 1 + date.durationFrom(AbsoluteDate.J2000_EPOCH) / Constants.JULIAN_CENTURY;
+                return new NormalizedSphericalHarmonics() {
+                    @Override
+                    public double getNormalizedCnm(int n, int m) {
+                        return scale;
+                    }
+                    @Override
+                    public double getNormalizedSnm(int n, int m) {
+                        return scale;
+                    }
+                    @Override
+                    public AbsoluteDate getDate() {
+                        return date;
+                    }
+                };
+            }
+        };
+        Assert.assertNull(provider.getReferenceDate());
+        Assert.assertFalse(provider.isConstant());
+
+        final HolmesFeatherstoneAttractionModel model = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        final Vector3D position = new Vector3D(0.6, 0.7, 0.8);
+        final AbsoluteDate date1 = AbsoluteDate.J2000_EPOCH;
+        final AbsoluteDate date2 = date1.shiftedBy(Constants.JULIAN_CENTURY);
+        final double[] g1 = model.gradient(date1, position);
+        final double[] g2 = model.gradient(date2, position);
+
+        // coefficients are doubled between the two dates, and so is the gradient
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(2 * g1[i], g2[i], 1.0e-14 * FastMath.abs(g2[i]));
+        }
+        Assert.assertArrayEquals(new HolmesFeatherstoneAttractionModel(itrf, provider).gradient(date2, position),
+                                 g2, 0.0);
+
+    }
+
+    @Test
+    public void testConstantField() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        Assert.assertTrue(GravityFieldFactory.getConstantNormalizedProvider(8, 8).isConstant());
+        Assert.assertTrue(GravityFieldFactory.getConstantUnnormalizedProvider(8, 8).isConstant());
+        Assert.assertFalse(GravityFieldFactory.getNormalizedProvider(8, 8).isConstant());
+        Assert.assertFalse(new GleasonProvider(8, 8).isConstant());
+    }
+
+    @Test
+    public void testSameAsFieldKernelConstantField() throws OrekitException {
+        int max = 50;
+        NormalizedSphericalHarmonicsProvider provider = new GleasonProvider(max, max);
+        checkSameAsFieldKernel(provider, AbsoluteDate.J2000_EPOCH, AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0));
+    }
+
+    @Test
+    public void testSameAsFieldKernelTimeDependentField() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+        NormalizedSphericalHarmonicsProvider provider = GravityFieldFactory.getNormalizedProvider(69, 69);
+        AbsoluteDate date = new AbsoluteDate(2005, 3, 5, 0, 24, 0.0, TimeScalesFactory.getTAI());
+        checkSameAsFieldKernel(provider, date, date.shiftedBy(3 * Constants.JULIAN_YEAR));
+    }
+
+    /** Check the flattened double kernels against the field kernel.
+     * <p>
+     * The field kernel reads the coefficients directly from the provider
+     * and allocates its own arrays, so it is independent of the flattened
+     * coefficients and reused work buffers. Using derivative structures with
+     * respect to position, it provides both the gradient and the hessian.
+     * </p>
+     */
+    private void checkSameAsFieldKernel(final NormalizedSphericalHarmonicsProvider provider,
+                                        final AbsoluteDate date1, final AbsoluteDate date2)
+        throws OrekitException {
+
+        HolmesFeatherstoneAttractionModel model = new HolmesFeatherstoneAttractionModel(itrf, provider);
+        DSFactory factory = new DSFactory(3, 1);
+
+        double r = 1.25 * provider.getAe();
+        for (double lambda = 0; lambda < 2 * FastMath.PI; lambda += 0.5) {
+            for (double theta = 0.05; theta < 3.11; theta += 0.13) {
+                Vector3D position = new Vector3D(r * FastMath.sin(theta) * FastMath.cos(lambda),
+                                                 r * FastMath.sin(theta) * FastMath.sin(lambda),
+                                                 r * FastMath.cos(theta));
+                FieldVector3D<DerivativeStructure> fieldPosition =
+                        new FieldVector3D<>(factory.variable(0, position.getX()),
+                                            factory.variable(1, position.getY()),
+                                            factory.variable(2, position.getZ()));
+
+                // alternating dates forces the flattened coefficients to be refreshed
+                for (final AbsoluteDate date : Arrays.asList(date1, date2, date1)) {
+
+                    DerivativeStructure[] reference =
+                            model.gradient(new FieldAbsoluteDate<>(factory.getDerivativeField(), date), fieldPosition);
+                    double[]        gradient = model.gradient(date, position);
+                    GradientHessian gh       = model.gradientHessian(date, position);
+
+                    double gScale = 0;
+                    double hScale = 0;
+                    for (int i = 0; i < 3; ++i) {
+                        gScale = FastMath.max(gScale, FastMath.abs(reference[i].getValue()));
+                        for (int j = 0; j < 3; ++j) {
+                            hScale = FastMath.max(hScale, FastMath.abs(partial(reference[i], j)));
+                        }
+                    }
+
+                    for (int i = 0; i < 3; ++i) {
+                        Assert.assertEquals(reference[i].getValue(), gradient[i],           1.0e-13 * gScale);
+                        Assert.assertEquals(reference[i].getValue(), gh.getGradient()[i],   1.0e-13 * gScale);
+                        for (int j = 0; j < 3; ++j) {
+                            Assert.assertEquals(partial(reference[i], j), gh.getHessian()[i][j], 1.0e-12 * hScale);
+                        }
+                    }
+
+                }
+            }
+        }
+
+    }
+
+    private double partial(final DerivativeStructure ds, final int j) {
+        return ds.getPartialDerivative(j == 0 ? 1 : 0, j == 1 ? 1 : 0, j == 2 ? 1 : 0);
+    }
+
     private Dfp error(Dfp refValue, double value) {
         return refValue.getField().newDfp(value).subtract(refValue);
     }
@@ -0,0 +1,151 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.forces.gravity.potential;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.text.ParseException;
+
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.data.DataProvidersManager;
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.potential.RawSphericalHarmonicsProvider.RawSphericalHarmonics;
+import org.orekit.time.AbsoluteDate;
+
+
+public class CachedPotentialCoefficientsReaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private int count;
+
+    @Test
+    public void testSnapshotReused() throws OrekitException, IOException {
+        DataSnapshotCache cache = new DataSnapshotCache(tempFolder.newFolder("cache"));
+        RawSphericalHarmonicsProvider reference = read(new ICGEMFormatReader("GrazLGM300c.truncated", false), 12, 12);
+        checkEquals(reference, read(cached(cache, "lgm", "GrazLGM300c.truncated"), 12, 12));
+        Assert.assertEquals(1, count);
+        checkEquals(reference, read(cached(cache, "lgm", "GrazLGM300c.truncated"), 12, 12));
+        Assert.assertEquals(1, count);
+    }
+
+    @Test
+    public void testParseLimitsChange() throws OrekitException, IOException {
+        DataSnapshotCache cache = new DataSnapshotCache(tempFolder.newFolder("cache"));
+        read(cached(cache, "lgm", "GrazLGM300c.truncated"), 4, 4);
+        Assert.assertEquals(1, count);
+
+        // a snapshot truncated at degree 4 cannot be used for degree 12
+        RawSphericalHarmonicsProvider reference = read(new ICGEMFormatReader("GrazLGM300c.truncated", false), 12, 12);
+        checkEquals(reference, read(cached(cache, "lgm", "GrazLGM300c.truncated"), 12, 12));
+        Assert.assertEquals(2, count);
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws OrekitException, IOException {
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        read(cached(cache, "lgm", "GrazLGM300c.truncated"), 12, 12);
+        Assert.assertEquals(1, count);
+
+        // truncate the snapshot in the middle of a coefficient
+        File snapshot = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(snapshot, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+
+        // the truncated snapshot is ignored and the file is parsed again
+        RawSphericalHarmonicsProvider reference = read(new ICGEMFormatReader("GrazLGM300c.truncated", false), 12, 12);
+        checkEquals(reference, read(cached(cache, "lgm", "GrazLGM300c.truncated"), 12, 12));
+        Assert.assertEquals(2, count);
+
+    }
+
+    @Test
+    public void testTimeDependentFieldNotStored() throws OrekitException, IOException {
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        RawSphericalHarmonicsProvider provider = read(cached(cache, "eigen-6s", "eigen-6s-truncated"), 5, 5);
+        Assert.assertNotNull(provider.getReferenceDate());
+        read(cached(cache, "eigen-6s", "eigen-6s-truncated"), 5, 5);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(0, directory.listFiles().length);
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("potential");
+        count = 0;
+    }
+
+    private PotentialCoefficientsReader cached(final DataSnapshotCache cache, final String key,
+                                               final String supportedNames) {
+        return new CachedPotentialCoefficientsReader(cache, key, new CountingReader(supportedNames));
+    }
+
+    private RawSphericalHarmonicsProvider read(final PotentialCoefficientsReader reader,
+                                               final int degree, final int order)
+        throws OrekitException {
+        reader.setMaxParseDegree(degree);
+        reader.setMaxParseOrder(order);
+        DataProvidersManager.getInstance().feed(reader.getSupportedNames(), reader);
+        Assert.assertFalse(reader.stillAcceptsData());
+        return reader.getProvider(true, degree, order);
+    }
+
+    private void checkEquals(final RawSphericalHarmonicsProvider expected,
+                             final RawSphericalHarmonicsProvider actual)
+        throws OrekitException {
+        Assert.assertEquals(expected.getMaxDegree(),  actual.getMaxDegree());
+        Assert.assertEquals(expected.getMaxOrder(),   actual.getMaxOrder());
+        Assert.assertEquals(expected.getAe(),         actual.getAe(), 0.0);
+        Assert.assertEquals(expected.getMu(),         actual.getMu(), 0.0);
+        Assert.assertEquals(expected.getTideSystem(), actual.getTideSystem());
+        final RawSphericalHarmonics expectedHarmonics = expected.onDate(AbsoluteDate.J2000_EPOCH);
+        final RawSphericalHarmonics actualHarmonics   = actual.onDate(AbsoluteDate.J2000_EPOCH);
+        for (int n = 0; n <= expected.getMaxDegree(); ++n) {
+            for (int m = 0; m <= FastMath.min(n, expected.getMaxOrder()); ++m) {
+                Assert.assertEquals(expectedHarmonics.getRawCnm(n, m), actualHarmonics.getRawCnm(n, m), 0.0);
+                Assert.assertEquals(expectedHarmonics.getRawSnm(n, m), actualHarmonics.getRawSnm(n, m), 0.0);
+            }
+        }
+    }
+
+    private class CountingReader extends ICGEMFormatReader {
+        CountingReader(final String supportedNames) {
+            super(supportedNames, false);
+        }
+        @Override
+        public void loadData(final InputStream input, final String name)
+            throws IOException, ParseException, OrekitException {
+            ++count;
+            super.loadData(input, name);
+        }
+    }
+
+}
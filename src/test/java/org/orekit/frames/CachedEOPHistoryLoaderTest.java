@@ -0,0 +1,171 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.data.AbstractFilesLoaderTest;
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+import org.orekit.time.ChronologicalComparator;
+import org.orekit.utils.IERSConventions;
+
+
+public class CachedEOPHistoryLoaderTest extends AbstractFilesLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotReused() throws OrekitException, IOException {
+        setRoot("regular-data");
+        IERSConventions.NutationCorrectionConverter converter =
+                IERSConventions.IERS_2010.getNutationCorrectionConverter();
+        SortedSet<EOPEntry> reference = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME).fillHistory(converter, reference);
+
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        CountingLoader counting = new CountingLoader(new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME));
+        CachedEOPHistoryLoader cached =
+                new CachedEOPHistoryLoader(cache, "bulletinB", FramesFactory.BULLETINB_2000_FILENAME, counting);
+
+        // first call parses the files and writes the snapshot
+        SortedSet<EOPEntry> first = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        cached.fillHistory(converter, first);
+        Assert.assertEquals(1, counting.count);
+        Assert.assertEquals(1, directory.listFiles().length);
+        checkEquals(reference, first);
+
+        // second call uses the snapshot
+        SortedSet<EOPEntry> second = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        cached.fillHistory(converter, second);
+        Assert.assertEquals(1, counting.count);
+        checkEquals(reference, second);
+
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws OrekitException, IOException {
+        setRoot("regular-data");
+        IERSConventions.NutationCorrectionConverter converter =
+                IERSConventions.IERS_2010.getNutationCorrectionConverter();
+        SortedSet<EOPEntry> reference = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME).fillHistory(converter, reference);
+
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        CountingLoader counting = new CountingLoader(new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME));
+        CachedEOPHistoryLoader cached =
+                new CachedEOPHistoryLoader(cache, "bulletinB", FramesFactory.BULLETINB_2000_FILENAME, counting);
+        cached.fillHistory(converter, new TreeSet<EOPEntry>(new ChronologicalComparator()));
+        Assert.assertEquals(1, counting.count);
+
+        // truncate the snapshot in the middle of an entry
+        File snapshot = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(snapshot, "rw")) {
+            raf.setLength(raf.length() - 12);
+        }
+
+        // the truncated snapshot is ignored and the files are parsed again
+        SortedSet<EOPEntry> second = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        cached.fillHistory(converter, second);
+        Assert.assertEquals(2, counting.count);
+        checkEquals(reference, second);
+
+        // the snapshot has been regenerated
+        SortedSet<EOPEntry> third = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        cached.fillHistory(converter, third);
+        Assert.assertEquals(2, counting.count);
+        checkEquals(reference, third);
+
+    }
+
+    @Test
+    public void testCorruptedCount() throws OrekitException, IOException {
+        setRoot("regular-data");
+        IERSConventions.NutationCorrectionConverter converter =
+                IERSConventions.IERS_2010.getNutationCorrectionConverter();
+        SortedSet<EOPEntry> reference = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME).fillHistory(converter, reference);
+
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        CountingLoader counting = new CountingLoader(new BulletinBFilesLoader(FramesFactory.BULLETINB_2000_FILENAME));
+        CachedEOPHistoryLoader cached =
+                new CachedEOPHistoryLoader(cache, "bulletinB", FramesFactory.BULLETINB_2000_FILENAME, counting);
+        cached.fillHistory(converter, new TreeSet<EOPEntry>(new ChronologicalComparator()));
+        Assert.assertEquals(1, counting.count);
+
+        // overwrite the entries count (just after the 16 bytes header) with a huge value
+        File snapshot = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(snapshot, "rw")) {
+            raf.seek(16);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+
+        // the corrupted snapshot is ignored and the files are parsed again
+        SortedSet<EOPEntry> second = new TreeSet<EOPEntry>(new ChronologicalComparator());
+        cached.fillHistory(converter, second);
+        Assert.assertEquals(2, counting.count);
+        checkEquals(reference, second);
+
+    }
+
+    private void checkEquals(SortedSet<EOPEntry> expected, SortedSet<EOPEntry> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Iterator<EOPEntry> iterator = actual.iterator();
+        for (final EOPEntry e : expected) {
+            final EOPEntry a = iterator.next();
+            Assert.assertEquals(e.getMjd(), a.getMjd());
+            Assert.assertEquals(e.getUT1MinusUTC(), a.getUT1MinusUTC(), 0.0);
+            Assert.assertEquals(e.getLOD(),         a.getLOD(),         0.0);
+            Assert.assertEquals(e.getX(),           a.getX(),           0.0);
+            Assert.assertEquals(e.getY(),           a.getY(),           0.0);
+            Assert.assertEquals(e.getDdPsi(),       a.getDdPsi(),       0.0);
+            Assert.assertEquals(e.getDdEps(),       a.getDdEps(),       0.0);
+            Assert.assertEquals(e.getDx(),          a.getDx(),          0.0);
+            Assert.assertEquals(e.getDy(),          a.getDy(),          0.0);
+        }
+    }
+
+    private static class CountingLoader implements EOPHistoryLoader {
+        private final EOPHistoryLoader loader;
+        private int count;
+        CountingLoader(EOPHistoryLoader loader) {
+            this.loader = loader;
+            this.count  = 0;
+        }
+        public void fillHistory(IERSConventions.NutationCorrectionConverter converter,
+                                SortedSet<EOPEntry> history)
+            throws OrekitException {
+            ++count;
+            loader.fillHistory(converter, history);
+        }
+    }
+
+}
@@ -37,6 +37,7 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DateComponents;
 import org.orekit.time.TimeComponents;
 import org.orekit.time.TimeScalesFactory;
+import org.orekit.time.TimeVectorFunction;
 import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.Constants;
@@ -404,6 +405,57 @@ public class TODProviderTest {
 
     }
 
+    @Test
+    public void testSeriesInterpolation() throws OrekitException {
+        final TODProvider raw = new TODProvider(IERSConventions.IERS_2010, null);
+        final TODProvider interpolated;
+        try {
+            OrekitConfiguration.setSeriesInterpolation(8, 3600.0, 1.0e-12);
+            interpolated = new TODProvider(IERSConventions.IERS_2010, null);
+        } finally {
+            OrekitConfiguration.setSeriesInterpolation(0, Double.NaN, Double.NaN);
+        }
+        final AbsoluteDate t0 = new AbsoluteDate(2012, 3, 15, 4, 30, 0.0, TimeScalesFactory.getUTC());
+        for (double dt = 0; dt < 10 * Constants.JULIAN_DAY; dt += 3917.5) {
+            final AbsoluteDate date = t0.shiftedBy(dt);
+            final Rotation r = raw.getTransform(date).getRotation();
+            final Rotation i = interpolated.getTransform(date).getRotation();
+            Assert.assertEquals(0.0, Rotation.distance(r, i), 2.0e-12);
+        }
+    }
+
+    @Test
+    public void testSeriesInterpolationEquinoxesCorrectionStart() throws OrekitException {
+        // IAU 1994 resolution C7 correction to the equation of equinoxes starts at 1997-02-27
+        final AbsoluteDate start = new AbsoluteDate(1997, 2, 27, 0, 0, 30.0, TimeScalesFactory.getTAI());
+        for (final IERSConventions conventions : IERSConventions.values()) {
+            final TimeVectorFunction raw = conventions.getNutationFunction();
+            final TODProvider rawTOD     = new TODProvider(conventions, null);
+            final TimeVectorFunction interpolated;
+            final TODProvider interpolatedTOD;
+            try {
+                OrekitConfiguration.setSeriesInterpolation(8, 3600.0, 1.0e-12);
+                interpolated    = conventions.getNutationFunction();
+                interpolatedTOD = new TODProvider(conventions, null);
+            } finally {
+                OrekitConfiguration.setSeriesInterpolation(0, Double.NaN, Double.NaN);
+            }
+            for (double dt = -6 * 3600.0; dt <= 6 * 3600.0; dt += 317.5) {
+                final AbsoluteDate date = start.shiftedBy(dt);
+                final double[] r = raw.value(date);
+                final double[] i = interpolated.value(date);
+                Assert.assertEquals(r[0], i[0], 2.0e-12);
+                Assert.assertEquals(r[1], i[1], 2.0e-12);
+                Assert.assertEquals(r[2], i[2], 1.0e-15);
+                Assert.assertEquals(dt < 0, r[2] == 0.0);
+                Assert.assertEquals(0.0,
+                                    Rotation.distance(rawTOD.getTransform(date).getRotation(),
+                                                      interpolatedTOD.getTransform(date).getRotation()),
+                                    2.0e-12);
+            }
+        }
+    }
+
     @Before
     public void setUp() {
         Utils.setDataRoot("compressed-data");
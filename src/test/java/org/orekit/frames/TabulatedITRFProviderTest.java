@@ -0,0 +1,248 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.Decimal64;
+import org.hipparchus.util.Decimal64Field;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class TabulatedITRFProviderTest {
+
+    @Test
+    public void testAccuracy() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                               start, start.shiftedBy(Constants.JULIAN_DAY),
+                                               60.0, 4);
+        Assert.assertEquals(IERSConventions.IERS_2010, table.getConventions());
+        Assert.assertTrue(table.isSimpleEOP());
+        Assert.assertEquals(0.0, table.getStart().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(Constants.JULIAN_DAY, table.getEnd().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(60.0, table.getStep(), 1.0e-15);
+        Assert.assertEquals(4, table.getGridPoints());
+        Assert.assertEquals(1441, table.getSize());
+
+        final Frame gcrf      = FramesFactory.getGCRF();
+        final Frame itrf      = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final Frame tabulated = FramesFactory.getTabulatedITRF(table);
+        Assert.assertSame(gcrf, tabulated.getParent());
+        Assert.assertEquals("CIO/2010-based ITRF simple EOP (tabulated)", tabulated.getName());
+
+        final Vector3D surface = new Vector3D(Constants.WGS84_EARTH_EQUATORIAL_RADIUS, 0.0, 0.0);
+        double maxPositionError = 0;
+        double maxRateError     = 0;
+        for (double dt = 0; dt <= Constants.JULIAN_DAY; dt += 37.0) {
+            final AbsoluteDate date = start.shiftedBy(dt);
+            final Transform reference = itrf.getTransformTo(gcrf, date);
+            final Transform fromTable = tabulated.getTransformTo(gcrf, date);
+            maxPositionError = FastMath.max(maxPositionError,
+                                           Vector3D.distance(reference.transformPosition(surface),
+                                                             fromTable.transformPosition(surface)));
+            maxRateError     = FastMath.max(maxRateError,
+                                           Vector3D.distance(reference.getRotationRate(),
+                                                             fromTable.getRotationRate()));
+        }
+        Assert.assertEquals(0.0, maxPositionError, 3.0e-5);
+        Assert.assertEquals(0.0, maxRateError,     4.0e-13);
+
+    }
+
+    @Test
+    public void testWriteRead() throws OrekitException, IOException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, 0, 0, 0.123456789, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2003, false,
+                                               start, start.shiftedBy(7200.0), 300.0, 6);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        table.write(bos);
+        // header plus 10 doubles per sample
+        Assert.assertTrue(bos.size() < 80 + 8 * 10 * table.getSize());
+
+        final TabulatedITRFProvider read =
+                TabulatedITRFProvider.read(new ByteArrayInputStream(bos.toByteArray()), "memory");
+        Assert.assertEquals(IERSConventions.IERS_2003, read.getConventions());
+        Assert.assertFalse(read.isSimpleEOP());
+        Assert.assertEquals(0.0, read.getStart().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(table.getStep(),       read.getStep(),       1.0e-15);
+        Assert.assertEquals(table.getGridPoints(), read.getGridPoints());
+        Assert.assertEquals(table.getSize(),       read.getSize());
+        for (double dt = 0; dt <= 7200.0; dt += 17.0) {
+            checkSame(table.getTransform(start.shiftedBy(dt)), read.getTransform(start.shiftedBy(dt)));
+        }
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                               start, start.shiftedBy(7200.0), 300.0, 6);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(table);
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        final TabulatedITRFProvider deserialized = (TabulatedITRFProvider) ois.readObject();
+        for (double dt = 0; dt <= 7200.0; dt += 17.0) {
+            checkSame(table.getTransform(start.shiftedBy(dt)), deserialized.getTransform(start.shiftedBy(dt)));
+        }
+    }
+
+    @Test
+    public void testField() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                               start, start.shiftedBy(7200.0), 300.0, 6);
+        for (double dt = 0; dt <= 7200.0; dt += 17.0) {
+            final AbsoluteDate date = start.shiftedBy(dt);
+            final Transform t = table.getTransform(date);
+            final FieldTransform<Decimal64> ft =
+                    table.getTransform(new FieldAbsoluteDate<>(Decimal64Field.getInstance(), date));
+            Assert.assertEquals(0.0, Rotation.distance(t.getRotation(), ft.getRotation().toRotation()), 1.0e-15);
+            Assert.assertEquals(0.0, Vector3D.distance(t.getRotationRate(), ft.getRotationRate().toVector3D()), 1.0e-20);
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                               start, start.shiftedBy(3600.0), 300.0, 6);
+        Assert.assertNotNull(table.getTransform(table.getStart()));
+        Assert.assertNotNull(table.getTransform(table.getEnd()));
+        for (final AbsoluteDate date : new AbsoluteDate[] {
+            table.getStart().shiftedBy(-0.001), table.getEnd().shiftedBy(0.001)
+        }) {
+            try {
+                table.getTransform(date);
+                Assert.fail("an exception should have been thrown");
+            } catch (OrekitException oe) {
+                Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_TRANSFORM_TABLE_DATE, oe.getSpecifier());
+            }
+        }
+    }
+
+    @Test
+    public void testShortRange() throws OrekitException {
+        // the table always contain enough points for interpolation
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                               start, start.shiftedBy(10.0), 300.0, 6);
+        Assert.assertEquals(6, table.getSize());
+        Assert.assertEquals(1500.0, table.getEnd().durationFrom(start), 1.0e-15);
+    }
+
+    @Test
+    public void testCorruptedFile() throws OrekitException, IOException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                       start, start.shiftedBy(3600.0), 300.0, 6).write(bos);
+        final byte[] bytes = bos.toByteArray();
+        bytes[3] = 'X';
+        try {
+            TabulatedITRFProvider.read(new ByteArrayInputStream(bytes), "corrupted");
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE, oe.getSpecifier());
+            Assert.assertEquals("corrupted", oe.getParts()[0]);
+        }
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testWrongStep() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                       start, start.shiftedBy(3600.0), 0.0, 6);
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testWrongGridPoints() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                       start, start.shiftedBy(3600.0), 300.0, 1);
+    }
+
+    @Test
+    public void testEndBeforeStart() {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        try {
+            TabulatedITRFProvider.generate(IERSConventions.IERS_2010, true,
+                                           start, start.shiftedBy(-3600.0), 300.0, 6);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.TRANSFORM_TABLE_END_BEFORE_START, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testCachedFrame() throws OrekitException {
+        final AbsoluteDate start = new AbsoluteDate(2003, 6, 1, TimeScalesFactory.getUTC());
+        final Frame f1 = FramesFactory.getTabulatedITRF(IERSConventions.IERS_2010, true,
+                                                        start, start.shiftedBy(3600.0), 300.0, 6);
+        final Frame f2 = FramesFactory.getTabulatedITRF(IERSConventions.IERS_2010, true,
+                                                        start, start.shiftedBy(3600.0), 300.0, 6);
+        final Frame f3 = FramesFactory.getTabulatedITRF(IERSConventions.IERS_2010, true,
+                                                        start, start.shiftedBy(3600.0), 60.0, 6);
+        final Frame f4 = FramesFactory.getTabulatedITRF(IERSConventions.IERS_2010, true,
+                                                        start, start.shiftedBy(3500.0), 300.0, 6);
+        Assert.assertSame(f1, f2);
+        Assert.assertNotSame(f1, f3);
+        Assert.assertSame(f1, f4);
+
+        // frames built from caller tables are never cached
+        final TabulatedITRFProvider table =
+                TabulatedITRFProvider.generate(IERSConventions.IERS_2003, false,
+                                               start, start.shiftedBy(3600.0), 300.0, 6);
+        Assert.assertNotSame(FramesFactory.getTabulatedITRF(table), FramesFactory.getTabulatedITRF(table));
+    }
+
+    private void checkSame(final Transform t1, final Transform t2) {
+        Assert.assertEquals(0.0, t1.getDate().durationFrom(t2.getDate()), 1.0e-15);
+        Assert.assertEquals(0.0, Rotation.distance(t1.getRotation(), t2.getRotation()), 1.0e-15);
+        Assert.assertEquals(0.0, Vector3D.distance(t1.getRotationRate(), t2.getRotationRate()), 1.0e-20);
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("compressed-data");
+    }
+
+}
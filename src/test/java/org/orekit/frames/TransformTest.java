@@ -973,6 +973,54 @@ public class TransformTest {
         }
     }
 
+    @Test
+    public void testBulkTransform() {
+        RandomGenerator random = new Well19937a(0x4a25d5b5ec1e8a8dl);
+        for (int k = 0; k < 20; ++k) {
+            Transform transform = (k == 0) ? Transform.IDENTITY : randomTransform(random);
+            PVCoordinates[] pv = new PVCoordinates[50];
+            double[] p   = new double[3 * pv.length];
+            double[] pva = new double[9 * pv.length];
+            for (int i = 0; i < pv.length; ++i) {
+                pv[i] = new PVCoordinates(randomVector(1.0e3, random), randomVector(1.0, random), randomVector(1.0e-3, random));
+                System.arraycopy(pv[i].getPosition().toArray(),     0, p,   3 * i,     3);
+                System.arraycopy(pv[i].getPosition().toArray(),     0, pva, 9 * i,     3);
+                System.arraycopy(pv[i].getVelocity().toArray(),     0, pva, 9 * i + 3, 3);
+                System.arraycopy(pv[i].getAcceleration().toArray(), 0, pva, 9 * i + 6, 3);
+            }
+
+            double[] tp = new double[p.length + 1];
+            transform.transformPositions(p, 0, tp, 1, pv.length);
+            double[] tv = p.clone();
+            transform.transformVectors(tv, 0, tv, 0, pv.length);
+            double[] tpva = pva.clone();
+            transform.transformPVCoordinates(CartesianDerivativesFilter.USE_PVA, tpva, 0, tpva, 0, pv.length);
+            double[] tpv = new double[6 * pv.length];
+            for (int i = 0; i < pv.length; ++i) {
+                System.arraycopy(pva, 9 * i, tpv, 6 * i, 6);
+            }
+            transform.transformPVCoordinates(CartesianDerivativesFilter.USE_PV, tpv, 0, tpv, 0, pv.length);
+
+            for (int i = 0; i < pv.length; ++i) {
+                checkVector(transform.transformPosition(pv[i].getPosition()),
+                            new Vector3D(tp[3 * i + 1], tp[3 * i + 2], tp[3 * i + 3]), 1.0e-14);
+                checkVector(transform.transformVector(pv[i].getPosition()),
+                            new Vector3D(tv[3 * i], tv[3 * i + 1], tv[3 * i + 2]), 1.0e-14);
+                PVCoordinates ref = transform.transformPVCoordinates(pv[i]);
+                checkVector(ref.getPosition(),
+                            new Vector3D(tpva[9 * i],     tpva[9 * i + 1], tpva[9 * i + 2]), 1.0e-14);
+                checkVector(ref.getVelocity(),
+                            new Vector3D(tpva[9 * i + 3], tpva[9 * i + 4], tpva[9 * i + 5]), 1.0e-12);
+                checkVector(ref.getAcceleration(),
+                            new Vector3D(tpva[9 * i + 6], tpva[9 * i + 7], tpva[9 * i + 8]), 1.0e-11);
+                checkVector(ref.getPosition(),
+                            new Vector3D(tpv[6 * i],     tpv[6 * i + 1], tpv[6 * i + 2]), 1.0e-14);
+                checkVector(ref.getVelocity(),
+                            new Vector3D(tpv[6 * i + 3], tpv[6 * i + 4], tpv[6 * i + 5]), 1.0e-12);
+            }
+        }
+    }
+
     @Test
     public void testInterpolation() throws OrekitException {
 
@@ -285,6 +285,86 @@ public class SpacecraftStateTest {
 
     }
 
+    @Test
+    public void testAdditionalStatesUpdate() throws OrekitException {
+        final SpacecraftState state = propagator.propagate(orbit.getDate().shiftedBy(60));
+        final SpacecraftState s1 = state.addAdditionalState("a", 1.0, 2.0).addAdditionalState("b", 3.0);
+        final SpacecraftState s2 = s1.addAdditionalState("a", -1.0, -2.0);
+        final SpacecraftState s3 = s2.addAdditionalState("b", 4.0, 5.0, 6.0);
+
+        // updating one state does not change the original instance
+        Assert.assertArrayEquals(new double[] {  1.0,  2.0 }, s1.getAdditionalState("a"), 0.0);
+        Assert.assertArrayEquals(new double[] { -1.0, -2.0 }, s2.getAdditionalState("a"), 0.0);
+        Assert.assertArrayEquals(new double[] {  3.0 },       s2.getAdditionalState("b"), 0.0);
+        Assert.assertArrayEquals(new double[] { -1.0, -2.0 }, s3.getAdditionalState("a"), 0.0);
+        Assert.assertArrayEquals(new double[] { 4.0, 5.0, 6.0 }, s3.getAdditionalState("b"), 0.0);
+        s1.ensureCompatibleAdditionalStates(s2);
+        s1.ensureCompatibleAdditionalStates(state.addAdditionalState("b", 0.0).addAdditionalState("a", 0.0, 0.0));
+
+        // repeated calls return the same map, without extracting the arrays again
+        Assert.assertSame(s2.getAdditionalStates(), s2.getAdditionalStates());
+
+        // single additional states are copies, modifying them does not change the state
+        final double[] a = s2.getAdditionalState("a");
+        Assert.assertNotSame(a, s2.getAdditionalState("a"));
+        a[0] = 100.0;
+        Assert.assertArrayEquals(new double[] { -1.0, -2.0 }, s2.getAdditionalState("a"), 0.0);
+        Assert.assertArrayEquals(new double[] { -1.0, -2.0 }, s2.getAdditionalStates().get("a"), 0.0);
+        Assert.assertArrayEquals(new double[] { -1.0, -2.0 }, s2.shiftedBy(10.0).getAdditionalState("a"), 0.0);
+
+        // map
+        final Map<String, double[]> view = s2.getAdditionalStates();
+        Assert.assertEquals(2, view.size());
+        Assert.assertTrue(view.containsKey("a"));
+        Assert.assertFalse(view.containsKey("c"));
+        Assert.assertNull(view.get("c"));
+        int count = 0;
+        for (final Map.Entry<String, double[]> entry : view.entrySet()) {
+            Assert.assertArrayEquals(s2.getAdditionalState(entry.getKey()), entry.getValue(), 0.0);
+            ++count;
+        }
+        Assert.assertEquals(2, count);
+        try {
+            view.put("c", new double[1]);
+            Assert.fail("an exception should have been thrown");
+        } catch (UnsupportedOperationException uoe) {
+            // expected
+        }
+
+    }
+
+    @Test
+    public void testLayoutReusedByPropagator() throws OrekitException {
+        propagator.resetInitialState(propagator.getInitialState().addAdditionalState("unmanaged", 1.0, 2.0));
+        propagator.addAdditionalStateProvider(new AdditionalStateProvider() {
+            public String getName() {
+                return "managed";
+            }
+            public double[] getAdditionalState(SpacecraftState state) {
+                return new double[] { state.getDate().durationFrom(orbit.getDate()) };
+            }
+        });
+        final SpacecraftState s1 = propagator.propagate(orbit.getDate().shiftedBy(60));
+        final SpacecraftState s2 = propagator.propagate(orbit.getDate().shiftedBy(120));
+        Assert.assertEquals(60.0,  s1.getAdditionalState("managed")[0], 1.0e-10);
+        Assert.assertEquals(120.0, s2.getAdditionalState("managed")[0], 1.0e-10);
+        Assert.assertArrayEquals(new double[] { 1.0, 2.0 }, s2.getAdditionalState("unmanaged"), 0.0);
+
+        // the propagator builds the layout once and reuses it for all states
+        Assert.assertSame(s1.getLayout(), s2.getLayout());
+
+        // a state built independently has an equivalent but distinct layout
+        final SpacecraftState independent =
+                new SpacecraftState(s2.getOrbit()).
+                addAdditionalState("unmanaged", 3.0, 4.0).
+                addAdditionalState("managed", 5.0);
+        Assert.assertNotSame(s2.getLayout(), independent.getLayout());
+        Assert.assertEquals(s2.getLayout(), independent.getLayout());
+        Assert.assertEquals(s2.getLayout().hashCode(), independent.getLayout().hashCode());
+        s2.ensureCompatibleAdditionalStates(independent);
+
+    }
+
     @Test
     public void testSerialization()
             throws IOException, ClassNotFoundException, NoSuchFieldException, IllegalAccessException, OrekitException {
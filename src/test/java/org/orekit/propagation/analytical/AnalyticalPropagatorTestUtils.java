@@ -0,0 +1,59 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.Assert;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+
+/** Utility class for analytical propagators tests. */
+public class AnalyticalPropagatorTestUtils {
+
+    /** Check grid evaluation against date by date propagation, in inertial frame and in ITRF.
+     * @param propagator propagator to check
+     * @param start first date of the grid
+     * @param step time step between grid dates
+     * @param n number of grid dates
+     * @param positionTolerance tolerance on positions
+     * @param velocityTolerance tolerance on velocities
+     */
+    public static void checkBulkPVCoordinates(final AbstractAnalyticalPropagator propagator,
+                                              final AbsoluteDate start, final double step, final int n,
+                                              final double positionTolerance, final double velocityTolerance)
+        throws OrekitException {
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        for (final Frame frame : new Frame[] { propagator.getInitialState().getFrame(), itrf }) {
+            final double[] pv = new double[6 * n];
+            propagator.getPVCoordinates(start, step, n, frame, pv);
+            for (int i = 0; i < n; ++i) {
+                PVCoordinates ref = propagator.propagate(start.shiftedBy(step * i)).getPVCoordinates(frame);
+                Assert.assertEquals(0.0,
+                                    Vector3D.distance(ref.getPosition(), new Vector3D(pv[6 * i],     pv[6 * i + 1], pv[6 * i + 2])),
+                                    positionTolerance);
+                Assert.assertEquals(0.0,
+                                    Vector3D.distance(ref.getVelocity(), new Vector3D(pv[6 * i + 3], pv[6 * i + 4], pv[6 * i + 5])),
+                                    velocityTolerance);
+            }
+        }
+    }
+
+}
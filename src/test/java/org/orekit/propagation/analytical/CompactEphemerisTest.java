@@ -0,0 +1,421 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.attitudes.LofOffset;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.LOFType;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.AdditionalStateProvider;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+public class CompactEphemerisTest {
+
+    private AbsoluteDate initDate;
+    private AbsoluteDate finalDate;
+    private Frame        inertialFrame;
+    private Propagator   propagator;
+
+    @Test
+    public void testAccuracy() throws OrekitException {
+
+        propagator.setAttitudeProvider(new LofOffset(inertialFrame, LOFType.VVLH));
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= finalDate.durationFrom(initDate); dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+
+        final CompactEphemeris compact = new CompactEphemeris(states, 6);
+        Assert.assertEquals(1441, compact.getNbStates());
+        Assert.assertTrue(compact.isRegularlySampled());
+        Assert.assertEquals(0.0, compact.getMinDate().durationFrom(initDate),  1.0e-15);
+        Assert.assertEquals(0.0, compact.getMaxDate().durationFrom(finalDate), 1.0e-15);
+        Assert.assertSame(inertialFrame, compact.getFrame());
+
+        double maxPError = 0;
+        double maxVError = 0;
+        double maxAError = 0;
+        for (double dt = 0; dt <= finalDate.durationFrom(initDate); dt += 17.0) {
+            final AbsoluteDate    date      = initDate.shiftedBy(dt);
+            final SpacecraftState reference = propagator.propagate(date);
+            final SpacecraftState state     = compact.propagate(date);
+            Assert.assertEquals(OrbitType.KEPLERIAN, state.getOrbit().getType());
+            maxPError = FastMath.max(maxPError,
+                                     Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                       state.getPVCoordinates().getPosition()));
+            maxVError = FastMath.max(maxVError,
+                                     Vector3D.distance(reference.getPVCoordinates().getVelocity(),
+                                                       compact.getPVCoordinates(date, inertialFrame).getVelocity()));
+            maxAError = FastMath.max(maxAError,
+                                     Rotation.distance(reference.getAttitude().getRotation(),
+                                                       state.getAttitude().getRotation()));
+            Assert.assertEquals(reference.getMass(), state.getMass(), 1.0e-10);
+        }
+        Assert.assertEquals(0.0, maxPError, 2.0e-6);
+        Assert.assertEquals(0.0, maxVError, 1.5e-8);
+        Assert.assertEquals(0.0, maxAError, 2.0e-10);
+
+    }
+
+    @Test
+    public void testSameAsEphemeris() throws OrekitException {
+
+        propagator.setAttitudeProvider(new LofOffset(inertialFrame, LOFType.VVLH));
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 7200; dt += 60.0) {
+            final SpacecraftState s = propagator.propagate(initDate.shiftedBy(dt));
+            states.add(new SpacecraftState(OrbitType.CARTESIAN.convertType(s.getOrbit()), s.getAttitude(), s.getMass()));
+        }
+
+        final Ephemeris        ephemeris = new Ephemeris(states, 4);
+        final CompactEphemeris compact   = new CompactEphemeris(states, 4);
+        for (double dt = 0; dt <= 7200; dt += 7.0) {
+            final AbsoluteDate    date = initDate.shiftedBy(dt);
+            final SpacecraftState s1   = ephemeris.propagate(date);
+            final SpacecraftState s2   = compact.propagate(date);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(s1.getPVCoordinates().getPosition(),
+                                                  s2.getPVCoordinates().getPosition()),
+                                1.0e-8);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(s1.getPVCoordinates().getVelocity(),
+                                                  s2.getPVCoordinates().getVelocity()),
+                                1.0e-11);
+            Assert.assertEquals(0.0,
+                                Rotation.distance(s1.getAttitude().getRotation(),
+                                                  s2.getAttitude().getRotation()),
+                                1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testIrregularSampling() throws OrekitException {
+
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 7200; dt += 60.0 + (states.size() % 3) * 7.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        // states order is not relevant
+        final List<SpacecraftState> shuffled = new ArrayList<SpacecraftState>(states);
+        for (int i = 0; i < shuffled.size(); i += 2) {
+            shuffled.add(shuffled.remove(i));
+        }
+
+        final CompactEphemeris compact = new CompactEphemeris(shuffled, 6);
+        Assert.assertFalse(compact.isRegularlySampled());
+        Assert.assertEquals(0.0, compact.getMinDate().durationFrom(states.get(0).getDate()), 1.0e-15);
+        Assert.assertEquals(0.0,
+                            compact.getMaxDate().durationFrom(states.get(states.size() - 1).getDate()),
+                            1.0e-15);
+        for (final SpacecraftState state : states) {
+            final TimeStampedPVCoordinates pv = compact.getPVCoordinates(state.getDate(), inertialFrame);
+            Assert.assertEquals(0.0, Vector3D.distance(state.getPVCoordinates().getPosition(), pv.getPosition()), 1.0e-7);
+        }
+        for (double dt = 0; dt <= compact.getMaxDate().durationFrom(initDate); dt += 11.0) {
+            final AbsoluteDate date = initDate.shiftedBy(dt);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(propagator.getPVCoordinates(date, inertialFrame).getPosition(),
+                                                  compact.getPVCoordinates(date, inertialFrame).getPosition()),
+                                2.0e-5);
+        }
+
+    }
+
+    @Test
+    public void testSameAsHermiteInterpolator() throws OrekitException {
+
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 3600; dt += 60.0 + (states.size() % 3) * 7.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+
+        for (final int n : new int[] { 2, 4, 7 }) {
+            final CompactEphemeris compact = new CompactEphemeris(states, n);
+            for (double dt = 0; dt <= compact.getMaxDate().durationFrom(initDate); dt += 13.0) {
+                final AbsoluteDate date = initDate.shiftedBy(dt);
+
+                // same sample as the one selected by the compact ephemeris
+                int first = 0;
+                while (first + 1 < states.size() && states.get(first + 1).getDate().compareTo(date) <= 0) {
+                    ++first;
+                }
+                first = FastMath.max(0, FastMath.min(states.size() - n, first - (n - 1) / 2));
+                final List<TimeStampedPVCoordinates> sample = new ArrayList<TimeStampedPVCoordinates>();
+                for (int i = first; i < first + n; ++i) {
+                    sample.add(states.get(i).getPVCoordinates());
+                }
+
+                final TimeStampedPVCoordinates reference =
+                        TimeStampedPVCoordinates.interpolate(date, CartesianDerivativesFilter.USE_PVA, sample);
+                final TimeStampedPVCoordinates pv = compact.getPVCoordinates(date, inertialFrame);
+                Assert.assertEquals(0.0, Vector3D.distance(reference.getPosition(),     pv.getPosition()),     1.0e-7);
+                Assert.assertEquals(0.0, Vector3D.distance(reference.getVelocity(),     pv.getVelocity()),     1.0e-9);
+                Assert.assertEquals(0.0, Vector3D.distance(reference.getAcceleration(), pv.getAcceleration()), 1.0e-11);
+            }
+        }
+
+    }
+
+    @Test
+    public void testOtherFrame() throws OrekitException {
+
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 3600; dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        final CompactEphemeris compact = new CompactEphemeris(states, 6);
+        final Frame itrf = FramesFactory.getITRF(org.orekit.utils.IERSConventions.IERS_2010, true);
+        for (double dt = 0; dt <= 3600; dt += 13.0) {
+            final AbsoluteDate date = initDate.shiftedBy(dt);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(propagator.getPVCoordinates(date, itrf).getPosition(),
+                                                  compact.getPVCoordinates(date, itrf).getPosition()),
+                                2.0e-6);
+        }
+
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException {
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 1200; dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        final CompactEphemeris compact = new CompactEphemeris(states, 4);
+        Assert.assertNotNull(compact.propagate(compact.getMinDate()));
+        Assert.assertNotNull(compact.propagate(compact.getMaxDate()));
+        try {
+            compact.getPVCoordinates(initDate.shiftedBy(-0.001), inertialFrame);
+            Assert.fail("an exception should have been thrown");
+        } catch (TimeStampedCacheException tsce) {
+            Assert.assertEquals(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE, tsce.getSpecifier());
+        }
+        try {
+            compact.propagate(initDate.shiftedBy(1200.001));
+            Assert.fail("an exception should have been thrown");
+        } catch (TimeStampedCacheException tsce) {
+            Assert.assertEquals(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER, tsce.getSpecifier());
+        }
+    }
+
+    @Test(expected=MathIllegalArgumentException.class)
+    public void testNotEnoughStates() throws OrekitException {
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 120; dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        new CompactEphemeris(states, 4);
+    }
+
+    @Test
+    public void testFramesMismatch() throws OrekitException {
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 1200; dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        final Orbit o = states.get(0).getOrbit();
+        states.add(new SpacecraftState(new KeplerianOrbit(o.getPVCoordinates(FramesFactory.getGCRF()),
+                                                          FramesFactory.getGCRF(),
+                                                          initDate.shiftedBy(1260.0), o.getMu())));
+        try {
+            new CompactEphemeris(states, 4);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testAttitudeOverride() throws OrekitException {
+
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt <= 3600; dt += 60.0) {
+            states.add(propagator.propagate(initDate.shiftedBy(dt)));
+        }
+        final CompactEphemeris compact = new CompactEphemeris(states, 6);
+        Assert.assertNull(compact.getAttitudeProvider());
+        compact.setAttitudeProvider(new LofOffset(inertialFrame, LOFType.VVLH));
+        propagator.setAttitudeProvider(new LofOffset(inertialFrame, LOFType.VVLH));
+
+        for (double dt = 0; dt <= 3600; dt += 13.0) {
+            final AbsoluteDate date = initDate.shiftedBy(dt);
+            Assert.assertEquals(0.0,
+                                Rotation.distance(propagator.propagate(date).getAttitude().getRotation(),
+                                                  compact.propagate(date).getAttitude().getRotation()),
+                                1.0e-10);
+        }
+
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+
+        propagator.setAttitudeProvider(new LofOffset(inertialFrame, LOFType.VVLH));
+        final int numberOfIntervals = 150;
+        final double deltaT = finalDate.durationFrom(initDate) / numberOfIntervals;
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>(numberOfIntervals + 1);
+        for (int j = 0; j <= numberOfIntervals; j++) {
+            states.add(propagator.propagate(initDate.shiftedBy(j * deltaT)));
+        }
+
+        final CompactEphemeris compact = new CompactEphemeris(states, 2);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(compact);
+        // the regular Ephemeris needs more than 30000 bytes for the same states
+        Assert.assertTrue(bos.size() < 27000);
+
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        final CompactEphemeris deserialized = (CompactEphemeris) ois.readObject();
+        Assert.assertEquals(compact.getMinDate(), deserialized.getMinDate());
+        Assert.assertEquals(compact.getMaxDate(), deserialized.getMaxDate());
+        Assert.assertTrue(deserialized.isRegularlySampled());
+        for (double dt = 0; dt < finalDate.durationFrom(initDate); dt += 10.0) {
+            final AbsoluteDate date = initDate.shiftedBy(dt);
+            final TimeStampedPVCoordinates pvRef = compact.getPVCoordinates(date, inertialFrame);
+            final TimeStampedPVCoordinates pv    = deserialized.getPVCoordinates(date, inertialFrame);
+            Assert.assertEquals(0.0, Vector3D.distance(pvRef.getPosition(),     pv.getPosition()),     1.0e-15);
+            Assert.assertEquals(0.0, Vector3D.distance(pvRef.getVelocity(),     pv.getVelocity()),     1.0e-15);
+            Assert.assertEquals(0.0, Vector3D.distance(pvRef.getAcceleration(), pv.getAcceleration()), 1.0e-15);
+            Assert.assertEquals(0.0,
+                                Rotation.distance(compact.propagate(date).getAttitude().getRotation(),
+                                                  deserialized.propagate(date).getAttitude().getRotation()),
+                                1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testNonResettableState() {
+        try {
+            final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+            for (double dt = 0; dt >= -1200; dt -= 60.0) {
+                states.add(propagator.propagate(initDate.shiftedBy(dt)));
+            }
+            new CompactEphemeris(states, 2).resetInitialState(propagator.getInitialState());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NON_RESETABLE_STATE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testAdditionalStates() throws OrekitException {
+        final String name1  = "dt0";
+        final String name2  = "dt1";
+        final String name3  = "vector";
+
+        final List<SpacecraftState> states = new ArrayList<SpacecraftState>();
+        for (double dt = 0; dt >= -1200; dt -= 60.0) {
+            final SpacecraftState original = propagator.propagate(initDate.shiftedBy(dt));
+            final SpacecraftState expanded = original.
+                                             addAdditionalState(name2, original.getDate().durationFrom(finalDate)).
+                                             addAdditionalState(name3, 1.0, 2.0 * dt, 3.0 * dt * dt);
+            states.add(expanded);
+        }
+
+        final Propagator ephem = new CompactEphemeris(states, 3);
+        ephem.addAdditionalStateProvider(new AdditionalStateProvider() {
+            public String getName() {
+                return name1;
+            }
+            public double[] getAdditionalState(SpacecraftState state) {
+                return new double[] { state.getDate().durationFrom(initDate) };
+            }
+        });
+
+        final String[] additional = ephem.getManagedAdditionalStates();
+        Arrays.sort(additional);
+        Assert.assertEquals(3, additional.length);
+        Assert.assertEquals(name1, additional[0]);
+        Assert.assertEquals(name2, additional[1]);
+        Assert.assertEquals(name3, additional[2]);
+        Assert.assertTrue(ephem.isAdditionalStateManaged(name1));
+        Assert.assertTrue(ephem.isAdditionalStateManaged(name2));
+        Assert.assertTrue(ephem.isAdditionalStateManaged(name3));
+        Assert.assertFalse(ephem.isAdditionalStateManaged("not managed"));
+
+        SpacecraftState s = ephem.propagate(initDate.shiftedBy(-270.0));
+        Assert.assertEquals(-270.0,   s.getAdditionalState(name1)[0], 1.0e-15);
+        Assert.assertEquals(-86670.0, s.getAdditionalState(name2)[0], 1.0e-10);
+        Assert.assertEquals(1.0,      s.getAdditionalState(name3)[0], 1.0e-15);
+        Assert.assertEquals(-540.0,   s.getAdditionalState(name3)[1], 1.0e-10);
+        Assert.assertEquals(218700.0, s.getAdditionalState(name3)[2], 1.0e-8);
+
+    }
+
+    @Before
+    public void setUp() throws IllegalArgumentException, OrekitException {
+        Utils.setDataRoot("regular-data");
+
+        initDate = new AbsoluteDate(new DateComponents(2004, 01, 01),
+                                    TimeComponents.H00,
+                                    TimeScalesFactory.getUTC());
+
+        finalDate = new AbsoluteDate(new DateComponents(2004, 01, 02),
+                                     TimeComponents.H00,
+                                     TimeScalesFactory.getUTC());
+
+        double a = 7187990.1979844316;
+        double e = 0.5e-4;
+        double i = 1.7105407051081795;
+        double omega = 1.9674147913622104;
+        double OMEGA = FastMath.toRadians(261);
+        double lv = 0;
+        double mu  = 3.9860047e14;
+        inertialFrame = FramesFactory.getEME2000();
+
+        Orbit initialState = new KeplerianOrbit(a, e, i, omega, OMEGA, lv, PositionAngle.TRUE,
+                                                inertialFrame, initDate, mu);
+        propagator = new KeplerianPropagator(initialState);
+
+    }
+
+}
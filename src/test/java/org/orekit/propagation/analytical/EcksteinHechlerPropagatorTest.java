@@ -135,6 +135,15 @@ public class EcksteinHechlerPropagatorTest {
 
     }
 
+    @Test
+    public void testBulkPVCoordinates() throws OrekitException {
+        AbsoluteDate initDate = AbsoluteDate.J2000_EPOCH.shiftedBy(584.);
+        Orbit ic = new KeplerianOrbit(7209668.0, 0.5e-4, 1.7, 2.1, 2.9, 6.2, PositionAngle.TRUE,
+                                      FramesFactory.getEME2000(), initDate, provider.getMu());
+        EcksteinHechlerPropagator propagator = new EcksteinHechlerPropagator(ic, provider);
+        AnalyticalPropagatorTestUtils.checkBulkPVCoordinates(propagator, initDate, 60.0, 2880, 1.0e-5, 1.0e-8);
+    }
+
     @Test
     public void sameDateKeplerian() throws OrekitException {
 
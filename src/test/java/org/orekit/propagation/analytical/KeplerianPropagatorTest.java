@@ -109,6 +109,17 @@ public class KeplerianPropagatorTest {
         Assert.assertEquals(target, actual.getDate());
     }
 
+    @Test
+    public void testBulkPVCoordinates() throws OrekitException {
+        AbsoluteDate initDate = AbsoluteDate.J2000_EPOCH.shiftedBy(584.);
+        Orbit ic = new KeplerianOrbit(1.2e7, 0.3, 0.9, 2.1, 2.9, 6.2, PositionAngle.TRUE,
+                                      FramesFactory.getEME2000(), initDate, mu);
+        KeplerianPropagator propagator = new KeplerianPropagator(ic);
+        AnalyticalPropagatorTestUtils.checkBulkPVCoordinates(propagator, initDate, 60.0, 2880, 1.0e-5, 1.0e-8);
+        // long grid, spanning several hundreds revolutions
+        AnalyticalPropagatorTestUtils.checkBulkPVCoordinates(propagator, initDate, 3600.0, 2880, 1.0e-4, 1.0e-7);
+    }
+
     @Test
     public void testEphemerisModeWithHandler() throws OrekitException {
         // setup
@@ -0,0 +1,200 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+
+public class TLECatalogPropagatorTest {
+
+    private List<TLE> catalog;
+
+    @Test
+    public void testSingleDate() throws OrekitException {
+        final TLECatalogPropagator batch = new TLECatalogPropagator(catalog);
+        Assert.assertEquals(catalog.size(), batch.getSize());
+        Assert.assertEquals(catalog, batch.getTLEs());
+        Assert.assertTrue(batch.getDeepSpaceSize() > 0);
+        Assert.assertTrue(batch.getDeepSpaceSize() < batch.getSize());
+        final AbsoluteDate date = catalog.get(0).getDate().shiftedBy(3600.0);
+        final double[] p = new double[3 * catalog.size()];
+        final double[] v = new double[3 * catalog.size()];
+        batch.propagate(date, p, v);
+        checkCatalog(date, p, v, 0);
+    }
+
+    @Test
+    public void testGrid() throws OrekitException {
+        final TLECatalogPropagator batch = new TLECatalogPropagator(catalog);
+        final AbsoluteDate start = catalog.get(0).getDate();
+        final double step = 1800.0;
+        final int count = 12;
+        final double[] p = new double[3 * catalog.size() * count];
+        final double[] v = new double[3 * catalog.size() * count];
+        batch.propagate(start, step, count, p, v);
+        for (int j = 0; j < count; ++j) {
+            checkCatalog(start.shiftedBy(j * step), p, v, j * catalog.size());
+        }
+    }
+
+    @Test
+    public void testParallel() throws OrekitException {
+        final TLECatalogPropagator sequential = new TLECatalogPropagator(catalog);
+        final TLECatalogPropagator parallel   = new TLECatalogPropagator(catalog);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.setPool(pool, 2);
+            final AbsoluteDate start = catalog.get(0).getDate().shiftedBy(-7200.0);
+            final double[] p1 = new double[3 * catalog.size() * 10];
+            final double[] v1 = new double[3 * catalog.size() * 10];
+            final double[] p2 = new double[3 * catalog.size() * 10];
+            final double[] v2 = new double[3 * catalog.size() * 10];
+            sequential.propagate(start, 600.0, 10, p1, v1);
+            parallel.propagate(start, 600.0, 10, p2, v2);
+            Assert.assertArrayEquals(p1, p2, 0.0);
+            Assert.assertArrayEquals(v1, v2, 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTooLargeEccentricity() throws OrekitException {
+
+        // an almost parabolic orbit is out of the SGP4 model validity domain
+        final TLE ref = new TLE("1 27421U 02021A   02124.48976499 -.00021470  00000-0 -89879-2 0    20",
+                                "2 27421  98.7490 199.5121 0001333 133.9522 226.1918 14.26113993    62");
+        final TLE broken = new TLE(ref.getSatelliteNumber(), ref.getClassification(),
+                                   ref.getLaunchYear(), ref.getLaunchNumber(), ref.getLaunchPiece(),
+                                   ref.getEphemerisType(), ref.getElementNumber(), ref.getDate(),
+                                   ref.getMeanMotion(), ref.getMeanMotionFirstDerivative(),
+                                   ref.getMeanMotionSecondDerivative(), 1.0 - 5.0e-7, ref.getI(),
+                                   ref.getPerigeeArgument(), ref.getRaan(), ref.getMeanAnomaly(),
+                                   ref.getRevolutionNumberAtEpoch(), ref.getBStar());
+        final AbsoluteDate date = ref.getDate().shiftedBy(600.0);
+        try {
+            TLEPropagator.selectExtrapolator(broken).getPVCoordinates(date);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL,
+                                oe.getSpecifier());
+        }
+
+        // the batch propagator does not throw, it flags the failed object only
+        final List<TLE> tles = new ArrayList<TLE>();
+        tles.add(broken);
+        tles.add(ref);
+        final double[] p = new double[6];
+        final double[] v = new double[6];
+        new TLECatalogPropagator(tles).propagate(date, p, v);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertTrue(Double.isNaN(p[i]));
+            Assert.assertTrue(Double.isNaN(v[i]));
+            Assert.assertFalse(Double.isNaN(p[i + 3]));
+            Assert.assertFalse(Double.isNaN(v[i + 3]));
+        }
+
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testWrongDimension() throws OrekitException {
+        new TLECatalogPropagator(catalog).propagate(catalog.get(0).getDate(),
+                                                    new double[3 * catalog.size() - 1],
+                                                    new double[3 * catalog.size()]);
+    }
+
+    @Test
+    public void testGridTooLarge() throws OrekitException {
+        try {
+            new TLECatalogPropagator(catalog).propagate(catalog.get(0).getDate(), 60.0, Integer.MAX_VALUE / 2,
+                                                        new double[3 * catalog.size()],
+                                                        new double[3 * catalog.size()]);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.NUMBER_TOO_LARGE, oiae.getSpecifier());
+        }
+    }
+
+    @Test(expected=OrekitIllegalArgumentException.class)
+    public void testWrongChunkSize() throws OrekitException {
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            new TLECatalogPropagator(catalog).setPool(pool, 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void checkCatalog(final AbsoluteDate date, final double[] p, final double[] v, final int offset)
+        throws OrekitException {
+        for (int k = 0; k < catalog.size(); ++k) {
+            final int i = 3 * (offset + k);
+            final TLEPropagator propagator = TLEPropagator.selectExtrapolator(catalog.get(k));
+            try {
+                final PVCoordinates ref = propagator.getPVCoordinates(date);
+                if (Double.isNaN(ref.getPosition().getX())) {
+                    // the reference model itself breaks down silently
+                    Assert.assertTrue(Double.isNaN(p[i]));
+                    continue;
+                }
+                Assert.assertEquals(0.0,
+                                    Vector3D.distance(ref.getPosition(), new Vector3D(p[i], p[i + 1], p[i + 2])),
+                                    1.0e-6);
+                Assert.assertEquals(0.0,
+                                    Vector3D.distance(ref.getVelocity(), new Vector3D(v[i], v[i + 1], v[i + 2])),
+                                    1.0e-9);
+            } catch (OrekitException oe) {
+                Assert.assertTrue(Double.isNaN(p[i]));
+                Assert.assertTrue(Double.isNaN(v[i]));
+            }
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException, OrekitException {
+        Utils.setDataRoot("regular-data");
+        catalog = new ArrayList<TLE>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(TLECatalogPropagatorTest.class.
+                                                         getResourceAsStream("/tle/extrapolationTest-data/SatCode-entry")))) {
+            for (String line1 = reader.readLine(); line1 != null; line1 = reader.readLine()) {
+                if (line1.startsWith("1 ")) {
+                    catalog.add(new TLE(line1, reader.readLine()));
+                }
+            }
+        }
+    }
+
+}
@@ -26,11 +26,16 @@ import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.linear.Array2DRowRealMatrix;
 import org.hipparchus.linear.MatrixUtils;
 import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.ode.ODEState;
+import org.hipparchus.ode.OrdinaryDifferentialEquation;
 import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
 import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.orekit.Utils;
 import org.orekit.bodies.CelestialBody;
 import org.orekit.bodies.CelestialBodyFactory;
@@ -111,6 +116,104 @@ public class IntegratedEphemerisTest {
 
     }
 
+    @Test
+    public void testCompactHeap() throws OrekitException, IOException, ClassNotFoundException {
+        doTestCompact(false);
+    }
+
+    @Test
+    public void testCompactMapped() throws OrekitException, IOException, ClassNotFoundException {
+        doTestCompact(true);
+    }
+
+    private void doTestCompact(boolean mapped)
+        throws OrekitException, IOException, ClassNotFoundException {
+
+        // reference ephemeris
+        AbsoluteDate finalDate = initialOrbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        numericalPropagator.setEphemerisMode();
+        numericalPropagator.setInitialState(new SpacecraftState(initialOrbit));
+        numericalPropagator.propagate(finalDate);
+        BoundedPropagator reference = numericalPropagator.getGeneratedEphemeris();
+
+        // compact ephemeris
+        if (mapped) {
+            numericalPropagator.setCompactEphemerisMode(tempFolder.newFolder());
+        } else {
+            numericalPropagator.setCompactEphemerisMode();
+        }
+        numericalPropagator.setInitialState(new SpacecraftState(initialOrbit));
+        numericalPropagator.propagate(finalDate);
+        BoundedPropagator compact = numericalPropagator.getGeneratedEphemeris();
+        Assert.assertEquals(0.0, compact.getMinDate().durationFrom(reference.getMinDate()), 1.0e-15);
+        Assert.assertEquals(0.0, compact.getMaxDate().durationFrom(reference.getMaxDate()), 1.0e-15);
+
+        // the compact model fits on each step a degree 7 polynomial, just as
+        // the Dormand-Prince 8(5,3) dense output, so only rounding errors remain
+        for (double dt = 0; dt <= Constants.JULIAN_DAY; dt += 17.0) {
+            AbsoluteDate date = initialOrbit.getDate().shiftedBy(dt);
+            PVCoordinates pvRef = reference.getPVCoordinates(date, initialOrbit.getFrame());
+            PVCoordinates pvCom = compact.getPVCoordinates(date, initialOrbit.getFrame());
+            double pTol = 1.0e-12 * pvRef.getPosition().getNorm();
+            double vTol = 1.0e-11 * pvRef.getVelocity().getNorm();
+            Assert.assertEquals(pvRef.getPosition().getX(), pvCom.getPosition().getX(), pTol);
+            Assert.assertEquals(pvRef.getPosition().getY(), pvCom.getPosition().getY(), pTol);
+            Assert.assertEquals(pvRef.getPosition().getZ(), pvCom.getPosition().getZ(), pTol);
+            Assert.assertEquals(pvRef.getVelocity().getX(), pvCom.getVelocity().getX(), vTol);
+            Assert.assertEquals(pvRef.getVelocity().getY(), pvCom.getVelocity().getY(), vTol);
+            Assert.assertEquals(pvRef.getVelocity().getZ(), pvCom.getVelocity().getZ(), vTol);
+        }
+
+        // mapped storage is serialized as heap storage
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(compact);
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        IntegratedEphemeris deserialized  = (IntegratedEphemeris) ois.readObject();
+        for (double dt = 0; dt <= Constants.JULIAN_DAY; dt += 1234.0) {
+            AbsoluteDate date = initialOrbit.getDate().shiftedBy(dt);
+            PVCoordinates pvCom = compact.getPVCoordinates(date, initialOrbit.getFrame());
+            PVCoordinates pvDes = deserialized.getPVCoordinates(date, initialOrbit.getFrame());
+            Assert.assertEquals(0, Vector3D.distance(pvCom.getPosition(), pvDes.getPosition()), 1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testCompactModelReuse() throws IOException {
+        doTestCompactModelReuse(new CompactDenseOutputModel());
+        doTestCompactModelReuse(new CompactDenseOutputModel(tempFolder.newFolder()));
+    }
+
+    private void doTestCompactModelReuse(final CompactDenseOutputModel model) {
+
+        final OrdinaryDifferentialEquation oscillator = new OrdinaryDifferentialEquation() {
+            public int getDimension() {
+                return 2;
+            }
+            public double[] computeDerivatives(final double t, final double[] y) {
+                return new double[] { y[1], -y[0] };
+            }
+        };
+        final DormandPrince853Integrator integrator = new DormandPrince853Integrator(1.0e-3, 0.5, 1.0e-12, 1.0e-12);
+        integrator.addStepHandler(model);
+
+        // first integration, with more steps than the initial capacity
+        integrator.integrate(oscillator, new ODEState(0.0, new double[] { 0.0, 1.0 }), 200.0);
+        Assert.assertTrue(model.getNbSteps() > 256);
+
+        // the same model is reset at second integration
+        integrator.integrate(oscillator, new ODEState(5.0, new double[] { 1.0, 0.0 }), 15.0);
+        Assert.assertTrue(model.getNbSteps() < 256);
+        Assert.assertEquals( 5.0, model.getInitialTime(), 0.0);
+        Assert.assertEquals(15.0, model.getFinalTime(),   0.0);
+        for (double t = 5.0; t <= 15.0; t += 0.37) {
+            Assert.assertEquals(FastMath.cos(t - 5.0), model.getInterpolatedState(t).getPrimaryState()[0], 1.0e-9);
+        }
+
+    }
+
     @Test
     public void testPartialDerivativesIssue16() throws OrekitException {
 
@@ -289,6 +392,9 @@ public class IntegratedEphemerisTest {
 
     }
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     private Orbit initialOrbit;
     private NumericalPropagator numericalPropagator;
 
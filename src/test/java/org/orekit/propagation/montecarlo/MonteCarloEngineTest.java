@@ -0,0 +1,342 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hipparchus.distribution.continuous.NormalDistribution;
+import org.hipparchus.distribution.continuous.UniformRealDistribution;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.stat.descriptive.StatisticalSummary;
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.KeplerianPropagatorBuilder;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+public class MonteCarloEngineTest {
+
+    @Test
+    public void testDispersionStatistics() throws OrekitException {
+
+        MonteCarloEngine engine = createEngine(0x3f1b2c4d5e6f7a8bL);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        engine.addDispersion(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT,
+                             new UniformRealDistribution(-1.0e6, 1.0e6));
+        StatisticsReducer aStats  = new StatisticsReducer(s -> s.getA());
+        StatisticsReducer muStats = new StatisticsReducer(s -> s.getMu());
+        engine.addReducer(aStats);
+        engine.addReducer(muStats);
+        engine.run(2000, dates);
+
+        for (int i = 0; i < dates.size(); ++i) {
+            StatisticalSummary a = aStats.getStatistics(i);
+            Assert.assertEquals(2000, a.getN());
+            Assert.assertEquals(orbit.getA(), a.getMean(), 3 * 100.0 / FastMath.sqrt(2000));
+            Assert.assertEquals(100.0, a.getStandardDeviation(), 5.0);
+            StatisticalSummary mu = muStats.getStatistics(i);
+            Assert.assertTrue(mu.getMin() >= orbit.getMu() - 1.0e6);
+            Assert.assertTrue(mu.getMax() <= orbit.getMu() + 1.0e6);
+            Assert.assertEquals(1.0e6 / FastMath.sqrt(3.0), mu.getStandardDeviation(), 3.0e4);
+        }
+
+    }
+
+    @Test
+    public void testReproducibility() throws OrekitException {
+
+        final double[] sequential = runRecording(null);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final double[] parallel = runRecording(pool);
+            Assert.assertArrayEquals(sequential, parallel, 0.0);
+            Assert.assertArrayEquals(sequential, runRecording(pool), 0.0);
+        } finally {
+            pool.shutdown();
+        }
+
+        // another seed gives different results
+        MonteCarloEngine other = createEngine(0x1L);
+        other.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        Assert.assertNotEquals(createRecordingEngine().getDispersions(17)[0],
+                               other.getDispersions(17)[0], 1.0e-10);
+
+    }
+
+    @Test
+    public void testStepHandlers() throws OrekitException {
+
+        final AtomicInteger created = new AtomicInteger(0);
+        final AtomicInteger steps   = new AtomicInteger(0);
+        MonteCarloEngine engine = createEngine(0x4e5f6a7b8c9d0e1fL);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        engine.setStepHandlerFactory((index, dispersions) -> {
+            Assert.assertEquals(1, dispersions.length);
+            created.incrementAndGet();
+            return index % 2 == 0 ? null : (OrekitStepHandler) (interpolator, isLast) -> steps.incrementAndGet();
+        });
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            engine.setPool(pool);
+            engine.run(50, dates);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(50, created.get());
+        Assert.assertTrue(steps.get() >= 25 * dates.size());
+
+    }
+
+    @Test
+    public void testHistogram() throws OrekitException {
+        MonteCarloEngine engine = createEngine(0x5a6b7c8d9e0f1a2bL);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        HistogramReducer histogram = new HistogramReducer(s -> s.getA(), orbit.getA() - 200.0, orbit.getA() + 200.0, 8);
+        engine.addReducer(histogram);
+        engine.run(1000, dates);
+        for (int i = 0; i < dates.size(); ++i) {
+            long[] counts = histogram.getCounts(i);
+            Assert.assertEquals(8, counts.length);
+            long total = histogram.getUnderflows(i) + histogram.getOverflows(i);
+            for (final long c : counts) {
+                total += c;
+            }
+            Assert.assertEquals(1000, total);
+            Assert.assertTrue(counts[3] > counts[0]);
+            Assert.assertTrue(counts[4] > counts[7]);
+            Assert.assertTrue(histogram.getUnderflows(i) > 0);
+            Assert.assertTrue(histogram.getOverflows(i) > 0);
+        }
+    }
+
+    @Test
+    public void testUnsupportedParameter() throws OrekitException {
+        MonteCarloEngine engine = createEngine(0x1L);
+        engine.addDispersion("Cd", new NormalDistribution(0.0, 0.1));
+        try {
+            engine.run(10, dates);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.UNSUPPORTED_PARAMETER_NAME, oe.getSpecifier());
+            Assert.assertEquals("Cd", oe.getParts()[0]);
+        }
+    }
+
+    @Test
+    public void testFailureInWorker() throws OrekitException {
+        MonteCarloEngine engine = createEngine(0x1L);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        engine.addReducer((index, dispersions, states) -> {
+            if (index == 17) {
+                throw new OrekitException(OrekitMessages.INTERNAL_ERROR, "sample 17");
+            }
+        });
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            engine.setPool(pool);
+            engine.run(100, dates);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.INTERNAL_ERROR, oe.getSpecifier());
+            Assert.assertEquals("sample 17", oe.getParts()[0]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCorrelatedDispersion() throws OrekitException {
+
+        final double sigmaA = 100.0;
+        final double sigmaE = 1.0e-4;
+        final double rho    = 0.8;
+        MonteCarloEngine engine = createEngine(0x7c8d9e0f1a2b3c4dL);
+        engine.addCorrelatedDispersion(Arrays.asList("a", "e"),
+                                       MatrixUtils.createRealMatrix(new double[][] {
+                                           { sigmaA * sigmaA,        rho * sigmaA * sigmaE },
+                                           { rho * sigmaA * sigmaE,  sigmaE * sigmaE }
+                                       }));
+        engine.addDispersion("M", new NormalDistribution(0.0, 1.0e-5));
+        final double[] sums = new double[5];
+        engine.addReducer((index, dispersions, states) -> {
+            Assert.assertEquals(3, dispersions.length);
+            final double x = dispersions[0] / sigmaA;
+            final double y = dispersions[1] / sigmaE;
+            sums[0] += x;
+            sums[1] += y;
+            sums[2] += x * x;
+            sums[3] += y * y;
+            sums[4] += x * y;
+        });
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            engine.setPool(pool);
+            engine.run(4000, dates);
+        } finally {
+            pool.shutdown();
+        }
+
+        final int n = 4000;
+        final double meanX = sums[0] / n;
+        final double meanY = sums[1] / n;
+        final double varX  = sums[2] / n - meanX * meanX;
+        final double varY  = sums[3] / n - meanY * meanY;
+        final double cov   = sums[4] / n - meanX * meanY;
+        Assert.assertEquals(0.0, meanX, 0.05);
+        Assert.assertEquals(0.0, meanY, 0.05);
+        Assert.assertEquals(1.0, varX, 0.06);
+        Assert.assertEquals(1.0, varY, 0.06);
+        Assert.assertEquals(rho, cov / FastMath.sqrt(varX * varY), 0.02);
+
+    }
+
+    @Test
+    public void testSemiDefiniteCovariance() {
+        MonteCarloEngine engine = createEngine(0x1L);
+        // fully correlated parameters with very different scales
+        engine.addCorrelatedDispersion(Arrays.asList("a", "e"),
+                                       MatrixUtils.createRealMatrix(new double[][] {
+                                           { 1.0e4,  1.0e-2 },
+                                           { 1.0e-2, 1.0e-8 }
+                                       }));
+        for (int i = 0; i < 100; ++i) {
+            final double[] dispersions = engine.getDispersions(i);
+            Assert.assertEquals(dispersions[0] / 100.0, dispersions[1] / 1.0e-4, 1.0e-10);
+        }
+    }
+
+    @Test
+    public void testCovarianceDimensionMismatch() {
+        MonteCarloEngine engine = createEngine(0x1L);
+        try {
+            engine.addCorrelatedDispersion(Arrays.asList("a", "e", "M"), MatrixUtils.createRealIdentityMatrix(2));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.DIMENSIONS_MISMATCH, oiae.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testBoundedPendingSamples() throws OrekitException {
+
+        final int parallelism = 4;
+        final AtomicInteger reduced = new AtomicInteger(0);
+        MonteCarloEngine engine = createEngine(0x2b3c4d5e6f7a8b9cL);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        engine.setStepHandlerFactory((index, dispersions) -> {
+            // no sample is started too far ahead of the oldest sample not yet reduced
+            Assert.assertTrue(index < reduced.get() + MonteCarloEngine.WINDOW_FACTOR * parallelism);
+            if (index != 0) {
+                return null;
+            }
+            // the first sample is very slow, other workers must wait for it
+            return (OrekitStepHandler) (interpolator, isLast) -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Assert.fail(ie.getLocalizedMessage());
+                }
+            };
+        });
+        engine.addReducer((index, dispersions, states) -> reduced.incrementAndGet());
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            engine.setPool(pool);
+            engine.run(200, dates);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(200, reduced.get());
+
+    }
+
+    private double[] runRecording(final ForkJoinPool pool) throws OrekitException {
+        final MonteCarloEngine engine = createRecordingEngine();
+        final List<Double> values = new ArrayList<Double>();
+        engine.addReducer((index, dispersions, states) -> {
+            // samples are reduced in indices order
+            Assert.assertEquals(values.size() / dates.size(), index);
+            Assert.assertEquals(engine.getDispersions(index)[0], dispersions[0], 0.0);
+            for (final SpacecraftState state : states) {
+                values.add(state.getPVCoordinates().getPosition().getX());
+            }
+        });
+        engine.setPool(pool);
+        engine.run(200, dates);
+        final double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = values.get(i);
+        }
+        Assert.assertEquals(200 * dates.size(), array.length);
+        Assert.assertFalse(Arrays.stream(array).anyMatch(x -> Double.isNaN(x)));
+        return array;
+    }
+
+    private MonteCarloEngine createRecordingEngine() {
+        final MonteCarloEngine engine = createEngine(0x6b7c8d9e0f1a2b3cL);
+        engine.addDispersion("a", new NormalDistribution(0.0, 100.0));
+        engine.addDispersion("e", new UniformRealDistribution(-1.0e-4, 1.0e-4));
+        engine.addDispersion("M", new NormalDistribution(0.0, 1.0e-5));
+        return engine;
+    }
+
+    private MonteCarloEngine createEngine(final long seed) {
+        return new MonteCarloEngine(() -> new KeplerianPropagatorBuilder(orbit, PositionAngle.MEAN, 1.0),
+                                    seed);
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        orbit = new KeplerianOrbit(7200000.0, 0.01, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(10.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   AbsoluteDate.J2000_EPOCH, Constants.EIGEN5C_EARTH_MU);
+        dates = Arrays.asList(orbit.getDate().shiftedBy(600.0),
+                              orbit.getDate().shiftedBy(3600.0),
+                              orbit.getDate().shiftedBy(86400.0));
+    }
+
+    @After
+    public void tearDown() {
+        orbit = null;
+        dates = null;
+    }
+
+    private Orbit              orbit;
+    private List<AbsoluteDate> dates;
+
+}
@@ -0,0 +1,381 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.SHMFormatReader;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.conversion.ClassicalRungeKuttaIntegratorBuilder;
+import org.orekit.propagation.conversion.DormandPrince853IntegratorBuilder;
+import org.orekit.propagation.conversion.KeplerianPropagatorBuilder;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
+
+public class UnscentedCovariancePropagatorTest {
+
+    @Test
+    public void testInitialDate() throws OrekitException {
+
+        final RealMatrix covariance = createCovariance(100.0, 0.1);
+        final UnscentedCovariancePropagator propagator = createKeplerian();
+        final UnscentedPropagationResult result =
+                propagator.propagate(new SpacecraftState(orbit), covariance,
+                                     Collections.singletonList(orbit.getDate()));
+
+        Assert.assertEquals(13, result.getSigmaPointsNumber());
+        Assert.assertSame(orbit.getFrame(), result.getFrame());
+        final PVCoordinates mean = result.getMeanPVCoordinates(0);
+        Assert.assertEquals(0.0, Vector3D.distance(orbit.getPVCoordinates().getPosition(), mean.getPosition()), 1.0e-6);
+        Assert.assertEquals(0.0, Vector3D.distance(orbit.getPVCoordinates().getVelocity(), mean.getVelocity()), 1.0e-9);
+        final RealMatrix reconstructed = result.getCovariance(0);
+        for (int i = 0; i < 6; ++i) {
+            for (int j = 0; j < 6; ++j) {
+                final double scale = FastMath.sqrt(covariance.getEntry(i, i) * covariance.getEntry(j, j));
+                Assert.assertEquals(covariance.getEntry(i, j), reconstructed.getEntry(i, j), 1.0e-6 * scale);
+            }
+        }
+
+    }
+
+    @Test
+    public void testLinearConsistency() throws OrekitException {
+
+        final AbsoluteDate target = orbit.getDate().shiftedBy(3600.0);
+        final RealMatrix covariance = createCovariance(1.0, 1.0e-3);
+        final UnscentedPropagationResult result =
+                createKeplerian().propagate(new SpacecraftState(orbit), covariance,
+                                            Collections.singletonList(target));
+
+        // linearized covariance using finite differences state transition matrix
+        final double[] x0    = pvArray(orbit.getPVCoordinates());
+        final double[] steps = { 1.0, 1.0, 1.0, 1.0e-3, 1.0e-3, 1.0e-3 };
+        final RealMatrix phi = MatrixUtils.createRealMatrix(6, 6);
+        for (int j = 0; j < 6; ++j) {
+            final double[] plus  = x0.clone();
+            final double[] minus = x0.clone();
+            plus[j]  += steps[j];
+            minus[j] -= steps[j];
+            final double[] fPlus  = propagateKeplerian(plus, target);
+            final double[] fMinus = propagateKeplerian(minus, target);
+            for (int i = 0; i < 6; ++i) {
+                phi.setEntry(i, j, (fPlus[i] - fMinus[i]) / (2 * steps[j]));
+            }
+        }
+        final RealMatrix linear = phi.multiply(covariance).multiplyTransposed(phi);
+
+        final RealMatrix unscented = result.getCovariance(0);
+        for (int i = 0; i < 6; ++i) {
+            Assert.assertEquals(linear.getEntry(i, i), unscented.getEntry(i, i), 1.0e-3 * linear.getEntry(i, i));
+        }
+        final double[] mean = pvArray(result.getMeanPVCoordinates(0));
+        final double[] nominal = propagateKeplerian(x0, target);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(nominal[i], mean[i], 1.0e-2);
+        }
+
+    }
+
+    @Test
+    public void testParallel() throws OrekitException {
+
+        final RealMatrix covariance = createCovariance(100.0, 0.1);
+        final List<AbsoluteDate> dates = Arrays.asList(orbit.getDate().shiftedBy(600.0),
+                                                       orbit.getDate().shiftedBy(7200.0));
+        final UnscentedCovariancePropagator propagator = createKeplerian();
+        final UnscentedPropagationResult sequential =
+                propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            propagator.setPool(pool);
+            final UnscentedPropagationResult parallel =
+                    propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+            for (int d = 0; d < dates.size(); ++d) {
+                Assert.assertEquals(0.0, sequential.getMean(d).getDistance(parallel.getMean(d)), 0.0);
+                Assert.assertEquals(0.0, sequential.getCovariance(d).subtract(parallel.getCovariance(d)).getNorm(), 0.0);
+            }
+            Assert.assertEquals(13, parallel.getRuntimes().length);
+            for (final double runtime : parallel.getRuntimes()) {
+                Assert.assertTrue(runtime > 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testSharedEnvironment() throws OrekitException {
+
+        // keep track of the propagators built for the sigma points, to monitor their environment contexts
+        final List<NumericalPropagator> built = Collections.synchronizedList(new ArrayList<NumericalPropagator>());
+        final UnscentedCovariancePropagator propagator =
+                createNumerical(new ClassicalRungeKuttaIntegratorBuilder(30.0), built);
+
+        // the covariance is extended with central attraction coefficient
+        final RealMatrix covariance = MatrixUtils.createRealMatrix(7, 7);
+        covariance.setSubMatrix(createCovariance(10.0, 0.01).getData(), 0, 0);
+        covariance.setEntry(6, 6, 1.0e10);
+        final List<AbsoluteDate> dates = Collections.singletonList(orbit.getDate().shiftedBy(1800.0));
+
+        final UnscentedPropagationResult shared = propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+        Assert.assertEquals(15, shared.getSigmaPointsNumber());
+        Assert.assertEquals(orbit.getMu(), shared.getMean(0).getEntry(6), 1.0e-6 * orbit.getMu());
+        Assert.assertEquals(1.0e10, shared.getCovariance(0).getEntry(6, 6), 1.0e-6 * 1.0e10);
+        Assert.assertEquals(15, built.size());
+        final long[] sharedCounts = countEnvironment(built);
+        Assert.assertTrue(sharedCounts[0] > 0);
+        Assert.assertTrue(sharedCounts[1] * 15 <= sharedCounts[0]);
+
+        // without shared cache, each sigma point computes the transform by itself
+        propagator.setCacheSize(0);
+        built.clear();
+        final UnscentedPropagationResult unshared = propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+        Assert.assertEquals(15, built.size());
+        final long[] unsharedCounts = countEnvironment(built);
+        Assert.assertEquals(sharedCounts[0], unsharedCounts[0]);
+        Assert.assertTrue(unsharedCounts[1] > sharedCounts[1]);
+        Assert.assertEquals(0.0, shared.getMean(0).getDistance(unshared.getMean(0)), 0.0);
+
+    }
+
+    @Test
+    public void testAdaptiveStepNotShared() throws OrekitException {
+
+        final List<NumericalPropagator> built = Collections.synchronizedList(new ArrayList<NumericalPropagator>());
+        final UnscentedCovariancePropagator propagator =
+                createNumerical(new DormandPrince853IntegratorBuilder(0.001, 300.0, 1.0), built);
+        final RealMatrix covariance = MatrixUtils.createRealMatrix(7, 7);
+        covariance.setSubMatrix(createCovariance(10.0, 0.01).getData(), 0, 0);
+        covariance.setEntry(6, 6, 1.0e10);
+        final List<AbsoluteDate> dates = Collections.singletonList(orbit.getDate().shiftedBy(1800.0));
+
+        // with adaptive step size, sharing is disabled by default
+        propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+        final long[] defaultCounts = countEnvironment(built);
+        propagator.setCacheSize(0);
+        built.clear();
+        propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+        final long[] unsharedCounts = countEnvironment(built);
+        Assert.assertEquals(unsharedCounts[0], defaultCounts[0]);
+        Assert.assertEquals(unsharedCounts[1], defaultCounts[1]);
+
+        // sharing can still be forced, sigma points share at least the initial date
+        propagator.setCacheSize(UnscentedCovariancePropagator.DEFAULT_CACHE_SIZE);
+        built.clear();
+        propagator.propagate(new SpacecraftState(orbit), covariance, dates);
+        final long[] forcedCounts = countEnvironment(built);
+        Assert.assertTrue(forcedCounts[1] < unsharedCounts[1]);
+
+    }
+
+    @Test
+    public void testCentralAttractionDispersion() throws OrekitException {
+
+        final UnscentedCovariancePropagator propagator = new UnscentedCovariancePropagator(() -> {
+            final KeplerianPropagatorBuilder builder = new KeplerianPropagatorBuilder(orbit, PositionAngle.MEAN, 1.0);
+            for (final ParameterDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+                if (driver.getName().equals(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT)) {
+                    driver.setSelected(true);
+                }
+            }
+            return builder;
+        });
+
+        // almost perfectly known initial state, uncertain central attraction coefficient
+        final double sigmaMu = 1.0e8;
+        final RealMatrix covariance = MatrixUtils.createRealMatrix(7, 7);
+        covariance.setSubMatrix(createCovariance(1.0e-3, 1.0e-6).getData(), 0, 0);
+        covariance.setEntry(6, 6, sigmaMu * sigmaMu);
+        final AbsoluteDate target = orbit.getDate().shiftedBy(3600.0);
+        final UnscentedPropagationResult result =
+                propagator.propagate(new SpacecraftState(orbit), covariance, Collections.singletonList(target));
+        Assert.assertEquals(orbit.getMu(), result.getMean(0).getEntry(6), 1.0e-6 * orbit.getMu());
+
+        // the position uncertainty is driven by the central attraction coefficient
+        final double[] x0     = pvArray(orbit.getPVCoordinates());
+        final double[] plus   = propagateKeplerian(x0, orbit.getMu() + sigmaMu, target);
+        final double[] minus  = propagateKeplerian(x0, orbit.getMu() - sigmaMu, target);
+        double expected = 0;
+        double trace    = 0;
+        for (int i = 0; i < 3; ++i) {
+            final double d = 0.5 * (plus[i] - minus[i]);
+            expected += d * d;
+            trace    += result.getCovariance(0).getEntry(i, i);
+        }
+        Assert.assertTrue(expected > 1.0);
+        Assert.assertEquals(expected, trace, 1.0e-3 * expected);
+
+    }
+
+    @Test
+    public void testSemiDefiniteCovariance() throws OrekitException {
+
+        // velocity variances are below the absolute thresholds of a plain Cholesky
+        // decomposition, and velocity along Z is perfectly known
+        final RealMatrix covariance = createCovariance(1.0, 1.0e-6);
+        for (int i = 0; i < 6; ++i) {
+            covariance.setEntry(i, 5, 0.0);
+            covariance.setEntry(5, i, 0.0);
+        }
+        final UnscentedPropagationResult result =
+                createKeplerian().propagate(new SpacecraftState(orbit), covariance,
+                                            Collections.singletonList(orbit.getDate()));
+
+        final RealMatrix reconstructed = result.getCovariance(0);
+        for (int i = 0; i < 6; ++i) {
+            for (int j = 0; j < 6; ++j) {
+                final double scale = FastMath.sqrt(covariance.getEntry(i, i) * covariance.getEntry(j, j));
+                Assert.assertEquals(covariance.getEntry(i, j), reconstructed.getEntry(i, j), 1.0e-6 * scale + 1.0e-20);
+            }
+        }
+
+    }
+
+    @Test
+    public void testDimensionMismatch() throws OrekitException {
+        try {
+            createKeplerian().propagate(new SpacecraftState(orbit), MatrixUtils.createRealIdentityMatrix(5),
+                                        Collections.singletonList(orbit.getDate()));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(5, ((Integer) oiae.getParts()[0]).intValue());
+            Assert.assertEquals(6, ((Integer) oiae.getParts()[1]).intValue());
+        }
+    }
+
+    private UnscentedCovariancePropagator createKeplerian() {
+        return new UnscentedCovariancePropagator(() -> new KeplerianPropagatorBuilder(orbit, PositionAngle.MEAN, 1.0));
+    }
+
+    private UnscentedCovariancePropagator createNumerical(final ODEIntegratorBuilder integratorBuilder,
+                                                          final List<NumericalPropagator> built)
+        throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/shm-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new SHMFormatReader("^eigen_cg03c_coef$", false));
+        final HolmesFeatherstoneAttractionModel gravity =
+                new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                      GravityFieldFactory.getNormalizedProvider(4, 4));
+        return new UnscentedCovariancePropagator(() -> {
+            final NumericalPropagatorBuilder builder =
+                    new NumericalPropagatorBuilder(orbit, integratorBuilder, PositionAngle.MEAN, 1.0) {
+                @Override
+                public NumericalPropagator buildPropagator(final double[] normalizedParameters)
+                    throws OrekitException {
+                    final NumericalPropagator numerical = super.buildPropagator(normalizedParameters);
+                    built.add(numerical);
+                    return numerical;
+                }
+            };
+            builder.addForceModel(gravity);
+            for (final ParameterDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+                if (driver.getName().equals(NewtonianAttraction.CENTRAL_ATTRACTION_COEFFICIENT)) {
+                    driver.setSelected(true);
+                }
+            }
+            return builder;
+        });
+    }
+
+    private RealMatrix createCovariance(final double sigmaP, final double sigmaV) {
+        final RealMatrix covariance = MatrixUtils.createRealMatrix(6, 6);
+        for (int i = 0; i < 3; ++i) {
+            covariance.setEntry(i, i, sigmaP * sigmaP);
+            covariance.setEntry(i + 3, i + 3, sigmaV * sigmaV);
+            // some correlation between position and velocity
+            covariance.setEntry(i, i + 3, 0.5 * sigmaP * sigmaV);
+            covariance.setEntry(i + 3, i, 0.5 * sigmaP * sigmaV);
+        }
+        return covariance;
+    }
+
+    private double[] pvArray(final PVCoordinates pv) {
+        return new double[] {
+            pv.getPosition().getX(), pv.getPosition().getY(), pv.getPosition().getZ(),
+            pv.getVelocity().getX(), pv.getVelocity().getY(), pv.getVelocity().getZ()
+        };
+    }
+
+    private double[] propagateKeplerian(final double[] x, final AbsoluteDate target)
+        throws OrekitException {
+        return propagateKeplerian(x, orbit.getMu(), target);
+    }
+
+    private double[] propagateKeplerian(final double[] x, final double mu, final AbsoluteDate target)
+        throws OrekitException {
+        final Orbit start = new CartesianOrbit(new PVCoordinates(new Vector3D(x[0], x[1], x[2]),
+                                                                 new Vector3D(x[3], x[4], x[5])),
+                                               orbit.getFrame(), orbit.getDate(), mu);
+        return pvArray(new KeplerianPropagator(start).propagate(target).getPVCoordinates(orbit.getFrame()));
+    }
+
+    private long[] countEnvironment(final List<NumericalPropagator> propagators) {
+        final long[] counts = new long[2];
+        for (final NumericalPropagator numerical : propagators) {
+            counts[0] += numerical.getEnvironmentContext().getRequestsCount();
+            counts[1] += numerical.getEnvironmentContext().getComputationsCount();
+        }
+        return counts;
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        orbit = new KeplerianOrbit(7200000.0, 0.01, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(10.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   AbsoluteDate.J2000_EPOCH, 3.986004415e14);
+    }
+
+    @After
+    public void tearDown() {
+        orbit = null;
+    }
+
+    private Orbit orbit;
+
+}
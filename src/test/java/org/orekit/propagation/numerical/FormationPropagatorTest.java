@@ -0,0 +1,367 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.numerical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.hipparchus.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.attitudes.InertialProvider;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.Relativity;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.SHMFormatReader;
+import org.orekit.forces.maneuvers.ConstantThrustManeuver;
+import org.orekit.forces.radiation.IsotropicRadiationSingleCoefficient;
+import org.orekit.forces.radiation.SolarRadiationPressure;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.EquinoctialOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+
+public class FormationPropagatorTest {
+
+    @Test
+    public void testConsistencyWithNumericalPropagator() throws OrekitException {
+
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, Collections.singletonList(gravity));
+        }
+        Assert.assertEquals(states.size(), formation.getMembersNumber());
+
+        final AbsoluteDate target = initDate.shiftedBy(3600.0);
+        final List<SpacecraftState> finalStates = formation.propagate(target);
+        Assert.assertEquals(states.size(), finalStates.size());
+        Assert.assertTrue(formation.getCalls() > 360);
+
+        // the body frame transform is computed at most once per evaluation and shared by all members
+        Assert.assertEquals(states.size() * formation.getCalls(),
+                            formation.getEnvironmentContext().getRequestsCount());
+        Assert.assertTrue(formation.getEnvironmentContext().getComputationsCount() > 0);
+        Assert.assertTrue(formation.getEnvironmentContext().getComputationsCount() <= formation.getCalls());
+
+        for (int i = 0; i < states.size(); ++i) {
+            NumericalPropagator propagator = new NumericalPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+            propagator.setOrbitType(OrbitType.CARTESIAN);
+            propagator.setAttitudeProvider(attitudeProvider);
+            propagator.addForceModel(gravity);
+            propagator.setInitialState(states.get(i));
+            final SpacecraftState reference = propagator.propagate(target);
+            Assert.assertEquals(0.0, target.durationFrom(finalStates.get(i).getDate()), 1.0e-10);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  finalStates.get(i).getPVCoordinates().getPosition()),
+                                1.0e-6);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getVelocity(),
+                                                  finalStates.get(i).getPVCoordinates().getVelocity()),
+                                1.0e-9);
+            Assert.assertSame(finalStates.get(i), formation.getInitialState(i));
+        }
+
+    }
+
+    @Test
+    public void testSharedAccelerationTransforms() throws OrekitException {
+
+        // relativity adds its acceleration through addAcceleration with a frame
+        final List<ForceModel> forces = Arrays.asList(gravity, new Relativity(mu));
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, forces);
+        }
+        formation.propagate(initDate.shiftedBy(600.0));
+
+        // both the body frame transform and the acceleration frame transform
+        // are computed at most once per evaluation and shared by all members
+        Assert.assertEquals(2 * states.size() * formation.getCalls(),
+                            formation.getEnvironmentContext().getRequestsCount());
+        Assert.assertTrue(formation.getEnvironmentContext().getComputationsCount() <= 2 * formation.getCalls());
+
+    }
+
+    @Test
+    public void testAdaptiveStepsize() throws OrekitException {
+
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, Collections.singletonList(gravity));
+        }
+        final double[][] tolerances = formation.tolerances(0.001);
+        Assert.assertEquals(7 * states.size(), tolerances[0].length);
+        AdaptiveStepsizeIntegrator integrator =
+                new DormandPrince853Integrator(0.001, 200, tolerances[0], tolerances[1]);
+        integrator.setInitialStepSize(60);
+        formation = new FormationPropagator(integrator);
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, Collections.singletonList(gravity));
+        }
+
+        final AbsoluteDate target = initDate.shiftedBy(7200.0);
+        final List<SpacecraftState> finalStates = formation.propagate(target);
+        for (int i = 0; i < states.size(); ++i) {
+            double[][] t = NumericalPropagator.tolerances(0.001, states.get(i).getOrbit(), OrbitType.CARTESIAN);
+            NumericalPropagator propagator =
+                    new NumericalPropagator(new DormandPrince853Integrator(0.001, 200, t[0], t[1]));
+            propagator.setOrbitType(OrbitType.CARTESIAN);
+            propagator.addForceModel(gravity);
+            propagator.setInitialState(states.get(i));
+            final SpacecraftState reference = propagator.propagate(target);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  finalStates.get(i).getPVCoordinates().getPosition()),
+                                0.01);
+        }
+
+    }
+
+    @Test
+    public void testFixedStepHandlers() throws OrekitException {
+
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(7.0));
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, Collections.singletonList(gravity));
+        }
+
+        final int[]     counts = new int[states.size()];
+        final boolean[] last   = new boolean[states.size()];
+        for (int i = 0; i < states.size(); ++i) {
+            final int member = i;
+            formation.addFixedStepHandler(i, 60.0 * (i + 1), (state, isLast) -> {
+                Assert.assertFalse(last[member]);
+                Assert.assertEquals(0.0,
+                                    state.getDate().durationFrom(initDate) - 60.0 * (member + 1) * counts[member],
+                                    1.0e-10);
+                ++counts[member];
+                last[member] = isLast;
+            });
+        }
+
+        final List<SpacecraftState> finalStates = formation.propagate(initDate.shiftedBy(3600.0));
+        for (int i = 0; i < states.size(); ++i) {
+            Assert.assertEquals(3600 / (60 * (i + 1)) + 1, counts[i]);
+            Assert.assertTrue(last[i]);
+            Assert.assertEquals(states.get(i).getMass(), finalStates.get(i).getMass(), 1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testManeuvers() throws OrekitException {
+
+        // members 1 and 3 fire their own maneuver at different dates,
+        // members 0 and 2 are not maneuvered
+        final double[] starts = new double[] { Double.NaN, 600.0, Double.NaN, 1200.0 };
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        for (int i = 0; i < states.size(); ++i) {
+            formation.addMember(states.get(i), attitudeProvider, forceModels(starts[i]));
+        }
+
+        final AbsoluteDate target = initDate.shiftedBy(3600.0);
+        final List<SpacecraftState> finalStates = formation.propagate(target);
+
+        for (int i = 0; i < states.size(); ++i) {
+            NumericalPropagator propagator = new NumericalPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+            propagator.setOrbitType(OrbitType.CARTESIAN);
+            propagator.setAttitudeProvider(attitudeProvider);
+            for (final ForceModel forceModel : forceModels(starts[i])) {
+                propagator.addForceModel(forceModel);
+            }
+            propagator.setInitialState(states.get(i));
+            final SpacecraftState reference = propagator.propagate(target);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  finalStates.get(i).getPVCoordinates().getPosition()),
+                                1.0e-4);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getVelocity(),
+                                                  finalStates.get(i).getPVCoordinates().getVelocity()),
+                                1.0e-7);
+            Assert.assertEquals(reference.getMass(), finalStates.get(i).getMass(), 1.0e-10);
+            if (Double.isNaN(starts[i])) {
+                Assert.assertEquals(states.get(i).getMass(), finalStates.get(i).getMass(), 1.0e-15);
+            } else {
+                // the maneuver has been fired for 300s only
+                Assert.assertEquals(states.get(i).getMass() - 300.0 * 10.0 / (Constants.G0_STANDARD_GRAVITY * 300.0),
+                                    finalStates.get(i).getMass(), 1.0e-10);
+            }
+        }
+
+    }
+
+    @Test
+    public void testSolarRadiationPressure() throws OrekitException {
+
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        for (final SpacecraftState state : states) {
+            formation.addMember(state, attitudeProvider, Collections.singletonList(gravity));
+        }
+        final double[][] tolerances = formation.tolerances(0.001);
+        AdaptiveStepsizeIntegrator integrator =
+                new DormandPrince853Integrator(0.001, 200, tolerances[0], tolerances[1]);
+        integrator.setInitialStepSize(60);
+        formation = new FormationPropagator(integrator);
+        for (final SpacecraftState state : states) {
+            // each member has its own radiation pressure model, hence its own eclipse detectors
+            formation.addMember(state, attitudeProvider, Arrays.asList(gravity, srp()));
+        }
+
+        // two hours cover at least one eclipse entry and exit
+        final AbsoluteDate target = initDate.shiftedBy(7200.0);
+        final List<SpacecraftState> finalStates = formation.propagate(target);
+        for (int i = 0; i < states.size(); ++i) {
+            double[][] ti = NumericalPropagator.tolerances(0.001, states.get(i).getOrbit(), OrbitType.CARTESIAN);
+            NumericalPropagator propagator =
+                    new NumericalPropagator(new DormandPrince853Integrator(0.001, 200, ti[0], ti[1]));
+            propagator.setOrbitType(OrbitType.CARTESIAN);
+            propagator.setAttitudeProvider(attitudeProvider);
+            propagator.addForceModel(gravity);
+            propagator.addForceModel(srp());
+            propagator.setInitialState(states.get(i));
+            final SpacecraftState reference = propagator.propagate(target);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  finalStates.get(i).getPVCoordinates().getPosition()),
+                                0.01);
+        }
+
+    }
+
+    @Test
+    public void testSharedForceModelWithEvents() throws OrekitException {
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        final ForceModel maneuver = new ConstantThrustManeuver(initDate.shiftedBy(600.0), 300.0,
+                                                               10.0, 300.0, Vector3D.PLUS_I);
+
+        // a force model without events detectors can be shared, but not one with detectors
+        formation.addMember(states.get(0), attitudeProvider, Arrays.asList(gravity, maneuver));
+        formation.addMember(states.get(1), attitudeProvider, Collections.singletonList(gravity));
+        try {
+            formation.addMember(states.get(2), attitudeProvider, Arrays.asList(gravity, maneuver));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.FORMATION_SHARED_FORCE_MODEL, oe.getSpecifier());
+            Assert.assertEquals(0, ((Integer) oe.getParts()[0]).intValue());
+        }
+        Assert.assertEquals(2, formation.getMembersNumber());
+    }
+
+    @Test
+    public void testDateMismatch() throws OrekitException {
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        formation.addMember(states.get(0), attitudeProvider, Collections.emptyList());
+        try {
+            formation.addMember(states.get(1).shiftedBy(1.0), attitudeProvider, Collections.emptyList());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.FORMATION_MEMBER_DATE_MISMATCH, oe.getSpecifier());
+            Assert.assertEquals(1, ((Integer) oe.getParts()[1]).intValue());
+        }
+    }
+
+    @Test
+    public void testFrameMismatch() throws OrekitException {
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        formation.addMember(states.get(0), attitudeProvider, Collections.emptyList());
+        final Orbit gcrf = new EquinoctialOrbit(states.get(1).getPVCoordinates(FramesFactory.getGCRF()),
+                                                FramesFactory.getGCRF(), initDate, mu);
+        try {
+            formation.addMember(new SpacecraftState(gcrf), attitudeProvider, Collections.emptyList());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testEmptyFormation() throws OrekitException {
+        FormationPropagator formation = new FormationPropagator(new ClassicalRungeKuttaIntegrator(10.0));
+        Assert.assertEquals(0, formation.getMembersNumber());
+        Assert.assertTrue(formation.propagate(AbsoluteDate.J2000_EPOCH).isEmpty());
+    }
+
+    private List<ForceModel> forceModels(final double maneuverStart) {
+        final List<ForceModel> list = new ArrayList<ForceModel>();
+        list.add(gravity);
+        if (!Double.isNaN(maneuverStart)) {
+            list.add(new ConstantThrustManeuver(initDate.shiftedBy(maneuverStart), 300.0,
+                                                10.0, 300.0, Vector3D.PLUS_I));
+        }
+        return list;
+    }
+
+    private ForceModel srp() throws OrekitException {
+        return new SolarRadiationPressure(CelestialBodyFactory.getSun(),
+                                          Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                          new IsotropicRadiationSingleCoefficient(10.0, 1.5));
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/shm-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new SHMFormatReader("^eigen_cg03c_coef$", false));
+        mu       = GravityFieldFactory.getUnnormalizedProvider(0, 0).getMu();
+        initDate = AbsoluteDate.J2000_EPOCH;
+        gravity  = new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                         GravityFieldFactory.getNormalizedProvider(8, 8));
+        attitudeProvider = InertialProvider.EME2000_ALIGNED;
+        states = new ArrayList<SpacecraftState>();
+        for (int i = 0; i < 4; ++i) {
+            final Vector3D position = new Vector3D(7.0e6 + 1000.0 * i, 1.0e6 - 500.0 * i, 4.0e6 + 200.0 * i);
+            final Vector3D velocity = new Vector3D(-500.0 + 0.1 * i, 8000.0 - 0.2 * i, 1000.0);
+            final Orbit orbit = new EquinoctialOrbit(new PVCoordinates(position,  velocity),
+                                                     FramesFactory.getEME2000(), initDate, mu);
+            states.add(new SpacecraftState(orbit, 1000.0 + i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        initDate         = null;
+        gravity          = null;
+        attitudeProvider = null;
+        states           = null;
+    }
+
+    private double                mu;
+    private AbsoluteDate          initDate;
+    private ForceModel            gravity;
+    private AttitudeProvider      attitudeProvider;
+    private List<SpacecraftState> states;
+
+}
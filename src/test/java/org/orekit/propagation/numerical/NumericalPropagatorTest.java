@@ -35,6 +35,7 @@ import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.exception.MathIllegalArgumentException;
 import org.hipparchus.geometry.euclidean.threed.FieldRotation;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.ode.ODEIntegrator;
 import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
@@ -47,10 +48,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.orekit.OrekitMatchers;
 import org.orekit.Utils;
+import org.orekit.attitudes.Attitude;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.attitudes.InertialProvider;
 import org.orekit.bodies.CelestialBodyFactory;
 import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.data.DataProvidersManager;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.drag.DragForce;
@@ -97,6 +102,7 @@ import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
 import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -643,6 +649,73 @@ public class NumericalPropagatorTest {
         Assert.assertEquals(initialState.getLM() + n * dt, finalState.getLM(), 6.0e-10);
     }
 
+    @Test
+    public void testMainStateSharedWithAdditionalEquations() throws OrekitException {
+
+        // the main state must be built only once per derivatives evaluation,
+        // even if several additional equations are evaluated at the same point
+        final int[] providerCalls = new int[1];
+        propagator.addAdditionalStateProvider(new AdditionalStateProvider() {
+            public String getName() {
+                return "counter";
+            }
+
+            public double[] getAdditionalState(SpacecraftState state) {
+                ++providerCalls[0];
+                return new double[] { providerCalls[0] };
+            }
+        });
+        for (final String name : new String[] { "linear-1", "linear-2" }) {
+            propagator.addAdditionalEquations(new AdditionalEquations() {
+
+                public String getName() {
+                    return name;
+                }
+
+                public double[] computeDerivatives(SpacecraftState s, double[] pDot) {
+                    Assert.assertTrue(s.hasAdditionalState("counter"));
+                    // the derivatives array is reused, but must be reset between calls
+                    Assert.assertEquals(0.0, pDot[0], 0.0);
+                    pDot[0] = 1.0;
+                    return null;
+                }
+            });
+            propagator.setInitialState(propagator.getInitialState().addAdditionalState(name, 0.0));
+        }
+
+        final SpacecraftState finalState = propagator.propagate(initDate.shiftedBy(3600.0));
+        Assert.assertEquals(3600.0, finalState.getAdditionalState("linear-1")[0], 1.0e-9);
+        Assert.assertEquals(3600.0, finalState.getAdditionalState("linear-2")[0], 1.0e-9);
+        Assert.assertTrue(propagator.getCalls() > 0);
+        Assert.assertTrue(providerCalls[0] < 2 * propagator.getCalls());
+
+    }
+
+    @Test
+    public void testAdditionalEquationsContributionToMain() throws OrekitException {
+
+        // the main derivatives array is reused between evaluations,
+        // contributions from additional equations must not accumulate
+        propagator.addAdditionalEquations(new AdditionalEquations() {
+
+            public String getName() {
+                return "mass-flow";
+            }
+
+            public double[] computeDerivatives(SpacecraftState s, double[] pDot) {
+                pDot[0] = 1.0;
+                return new double[] { 0, 0, 0, 0, 0, 0, -1.0e-3 };
+            }
+        });
+        propagator.setInitialState(propagator.getInitialState().addAdditionalState("mass-flow", 0.0));
+
+        final double initialMass = propagator.getInitialState().getMass();
+        final SpacecraftState finalState = propagator.propagate(initDate.shiftedBy(3600.0));
+        Assert.assertEquals(3600.0, finalState.getAdditionalState("mass-flow")[0], 1.0e-9);
+        Assert.assertEquals(initialMass - 3.6, finalState.getMass(), 1.0e-9);
+
+    }
+
     @Test
     public void testAdditionalStateEvent() throws OrekitException {
         propagator.addAdditionalEquations(new AdditionalEquations() {
@@ -1086,6 +1159,71 @@ public class NumericalPropagatorTest {
         return np;
     }
 
+    @Test
+    public void testRawCoordinatesForceModels() throws OrekitException {
+
+        final ForceModel gravity = new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                                        GravityFieldFactory.getNormalizedProvider(4, 4));
+        final ForceModel sun     = new ThirdBodyAttraction(CelestialBodyFactory.getSun());
+        final AbsoluteDate target = initDate.shiftedBy(3 * 3600.0);
+
+        // these force models depend only on position and velocity, states are not built at each evaluation
+        final int[] rawAttitudes = new int[1];
+        final NumericalPropagator raw = createCartesian(rawAttitudes, gravity, sun);
+        final PVCoordinates rawPV = raw.propagate(target).getPVCoordinates();
+        Assert.assertTrue(rawAttitudes[0] < raw.getCalls());
+
+        // the same force models hidden behind adapters need complete states
+        final int[] stateAttitudes = new int[1];
+        final NumericalPropagator state = createCartesian(stateAttitudes, new StateForceModel(gravity), new StateForceModel(sun));
+        final PVCoordinates statePV = state.propagate(target).getPVCoordinates();
+        Assert.assertTrue(stateAttitudes[0] >= state.getCalls());
+
+        Assert.assertEquals(raw.getCalls(), state.getCalls());
+        Assert.assertEquals(0.0, Vector3D.distance(rawPV.getPosition(), statePV.getPosition()), 1.0e-6);
+        Assert.assertEquals(0.0, Vector3D.distance(rawPV.getVelocity(), statePV.getVelocity()), 1.0e-9);
+
+    }
+
+    private NumericalPropagator createCartesian(final int[] attitudeCalls, final ForceModel ... models) {
+        final NumericalPropagator np = new NumericalPropagator(new ClassicalRungeKuttaIntegrator(60.0));
+        np.setOrbitType(OrbitType.CARTESIAN);
+        final AttitudeProvider inertial = new InertialProvider(Rotation.IDENTITY);
+        np.setAttitudeProvider(new AttitudeProvider() {
+            private static final long serialVersionUID = 1L;
+            public Attitude getAttitude(final PVCoordinatesProvider pvProv, final AbsoluteDate date, final Frame frame)
+                throws OrekitException {
+                ++attitudeCalls[0];
+                return inertial.getAttitude(pvProv, date, frame);
+            }
+        });
+        for (final ForceModel model : models) {
+            np.addForceModel(model);
+        }
+        np.setInitialState(initialState);
+        return np;
+    }
+
+    /** Force model hiding that the underlying model depends only on position and velocity. */
+    private static class StateForceModel extends ForceModelAdapter {
+
+        private final ForceModel model;
+
+        StateForceModel(final ForceModel model) {
+            this.model = model;
+        }
+
+        @Override
+        public void addContribution(SpacecraftState s, TimeDerivativesEquations adder) {
+            try {
+                model.addContribution(s, adder);
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+    }
+
     @Before
     public void setUp() throws OrekitException {
         Utils.setDataRoot("regular-data:potential/shm-format");
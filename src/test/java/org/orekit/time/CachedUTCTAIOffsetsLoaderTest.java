@@ -0,0 +1,107 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.time;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.data.DataSnapshotCache;
+import org.orekit.errors.OrekitException;
+
+
+public class CachedUTCTAIOffsetsLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static final String NAMES = "^UTC-TAI\\.history$";
+
+    @Test
+    public void testSnapshotReused() throws OrekitException, IOException {
+        List<OffsetModel> reference = new UTCTAIHistoryFilesLoader().loadOffsets();
+        DataSnapshotCache cache = new DataSnapshotCache(tempFolder.newFolder("cache"));
+        CountingLoader counting = new CountingLoader();
+        CachedUTCTAIOffsetsLoader cached = new CachedUTCTAIOffsetsLoader(cache, "utc-tai", NAMES, counting);
+        checkEquals(reference, cached.loadOffsets());
+        checkEquals(reference, cached.loadOffsets());
+        Assert.assertEquals(1, counting.count);
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws OrekitException, IOException {
+        List<OffsetModel> reference = new UTCTAIHistoryFilesLoader().loadOffsets();
+        File directory = tempFolder.newFolder("cache");
+        DataSnapshotCache cache = new DataSnapshotCache(directory);
+        CountingLoader counting = new CountingLoader();
+        CachedUTCTAIOffsetsLoader cached = new CachedUTCTAIOffsetsLoader(cache, "utc-tai", NAMES, counting);
+        cached.loadOffsets();
+        Assert.assertEquals(1, counting.count);
+
+        // truncate the snapshot in the middle of an offset
+        File snapshot = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(snapshot, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+
+        // the truncated snapshot is ignored and the file is parsed again
+        checkEquals(reference, cached.loadOffsets());
+        Assert.assertEquals(2, counting.count);
+
+        // the snapshot has been regenerated
+        checkEquals(reference, cached.loadOffsets());
+        Assert.assertEquals(2, counting.count);
+
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+    }
+
+    private void checkEquals(List<OffsetModel> expected, List<OffsetModel> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Assert.assertEquals(expected.get(i).getStart(),  actual.get(i).getStart());
+            Assert.assertEquals(expected.get(i).getMJDRef(), actual.get(i).getMJDRef());
+            Assert.assertEquals(expected.get(i).getOffset(), actual.get(i).getOffset(), 0.0);
+            Assert.assertEquals(expected.get(i).getSlope(),  actual.get(i).getSlope(),  0.0);
+        }
+    }
+
+    private static class CountingLoader implements UTCTAIOffsetsLoader {
+        private final UTCTAIOffsetsLoader loader;
+        private int count;
+        CountingLoader() {
+            this.loader = new UTCTAIHistoryFilesLoader();
+            this.count  = 0;
+        }
+        public List<OffsetModel> loadOffsets() throws OrekitException {
+            ++count;
+            return loader.loadOffsets();
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hipparchus.analysis.differentiation.DSFactory;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeScalarFunction;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.time.TimeVectorFunction;
+
+public class InterpolatingTimeVectorFunctionTest {
+
+    @Test
+    public void testAccuracy() throws OrekitException {
+        final TimeVectorFunction raw = IERSConventions.IERS_2010.getNutationFunction();
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(raw, 8, 3600.0, 1.0e-12);
+        Assert.assertSame(raw, interpolating.getRawFunction());
+        Assert.assertEquals(8, interpolating.getGridPoints());
+        Assert.assertEquals(3600.0, interpolating.getStep(), 0.0);
+        Assert.assertEquals(1.0e-12, interpolating.getThreshold(), 0.0);
+        final AbsoluteDate start = AbsoluteDate.J2000_EPOCH.shiftedBy(123456.789);
+        final double[] maxError = interpolating.getMaxError(start, start.shiftedBy(10 * Constants.JULIAN_DAY), 500);
+        Assert.assertEquals(3, maxError.length);
+        for (final double e : maxError) {
+            Assert.assertEquals(0.0, e, 1.0e-12);
+        }
+    }
+
+    @Test
+    public void testDerivatives() throws OrekitException {
+        final TimeVectorFunction raw = IERSConventions.IERS_2010.getNutationFunction();
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(raw, 8, 3600.0, 1.0e-12);
+        final double h = 10.0;
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 1234.5) {
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(dt);
+            final double[][] d = interpolating.derivatives(date, 1);
+            final double[] plus  = raw.value(date.shiftedBy(h));
+            final double[] minus = raw.value(date.shiftedBy(-h));
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals((plus[i] - minus[i]) / (2 * h), d[1][i], 1.0e-16);
+            }
+        }
+    }
+
+    @Test
+    public void testRawDerivatives() throws OrekitException {
+        final TimeVectorFunction raw = IERSConventions.IERS_2010.getNutationFunction();
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(raw, 8, 3600.0, 1.0e-12);
+        final DSFactory factory = new DSFactory(1, 1);
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 1234.5) {
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(dt);
+            final DerivativeStructure[] r = raw.value(new FieldAbsoluteDate<>(date, factory.variable(0, 0.0)));
+            final double[][] d = interpolating.derivatives(date, 1);
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals(r[i].getValue(),              d[0][i], 1.0e-15);
+                Assert.assertEquals(r[i].getPartialDerivative(1), d[1][i], 1.0e-19);
+            }
+        }
+    }
+
+    @Test
+    public void testThresholdEnforced() throws OrekitException {
+        // a 5 days step is far too large for the short period nutation terms
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(IERSConventions.IERS_2010.getNutationFunction(),
+                                                    4, 5 * Constants.JULIAN_DAY, 1.0e-12);
+        try {
+            interpolating.value(AbsoluteDate.J2000_EPOCH);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalStateException oise) {
+            Assert.assertEquals(OrekitMessages.TOO_LARGE_INTERPOLATION_ERROR, oise.getSpecifier());
+            Assert.assertEquals(1.0e-12, ((Double) oise.getParts()[2]).doubleValue(), 0.0);
+        }
+
+        // without threshold, the same settings are accepted
+        final InterpolatingTimeVectorFunction unchecked =
+                new InterpolatingTimeVectorFunction(IERSConventions.IERS_2010.getNutationFunction(),
+                                                    4, 5 * Constants.JULIAN_DAY, Double.POSITIVE_INFINITY);
+        Assert.assertEquals(3, unchecked.value(AbsoluteDate.J2000_EPOCH).length);
+    }
+
+    @Test
+    public void testConfiguration() throws OrekitException {
+        Assert.assertFalse(IERSConventions.IERS_2010.getNutationFunction() instanceof InterpolatingTimeVectorFunction);
+        try {
+            OrekitConfiguration.setSeriesInterpolation(8, 3600.0, 1.0e-12);
+            for (final IERSConventions conventions : IERSConventions.values()) {
+                for (final TimeVectorFunction f : new TimeVectorFunction[] {
+                    conventions.getPrecessionFunction(),
+                    conventions.getXYSpXY2Function()
+                }) {
+                    Assert.assertTrue(f instanceof InterpolatingTimeVectorFunction);
+                    final InterpolatingTimeVectorFunction interpolating = (InterpolatingTimeVectorFunction) f;
+                    Assert.assertEquals(8,       interpolating.getGridPoints());
+                    Assert.assertEquals(3600.0,  interpolating.getStep(),      0.0);
+                    Assert.assertEquals(1.0e-12, interpolating.getThreshold(), 0.0);
+                    Assert.assertFalse(interpolating.getRawFunction() instanceof InterpolatingTimeVectorFunction);
+                }
+
+                // the equation of equinoxes correction is discontinuous, it is added after interpolation
+                Assert.assertFalse(conventions.getNutationFunction() instanceof InterpolatingTimeVectorFunction);
+                Assert.assertEquals(3, conventions.getNutationFunction().value(AbsoluteDate.J2000_EPOCH).length);
+
+                // wrappers are shared, so all frames use the same grid
+                Assert.assertSame(conventions.getPrecessionFunction(), conventions.getPrecessionFunction());
+                Assert.assertSame(conventions.getNutationFunction(),   conventions.getNutationFunction());
+                Assert.assertSame(conventions.getXYSpXY2Function(),    conventions.getXYSpXY2Function());
+
+            }
+
+            // changing the settings builds new wrappers
+            final TimeVectorFunction before = IERSConventions.IERS_2010.getPrecessionFunction();
+            final TimeVectorFunction nutationBefore = IERSConventions.IERS_2010.getNutationFunction();
+            OrekitConfiguration.setSeriesInterpolation(6, 3600.0, 1.0e-12);
+            final TimeVectorFunction after = IERSConventions.IERS_2010.getPrecessionFunction();
+            Assert.assertNotSame(before, after);
+            Assert.assertEquals(6, ((InterpolatingTimeVectorFunction) after).getGridPoints());
+            Assert.assertNotSame(nutationBefore, IERSConventions.IERS_2010.getNutationFunction());
+        } finally {
+            OrekitConfiguration.setSeriesInterpolation(0, Double.NaN, Double.NaN);
+        }
+        Assert.assertFalse(IERSConventions.IERS_2010.getNutationFunction() instanceof InterpolatingTimeVectorFunction);
+    }
+
+    @Test
+    public void testGASTInterpolation() throws OrekitException {
+        final TimeScale ut1 = TimeScalesFactory.getTAI();
+        for (final IERSConventions conventions : IERSConventions.values()) {
+            final TimeScalarFunction raw = conventions.getGASTFunction(ut1, null);
+            final TimeScalarFunction interpolated;
+            try {
+                OrekitConfiguration.setSeriesInterpolation(8, 3600.0, 1.0e-12);
+                interpolated = conventions.getGASTFunction(ut1, null);
+            } finally {
+                OrekitConfiguration.setSeriesInterpolation(0, Double.NaN, Double.NaN);
+            }
+            for (double dt = 0; dt < 5 * Constants.JULIAN_DAY; dt += 3917.5) {
+                final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(dt);
+                Assert.assertEquals(raw.value(date), interpolated.value(date), 2.0e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testFieldConsistency() throws OrekitException {
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(IERSConventions.IERS_2010.getNutationFunction(), 8, 3600.0, 1.0e-12);
+        final DSFactory factory = new DSFactory(1, 1);
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 1234.5) {
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(dt);
+            final FieldAbsoluteDate<DerivativeStructure> fieldDate =
+                    new FieldAbsoluteDate<>(factory.getDerivativeField(), date).shiftedBy(factory.variable(0, 0.0));
+            final double[][] d = interpolating.derivatives(date, 1);
+            final DerivativeStructure[] v = interpolating.value(fieldDate);
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals(d[0][i], v[i].getValue(),              1.0e-20);
+                Assert.assertEquals(d[1][i], v[i].getPartialDerivative(1), 1.0e-24);
+            }
+        }
+    }
+
+    @Test
+    public void testSharedBetweenThreads() throws OrekitException, InterruptedException, ExecutionException {
+
+        final InterpolatingTimeVectorFunction interpolating =
+                new InterpolatingTimeVectorFunction(IERSConventions.IERS_2010.getNutationFunction(), 8, 3600.0, 1.0e-12);
+        final InterpolatingTimeVectorFunction reference =
+                new InterpolatingTimeVectorFunction(IERSConventions.IERS_2010.getNutationFunction(), 8, 3600.0, 1.0e-12);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<double[]>> results = new ArrayList<Future<double[]>>();
+        for (int i = 0; i < 200; ++i) {
+            // dates are requested in a scrambled order
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(((i * 37) % 200) * 1800.0 + 12.5);
+            results.add(executor.submit(new Callable<double[]>() {
+                public double[] call() {
+                    return interpolating.value(date);
+                }
+            }));
+        }
+        for (int i = 0; i < 200; ++i) {
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(((i * 37) % 200) * 1800.0 + 12.5);
+            Assert.assertArrayEquals(reference.value(date), results.get(i).get(), 1.0e-15);
+        }
+        executor.shutdown();
+
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("compressed-data");
+    }
+
+}
@@ -0,0 +1,210 @@
+/* Copyright 2002-2016 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.TimeStampedCacheException;
+import org.orekit.time.AbsoluteDate;
+
+
+public class LockFreeTimeStampedCacheTest extends TimeStampedCacheAbstractTest {
+
+    @Override
+    protected CacheUnderTest buildCache(final int neighborsSize, final int maxSlots, final double maxSpan,
+                                        final double newSlotInterval,
+                                        final TimeStampedGenerator<AbsoluteDate> generator) {
+        final LockFreeTimeStampedCache<AbsoluteDate> cache =
+                new LockFreeTimeStampedCache<AbsoluteDate>(neighborsSize, maxSlots, maxSpan,
+                                                           newSlotInterval, generator);
+        return new CacheUnderTest() {
+            public Stream<AbsoluteDate> getNeighbors(AbsoluteDate central) throws TimeStampedCacheException {
+                return cache.getNeighbors(central);
+            }
+            public int getNeighborsSize()                          { return cache.getNeighborsSize();      }
+            public AbsoluteDate getEarliest()                      { return cache.getEarliest();           }
+            public AbsoluteDate getLatest()                        { return cache.getLatest();             }
+            public TimeStampedGenerator<AbsoluteDate> getGenerator() { return cache.getGenerator();        }
+            public int getMaxSlots()                               { return cache.getMaxSlots();           }
+            public double getMaxSpan()                             { return cache.getMaxSpan();            }
+            public double getNewSlotQuantumGap()                   { return cache.getNewSlotQuantumGap();  }
+            public int getGetNeighborsCalls()                      { return cache.getGetNeighborsCalls();  }
+            public int getGenerateCalls()                          { return cache.getGenerateCalls();      }
+            public int getSlotsEvictions()                         { return cache.getSlotsEvictions();     }
+            public int getSlots()                                  { return cache.getSlots();              }
+            public int getEntries()                                { return cache.getEntries();            }
+        };
+    }
+
+    @Test
+    public void testSameNeighborsAsGeneric() throws TimeStampedCacheException {
+        final Generator generator = createGenerator(3600.0);
+        final LockFreeTimeStampedCache<AbsoluteDate> lockFree =
+                new LockFreeTimeStampedCache<AbsoluteDate>(7, 50, Constants.JULIAN_YEAR, Constants.JULIAN_DAY,
+                                                           generator);
+        final GenericTimeStampedCache<AbsoluteDate> generic =
+                new GenericTimeStampedCache<AbsoluteDate>(7, 50, Constants.JULIAN_YEAR, Constants.JULIAN_DAY,
+                                                          generator);
+        AbsoluteDate[] base = new AbsoluteDate[5];
+        base[0] = AbsoluteDate.GALILEO_EPOCH;
+        for (int i = 1; i < base.length; ++i) {
+            base[i] = base[i - 1].shiftedBy(10 * Constants.JULIAN_DAY);
+        }
+        for (final AbsoluteDate central : new RandomMode(0x3ed7c4a2b9f1e05dl).generateDates(base, 25 * 3600, 90)) {
+            final List<AbsoluteDate> l1 = lockFree.getNeighbors(central).collect(Collectors.toList());
+            final List<AbsoluteDate> l2 = generic.getNeighbors(central).collect(Collectors.toList());
+            Assert.assertEquals(l2, l1);
+        }
+        Assert.assertEquals(generic.getGetNeighborsCalls(), lockFree.getGetNeighborsCalls());
+        Assert.assertEquals(generic.getGenerateCalls(),     lockFree.getGenerateCalls());
+        Assert.assertEquals(generic.getSlotsEvictions(),    lockFree.getSlotsEvictions());
+        Assert.assertEquals(generic.getSlots(),             lockFree.getSlots());
+        Assert.assertEquals(generic.getEntries(),           lockFree.getEntries());
+    }
+
+    @Test
+    public void testConcurrentHitsDoNotGenerate() throws TimeStampedCacheException {
+
+        final LockFreeTimeStampedCache<AbsoluteDate> cache =
+                new LockFreeTimeStampedCache<AbsoluteDate>(7, 10, Constants.JULIAN_YEAR, Constants.JULIAN_DAY,
+                                                           createGenerator(60.0));
+
+        // warm up the cache over one day, single-threaded, and record reference results
+        final AbsoluteDate start = AbsoluteDate.GALILEO_EPOCH;
+        final List<AbsoluteDate> centrals = new ArrayList<AbsoluteDate>();
+        final List<List<AbsoluteDate>> references = new ArrayList<List<AbsoluteDate>>();
+        for (double dt = 600.0; dt < Constants.JULIAN_DAY - 600.0; dt += 17.0) {
+            final AbsoluteDate central = start.shiftedBy(dt);
+            centrals.add(central);
+            references.add(cache.getNeighbors(central).collect(Collectors.toList()));
+        }
+        final int generateCalls = cache.getGenerateCalls();
+        final int calls         = cache.getGetNeighborsCalls();
+
+        // concurrent reads in the covered range must never generate anything
+        final int nbThreads = 8;
+        runConcurrently(nbThreads, thread -> {
+            for (int i = thread; i < centrals.size(); ++i) {
+                final List<AbsoluteDate> neighbors = cache.getNeighbors(centrals.get(i)).collect(Collectors.toList());
+                if (!neighbors.equals(references.get(i))) {
+                    throw new IllegalStateException("inconsistent neighbors at " + centrals.get(i));
+                }
+            }
+        });
+
+        Assert.assertEquals(generateCalls, cache.getGenerateCalls());
+        Assert.assertEquals(0, cache.getSlotsEvictions());
+        int expectedCalls = calls;
+        for (int thread = 0; thread < nbThreads; ++thread) {
+            expectedCalls += centrals.size() - thread;
+        }
+        Assert.assertEquals(expectedCalls, cache.getGetNeighborsCalls());
+
+    }
+
+    @Test
+    public void testConcurrentReadersDuringExtension() throws TimeStampedCacheException {
+
+        final LockFreeTimeStampedCache<AbsoluteDate> cache =
+                new LockFreeTimeStampedCache<AbsoluteDate>(5, 20, Constants.JULIAN_YEAR, Constants.JULIAN_DAY,
+                                                           createGenerator(60.0));
+
+        // reference neighbors in a small range, read continuously by several threads
+        final AbsoluteDate start = AbsoluteDate.GALILEO_EPOCH;
+        final List<AbsoluteDate> centrals = new ArrayList<AbsoluteDate>();
+        final List<List<AbsoluteDate>> references = new ArrayList<List<AbsoluteDate>>();
+        for (double dt = 0; dt < 3600.0; dt += 13.0) {
+            final AbsoluteDate central = start.shiftedBy(dt);
+            centrals.add(central);
+            references.add(cache.getNeighbors(central).collect(Collectors.toList()));
+        }
+
+        // while one thread keeps extending the same slot forward and creating new slots,
+        // the readers must always see complete and consistent neighbors
+        runConcurrently(5, thread -> {
+            if (thread == 0) {
+                for (int i = 1; i <= 2000; ++i) {
+                    cache.getNeighbors(start.shiftedBy(3600.0 + 30.0 * i));
+                    cache.getNeighbors(start.shiftedBy(10 * Constants.JULIAN_DAY + 45.0 * i));
+                }
+            } else {
+                for (int k = 0; k < 50; ++k) {
+                    for (int i = 0; i < centrals.size(); ++i) {
+                        final List<AbsoluteDate> neighbors =
+                                cache.getNeighbors(centrals.get(i)).collect(Collectors.toList());
+                        if (!neighbors.equals(references.get(i))) {
+                            throw new IllegalStateException("inconsistent neighbors at " + centrals.get(i));
+                        }
+                    }
+                }
+            }
+        });
+
+        Assert.assertEquals(0, cache.getSlotsEvictions());
+        Assert.assertEquals(2, cache.getSlots());
+
+    }
+
+    private Generator createGenerator(final double step) {
+        return new Generator(AbsoluteDate.J2000_EPOCH.shiftedBy(-Constants.JULIAN_CENTURY),
+                             AbsoluteDate.J2000_EPOCH.shiftedBy(+Constants.JULIAN_CENTURY),
+                             step);
+    }
+
+    private void runConcurrently(final int nbThreads, final ThreadTask task) {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final AtomicReference<Exception> caught = new AtomicReference<Exception>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+        for (int i = 0; i < nbThreads; ++i) {
+            final int thread = i;
+            executorService.execute(() -> {
+                try {
+                    startSignal.await();
+                    task.run(thread);
+                } catch (Exception e) {
+                    caught.compareAndSet(null, e);
+                }
+            });
+        }
+        startSignal.countDown();
+        try {
+            executorService.shutdown();
+            Assert.assertTrue("Not enough time for all threads to complete, try increasing the timeout",
+                              executorService.awaitTermination(10, TimeUnit.MINUTES));
+        } catch (InterruptedException ie) {
+            Assert.fail(ie.getLocalizedMessage());
+        }
+        if (caught.get() != null) {
+            Assert.fail(caught.get().getLocalizedMessage());
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws TimeStampedCacheException;
+    }
+
+}